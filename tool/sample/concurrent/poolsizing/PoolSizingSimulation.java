@@ -0,0 +1,197 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+
+import java.util.Random;
+import java.util.concurrent.AdaptivePoolSizer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates an I/O-bound download pool whose remote latency and capacity
+ * change over time, and shows how an {@link AdaptivePoolSizer} with a
+ * {@link AdaptivePoolSizer.HillClimbingController} converges on a suitable
+ * pool size in each phase.
+ * <p>
+ * The simulation runs on a clock {@value #TIME_SCALE} times faster than real
+ * time, with one sample per simulated second. In each second, a pool of
+ * {@code n} threads talking to a server that handles {@code capacity}
+ * concurrent requests with a latency of {@code latency} seconds completes
+ * {@code min(n, capacity) / latency} requests; every thread beyond the server
+ * capacity costs 2% of that throughput in contention, and all rates carry 2%
+ * random noise.
+ * <p>
+ * The sizer is the real one: it samples a {@link ThreadPoolExecutor} whose
+ * completed task count and queue length report the simulated figures, and
+ * its guard rails decide the core pool size used in the next second. Since
+ * the sizer measures real time, its target queueing delay is scaled down by
+ * the same factor as the clock.
+ * <p>
+ * Usage: {@code java PoolSizingSimulation [seconds per phase]}
+ */
+public class PoolSizingSimulation {
+
+    private static final int MIN_POOL_SIZE = 1;
+    private static final int MAX_POOL_SIZE = 256;
+    private static final int MAX_STEP = 16;
+
+    /**
+     * Simulated seconds per real second.
+     */
+    private static final int TIME_SCALE = 100;
+
+    /**
+     * An executor running no tasks, which reports the completed task count
+     * and queue length of the simulation to the sizer.
+     */
+    private static class SimulatedExecutor extends ThreadPoolExecutor {
+        long completed;
+        int queued;
+
+        private final BlockingQueue<Runnable> queueView =
+                new LinkedBlockingQueue<Runnable>() {
+                    @Override
+                    public int size() {
+                        return queued;
+                    }
+                };
+
+        SimulatedExecutor(int poolSize) {
+            super(poolSize, MAX_POOL_SIZE, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>());
+        }
+
+        @Override
+        public long getCompletedTaskCount() {
+            return completed;
+        }
+
+        @Override
+        public BlockingQueue<Runnable> getQueue() {
+            return queueView;
+        }
+    }
+
+    /**
+     * One period of stable remote behaviour.
+     */
+    private static class Phase {
+        final String name;
+        final double latency;
+        final int capacity;
+        final double arrivalRate;
+
+        Phase(String name, double latency, int capacity, double arrivalRate) {
+            this.name = name;
+            this.latency = latency;
+            this.capacity = capacity;
+            this.arrivalRate = arrivalRate;
+        }
+
+        /**
+         * Returns the number of requests completed per second by {@code n} threads.
+         */
+        double serviceRate(int n) {
+            double rate = Math.min(n, capacity) / latency;
+            if (n > capacity) {
+                rate /= 1.0 + 0.02 * (n - capacity);
+            }
+            return rate;
+        }
+
+        /**
+         * Returns the smallest pool size achieving the best sustainable throughput.
+         */
+        int optimalPoolSize() {
+            int needed = (int) Math.ceil(arrivalRate * latency);
+            return Math.min(needed, capacity);
+        }
+    }
+
+    private static final Phase[] PHASES = {
+        new Phase("fast server, overloaded", 0.050, 32, 1000),
+        new Phase("slow server, overloaded", 0.200, 64, 500),
+        new Phase("fast server, light load", 0.020, 16, 150),
+        new Phase("medium server, overloaded", 0.100, 48, 750),
+    };
+
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = 90;
+        if (args.length > 0) {
+            try {
+                seconds = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                System.err.println("Usage: java PoolSizingSimulation [seconds per phase]");
+                return;
+            }
+        }
+
+        Random random = new Random(759123751834L);
+        SimulatedExecutor executor = new SimulatedExecutor(4);
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(executor,
+                new AdaptivePoolSizer.HillClimbingController(
+                        TimeUnit.MILLISECONDS.toNanos(10) / TIME_SCALE, 0.05),
+                MIN_POOL_SIZE, MAX_POOL_SIZE, MAX_STEP);
+        sizer.run(); // baseline sample
+        long tick = TimeUnit.SECONDS.toMillis(1) / TIME_SCALE;
+
+        for (Phase phase : PHASES) {
+            System.out.printf("%n== %s: latency %.0f ms, capacity %d, arrivals %.0f/s%n",
+                    phase.name, phase.latency * 1000, phase.capacity, phase.arrivalRate);
+            System.out.printf("%6s %6s %12s %14s%n", "time", "size", "tasks/s", "queue delay");
+            double queued = 0;
+            long sizeSum = 0;
+            double throughputSum = 0;
+            int settled = 0;
+            for (int t = 1; t <= seconds; t++) {
+                int size = executor.getCorePoolSize();
+                double noise = 1.0 + 0.02 * random.nextGaussian();
+                queued += phase.arrivalRate * noise;
+                double done = Math.min(queued, phase.serviceRate(size) * noise);
+                queued -= done;
+                long delayNanos = (queued < 1) ? 0 : (long) (queued / done * 1e9);
+
+                if (t % 5 == 0) {
+                    System.out.printf("%5ds %6d %12.1f %11.1f ms%n",
+                            t, size, done, delayNanos / 1e6);
+                }
+                if (t > seconds / 2) {
+                    sizeSum += size;
+                    throughputSum += done;
+                    settled++;
+                }
+
+                // Let one simulated second pass, then let the sizer sample it
+                Thread.sleep(tick);
+                executor.completed += Math.round(done);
+                executor.queued = (int) queued;
+                sizer.run();
+            }
+            int optimal = phase.optimalPoolSize();
+            double best = Math.min(phase.arrivalRate, phase.serviceRate(optimal));
+            System.out.printf("second half: mean size %.1f (optimal %d), "
+                    + "mean throughput %.1f/s (%.0f%% of best)%n",
+                    (double) sizeSum / settled, optimal,
+                    throughputSum / settled, 100 * throughputSum / settled / best);
+        }
+        executor.shutdown();
+    }
+}
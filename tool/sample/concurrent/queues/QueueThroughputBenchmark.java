@@ -0,0 +1,240 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * QueueThroughputBenchmark measures how many elements per second pass
+ * through an {@link ArrayBlockingQueue}, a {@link LinkedBlockingQueue} and
+ * a {@link ConcurrentArrayBlockingQueue} of the same capacity, for several
+ * numbers of producer and consumer threads. Each configuration is run
+ * with single-element operations ({@code put} and {@code poll}) and with
+ * bulk operations, where producers insert batches with {@code offerAll},
+ * which takes the lock of the two locking queues once per batch, falling
+ * back to {@code put} when the queue is full, and consumers remove them
+ * with {@code drainTo}.
+ *
+ * <p>Usage: {@code java QueueThroughputBenchmark [ELEMENTS]}.
+ */
+public class QueueThroughputBenchmark {
+    private static final int ROUNDS = 3;
+
+    private static final int CAPACITY = 1024;
+
+    private static final int BATCH = 64;
+
+    private static final int[][] THREADS = {
+        {1, 1}, {1, 4}, {4, 1}, {2, 2}, {4, 4}
+    };
+
+    // Keeps the results live
+    private static long sink;
+
+    private interface QueueFactory {
+        BlockingQueue<Integer> create();
+    }
+
+    private static final String[] NAMES = {
+        "ArrayBlockingQueue", "LinkedBlockingQueue", "ConcurrentArrayBQ"
+    };
+
+    private static final QueueFactory[] FACTORIES = {
+        new QueueFactory() {
+            public BlockingQueue<Integer> create() {
+                return new ArrayBlockingQueue<Integer>(CAPACITY);
+            }
+        },
+        new QueueFactory() {
+            public BlockingQueue<Integer> create() {
+                return new LinkedBlockingQueue<Integer>(CAPACITY);
+            }
+        },
+        new QueueFactory() {
+            public BlockingQueue<Integer> create() {
+                return new ConcurrentArrayBlockingQueue<Integer>(CAPACITY);
+            }
+        }
+    };
+
+    // Inserts a prefix of the batch, waiting if the queue is full, and
+    // returns the number of elements inserted
+    private static int offerBatch(BlockingQueue<Integer> queue,
+            List<Integer> batch) throws InterruptedException {
+        int n = queue.offerAll(batch);
+        if (n == 0) {
+            queue.put(batch.get(0));
+            n = 1;
+        }
+        return n;
+    }
+
+    private static void produce(BlockingQueue<Integer> queue,
+            Integer[] elements, int first, int step, boolean bulk)
+            throws InterruptedException {
+        if (!bulk) {
+            for (int i = first; i < elements.length; i += step) {
+                queue.put(elements[i]);
+            }
+            return;
+        }
+        List<Integer> batch = new ArrayList<Integer>(BATCH);
+        for (int i = first; i < elements.length; ) {
+            batch.clear();
+            for (int j = i; j < elements.length && batch.size() < BATCH;
+                    j += step) {
+                batch.add(elements[j]);
+            }
+            for (int k = 0; k < batch.size(); ) {
+                k += offerBatch(queue, batch.subList(k, batch.size()));
+            }
+            i += batch.size() * step;
+        }
+    }
+
+    // Returns the sum of the elements consumed
+    private static long consume(BlockingQueue<Integer> queue,
+            AtomicLong consumed, long total, boolean bulk)
+            throws InterruptedException {
+        long sum = 0;
+        List<Integer> batch = new ArrayList<Integer>(BATCH);
+        while (consumed.get() < total) {
+            if (bulk && queue.drainTo(batch, BATCH) > 0) {
+                for (Integer x : batch) {
+                    sum += x;
+                }
+                consumed.addAndGet(batch.size());
+                batch.clear();
+                continue;
+            }
+            Integer x = queue.poll(1, TimeUnit.MILLISECONDS);
+            if (x != null) {
+                sum += x;
+                consumed.incrementAndGet();
+            }
+        }
+        return sum;
+    }
+
+    // Returns the elapsed time in nanoseconds
+    private static long run(final BlockingQueue<Integer> queue,
+            final Integer[] elements, final int producers,
+            final int consumers, final boolean bulk)
+            throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicLong consumed = new AtomicLong();
+        final AtomicLong sum = new AtomicLong();
+        Thread[] threads = new Thread[producers + consumers];
+        for (int p = 0; p < producers; p++) {
+            final int first = p;
+            threads[p] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        produce(queue, elements, first, producers, bulk);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads[producers + c] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        sum.addAndGet(consume(queue, consumed,
+                                elements.length, bulk));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long n = elements.length;
+        if (consumed.get() != n || sum.get() != n * (n - 1) / 2
+                || !queue.isEmpty()) {
+            throw new AssertionError("Elements lost or duplicated");
+        }
+        sink += sum.get();
+        return elapsed;
+    }
+
+    // Returns the best throughput in millions of elements per second
+    private static double measure(QueueFactory factory, Integer[] elements,
+            int producers, int consumers, boolean bulk)
+            throws InterruptedException {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            best = Math.min(best, run(factory.create(), elements, producers,
+                    consumers, bulk));
+        }
+        return elements.length * 1e3 / best;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        Integer[] elements = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            elements[i] = i;
+        }
+
+        System.out.printf("%d processors, capacity %d, batch %d, "
+                + "throughput in M elements/s%n",
+                ForkJoinPool.commonPool().getParallelism(), CAPACITY, BATCH);
+        System.out.printf("%-9s %-6s", "prod/cons", "mode");
+        for (String name : NAMES) {
+            System.out.printf(" %20s", name);
+        }
+        System.out.println();
+        for (int[] threads : THREADS) {
+            for (int mode = 0; mode < 2; mode++) {
+                boolean bulk = mode == 1;
+                System.out.printf("%-9s %-6s", threads[0] + "/" + threads[1],
+                        bulk ? "bulk" : "single");
+                for (QueueFactory factory : FACTORIES) {
+                    System.out.printf(" %20.2f", measure(factory, elements,
+                            threads[0], threads[1], bulk));
+                }
+                System.out.println();
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+}
@@ -49,8 +49,12 @@
  */
 
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
+import java.util.function.Consumer;
 
 import static java.lang.Integer.parseInt;
 
@@ -59,14 +63,78 @@ import static java.lang.Integer.parseInt;
  * by benchmarking a {@link MergeSort} algorithm that is implemented using
  * {@link java.util.concurrent.RecursiveAction}.
  * The {@code ForkJoin} framework is setup with different parallelism levels
- * and the sort is executed with arrays of different sizes to see the
- * trade offs by using multiple threads for different sizes of the array.
+ * and the sort is executed with arrays of different sizes and different
+ * initial orders to see the trade offs by using multiple threads for
+ * different sizes of the array, and how well the sort exploits existing order.
+ * For comparison, the same arrays are also sorted with {@link Arrays#sort(Object[])}
+ * and with {@link Arrays#parallelSort(Comparable[])}, which runs in the common pool.
+ * Every result is checked against {@code Arrays.sort}, and the stability of
+ * {@code MergeSort} is checked before the benchmark starts.
  */
 public class MergeDemo {
     // Use a fixed seed to always get the same random values back
     private final Random random = new Random(759123751834L);
     private static final int ITERATIONS = 10;
 
+    /**
+     * The initial orders of the arrays to sort
+     */
+    private enum Distribution {
+        /** uniformly distributed random values */
+        RANDOM {
+            @Override
+            Integer[] generate(int elements, Random random) {
+                Integer[] array = new Integer[elements];
+                for (int i = 0; i < elements; ++i) {
+                    array[i] = random.nextInt();
+                }
+                return array;
+            }
+        },
+        /** values in ascending order */
+        SORTED {
+            @Override
+            Integer[] generate(int elements, Random random) {
+                Integer[] array = RANDOM.generate(elements, random);
+                Arrays.sort(array);
+                return array;
+            }
+        },
+        /** values in descending order */
+        REVERSED {
+            @Override
+            Integer[] generate(int elements, Random random) {
+                Integer[] array = RANDOM.generate(elements, random);
+                Arrays.sort(array, Comparator.reverseOrder());
+                return array;
+            }
+        },
+        /** ascending values where one in a hundred is replaced by a random value */
+        PARTIALLY_SORTED {
+            @Override
+            Integer[] generate(int elements, Random random) {
+                Integer[] array = SORTED.generate(elements, random);
+                for (int i = 0; i < elements / 100; ++i) {
+                    array[random.nextInt(elements)] = random.nextInt();
+                }
+                return array;
+            }
+        },
+        /** random values out of only sixteen distinct ones */
+        FEW_UNIQUE {
+            @Override
+            Integer[] generate(int elements, Random random) {
+                Integer[] array = new Integer[elements];
+                for (int i = 0; i < elements; ++i) {
+                    array[i] = random.nextInt(16);
+                }
+                return array;
+            }
+        };
+
+        abstract Integer[] generate(int elements, Random random);
+    }
+
     /**
      * Represents the formula {@code f(n) = start + (step * n)} for n = 0 & n < iterations
      */
@@ -114,22 +182,26 @@ public class MergeDemo {
      * Wraps the different parameters that is used when running the MergeExample.
      * {@code sizes} represents the different array sizes
      * {@code parallelism} represents the different parallelism levels
+     * {@code distributions} represents the different initial orders of the arrays
      */
     private static class Configuration {
         private final Range sizes;
         private final Range parallelism;
+        private final List<Distribution> distributions;
 
-        private final static Configuration defaultConfig = new Configuration(new Range(20000, 20000, 10),
-                new Range(2, 2, 10));
+        private final static Configuration defaultConfig = new Configuration(new Range(200000, 200000, 5),
+                new Range(1, 1, Runtime.getRuntime().availableProcessors()),
+                Arrays.asList(Distribution.values()));
 
-        private Configuration(Range sizes, Range parallelism) {
+        private Configuration(Range sizes, Range parallelism, List<Distribution> distributions) {
             this.sizes = sizes;
             this.parallelism = parallelism;
+            this.distributions = distributions;
         }
 
         /**
          * Parses the arguments and attempts to create a configuration containing the
-         * parameters for creating the array sizes and parallelism sizes
+         * parameters for creating the array sizes, parallelism sizes and distributions
          * @param args the input arguments
          * @return the configuration
          */
@@ -138,27 +210,38 @@ public class MergeDemo {
                 return defaultConfig;
             } else {
                 try {
-                    if (args.length == 6) {
-                        return new Configuration(Range.parse(args, 0), Range.parse(args, 3));
+                    if (args.length >= 6) {
+                        List<Distribution> distributions = new ArrayList<>();
+                        for (int i = 6; i < args.length; i++) {
+                            distributions.add(Distribution.valueOf(args[i].toUpperCase()));
+                        }
+                        if (distributions.isEmpty()) {
+                            distributions.addAll(Arrays.asList(Distribution.values()));
+                        }
+                        return new Configuration(Range.parse(args, 0), Range.parse(args, 3), distributions);
                     }
                 } catch (NumberFormatException e) {
                     System.err.println("MergeExample: error: Argument was not a number.");
+                } catch (IllegalArgumentException e) {
+                    System.err.println("MergeExample: error: Unknown distribution, expected one of "
+                            + Arrays.toString(Distribution.values()));
                 }
                 System.err.println("MergeExample <size start> <size step> <size steps> <parallel start> <parallel step>" +
-                        " <parallel steps>");
-                System.err.println("example: MergeExample 20000 10000 3 1 1 4");
-                System.err.println("example: will run with arrays of sizes 20000, 30000, 40000" +
+                        " <parallel steps> [<distribution>...]");
+                System.err.println("example: MergeExample 20000 10000 3 1 1 4 random sorted");
+                System.err.println("example: will run with random and sorted arrays of sizes 20000, 30000, 40000" +
                         " and parallelism: 1, 2, 3, 4");
                 return null;
             }
         }
 
         /**
-         * Creates an array for reporting the test result time in
-         * @return an array containing {@code sizes.iterations * parallelism.iterations} elements
+         * Creates an array for reporting the test result time in. Two extra
+         * columns hold the times of {@code Arrays.sort} and {@code Arrays.parallelSort}
+         * @return an array containing {@code sizes.iterations * (parallelism.iterations + 2)} elements
          */
         private long[][] createTimesArray() {
-            return new long[sizes.getIterations()][parallelism.getIterations()];
+            return new long[sizes.getIterations()][parallelism.getIterations() + 2];
         }
 
         @Override
@@ -171,21 +254,24 @@ public class MergeDemo {
             builder.append(sizes);
             builder.append(" ");
             builder.append(parallelism);
+            builder.append(" ");
+            builder.append(distributions);
             return builder.toString();
         }
     }
 
     /**
-     * Generates an array of {@code elements} random elements
-     * @param elements the number of elements requested in the array
-     * @return an array of {@code elements} random elements
+     * An element with a sort key and its original position, used to check
+     * that the sort is stable
      */
-    private int[] generateArray(int elements) {
-        int[] array = new int[elements];
-        for (int i = 0; i < elements; ++i) {
-            array[i] = random.nextInt();
+    private static class Element {
+        private final int key;
+        private final int position;
+
+        private Element(int key, int position) {
+            this.key = key;
+            this.position = position;
         }
-        return array;
     }
 
     /**
@@ -199,70 +285,88 @@ public class MergeDemo {
         // Run a couple of sorts to make the JIT compile / optimize the code
         // which should produce somewhat more fair times
         warmup();
+        checkStability();
 
-        long[][] times = config.createTimesArray();
+        for (Distribution distribution : config.distributions) {
+            long[][] times = config.createTimesArray();
 
-        for (int size = 0; size < sizes.getIterations(); size++) {
-            runForSize(parallelism, sizes.get(size), times, size);
-        }
+            for (int size = 0; size < sizes.getIterations(); size++) {
+                runForSize(distribution, parallelism, sizes.get(size), times, size);
+            }
 
-        printResults(sizes, parallelism, times);
+            printResults(distribution, sizes, parallelism, times);
+        }
     }
 
     /**
      * Prints the results as a table
+     * @param distribution the initial order of the arrays
      * @param sizes the different sizes of the arrays
      * @param parallelism the different parallelism levels used
      * @param times the median times for the different sizes / parallelism
      */
-    private void printResults(Range sizes, Range parallelism, long[][] times) {
-        System.out.println("Time in milliseconds. Y-axis: number of elements. X-axis parallelism used.");
+    private void printResults(Distribution distribution, Range sizes, Range parallelism, long[][] times) {
+        System.out.println("");
+        System.out.println(distribution + ": median time in milliseconds. Y-axis: number of elements."
+                + " X-axis parallelism used, then Arrays.sort and Arrays.parallelSort.");
         long[] sums = new long[times[0].length];
         System.out.format("%8s  ", "");
-        for (int i = 0; i < times[0].length; i++) {
-            System.out.format("%4d ", parallelism.get(i));
+        for (int i = 0; i < parallelism.getIterations(); i++) {
+            System.out.format("%8d ", parallelism.get(i));
         }
-        System.out.println("");
+        System.out.format("%8s %8s%n", "sort", "psort");
         for (int size = 0; size < sizes.getIterations(); size++) {
             System.out.format("%8d: ", sizes.get(size));
             for (int i = 0; i < times[size].length; i++) {
                 sums[i] += times[size][i];
-                System.out.format("%4d ", times[size][i]);
+                System.out.format("%8.2f ", times[size][i] / 1e6);
             }
             System.out.println("");
         }
         System.out.format("%8s: ", "Total");
         for (long sum : sums) {
-            System.out.format("%4d ", sum);
+            System.out.format("%8.2f ", sum / 1e6);
         }
         System.out.println("");
     }
 
-    private void runForSize(Range parallelism, int elements, long[][] times, int size) {
-        for (int step = 0; step < parallelism.getIterations(); step++) {
-            long time = runForParallelism(ITERATIONS, elements, parallelism.get(step));
-            times[size][step] = time;
+    private void runForSize(Distribution distribution, Range parallelism, int elements, long[][] times, int size) {
+        Integer[] input = distribution.generate(elements, random);
+        Integer[] expected = input.clone();
+        Arrays.sort(expected);
+
+        int step = 0;
+        for (; step < parallelism.getIterations(); step++) {
+            MergeSort mergeSort = new MergeSort(parallelism.get(step));
+            times[size][step] = runIterations(ITERATIONS, input, expected, mergeSort::sort);
+            mergeSort.shutdown();
         }
+        times[size][step++] = runIterations(ITERATIONS, input, expected, Arrays::sort);
+        times[size][step] = runIterations(ITERATIONS, input, expected, Arrays::parallelSort);
     }
 
     /**
-     * Runs <i>iterations</i> number of test sorts of a random array of <i>element</i> length
+     * Runs <i>iterations</i> number of test sorts of copies of <i>input</i>
      * @param iterations number of iterations
-     * @param elements number of elements in the random array
-     * @param parallelism parallelism for the ForkJoin framework
-     * @return the median time of runs
+     * @param input the array to sort, which is left unchanged
+     * @param expected the sorted array
+     * @param sorter the sort to test
+     * @return the median time of runs in nanoseconds
      */
-    private long runForParallelism(int iterations, int elements, int parallelism) {
-        MergeSort mergeSort = new MergeSort(parallelism);
+    private long runIterations(int iterations, Integer[] input, Integer[] expected, Consumer<Integer[]> sorter) {
         long[] times = new long[iterations];
 
         for (int i = 0; i < iterations; i++) {
+            Integer[] array = input.clone();
             // Suggest the VM to run a garbage collection to reduce the risk of getting one
             // while running the test run
             System.gc();
-            long start = System.currentTimeMillis();
-            mergeSort.sort(generateArray(elements));
-            times[i] = System.currentTimeMillis() - start;
+            long start = System.nanoTime();
+            sorter.accept(array);
+            times[i] = System.nanoTime() - start;
+            if (!Arrays.equals(array, expected)) {
+                throw new AssertionError("Array was not sorted correctly");
+            }
         }
 
         return medianValue(times);
@@ -277,23 +381,50 @@ public class MergeDemo {
         if (times.length == 0) {
             throw new IllegalArgumentException("Empty array");
         }
-        // Make a copy of times to avoid having side effects on the parameter value
-        Arrays.sort(times.clone());
-        long median = times[times.length / 2];
-        if (times.length > 1 && times.length % 2 != 0) {
-            median = (median + times[times.length / 2 + 1]) / 2;
+        // Sort a copy of times to avoid having side effects on the parameter value
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        long median = sorted[sorted.length / 2];
+        if (sorted.length % 2 == 0) {
+            median = (median + sorted[sorted.length / 2 - 1]) / 2;
         }
         return median;
     }
 
     /**
-     * Generates 1000 arrays of 1000 elements and sorts them as a warmup
+     * Checks that {@code MergeSort} keeps equal elements in their original order,
+     * for arrays that are large enough to be sorted and merged in parallel
+     */
+    private void checkStability() {
+        MergeSort mergeSort = new MergeSort(Runtime.getRuntime().availableProcessors());
+        for (Distribution distribution : Distribution.values()) {
+            Integer[] keys = distribution.generate(100000, random);
+            Element[] array = new Element[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                array[i] = new Element(keys[i] & 0xff, i);
+            }
+            mergeSort.sort(array, Comparator.comparingInt(e -> e.key));
+            for (int i = 1; i < array.length; i++) {
+                if (array[i - 1].key > array[i].key
+                        || (array[i - 1].key == array[i].key && array[i - 1].position > array[i].position)) {
+                    throw new AssertionError("Sort of " + distribution + " array is not stable");
+                }
+            }
+        }
+        mergeSort.shutdown();
+    }
+
+    /**
+     * Generates 1000 arrays of 1000 elements of each distribution and sorts them as a warmup
      */
     private void warmup() {
         MergeSort mergeSort = new MergeSort(Runtime.getRuntime().availableProcessors());
-        for (int i = 0; i < 1000; i++) {
-            mergeSort.sort(generateArray(1000));
+        for (Distribution distribution : Distribution.values()) {
+            for (int i = 0; i < 1000; i++) {
+                mergeSort.sort(distribution.generate(1000, random));
+            }
         }
+        mergeSort.shutdown();
     }
 
     public static void main(String[] args) {
@@ -49,84 +49,335 @@
  */
 
 
-import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveAction;
 
 /**
- * A class for sorting an array of {@code ints} in parallel.
- * A {@code ForkJoinPool} is used for the parallelism, using the merge sort
- * algorithm the array is split into halves and a new sub task is created
- * for each part. Each sub task is dispatched to the {@code ForkJoinPool}
- * which will schedule the task to a {@code Thread}.
- * This happens until the size of the array is at most 2
- * elements long. At this point the array is sorted using a simple compare
- * and possibly a swap. The tasks then finish by using insert sort to
- * merge the two just sorted arrays.
+ * A stable parallel merge sort for arrays of objects, using a
+ * {@code ForkJoinPool} for the parallelism.
  *
- * The idea of this class is to demonstrate the usage of RecursiveAction not
- * to implement the best possible parallel merge sort. This version creates
- * a small array for each merge (creating a lot of objects), this could
- * be avoided by keeping a single array.
+ * The array is sorted with a single auxiliary array of the same length.
+ * Both arrays start out with the same content and each level of the
+ * recursion sorts the two halves of a range into one of the arrays and
+ * merges them into the other, so the arrays change roles at every level
+ * ("ping-pong") and no element is copied except by a merge.  Ranges of
+ * at most {@link #INSERTION_SORT_THRESHOLD} elements are sorted by
+ * binary insertion sort.
+ *
+ * Large merges are themselves done in parallel: the middle element of
+ * the longer run is located in the shorter run by binary search, which
+ * splits the merge into two independent merges that write to disjoint
+ * parts of the destination.
+ *
+ * Rather than splitting down to a fixed size, a task only forks while
+ * {@link java.util.concurrent.ForkJoinTask#getSurplusQueuedTaskCount}
+ * shows that the pool is short of work, and otherwise continues
+ * sequentially.  The number of tasks thus adapts to the parallelism and
+ * the load of the pool instead of growing with the size of the array.
+ *
+ * The sequential merge switches to galloping mode, as in TimSort, when
+ * one run wins several comparisons in a row.  It then copies whole
+ * blocks found by exponential search, so already sorted or reverse
+ * sorted input takes close to linear time.  Two runs that are already
+ * in order are copied without any merging at all.
  */
 public class MergeSort {
+    /**
+     * Ranges of at most this many elements are sorted by insertion sort.
+     */
+    static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /**
+     * Ranges of at most this many elements are never sorted or merged
+     * in parallel.
+     */
+    static final int MIN_PARALLEL_SIZE = 1 << 13;
+
+    /**
+     * A task stops forking when its worker has more than this many
+     * queued tasks that no other worker has stolen yet.
+     */
+    static final int MAX_SURPLUS_TASKS = 3;
+
+    /**
+     * The number of consecutive wins of one run after which the
+     * sequential merge starts galloping.
+     */
+    static final int MIN_GALLOP = 7;
+
     private final ForkJoinPool pool;
 
-    private static class MergeSortTask extends RecursiveAction {
-        private final int[] array;
-        private final int low;
-        private final int high;
-        private static final int THRESHOLD = 8;
-
-        /**
-         * Creates a {@code MergeSortTask} containing the array and the bounds of the array
-         *
-         * @param array the array to sort
-         * @param low the lower element to start sorting at
-         * @param high the non-inclusive high element to sort to
-         */
-        protected MergeSortTask(int[] array, int low, int high) {
-            this.array = array;
-            this.low = low;
-            this.high = high;
+    /**
+     * Sorts the range {@code lo, hi - 1}, which holds the same elements
+     * in {@code src} and {@code dst}, into {@code dst}.  The content of
+     * the range in {@code src} is undefined afterwards.
+     */
+    private static class SortTask<T> extends RecursiveAction {
+        private final T[] src;
+        private final T[] dst;
+        private final int lo;
+        private final int hi;
+        private final Comparator<? super T> c;
+
+        SortTask(T[] src, T[] dst, int lo, int hi, Comparator<? super T> c) {
+            this.src = src;
+            this.dst = dst;
+            this.lo = lo;
+            this.hi = hi;
+            this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            if (!shouldFork(hi - lo)) {
+                sequentialSort(src, dst, lo, hi, c);
+                return;
+            }
+            int middle = (lo + hi) >>> 1;
+            // Sort both halves into src, using dst as their source
+            SortTask<T> left = new SortTask<>(dst, src, lo, middle, c);
+            left.fork();
+            new SortTask<>(dst, src, middle, hi, c).compute();
+            left.join();
+            // Then merge them back into dst
+            if (!mergeTrivially(src, dst, lo, middle, hi, c)) {
+                new MergeTask<>(src, dst, lo, middle, middle, hi, lo, c).compute();
+            }
+        }
+    }
+
+    /**
+     * Merges the sorted runs {@code lo1, hi1 - 1} and {@code lo2, hi2 - 1}
+     * of {@code src} into {@code dst}, starting at index {@code d}.
+     * Elements of the first run precede equal elements of the second.
+     */
+    private static class MergeTask<T> extends RecursiveAction {
+        private final T[] src;
+        private final T[] dst;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final int d;
+        private final Comparator<? super T> c;
+
+        MergeTask(T[] src, T[] dst, int lo1, int hi1, int lo2, int hi2, int d,
+                Comparator<? super T> c) {
+            this.src = src;
+            this.dst = dst;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.d = d;
+            this.c = c;
         }
 
         @Override
         protected void compute() {
-            if (high - low <= THRESHOLD) {
-                Arrays.sort(array, low, high);
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 == 0 || n2 == 0 || !shouldFork(n1 + n2)) {
+                sequentialMerge(src, dst, lo1, hi1, lo2, hi2, d, c);
+                return;
+            }
+            // Split the longer run in the middle and find the matching
+            // split of the shorter run, so that everything left of both
+            // splits precedes everything right of them
+            int split1, split2;
+            if (n1 >= n2) {
+                split1 = (lo1 + hi1) >>> 1;
+                split2 = search(src[split1], src, lo2, hi2, false, c);
             } else {
-                int middle = low + ((high - low) >> 1);
-                // Execute the sub tasks and wait for them to finish
-                invokeAll(new MergeSortTask(array, low, middle), new MergeSortTask(array, middle, high));
-                // Then merge the results
-                merge(middle);
+                split2 = (lo2 + hi2) >>> 1;
+                split1 = search(src[split2], src, lo1, hi1, true, c);
             }
+            MergeTask<T> left = new MergeTask<>(src, dst, lo1, split1, lo2, split2, d, c);
+            left.fork();
+            new MergeTask<>(src, dst, split1, hi1, split2, hi2,
+                    d + (split1 - lo1) + (split2 - lo2), c).compute();
+            left.join();
         }
+    }
+
+    /**
+     * Returns whether a task for {@code size} elements should be split
+     * into parallel subtasks.
+     */
+    private static boolean shouldFork(int size) {
+        return size > MIN_PARALLEL_SIZE
+                && RecursiveAction.getSurplusQueuedTaskCount() <= MAX_SURPLUS_TASKS;
+    }
+
+    /**
+     * Sequential version of {@link SortTask}.
+     */
+    private static <T> void sequentialSort(T[] src, T[] dst, int lo, int hi,
+            Comparator<? super T> c) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(dst, lo, hi, c);
+            return;
+        }
+        int middle = (lo + hi) >>> 1;
+        sequentialSort(dst, src, lo, middle, c);
+        sequentialSort(dst, src, middle, hi, c);
+        if (!mergeTrivially(src, dst, lo, middle, hi, c)) {
+            sequentialMerge(src, dst, lo, middle, middle, hi, lo, c);
+        }
+    }
 
-        /**
-         * Merges the two sorted arrays this.low, middle - 1 and middle, this.high - 1
-         * @param middle the index in the array where the second sorted list begins
-         */
-        private void merge(int middle) {
-            if (array[middle - 1] < array[middle]) {
-                return; // the arrays are already correctly sorted, so we can skip the merge
+    /**
+     * Sorts the range {@code lo, hi - 1} of the array in place using a
+     * binary insertion sort, which is stable.
+     */
+    private static <T> void insertionSort(T[] a, int lo, int hi, Comparator<? super T> c) {
+        for (int i = lo + 1; i < hi; i++) {
+            T pivot = a[i];
+            if (c.compare(a[i - 1], pivot) <= 0) {
+                continue;
             }
-            int[] copy = new int[high - low];
-            System.arraycopy(array, low, copy, 0, copy.length);
-            int copyLow = 0;
-            int copyHigh = high - low;
-            int copyMiddle = middle - low;
-
-            for (int i = low, p = copyLow, q = copyMiddle; i < high; i++) {
-                if (q >= copyHigh || (p < copyMiddle && copy[p] < copy[q]) ) {
-                    array[i] = copy[p++];
+            int p = search(pivot, a, lo, i - 1, true, c);
+            System.arraycopy(a, p, a, p + 1, i - p);
+            a[p] = pivot;
+        }
+    }
+
+    /**
+     * Merges the adjacent runs {@code lo, middle - 1} and
+     * {@code middle, hi - 1} of {@code src} into {@code dst} if they do
+     * not interleave, that is if they are already in order or if the
+     * whole second run precedes the first.
+     *
+     * @return {@code true} if the runs were merged
+     */
+    private static <T> boolean mergeTrivially(T[] src, T[] dst, int lo, int middle, int hi,
+            Comparator<? super T> c) {
+        if (c.compare(src[middle - 1], src[middle]) <= 0) {
+            System.arraycopy(src, lo, dst, lo, hi - lo);
+            return true;
+        }
+        if (c.compare(src[hi - 1], src[lo]) < 0) {
+            System.arraycopy(src, middle, dst, lo, hi - middle);
+            System.arraycopy(src, lo, dst, lo + hi - middle, middle - lo);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sequential version of {@link MergeTask}.  The runs are merged one
+     * element at a time until one run has won {@code minGallop}
+     * comparisons in a row; the merge then gallops, moving whole blocks
+     * of each run, until the blocks become short again.  Like TimSort,
+     * {@code minGallop} is lowered while galloping pays off and raised
+     * when it does not.
+     */
+    private static <T> void sequentialMerge(T[] src, T[] dst, int lo1, int hi1, int lo2, int hi2,
+            int d, Comparator<? super T> c) {
+        int i = lo1;
+        int j = lo2;
+        int k = d;
+        int minGallop = MIN_GALLOP;
+        outer:
+        while (i < hi1 && j < hi2) {
+            int wins1 = 0;
+            int wins2 = 0;
+            do {
+                if (c.compare(src[j], src[i]) < 0) {
+                    dst[k++] = src[j++];
+                    wins2++;
+                    wins1 = 0;
+                    if (j == hi2) {
+                        break outer;
+                    }
                 } else {
-                    array[i] = copy[q++];
+                    dst[k++] = src[i++];
+                    wins1++;
+                    wins2 = 0;
+                    if (i == hi1) {
+                        break outer;
+                    }
+                }
+            } while ((wins1 | wins2) < minGallop);
+
+            do {
+                // Move all elements of the first run up to and including
+                // those equal to the head of the second run
+                wins1 = search(src[j], src, i, hi1, true, c) - i;
+                System.arraycopy(src, i, dst, k, wins1);
+                i += wins1;
+                k += wins1;
+                if (i == hi1) {
+                    break outer;
+                }
+                dst[k++] = src[j++];
+                if (j == hi2) {
+                    break outer;
                 }
+                // Move all elements of the second run that are less than
+                // the head of the first run
+                wins2 = search(src[i], src, j, hi2, false, c) - j;
+                System.arraycopy(src, j, dst, k, wins2);
+                j += wins2;
+                k += wins2;
+                if (j == hi2) {
+                    break outer;
+                }
+                dst[k++] = src[i++];
+                if (i == hi1) {
+                    break outer;
+                }
+                minGallop--;
+            } while (wins1 >= MIN_GALLOP || wins2 >= MIN_GALLOP);
+            minGallop = Math.max(minGallop, 0) + 2;
+        }
+        System.arraycopy(src, i, dst, k, hi1 - i);
+        System.arraycopy(src, j, dst, k + hi1 - i, hi2 - j);
+    }
+
+    /**
+     * Finds the position of {@code key} in the sorted range
+     * {@code lo, hi - 1} of the array, by exponential search from
+     * {@code lo} followed by a binary search.  The cost is thus
+     * logarithmic in the distance of the result from {@code lo}.
+     *
+     * @param after if {@code true}, returns the index of the first
+     *        element greater than {@code key}, otherwise the index of
+     *        the first element greater than or equal to {@code key};
+     *        {@code hi} if there is no such element
+     */
+    private static <T> int search(T key, T[] a, int lo, int hi, boolean after,
+            Comparator<? super T> c) {
+        // Find a range (lo + last, lo + ofs] that contains the result
+        int last = 0;
+        int ofs = 1;
+        int len = hi - lo;
+        while (ofs <= len && precedes(a[lo + ofs - 1], key, after, c)) {
+            last = ofs;
+            ofs = (ofs << 1) + 1;
+            if (ofs <= 0) { // overflow
+                ofs = len + 1;
+            }
+        }
+        int l = lo + last;
+        int h = lo + Math.min(ofs - 1, len);
+        while (l < h) {
+            int m = (l + h) >>> 1;
+            if (precedes(a[m], key, after, c)) {
+                l = m + 1;
+            } else {
+                h = m;
             }
         }
+        return l;
+    }
+
+    private static <T> boolean precedes(T element, T key, boolean orEqual,
+            Comparator<? super T> c) {
+        int cmp = c.compare(element, key);
+        return cmp < 0 || (orEqual && cmp == 0);
     }
 
     /**
@@ -134,15 +385,46 @@ public class MergeSort {
      * @param parallelism the parallelism level used
      */
     public MergeSort(int parallelism) {
-        pool = new ForkJoinPool(parallelism);
+        this(new ForkJoinPool(parallelism));
+    }
+
+    /**
+     * Creates a {@code MergeSort} that runs its tasks in the given pool
+     * @param pool the pool to use, for example {@link ForkJoinPool#commonPool()}
+     */
+    public MergeSort(ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool);
     }
 
     /**
-     * Sorts all the elements of the given array using the ForkJoin framework
+     * Sorts all the elements of the given array according to their natural
+     * ordering using the ForkJoin framework
      * @param array the array to sort
      */
-    public void sort(int[] array) {
-        ForkJoinTask<Void> job = pool.submit(new MergeSortTask(array, 0, array.length));
-        job.join();
+    public <T extends Comparable<? super T>> void sort(T[] array) {
+        sort(array, Comparator.<T>naturalOrder());
+    }
+
+    /**
+     * Sorts all the elements of the given array according to the given
+     * comparator using the ForkJoin framework.  The sort is stable: equal
+     * elements keep their relative order.
+     * @param array the array to sort
+     * @param comparator the comparator that determines the order
+     */
+    public <T> void sort(T[] array, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        if (array.length < 2) {
+            return;
+        }
+        T[] aux = array.clone();
+        pool.invoke(new SortTask<>(aux, array, 0, array.length, comparator));
+    }
+
+    /**
+     * Shuts down the pool of this {@code MergeSort}
+     */
+    public void shutdown() {
+        pool.shutdown();
     }
 }
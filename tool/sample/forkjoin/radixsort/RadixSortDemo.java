@@ -0,0 +1,111 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.lang.Long.parseLong;
+
+/**
+ * RadixSortDemo compares {@link Arrays#parallelRadixSort(long[])} with
+ * {@link Arrays#parallelSort(long[])} on arrays of 64-bit keys of increasing
+ * size, for two key distributions: uniformly random keys and timestamps
+ * within one day, whose high bytes are all equal. The sizes grow tenfold from
+ * the first to the last size given on the command line; the defaults are one
+ * million and one hundred million. Sorting one billion keys requires a heap of
+ * more than 16 gigabytes. Both sorts use the
+ * {@link ForkJoinPool#commonPool() ForkJoin common pool}, whose parallelism can
+ * be set with the {@code java.util.concurrent.ForkJoinPool.common.parallelism}
+ * system property.
+ */
+public class RadixSortDemo {
+    // Use a fixed seed to always get the same random values back
+    private static final long SEED = 759123751834L;
+    private static final int ITERATIONS = 5;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private static long[] randomKeys(int n) {
+        return new Random(SEED).longs(n).toArray();
+    }
+
+    private static long[] timestamps(int n) {
+        long start = 1_600_000_000_000L;
+        return new Random(SEED).longs(n, start, start + DAY_MILLIS).toArray();
+    }
+
+    /**
+     * Returns the best time in milliseconds of sorting a copy of the keys with
+     * each of the two sorts, and checks that they agree.
+     */
+    private static long[] time(long[] keys) {
+        long radix = Long.MAX_VALUE, comparison = Long.MAX_VALUE;
+        long[] a = null, b = null;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            a = keys.clone();
+            long start = System.nanoTime();
+            Arrays.parallelRadixSort(a);
+            radix = Math.min(radix, System.nanoTime() - start);
+            b = keys.clone();
+            start = System.nanoTime();
+            Arrays.parallelSort(b);
+            comparison = Math.min(comparison, System.nanoTime() - start);
+        }
+        if (!Arrays.equals(a, b)) {
+            throw new AssertionError("Sorts differ");
+        }
+        return new long[] { radix / 1_000_000, comparison / 1_000_000 };
+    }
+
+    public static void main(String[] args) {
+        long first = 1_000_000, last = 100_000_000;
+        try {
+            if (args.length == 2) {
+                first = parseLong(args[0]);
+                last = parseLong(args[1]);
+            } else if (args.length != 0) {
+                throw new IllegalArgumentException();
+            }
+            if (first <= 0 || last > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException();
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("RadixSortDemo [<first size> <last size>]");
+            System.err.println("example: RadixSortDemo 1000000 1000000000");
+            return;
+        }
+
+        System.out.println("Parallelism: "
+                + ForkJoinPool.getCommonPoolParallelism());
+        System.out.printf("%12s %-10s %10s %14s %8s%n", "size", "keys",
+                "radix ms", "parallelSort ms", "speedup");
+        // Warm up both sorts so that the times below are for compiled code
+        time(randomKeys(1 << 20));
+        for (long n = first; n <= last; n *= 10) {
+            for (boolean random : new boolean[] { true, false }) {
+                long[] keys = random ? randomKeys((int) n) : timestamps((int) n);
+                long[] t = time(keys);
+                System.out.printf("%12d %-10s %10d %14d %8.2f%n", n,
+                        random ? "random" : "timestamp", t[0], t[1],
+                        (double) t[1] / Math.max(1, t[0]));
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ConfinedBufferedInputStream;
+import java.io.ConfinedBufferedOutputStream;
+import java.io.ConfinedBufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BufferedStreamBenchmark compares the synchronized buffered streams with
+ * their thread-confined counterparts on small reads and writes, on the same
+ * small reads with the stream handed between two threads, on lines, and on
+ * large reads that bypass the buffer.
+ *
+ * <p>Usage: {@code java BufferedStreamBenchmark [MEGABYTES]}.
+ */
+public class BufferedStreamBenchmark {
+    private static final int ROUNDS = 5;
+
+    // Keeps the results live
+    private static long sink;
+
+    private interface Workload {
+        long run(byte[] data) throws Exception;
+    }
+
+    private static final OutputStream NULL = new OutputStream() {
+        public void write(int b) {
+        }
+
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private static long readBytes(InputStream in) throws IOException {
+        long sum = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            sum += b;
+        }
+        return sum;
+    }
+
+    private static long writeBytes(OutputStream out, byte[] data)
+            throws IOException {
+        for (byte b : data) {
+            out.write(b);
+        }
+        out.flush();
+        return data.length;
+    }
+
+    // Reads the stream byte by byte in 64KB slices, alternating between two
+    // threads, as a pipeline that hands a stream from stage to stage does.
+    private static long readHandedOff(InputStream in, int size,
+            ExecutorService[] stages) throws Exception {
+        long sum = 0;
+        for (int i = 0; i * 65536 < size; i++) {
+            sum += stages[i & 1].submit(() -> {
+                long s = 0;
+                for (int j = 0; j < 65536; j++) {
+                    int b = in.read();
+                    if (b < 0) {
+                        break;
+                    }
+                    s += b;
+                }
+                return s;
+            }).get();
+        }
+        return sum;
+    }
+
+    private static long readLines(BufferedReader in) throws IOException {
+        long n = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            n += line.length();
+        }
+        return n;
+    }
+
+    private static long readLines(ConfinedBufferedReader in)
+            throws IOException {
+        long n = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            n += line.length();
+        }
+        return n;
+    }
+
+    private static double measure(Workload workload, byte[] data, long expect)
+            throws Exception {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long result = workload.run(data);
+            long end = System.nanoTime();
+            if (result != expect) {
+                throw new AssertionError("Expected " + expect + " but got "
+                        + result);
+            }
+            sink += result;
+            best = Math.min(best, (end - start) / 1e6);
+        }
+        return best;
+    }
+
+    private static void report(String name, byte[] data, long expect,
+            Workload synced, Workload confined) throws Exception {
+        double s = measure(synced, data, expect);
+        double c = measure(confined, data, expect);
+        System.out.printf("%-28s %10.1f ms %10.1f ms %8.2fx%n", name, s, c,
+                s / c);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int size = (args.length > 0 ? Integer.parseInt(args[0]) : 64) << 20;
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (i % 61 == 60) ? (byte) '\n' : (byte) ('a' + i % 26);
+        }
+        long sum = 0;
+        for (byte b : data) {
+            sum += b & 0xff;
+        }
+        long lineChars = size - size / 61;
+
+        ExecutorService[] stages = {
+            Executors.newSingleThreadExecutor(),
+            Executors.newSingleThreadExecutor()
+        };
+        try {
+            System.out.printf("%d MB%n", size >> 20);
+            System.out.printf("%-28s %13s %13s %9s%n", "", "synchronized",
+                    "confined", "speedup");
+            report("read()", data, sum,
+                    d -> readBytes(new BufferedInputStream(
+                            new ByteArrayInputStream(d))),
+                    d -> readBytes(new ConfinedBufferedInputStream(
+                            new ByteArrayInputStream(d))));
+            report("read(), two threads", data, sum,
+                    d -> readHandedOff(new BufferedInputStream(
+                            new ByteArrayInputStream(d)), size, stages),
+                    d -> readHandedOff(new ConfinedBufferedInputStream(
+                            new ByteArrayInputStream(d)), size, stages));
+            report("write(int)", data, size,
+                    d -> writeBytes(new BufferedOutputStream(NULL), d),
+                    d -> writeBytes(new ConfinedBufferedOutputStream(NULL), d));
+            report("readLine()", data, lineChars,
+                    d -> readLines(new BufferedReader(new InputStreamReader(
+                            new ByteArrayInputStream(d),
+                            StandardCharsets.ISO_8859_1))),
+                    d -> readLines(new ConfinedBufferedReader(
+                            new InputStreamReader(new ByteArrayInputStream(d),
+                            StandardCharsets.ISO_8859_1))));
+
+            // Large reads: after a small header read has filled the buffer,
+            // readFully of 1MB records goes straight to the caller's array
+            byte[] record = new byte[1 << 20];
+            report("readFully(1MB)", data, size,
+                    d -> {
+                        DataInputStream in = new DataInputStream(
+                                new BufferedInputStream(
+                                        new ByteArrayInputStream(d)));
+                        in.read();
+                        in.readFully(record, 0, record.length - 1);
+                        long n = record.length;
+                        while (n < d.length) {
+                            in.readFully(record);
+                            n += record.length;
+                        }
+                        return n;
+                    },
+                    d -> {
+                        ConfinedBufferedInputStream in =
+                                new ConfinedBufferedInputStream(
+                                        new ByteArrayInputStream(d));
+                        in.read();
+                        in.readFully(record, 0, record.length - 1);
+                        long n = record.length;
+                        while (n < d.length) {
+                            in.readFully(record);
+                            n += record.length;
+                        }
+                        return n;
+                    });
+            report("copy to output stream", data, size,
+                    d -> {
+                        InputStream in = new BufferedInputStream(
+                                new ByteArrayInputStream(d));
+                        byte[] buf = new byte[8192];
+                        long n = 0;
+                        int k;
+                        while ((k = in.read(buf)) > 0) {
+                            NULL.write(buf, 0, k);
+                            n += k;
+                        }
+                        return n;
+                    },
+                    d -> new ConfinedBufferedInputStream(
+                            new ByteArrayInputStream(d)).transferTo(NULL));
+        } finally {
+            for (ExecutorService stage : stages) {
+                stage.shutdown();
+            }
+        }
+        if (sink == 0) {
+            System.out.println(Arrays.toString(data));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+
+import java.io.BufferedRandomAccessFile;
+import java.io.DataInput;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+/**
+ * RandomAccessBenchmark reads mixed primitive values from fixed-size records
+ * of a file, in order and at random record offsets, with
+ * {@link RandomAccessFile}, with {@link BufferedRandomAccessFile} and its
+ * page cache, and with a memory mapped {@link BufferedRandomAccessFile}.
+ * Each record holds an {@code int}, a {@code long}, a {@code short} and a
+ * {@code double}.
+ *
+ * <p>{@code RandomAccessFile} makes a system call for each byte of such
+ * values, so it reads one fiftieth of the values and its time is reported
+ * per value like the others.
+ *
+ * <p>Usage: {@code java RandomAccessBenchmark [VALUES]}.
+ */
+public class RandomAccessBenchmark {
+    private static final int ROUNDS = 3;
+    private static final int RECORD_SIZE = 4 + 8 + 2 + 8;
+    private static final int VALUES_PER_RECORD = 4;
+
+    // Keeps the results live
+    private static long sink;
+
+    private interface Opener {
+        DataInput open(File file) throws IOException;
+    }
+
+    private static void create(File file, int records) throws IOException {
+        try (BufferedRandomAccessFile out =
+                new BufferedRandomAccessFile(file, "rw")) {
+            out.setLength(0);
+            for (int i = 0; i < records; i++) {
+                out.writeInt(i);
+                out.writeLong(i * 31L);
+                out.writeShort(i);
+                out.writeDouble(i / 2.0);
+            }
+        }
+    }
+
+    private static void seek(DataInput in, long pos) throws IOException {
+        if (in instanceof RandomAccessFile) {
+            ((RandomAccessFile) in).seek(pos);
+        } else {
+            ((BufferedRandomAccessFile) in).seek(pos);
+        }
+    }
+
+    private static void close(DataInput in) throws IOException {
+        if (in instanceof RandomAccessFile) {
+            ((RandomAccessFile) in).close();
+        } else {
+            ((BufferedRandomAccessFile) in).close();
+        }
+    }
+
+    private static long readRecord(DataInput in, int i) throws IOException {
+        int id = in.readInt();
+        long value = in.readLong();
+        short tag = in.readShort();
+        double half = in.readDouble();
+        if (id != i || value != i * 31L || tag != (short) i || half != i / 2.0) {
+            throw new AssertionError("Bad record " + i);
+        }
+        return id + value + tag;
+    }
+
+    // Returns the best time per value, in nanoseconds
+    private static double measure(Opener opener, File file, int records,
+            int count, boolean random) throws IOException {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            Random rnd = new Random(round);
+            DataInput in = opener.open(file);
+            try {
+                long start = System.nanoTime();
+                for (int n = 0; n < count; n++) {
+                    int i = random ? rnd.nextInt(records) : n;
+                    if (random) {
+                        seek(in, (long) i * RECORD_SIZE);
+                    }
+                    sink += readRecord(in, i);
+                }
+                long end = System.nanoTime();
+                best = Math.min(best,
+                        (double) (end - start) / (count * VALUES_PER_RECORD));
+            } finally {
+                close(in);
+            }
+        }
+        return best;
+    }
+
+    private static void report(String name, Opener opener, File file,
+            int records, int count) throws IOException {
+        System.out.printf("%-32s %9.1f ns %9.1f ns%n", name,
+                measure(opener, file, records, count, false),
+                measure(opener, file, records, count, true));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int values = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int records = values / VALUES_PER_RECORD;
+        File file = File.createTempFile("records", ".bin");
+        try {
+            create(file, records);
+            System.out.printf("%d values in %d records of %d bytes%n",
+                    values, records, RECORD_SIZE);
+            System.out.printf("%-32s %12s %12s%n", "time per value",
+                    "sequential", "random");
+            report("RandomAccessFile", f -> new RandomAccessFile(f, "r"),
+                    file, records, records / 50);
+            report("buffered, 32 x 8KB pages",
+                    f -> new BufferedRandomAccessFile(f, "r"),
+                    file, records, records);
+            report("buffered, 1024 x 4KB pages",
+                    f -> new BufferedRandomAccessFile(f, "r", 4096, 1024),
+                    file, records, records);
+            report("buffered, mapped", BufferedRandomAccessFile::map,
+                    file, records, records);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.SegmentedByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * SegmentedOutputBenchmark builds a large payload in memory with
+ * {@link ByteArrayOutputStream} and with {@link SegmentedByteArrayOutputStream},
+ * then either copies it into a single array or writes it to a file, and
+ * reports the time taken and the bytes allocated by each.
+ *
+ * <p>Usage: {@code java SegmentedOutputBenchmark [MEGABYTES]}.
+ */
+public class SegmentedOutputBenchmark {
+    private static final int ROUNDS = 5;
+    private static final int CHUNK = 8192;
+
+    // Keeps the results live
+    private static long sink;
+
+    private static final SegmentedByteArrayOutputStream.Pool POOL =
+            new SegmentedByteArrayOutputStream.Pool(64 * 1024, 8192);
+
+    private interface Strategy {
+        void run(long size, FileChannel ch) throws IOException;
+    }
+
+    private static void fill(OutputStream out, long size) throws IOException {
+        byte[] chunk = new byte[CHUNK];
+        for (long n = 0; n < size; n += CHUNK) {
+            chunk[(int) (n / CHUNK) % CHUNK]++;
+            out.write(chunk, 0, (int) Math.min(CHUNK, size - n));
+        }
+    }
+
+    private static final Strategy BAOS_ARRAY = (size, ch) -> {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        fill(out, size);
+        sink += out.toByteArray().length;
+    };
+
+    private static final Strategy SEGMENTED_ARRAY = (size, ch) -> {
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream();
+        fill(out, size);
+        sink += out.toByteArray().length;
+    };
+
+    private static final Strategy BAOS_CHANNEL = (size, ch) -> {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        fill(out, size);
+        out.writeTo(Channels.newOutputStream(ch));
+    };
+
+    private static final Strategy SEGMENTED_CHANNEL = (size, ch) -> {
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream();
+        fill(out, size);
+        out.writeTo(ch);
+    };
+
+    private static final Strategy POOLED_CHANNEL = (size, ch) -> {
+        try (SegmentedByteArrayOutputStream out =
+                new SegmentedByteArrayOutputStream(POOL)) {
+            fill(out, size);
+            out.writeTo(ch);
+        }
+    };
+
+    // Returns the bytes allocated by the current thread, or -1 if the
+    // virtual machine does not report them.
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void measure(String name, Strategy strategy, long size,
+            Path file) throws IOException {
+        double best = Double.MAX_VALUE;
+        long allocated = -1;
+        for (int round = 0; round < ROUNDS; round++) {
+            try (FileChannel ch = FileChannel.open(file,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                long before = allocatedBytes();
+                long start = System.nanoTime();
+                strategy.run(size, ch);
+                long end = System.nanoTime();
+                long after = allocatedBytes();
+                if (ch.size() != 0 && ch.size() != size) {
+                    throw new AssertionError(name + " wrote " + ch.size()
+                            + " bytes");
+                }
+                best = Math.min(best, (end - start) / 1e6);
+                if (before >= 0) {
+                    allocated = after - before;
+                }
+            }
+        }
+        System.out.printf("%-36s %9.1f ms %11s%n", name, best,
+                allocated < 0 ? "n/a" : (allocated >> 20) + " MB");
+    }
+
+    public static void main(String[] args) throws Exception {
+        long size = (args.length > 0 ? Long.parseLong(args[0]) : 256) << 20;
+        Path file = Files.createTempFile("segmented", ".bin");
+        try {
+            System.out.printf("%d MB payload in %d byte writes%n",
+                    size >> 20, CHUNK);
+            System.out.printf("%-36s %12s %11s%n", "", "time", "allocated");
+            measure("ByteArrayOutputStream.toByteArray", BAOS_ARRAY, size,
+                    file);
+            measure("segmented toByteArray", SEGMENTED_ARRAY, size, file);
+            measure("ByteArrayOutputStream to file", BAOS_CHANNEL, size,
+                    file);
+            measure("segmented to file, gathering", SEGMENTED_CHANNEL, size,
+                    file);
+            measure("pooled segmented to file", POOLED_CHANNEL, size, file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ClassDescriptorDictionary;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * SerializationBenchmark measures the time taken to write and read a small
+ * graph of data transfer objects, each on a stream of its own as the entries
+ * of a serialized cache are, with and without a
+ * {@link ClassDescriptorDictionary}, and the time taken to write and read
+ * large primitive arrays.
+ *
+ * <p>Usage: {@code java SerializationBenchmark [ITERATIONS]}.
+ */
+public class SerializationBenchmark {
+    private static final int ROUNDS = 5;
+
+    // Keeps the results live
+    private static long sink;
+
+    enum Priority { LOW, NORMAL, HIGH }
+
+    static class Entity implements Serializable {
+        private static final long serialVersionUID = 1L;
+        long id;
+        long version;
+    }
+
+    static class Note implements Serializable {
+        private static final long serialVersionUID = 1L;
+        String author;
+        String text;
+        long created;
+
+        Note(String author, String text, long created) {
+            this.author = author;
+            this.text = text;
+            this.created = created;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Note && ((Note) o).created == created
+                    && Objects.equals(((Note) o).author, author)
+                    && Objects.equals(((Note) o).text, text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(created);
+        }
+    }
+
+    static class CaseRecord extends Entity {
+        private static final long serialVersionUID = 1L;
+        String title;
+        Priority priority;
+        boolean open;
+        int[] tags;
+        double score;
+        ArrayList<Note> notes = new ArrayList<>();
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CaseRecord)) {
+                return false;
+            }
+            CaseRecord r = (CaseRecord) o;
+            return r.id == id && r.version == version
+                    && r.title.equals(title) && r.priority == priority
+                    && r.open == open && Arrays.equals(r.tags, tags)
+                    && r.score == score && r.notes.equals(notes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+    }
+
+    private interface Codec {
+        byte[] write(Object obj) throws IOException;
+        Object read(byte[] data) throws IOException, ClassNotFoundException;
+    }
+
+    private static final ClassDescriptorDictionary DICTIONARY =
+            new ClassDescriptorDictionary(CaseRecord.class, Note.class,
+                    Priority.class, ArrayList.class, int[].class);
+
+    private static final Codec STANDARD = new Codec() {
+        public byte[] write(Object obj) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(obj);
+            }
+            return bytes.toByteArray();
+        }
+
+        public Object read(byte[] data)
+                throws IOException, ClassNotFoundException {
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new ByteArrayInputStream(data))) {
+                return in.readObject();
+            }
+        }
+    };
+
+    private static final Codec WITH_DICTIONARY = new Codec() {
+        public byte[] write(Object obj) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.useClassDescriptorDictionary(DICTIONARY);
+                out.writeObject(obj);
+            }
+            return bytes.toByteArray();
+        }
+
+        public Object read(byte[] data)
+                throws IOException, ClassNotFoundException {
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new ByteArrayInputStream(data))) {
+                in.useClassDescriptorDictionary(DICTIONARY);
+                return in.readObject();
+            }
+        }
+    };
+
+    private static List<CaseRecord> createRecords(int n) {
+        List<CaseRecord> records = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            CaseRecord r = new CaseRecord();
+            r.id = i;
+            r.version = i % 7;
+            r.title = "Case " + i;
+            r.priority = Priority.values()[i % 3];
+            r.open = (i & 1) == 0;
+            r.tags = new int[] { i, i + 1, i + 2 };
+            r.score = i / 3.0;
+            for (int j = 0; j < 3; j++) {
+                r.notes.add(new Note("user" + j, "note " + j + " on " + i,
+                        1_600_000_000_000L + i * 1000L + j));
+            }
+            records.add(r);
+        }
+        return records;
+    }
+
+    private static double[] measure(Codec codec, List<?> objects)
+            throws IOException, ClassNotFoundException {
+        byte[][] data = new byte[objects.size()][];
+        double bestWrite = Double.MAX_VALUE;
+        double bestRead = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < data.length; i++) {
+                data[i] = codec.write(objects.get(i));
+            }
+            long mid = System.nanoTime();
+            for (int i = 0; i < data.length; i++) {
+                Object obj = codec.read(data[i]);
+                if (round == 0 && !obj.equals(objects.get(i))) {
+                    throw new AssertionError("Round trip changed object " + i);
+                }
+                sink += obj.hashCode();
+            }
+            long end = System.nanoTime();
+            bestWrite = Math.min(bestWrite, (mid - start) / 1e6);
+            bestRead = Math.min(bestRead, (end - mid) / 1e6);
+        }
+        long bytes = 0;
+        for (byte[] d : data) {
+            bytes += d.length;
+        }
+        return new double[] { bestWrite, bestRead, (double) bytes / data.length };
+    }
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        List<CaseRecord> records = createRecords(n);
+        System.out.printf("%d case records, one stream each%n", n);
+        System.out.printf("%-24s %10s %10s %14s%n", "", "write", "read",
+                "bytes/record");
+        double[] t = measure(STANDARD, records);
+        System.out.printf("%-24s %7.1f ms %7.1f ms %14.1f%n", "standard",
+                t[0], t[1], t[2]);
+        t = measure(WITH_DICTIONARY, records);
+        System.out.printf("%-24s %7.1f ms %7.1f ms %14.1f%n",
+                "class dictionary", t[0], t[1], t[2]);
+
+        List<Object> arrays = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int[] ints = new int[250_000];
+            long[] longs = new long[125_000];
+            for (int j = 0; j < ints.length; j++) {
+                ints[j] = j * 31 + i;
+            }
+            for (int j = 0; j < longs.length; j++) {
+                longs[j] = j * 0x9E3779B97F4A7C15L + i;
+            }
+            arrays.add(new ArrayBox(ints, longs));
+        }
+        t = measure(STANDARD, arrays);
+        System.out.printf("%-24s %7.1f ms %7.1f ms %14.1f%n",
+                "1MB int[] + long[]", t[0], t[1], t[2]);
+    }
+
+    static class ArrayBox implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final int[] ints;
+        final long[] longs;
+
+        ArrayBox(int[] ints, long[] longs) {
+            this.ints = ints;
+            this.longs = longs;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ArrayBox
+                    && Arrays.equals(((ArrayBox) o).ints, ints)
+                    && Arrays.equals(((ArrayBox) o).longs, longs);
+        }
+
+        @Override
+        public int hashCode() {
+            return ints.length;
+        }
+    }
+}
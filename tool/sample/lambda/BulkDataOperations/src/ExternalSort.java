@@ -0,0 +1,147 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.ExternalCollectors;
+import java.util.stream.Stream;
+
+/**
+ * ExternalSort - Compares sorting and deduplicating a stream in memory with
+ * the spilling collectors of {@link ExternalCollectors}, for a memory budget
+ * above and below the size of the stream. See the {@link #usage} method for
+ * instructions and command line parameters. This sample shows usages of:
+ * <ul>
+ * <li>Collectors returning a stream, which must be closed.</li>
+ * <li>Custom element codecs for temporary files.</li>
+ * </ul>
+ *
+ */
+public class ExternalSort {
+
+    //Codec writing a record as its three fields.
+    private static final ExternalCollectors.ElementCodec<CallRecord> CODEC =
+            new ExternalCollectors.ElementCodec<CallRecord>() {
+                @Override
+                public void write(java.io.DataOutput out, CallRecord r)
+                        throws IOException {
+                    out.writeLong(r.caller);
+                    out.writeLong(r.callee);
+                    out.writeInt(r.seconds);
+                }
+
+                @Override
+                public CallRecord read(java.io.DataInput in)
+                        throws IOException {
+                    return new CallRecord(in.readLong(), in.readLong(),
+                            in.readInt());
+                }
+            };
+
+    /**
+     * The main method for the ExternalSort program. Run the program with an
+     * empty argument list to see possible arguments.
+     *
+     * @param args the argument list for ExternalSort
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            usage();
+            return;
+        }
+        int count = Integer.parseInt(args[0]);
+        List<CallRecord> records = new Random(42).longs(count, 0, count / 2)
+                .mapToObj(caller -> new CallRecord(caller, caller * 31 % 1000,
+                        (int) (caller % 3600)))
+                .collect(Collectors.toList());
+        Comparator<CallRecord> order = Comparator
+                .comparingLong((CallRecord r) -> r.caller)
+                .thenComparingLong(r -> r.callee);
+
+        time("In-memory sorted()", () -> records.parallelStream()
+                .sorted(order).count());
+        for (int budget : new int[]{count * 2, count / 8}) {
+            time("External sorting, budget " + budget, () -> {
+                try (Stream<CallRecord> s = records.parallelStream()
+                        .collect(ExternalCollectors.sorting(order, CODEC,
+                                budget))) {
+                    return s.count();
+                }
+            });
+        }
+        time("In-memory distinct()", () -> records.parallelStream()
+                .distinct().count());
+        for (int budget : new int[]{count * 2, count / 8}) {
+            time("External distinct, budget " + budget, () -> {
+                try (Stream<CallRecord> s = records.parallelStream()
+                        .collect(ExternalCollectors.distinct(CODEC,
+                                budget))) {
+                    return s.count();
+                }
+            });
+        }
+    }
+
+    private static void time(String name,
+            java.util.function.LongSupplier task) {
+        long start = System.nanoTime();
+        long n = task.getAsLong();
+        System.out.printf("%-40s %8d ms, %d elements%n", name,
+                (System.nanoTime() - start) / 1_000_000, n);
+    }
+
+    private static void usage() {
+        System.out.println("Usage: " + ExternalSort.class.getSimpleName()
+                + " COUNT");
+        System.out.println("Sort and deduplicate COUNT generated call records"
+                + " in memory and with spilling to temporary files.");
+    }
+
+    private static final class CallRecord {
+
+        private final long caller;
+        private final long callee;
+        private final int seconds;
+
+        CallRecord(long caller, long callee, int seconds) {
+            this.caller = caller;
+            this.callee = callee;
+            this.seconds = seconds;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CallRecord)) {
+                return false;
+            }
+            CallRecord r = (CallRecord) o;
+            return caller == r.caller && callee == r.callee
+                    && seconds == r.seconds;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(caller * 31 + callee) * 31 + seconds;
+        }
+    }
+}
@@ -48,12 +48,15 @@
  * this sample code.
  */
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * WC - Prints newline, word, and character counts for each file. See
@@ -65,14 +68,15 @@ import java.util.regex.Pattern;
  * built-in API.</li>
  * <li>Constructor reference.</li>
  * <li>Try-with-resources feature.</li>
+ * <li>Parallel processing of the lines of a file. The stream returned by
+ * {@code Files.lines} splits the file at line boundaries, so the one-pass
+ * statistics scale with the number of processors on large files. The
+ * file is decoded with the platform default charset.</li>
  * </ul>
  *
  */
 public class WC {
 
-    //The number of characters that may be read.
-    private static final int READ_AHEAD_LIMIT = 100_000_000;
-
     //The pattern for splitting strings by non word characters to get words.
     private static final Pattern nonWordPattern = Pattern.compile("\\W");
 
@@ -90,37 +94,39 @@ public class WC {
             return;
         }
 
-        try (BufferedReader reader = new BufferedReader(
-                new FileReader(args[0]))) {
-            reader.mark(READ_AHEAD_LIMIT);
+        Path file = Paths.get(args[0]);
+        try {
             /*
              * Statistics can be gathered in four passes using a built-in API.
              * The method demonstrates how separate operations can be
              * implemented using a built-in API.
              */
-            collectInFourPasses(reader);
+            collectInFourPasses(file);
             /*
              * Usage of several passes to collect data is not the best way.
              * Statistics can be gathered by a custom collector in one pass.
              */
-            reader.reset();
-            collectInOnePass(reader);
-        } catch (FileNotFoundException e) {
+            collectInOnePass(file);
+        } catch (NoSuchFileException e) {
             usage();
             System.err.println(e);
         }
     }
 
-    private static void collectInFourPasses(BufferedReader reader)
-            throws IOException {
+    private static void collectInFourPasses(Path file) throws IOException {
         /*
          * Input is read as a stream of lines by lines().
          * Every line is turned into a stream of chars by the flatMapToInt(...)
          * method.
          * Length of the stream is counted by count().
+         * Every pass opens the file again, and the try-with-resources
+         * statement closes it when the pass is complete.
          */
-        System.out.println("Character count = "
-                + reader.lines().flatMapToInt(String::chars).count());
+        try (Stream<String> lines = Files.lines(file,
+                Charset.defaultCharset())) {
+            System.out.println("Character count = "
+                    + lines.flatMapToInt(String::chars).count());
+        }
         /*
          * Input is read as a stream of lines by lines().
          * Every line is split by nonWordPattern into words by flatMap(...)
@@ -128,25 +134,30 @@ public class WC {
          * Empty lines are removed by the filter(...) method.
          * Length of the stream is counted by count().
          */
-        reader.reset();
-        System.out.println("Word count = "
-                + reader.lines()
-                .flatMap(nonWordPattern::splitAsStream)
-                .filter(str -> !str.isEmpty()).count());
-
-        reader.reset();
-        System.out.println("Newline count = " + reader.lines().count());
+        try (Stream<String> lines = Files.lines(file,
+                Charset.defaultCharset())) {
+            System.out.println("Word count = "
+                    + lines.flatMap(nonWordPattern::splitAsStream)
+                    .filter(str -> !str.isEmpty()).count());
+        }
+
+        try (Stream<String> lines = Files.lines(file,
+                Charset.defaultCharset())) {
+            System.out.println("Newline count = " + lines.count());
+        }
         /*
          * Input is read as a stream of lines by lines().
          * Every line is mapped to its length.
          * Maximum of the lengths is calculated.
          */
-        reader.reset();
-        System.out.println("Max line length = "
-                + reader.lines().mapToInt(String::length).max().getAsInt());
+        try (Stream<String> lines = Files.lines(file,
+                Charset.defaultCharset())) {
+            System.out.println("Max line length = "
+                    + lines.mapToInt(String::length).max().orElse(0));
+        }
     }
 
-    private static void collectInOnePass(BufferedReader reader) {
+    private static void collectInOnePass(Path file) throws IOException {
         /*
          * The collect() method has three parameters:
          * The first parameter is the {@code WCStatistic} constructor reference.
@@ -163,12 +174,27 @@ public class WC {
          *
          * Note that the any performance increase when going parallel will
          * depend on the size of the input (lines) and the cost per-element.
+         * The pass is run sequentially and then in parallel, so that the
+         * speed-up on the given file can be compared.
          */
-        WCStatistics wc = reader.lines().parallel()
-                .collect(WCStatistics::new,
-                        WCStatistics::accept,
-                        WCStatistics::combine);
-        System.out.println(wc);
+        for (boolean parallel : new boolean[] {false, true}) {
+            long start = System.nanoTime();
+            WCStatistics wc;
+            try (Stream<String> lines = Files.lines(file,
+                    Charset.defaultCharset())) {
+                wc = (parallel ? lines.parallel() : lines)
+                        .collect(WCStatistics::new,
+                                WCStatistics::accept,
+                                WCStatistics::combine);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(wc);
+            System.out.println((parallel ? "Parallel" : "Sequential")
+                    + " pass took " + millis + " ms using "
+                    + (parallel
+                       ? Runtime.getRuntime().availableProcessors() : 1)
+                    + " processor(s)\n");
+        }
     }
 
     private static void usage() {
@@ -0,0 +1,149 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MixedCharsetDecoding measures the decoding of short Chinese file names
+ * and of CSV exports that alternate between UTF-8 and GBK, as done with
+ * {@code new String(byte[], Charset)}, {@code String.getBytes(Charset)}
+ * and {@link InputStreamReader}. The time taken with a new
+ * {@link java.nio.charset.CharsetDecoder} for each name is measured for
+ * comparison.
+ */
+public class MixedCharsetDecoding {
+    private static final int NAMES = 10_000;
+    private static final int ROUNDS = 5;
+
+    private static final Charset GBK = Charset.forName("GBK");
+    private static final Charset[] CHARSETS = {
+        StandardCharsets.UTF_8, GBK, StandardCharsets.US_ASCII,
+    };
+
+    private static final String[] PARTS = {
+        "\u62a5\u8868", "\u5bfc\u51fa", "\u5ba2\u6237", "\u8ba2\u5355", "\u660e\u7ec6", "2024", "_", "-", "v2",
+        "report", "\u5b63\u5ea6", "\u6c47\u603b",
+    };
+
+    // Prevents the decoding from being optimized away
+    private static long sink;
+
+    private interface Operation {
+        long apply(int i) throws IOException;
+    }
+
+    private static double measure(Operation op) throws IOException {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < NAMES; i++) {
+                sink += op.apply(i);
+            }
+            best = Math.min(best, (double) (System.nanoTime() - start) / NAMES);
+        }
+        return best;
+    }
+
+    private static String decodeWithNewDecoder(byte[] b, Charset cs)
+            throws CharacterCodingException {
+        CharBuffer cb = cs.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(ByteBuffer.wrap(b));
+        return cb.toString();
+    }
+
+    private static long readAll(Reader r) throws IOException {
+        char[] buf = new char[8192];
+        long n = 0;
+        int k;
+        while ((k = r.read(buf, 0, buf.length)) > 0) {
+            n += k;
+        }
+        return n;
+    }
+
+    public static void main(String[] args) throws IOException {
+        java.util.Random random = new java.util.Random(42);
+        String[] names = new String[NAMES];
+        Charset[] charsets = new Charset[NAMES];
+        byte[][] encoded = new byte[NAMES][];
+        for (int i = 0; i < NAMES; i++) {
+            StringBuilder sb = new StringBuilder();
+            int parts = 2 + random.nextInt(5);
+            for (int j = 0; j < parts; j++) {
+                sb.append(PARTS[random.nextInt(PARTS.length)]);
+            }
+            Charset cs = CHARSETS[i % CHARSETS.length];
+            if (cs == StandardCharsets.US_ASCII) {
+                sb.setLength(0);
+                sb.append("export_").append(i).append(".csv");
+            } else {
+                sb.append(".csv");
+            }
+            names[i] = sb.toString();
+            charsets[i] = cs;
+            encoded[i] = names[i].getBytes(cs);
+        }
+
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < NAMES; i++) {
+            csv.append(i).append(',').append(names[i]).append(",\u5b8c\u6210\n");
+        }
+        byte[] csvUtf8 = csv.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] csvGbk = csv.toString().getBytes(GBK);
+
+        for (int i = 0; i < NAMES; i++) {
+            if (!names[i].equals(new String(encoded[i], charsets[i]))
+                    || !names[i].equals(decodeWithNewDecoder(encoded[i],
+                                                             charsets[i]))) {
+                throw new AssertionError("Different result for " + names[i]);
+            }
+        }
+
+        double perDecoder = measure(i ->
+                decodeWithNewDecoder(encoded[i], charsets[i]).length());
+        double string = measure(i ->
+                new String(encoded[i], charsets[i]).length());
+        double bytes = measure(i ->
+                names[i].getBytes(charsets[i]).length);
+        double reader = measure(i -> {
+            byte[] b = ((i & 1) == 0) ? csvUtf8 : csvGbk;
+            Charset cs = ((i & 1) == 0) ? StandardCharsets.UTF_8 : GBK;
+            int from = (i * 97) % (b.length - 4096);
+            return readAll(new InputStreamReader(
+                    new ByteArrayInputStream(b, from, 4096), cs));
+        });
+
+        System.out.printf("file names alternating UTF-8, GBK and US-ASCII%n");
+        System.out.printf("new decoder per name      %8.1f ns%n", perDecoder);
+        System.out.printf("new String(byte[], cs)    %8.1f ns%n", string);
+        System.out.printf("String.getBytes(cs)       %8.1f ns%n", bytes);
+        System.out.printf("InputStreamReader, 4 KiB  %8.1f ns%n", reader);
+    }
+}
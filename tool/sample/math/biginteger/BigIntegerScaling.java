@@ -0,0 +1,117 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.math.BigInteger;
+import java.util.Random;
+
+import static java.lang.Integer.parseInt;
+
+/**
+ * BigIntegerScaling measures how the running time of the {@link BigInteger}
+ * operations grows with the size of the operands. For every size, doubling
+ * from 16 {@code int} digits up to the maximal size given as the first
+ * command line argument, it times {@code multiply}, {@code parallelMultiply},
+ * {@code divide} of a number of twice the size, {@code toString} and the
+ * parsing constructor, and prints the time of each operation with its local
+ * growth exponent: 2 means the operation is quadratic at this size, 1.58 is
+ * Karatsuba, 1.46 is Toom-Cook 3. Sudden jumps of the time between two sizes
+ * show where a threshold between two algorithms is badly placed.
+ */
+public class BigIntegerScaling {
+    // Use a fixed seed to always get the same random values back
+    private static final long SEED = 759123751834L;
+    // The minimal time spent on each measure
+    private static final long MIN_NANOS = 200_000_000L;
+
+    private static final String[] OPERATIONS = { "multiply",
+        "parallelMultiply", "divide", "toString", "parse" };
+
+    public static void main(String[] args) {
+        int maxSize = args.length > 0 ? parseInt(args[0]) : 1 << 14;
+        Random random = new Random(SEED);
+        System.out.printf("%8s", "ints");
+        for (String op : OPERATIONS) {
+            System.out.printf(" %16s %5s", op + " us", "exp");
+        }
+        System.out.println();
+
+        double[] previous = null;
+        for (int size = 16; size <= maxSize; size *= 2) {
+            BigInteger a = new BigInteger(32 * size, random).setBit(32 * size - 1);
+            BigInteger b = new BigInteger(32 * size, random).setBit(32 * size - 1);
+            BigInteger dividend = a.multiply(b).add(BigInteger.ONE);
+            String text = a.toString();
+
+            double[] times = new double[OPERATIONS.length];
+            times[0] = time(() -> a.multiply(b));
+            times[1] = time(() -> a.parallelMultiply(b));
+            times[2] = time(() -> dividend.divide(b));
+            times[3] = time(() -> a.toString());
+            times[4] = time(() -> new BigInteger(text));
+            check(a, b, dividend, text);
+
+            System.out.printf("%8d", size);
+            for (int i = 0; i < times.length; i++) {
+                if (previous == null) {
+                    System.out.printf(" %16.1f %5s", times[i] / 1000, "");
+                } else {
+                    System.out.printf(" %16.1f %5.2f", times[i] / 1000,
+                            Math.log(times[i] / previous[i]) / Math.log(2));
+                }
+            }
+            System.out.println();
+            previous = times;
+        }
+    }
+
+    /**
+     * Returns the average time of an operation in nanoseconds, after a
+     * warm up of the same length as the measure.
+     */
+    private static double time(Runnable operation) {
+        for (int pass = 0; ; pass++) {
+            long start = System.nanoTime();
+            long elapsed;
+            int count = 0;
+            do {
+                operation.run();
+                count++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < MIN_NANOS);
+            if (pass > 0) {
+                return (double) elapsed / count;
+            }
+        }
+    }
+
+    /**
+     * Checks that the results of the operations are consistent with each
+     * other.
+     */
+    private static void check(BigInteger a, BigInteger b, BigInteger dividend,
+            String text) {
+        if (!a.multiply(b).equals(a.parallelMultiply(b))
+                || !dividend.divide(b).equals(a)
+                || !dividend.remainder(b).equals(BigInteger.ONE)
+                || !new BigInteger(text).equals(a)) {
+            throw new AssertionError("Inconsistent results for " + a.bitLength()
+                    + " bits");
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+/**
+ * DirectoryListing measures the time taken to list a directory together
+ * with the size and modification time of each entry, by calling
+ * {@link File#length} and {@link File#lastModified} on the files from
+ * {@link File#listFiles}, by reading the attributes of each path from
+ * {@link Files#newDirectoryStream}, and with
+ * {@link Files#newDirectoryStreamWithAttributes}, which does not read again
+ * attributes obtained while reading the directory.
+ *
+ * <p>Usage: {@code java DirectoryListing [DIRECTORY | -create FILES]}.
+ * Without arguments, or with {@code -create}, a temporary directory of
+ * 10,000 (or the given number of) files is created, listed, and deleted.
+ * Pointing it at a directory on a network file system, such as an SMB
+ * share, shows the cost of a file system operation per entry.
+ */
+public class DirectoryListing {
+    private static final int ROUNDS = 5;
+
+    // Keeps the results live
+    private static long sink;
+
+    private interface Listing {
+        long list(Path dir) throws IOException;
+    }
+
+    private static Path createDirectory(int files) throws IOException {
+        Path dir = Files.createTempDirectory("listing");
+        byte[] data = new byte[16];
+        for (int i = 0; i < files; i++) {
+            Files.write(dir.resolve("file" + i + ".txt"), data);
+        }
+        return dir;
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static double measure(Path dir, Listing listing, long expected)
+            throws IOException {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long total = listing.list(dir);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            if (total != expected) {
+                throw new AssertionError("Found " + total + " bytes instead of "
+                        + expected);
+            }
+            sink += total;
+        }
+        return best;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir;
+        boolean created = args.length == 0 || args[0].equals("-create");
+        if (created) {
+            int files = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+            dir = createDirectory(files);
+        } else {
+            dir = Paths.get(args[0]);
+        }
+        try {
+            long entries = 0;
+            long bytes = 0;
+            try (DirectoryStream<Map.Entry<Path, BasicFileAttributes>> stream
+                    = Files.newDirectoryStreamWithAttributes(dir)) {
+                for (Map.Entry<Path, BasicFileAttributes> e : stream) {
+                    entries++;
+                    if (e.getValue().isRegularFile()) {
+                        bytes += e.getValue().size();
+                    }
+                }
+            }
+            System.out.printf("%s: %d entries, %d bytes in regular files%n",
+                    dir, entries, bytes);
+
+            double t = measure(dir, d -> {
+                long total = 0;
+                for (File f : d.toFile().listFiles()) {
+                    if (f.isFile()) {
+                        total += f.length() + (f.lastModified() & 0);
+                    }
+                }
+                return total;
+            }, bytes);
+            System.out.printf("%-36s %9.1f ms%n", "File.listFiles", t);
+
+            t = measure(dir, d -> {
+                long total = 0;
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(d)) {
+                    for (Path p : stream) {
+                        BasicFileAttributes attrs = Files.readAttributes(p,
+                                BasicFileAttributes.class);
+                        if (attrs.isRegularFile()) {
+                            total += attrs.size()
+                                    + (attrs.lastModifiedTime().toMillis() & 0);
+                        }
+                    }
+                }
+                return total;
+            }, bytes);
+            System.out.printf("%-36s %9.1f ms%n",
+                    "newDirectoryStream + readAttributes", t);
+
+            t = measure(dir, d -> {
+                long total = 0;
+                try (DirectoryStream<Map.Entry<Path, BasicFileAttributes>> stream
+                        = Files.newDirectoryStreamWithAttributes(d)) {
+                    for (Map.Entry<Path, BasicFileAttributes> e : stream) {
+                        BasicFileAttributes attrs = e.getValue();
+                        if (attrs.isRegularFile()) {
+                            total += attrs.size()
+                                    + (attrs.lastModifiedTime().toMillis() & 0);
+                        }
+                    }
+                }
+                return total;
+            }, bytes);
+            System.out.printf("%-36s %9.1f ms%n",
+                    "newDirectoryStreamWithAttributes", t);
+        } finally {
+            if (created) {
+                deleteDirectory(dir);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.MappedRegion;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedScan measures the time taken to read every long of a large file
+ * sequentially: through {@link MappedByteBuffer}s of at most 1GB from
+ * {@link FileChannel#map}, through a single {@link MappedRegion} that is
+ * unmapped when done, with and without advice of the sequential scan, and
+ * with {@link FileChannel#read} into a direct buffer.
+ *
+ * <p>Usage: {@code java MappedScan [FILE | -create MEGABYTES]}. Without
+ * arguments, or with {@code -create}, a temporary file of 4608MB (or the
+ * given size) is written, scanned, and deleted. The first round brings the
+ * file into the page cache if it fits, so the times are those of scanning
+ * a cached file unless the file is larger than memory.
+ */
+public class MappedScan {
+    private static final int ROUNDS = 3;
+    private static final int WINDOW = 1 << 30;
+    private static final int READ_BUFFER = 1 << 20;
+
+    private interface Scan {
+        long checksum(FileChannel fc, long size) throws IOException;
+    }
+
+    private static Path createFile(long megabytes) throws IOException {
+        Path file = Files.createTempFile("scan", ".bin");
+        ByteBuffer buf = ByteBuffer.allocateDirect(READ_BUFFER)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        long value = 0;
+        try (FileChannel fc = FileChannel.open(file,
+                StandardOpenOption.WRITE)) {
+            for (long mb = 0; mb < megabytes; mb++) {
+                buf.clear();
+                while (buf.hasRemaining()) {
+                    buf.putLong(value++ * 0x9E3779B97F4A7C15L);
+                }
+                buf.flip();
+                while (buf.hasRemaining()) {
+                    fc.write(buf);
+                }
+            }
+        }
+        return file;
+    }
+
+    private static long mappedBuffers(FileChannel fc, long size)
+            throws IOException {
+        long sum = 0;
+        for (long pos = 0; pos < size; pos += WINDOW) {
+            MappedByteBuffer mbb = fc.map(FileChannel.MapMode.READ_ONLY, pos,
+                    Math.min(WINDOW, size - pos));
+            mbb.order(ByteOrder.LITTLE_ENDIAN);
+            int n = mbb.limit() & ~7;
+            for (int i = 0; i < n; i += 8) {
+                sum += mbb.getLong(i);
+            }
+            // The mapping is released when the buffer is garbage-collected
+        }
+        return sum;
+    }
+
+    private static long mappedRegion(FileChannel fc, long size,
+            MappedRegion.Advice advice) throws IOException {
+        long sum = 0;
+        try (MappedRegion region = MappedRegion.map(fc,
+                FileChannel.MapMode.READ_ONLY, 0, size)) {
+            region.order(ByteOrder.LITTLE_ENDIAN).advise(advice);
+            long n = size & ~7L;
+            for (long i = 0; i < n; i += 8) {
+                sum += region.getLong(i);
+            }
+        }
+        return sum;
+    }
+
+    private static long channelRead(FileChannel fc, long size)
+            throws IOException {
+        ByteBuffer buf = ByteBuffer.allocateDirect(READ_BUFFER)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        long sum = 0;
+        long pos = 0;
+        while (pos < size) {
+            buf.clear();
+            int n = fc.read(buf, pos);
+            if (n < 0) {
+                break;
+            }
+            pos += n;
+            buf.flip();
+            while (buf.remaining() >= 8) {
+                sum += buf.getLong();
+            }
+            // Leave a partial long for the next read
+            pos -= buf.remaining();
+            if (n < 8) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static double measure(FileChannel fc, long size, Scan scan,
+            long expected) throws IOException {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long sum = scan.checksum(fc, size);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            if (sum != expected) {
+                throw new AssertionError("Checksum " + sum + " instead of "
+                        + expected);
+            }
+        }
+        return best;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file;
+        boolean created = args.length == 0 || args[0].equals("-create");
+        if (created) {
+            long megabytes = args.length > 1 ? Long.parseLong(args[1]) : 4608;
+            file = createFile(megabytes);
+        } else {
+            file = Paths.get(args[0]);
+        }
+        try (FileChannel fc = FileChannel.open(file)) {
+            long size = fc.size();
+            long expected = channelRead(fc, size);
+            System.out.printf("%s: %d bytes%n", file, size);
+
+            double mb = size / (1024.0 * 1024.0);
+            double t = measure(fc, size, MappedScan::mappedBuffers, expected);
+            System.out.printf("%-34s %9.1f ms %8.1f MB/s%n",
+                    "MappedByteBuffer windows", t, mb / (t / 1e3));
+            for (MappedRegion.Advice advice : new MappedRegion.Advice[] {
+                    MappedRegion.Advice.NORMAL,
+                    MappedRegion.Advice.SEQUENTIAL }) {
+                t = measure(fc, size, (c, s) -> mappedRegion(c, s, advice),
+                        expected);
+                System.out.printf("%-34s %9.1f ms %8.1f MB/s%n",
+                        "MappedRegion (" + advice + ")", t, mb / (t / 1e3));
+            }
+            t = measure(fc, size, MappedScan::channelRead, expected);
+            System.out.printf("%-34s %9.1f ms %8.1f MB/s%n",
+                    "FileChannel.read", t, mb / (t / 1e3));
+        } finally {
+            if (created) {
+                Files.delete(file);
+            }
+        }
+    }
+}
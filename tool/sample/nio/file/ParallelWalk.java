@@ -0,0 +1,163 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.stream.Stream;
+
+/**
+ * ParallelWalk measures the time taken to walk a file tree with sequential
+ * and parallel streams from {@link Files#walk} and {@link Files#find}. A
+ * parallel stream splits whole subdirectories off to other threads.
+ *
+ * <p>Usage: {@code java ParallelWalk [DIRECTORY | -create FILES]}. Without
+ * arguments, or with {@code -create}, a temporary tree of 100,000 (or the
+ * given number of) empty files spread over nested directories is created,
+ * walked, and deleted. The file cache is warmed by the first round, so the
+ * times are those of walking a tree whose metadata is cached.
+ */
+public class ParallelWalk {
+    private static final int ROUNDS = 5;
+    private static final int FILES_PER_DIRECTORY = 100;
+    private static final int DIRECTORIES_PER_DIRECTORY = 10;
+
+    private interface Walk {
+        long count(Path root) throws IOException;
+    }
+
+    private static Path createTree(int files) throws IOException {
+        Path root = Files.createTempDirectory("walk");
+        int[] created = { 0 };
+        createLevel(root, files, created);
+        return root;
+    }
+
+    private static void createLevel(Path dir, int files, int[] created)
+            throws IOException {
+        for (int i = 0; i < FILES_PER_DIRECTORY && created[0] < files; i++) {
+            Files.createFile(dir.resolve("file" + i + ".txt"));
+            created[0]++;
+        }
+        for (int i = 0; i < DIRECTORIES_PER_DIRECTORY
+                && created[0] < files; i++) {
+            Path sub = Files.createDirectory(dir.resolve("dir" + i));
+            // Give each subtree an even share of the remaining files
+            int share = created[0]
+                    + (files - created[0]) / (DIRECTORIES_PER_DIRECTORY - i);
+            createLevel(sub, share, created);
+        }
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file,
+                    BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir,
+                    IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static double measure(Path root, Walk walk, long expected)
+            throws IOException {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long count = walk.count(root);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            if (count != expected) {
+                throw new AssertionError("Found " + count + " files instead of "
+                        + expected);
+            }
+        }
+        return best;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path root;
+        boolean created = args.length == 0 || args[0].equals("-create");
+        if (created) {
+            int files = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+            root = createTree(files);
+        } else {
+            root = Paths.get(args[0]);
+        }
+        try {
+            long entries;
+            long regular;
+            try (Stream<Path> s = Files.walk(root)) {
+                entries = s.count();
+            }
+            try (Stream<Path> s = Files.find(root, Integer.MAX_VALUE,
+                    (p, a) -> a.isRegularFile())) {
+                regular = s.count();
+            }
+            System.out.printf("%s: %d entries, %d regular files, %d threads%n",
+                    root, entries, regular,
+                    Runtime.getRuntime().availableProcessors());
+            System.out.printf("%-28s %12s %12s%n", "", "sequential",
+                    "parallel");
+
+            double seq = measure(root, r -> {
+                try (Stream<Path> s = Files.walk(r)) {
+                    return s.count();
+                }
+            }, entries);
+            double par = measure(root, r -> {
+                try (Stream<Path> s = Files.walk(r)) {
+                    return s.parallel().count();
+                }
+            }, entries);
+            System.out.printf("%-28s %9.1f ms %9.1f ms%n", "Files.walk",
+                    seq, par);
+
+            seq = measure(root, r -> {
+                try (Stream<Path> s = Files.find(r, Integer.MAX_VALUE,
+                        (p, a) -> a.isRegularFile())) {
+                    return s.count();
+                }
+            }, regular);
+            par = measure(root, r -> {
+                try (Stream<Path> s = Files.find(r, Integer.MAX_VALUE,
+                        (p, a) -> a.isRegularFile())) {
+                    return s.parallel().count();
+                }
+            }, regular);
+            System.out.printf("%-28s %9.1f ms %9.1f ms%n",
+                    "Files.find (regular files)", seq, par);
+        } finally {
+            if (created) {
+                deleteTree(root);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.text.ConcurrentDateFormat;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * DateFormatContention measures the throughput of threads that format and
+ * parse dates with the usual ways of sharing a {@link SimpleDateFormat}:
+ * one instance guarded by a lock, a new instance per call, and an instance
+ * per thread. It compares them with a shared {@link ConcurrentDateFormat}.
+ * The number of threads can be given as the first argument, the default
+ * is twice the number of available processors.
+ */
+public class DateFormatContention {
+    private static final String PATTERN = "yyyy-MM-dd HH:mm:ss.SSS";
+    private static final int OPERATIONS = 200_000;
+    private static final int ROUNDS = 3;
+
+    // Prevents the formatting from being optimized away
+    private static volatile long sink;
+
+    private interface Operation {
+        long apply(long millis) throws ParseException;
+    }
+
+    private static long roundTrip(DateFormat format, long millis)
+            throws ParseException {
+        return format.parse(format.format(new Date(millis))).getTime();
+    }
+
+    private static double measure(int threads, Supplier<Operation> factory)
+            throws InterruptedException {
+        double best = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                Operation op = factory.get();
+                workers[t] = new Thread(() -> {
+                    long sum = 0;
+                    try {
+                        start.await();
+                        for (int i = 0; i < OPERATIONS; i++) {
+                            sum += op.apply(1_500_000_000_000L + i * 1_013L);
+                        }
+                    } catch (InterruptedException | ParseException e) {
+                        throw new RuntimeException(e);
+                    }
+                    sink += sum;
+                });
+                workers[t].start();
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread w : workers) {
+                w.join();
+            }
+            double opsPerMs = (double) threads * OPERATIONS * 1_000_000
+                    / (System.nanoTime() - begin);
+            best = Math.max(best, opsPerMs);
+        }
+        return best;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors() * 2;
+
+        SimpleDateFormat locked = new SimpleDateFormat(PATTERN);
+        ThreadLocal<SimpleDateFormat> perThread =
+                ThreadLocal.withInitial(() -> new SimpleDateFormat(PATTERN));
+        ConcurrentDateFormat concurrent = ConcurrentDateFormat.ofPattern(PATTERN);
+
+        double lockedOps = measure(threads, () -> millis -> {
+            synchronized (locked) {
+                return roundTrip(locked, millis);
+            }
+        });
+        double newOps = measure(threads, () -> millis ->
+                roundTrip(new SimpleDateFormat(PATTERN), millis));
+        double threadLocalOps = measure(threads, () -> millis ->
+                roundTrip(perThread.get(), millis));
+        double concurrentOps = measure(threads, () -> millis ->
+                roundTrip(concurrent, millis));
+
+        System.out.printf("%d threads, format and parse of %s%n",
+                threads, PATTERN);
+        System.out.printf("synchronized SimpleDateFormat %10.0f ops/ms%n",
+                lockedOps);
+        System.out.printf("new SimpleDateFormat per call %10.0f ops/ms%n",
+                newOps);
+        System.out.printf("ThreadLocal SimpleDateFormat  %10.0f ops/ms%n",
+                threadLocalOps);
+        System.out.printf("ConcurrentDateFormat          %10.0f ops/ms%n",
+                concurrentOps);
+    }
+}
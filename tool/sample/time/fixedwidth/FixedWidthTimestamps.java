@@ -0,0 +1,102 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * FixedWidthTimestamps measures the time taken to parse and format
+ * timestamps with a fixed-width pattern such as {@code yyyyMMddHHmmss}.
+ * Such patterns are compiled by {@link DateTimeFormatter} to a fast path,
+ * which {@link DateTimeFormatter#parseLocalDateTime(CharSequence, int, int)}
+ * and {@link DateTimeFormatter#parseEpochSecond} use to parse a timestamp
+ * in place within a log line. The general path, taken by
+ * {@link DateTimeFormatter#parse(CharSequence, java.time.temporal.TemporalQuery)}
+ * on a copy of the timestamp, is measured for comparison.
+ */
+public class FixedWidthTimestamps {
+    private static final int LINES = 100_000;
+    private static final int ROUNDS = 10;
+
+    // Prevents the parsing from being optimized away
+    private static long sink;
+
+    private interface Operation {
+        long apply(String line);
+    }
+
+    private static double measure(String[] lines, Operation op) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String line : lines) {
+                sink += op.apply(line);
+            }
+            best = Math.min(best,
+                    (double) (System.nanoTime() - start) / lines.length);
+        }
+        return best;
+    }
+
+    public static void main(String[] args) {
+        String pattern = args.length > 0 ? args[0] : "yyyyMMddHHmmss";
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+
+        // Log lines of the form "<timestamp> INFO message"
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        String[] lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = formatter.format(base.plusSeconds(i * 7919L))
+                    + " INFO request " + i;
+        }
+        int width = lines[0].indexOf(' ');
+
+        for (String line : lines) {
+            LocalDateTime expected = formatter.parse(
+                    line.substring(0, width), LocalDateTime::from);
+            if (!expected.equals(formatter.parseLocalDateTime(line, 0, width))
+                    || expected.toEpochSecond(ZoneOffset.UTC)
+                        != formatter.parseEpochSecond(line, 0, width,
+                                                      ZoneOffset.UTC)
+                    || !line.startsWith(formatter.format(expected))) {
+                throw new AssertionError("Different result for " + line);
+            }
+        }
+
+        double general = measure(lines, line -> formatter.parse(
+                line.substring(0, width), LocalDateTime::from).getSecond());
+        double range = measure(lines, line ->
+                formatter.parseLocalDateTime(line, 0, width).getSecond());
+        double epoch = measure(lines, line ->
+                formatter.parseEpochSecond(line, 0, width, ZoneOffset.UTC));
+        LocalDateTime value = base.plusDays(1234);
+        double format = measure(lines, line ->
+                formatter.format(value).length());
+
+        System.out.printf("pattern %s%n", pattern);
+        System.out.printf("parse, substring         %8.1f ns%n", general);
+        System.out.printf("parseLocalDateTime range %8.1f ns%n", range);
+        System.out.printf("parseEpochSecond range   %8.1f ns%n", epoch);
+        System.out.printf("format                   %8.1f ns%n", format);
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+}
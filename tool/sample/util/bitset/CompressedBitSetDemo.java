@@ -0,0 +1,195 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.CompressedBitSet;
+import java.util.Random;
+
+import static java.lang.Integer.parseInt;
+
+/**
+ * CompressedBitSetDemo compares the memory used by {@link CompressedBitSet}
+ * and {@link BitSet}, and the speed of their logical operations, on three
+ * kinds of data: sparse sets of random indices spread over the whole range,
+ * clustered sets made of runs of consecutive indices, and dense sets in
+ * which every other index is set at random. The range of the indices of the
+ * sparse and clustered sets is the first command line argument, by default
+ * 2<sup>28</sup>; a {@code BitSet} over the full {@code int} range takes 256
+ * megabytes. Finally, one of the compressed sets is written to a file and
+ * mapped back into memory with {@link CompressedBitSet#map}.
+ */
+public class CompressedBitSetDemo {
+    // Use a fixed seed to always get the same random values back
+    private static final long SEED = 759123751834L;
+    private static final int ITERATIONS = 10;
+
+    private static final String[] OPERATIONS = { "and", "or", "andNot", "xor" };
+
+    /**
+     * A pair of sets with the same content, one of each kind
+     */
+    private static class Sets {
+        final BitSet bitSet = new BitSet();
+        final CompressedBitSet compressed = new CompressedBitSet();
+
+        void set(int index) {
+            bitSet.set(index);
+            compressed.set(index);
+        }
+
+        void set(int from, int to) {
+            bitSet.set(from, to);
+            compressed.set(from, to);
+        }
+    }
+
+    private static Sets sparse(Random random, int range) {
+        Sets sets = new Sets();
+        for (int i = 0; i < 1_000_000; i++) {
+            sets.set(random.nextInt(range));
+        }
+        return sets;
+    }
+
+    private static Sets clustered(Random random, int range) {
+        Sets sets = new Sets();
+        for (int i = 0; i < 10_000; i++) {
+            int from = random.nextInt(range - 10_000);
+            sets.set(from, from + random.nextInt(10_000));
+        }
+        return sets;
+    }
+
+    private static Sets dense(Random random, int range) {
+        Sets sets = new Sets();
+        for (int i = 0; i < 1 << 24; i++) {
+            if (random.nextBoolean()) {
+                sets.set(i);
+            }
+        }
+        return sets;
+    }
+
+    private static void apply(String operation, BitSet a, BitSet b) {
+        switch (operation) {
+            case "and": a.and(b); break;
+            case "or": a.or(b); break;
+            case "andNot": a.andNot(b); break;
+            default: a.xor(b);
+        }
+    }
+
+    private static void apply(String operation, CompressedBitSet a, CompressedBitSet b) {
+        switch (operation) {
+            case "and": a.and(b); break;
+            case "or": a.or(b); break;
+            case "andNot": a.andNot(b); break;
+            default: a.xor(b);
+        }
+    }
+
+    private static void run(String name, Sets a, Sets b) {
+        a.compressed.runOptimize();
+        b.compressed.runOptimize();
+        System.out.printf("%n%s: %d and %d bits set%n", name,
+                a.bitSet.cardinality(), b.bitSet.cardinality());
+        System.out.printf("%-10s %14s %14s%n", "", "BitSet", "Compressed");
+        System.out.printf("%-10s %14d %14d%n", "bytes", a.bitSet.size() / 8,
+                a.compressed.serializedSize());
+        for (String operation : OPERATIONS) {
+            // Best time in microseconds of applying the operation to a clone
+            // of the first set
+            long bitsTime = Long.MAX_VALUE, compressedTime = Long.MAX_VALUE;
+            BitSet bits = null;
+            CompressedBitSet compressed = null;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                bits = (BitSet) a.bitSet.clone();
+                apply(operation, bits, b.bitSet);
+                bitsTime = Math.min(bitsTime, System.nanoTime() - start);
+                start = System.nanoTime();
+                compressed = (CompressedBitSet) a.compressed.clone();
+                apply(operation, compressed, b.compressed);
+                compressedTime = Math.min(compressedTime, System.nanoTime() - start);
+            }
+            if (!CompressedBitSet.valueOf(bits).equals(compressed)) {
+                throw new AssertionError(operation + " results differ");
+            }
+            System.out.printf("%-10s %12dus %12dus%n", operation, bitsTime / 1000,
+                    compressedTime / 1000);
+        }
+    }
+
+    /**
+     * Writes the set to a temporary file, maps it and checks that the mapped
+     * set is equal to the original one
+     */
+    private static void map(CompressedBitSet set) throws IOException {
+        Path file = Files.createTempFile("bitset", ".bin");
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_WRITE, 0,
+                    set.serializedSize());
+            set.serialize(buffer);
+            buffer.force();
+
+            long start = System.nanoTime();
+            CompressedBitSet mapped = CompressedBitSet.map(
+                    fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size()));
+            long mapTime = System.nanoTime() - start;
+            if (!mapped.equals(set)) {
+                throw new AssertionError("Mapped set differs");
+            }
+            System.out.printf("%nMapped %d bytes in %dus%n", fc.size(), mapTime / 1000);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int range = 1 << 28;
+        try {
+            if (args.length == 1) {
+                range = parseInt(args[0]);
+            } else if (args.length != 0) {
+                throw new IllegalArgumentException();
+            }
+            if (range < 1 << 24) {
+                throw new IllegalArgumentException();
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("CompressedBitSetDemo [<range>]");
+            System.err.println("example: CompressedBitSetDemo 2147483647");
+            return;
+        }
+
+        Random random = new Random(SEED);
+        run("sparse", sparse(random, range), sparse(random, range));
+        Sets clustered = clustered(random, range);
+        run("clustered", clustered, clustered(random, range));
+        run("dense", dense(random, range), dense(random, range));
+        map(clustered.compressed);
+    }
+}
@@ -0,0 +1,123 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.util.Formatter;
+import java.util.Formatter.CompiledFormat;
+import java.util.function.IntFunction;
+
+/**
+ * CompiledFormatDemo measures the time taken to format common patterns with
+ * {@link String#format}, which reuses parsed format strings from an internal
+ * cache, with a {@link CompiledFormat} obtained from
+ * {@link Formatter#compile}, and with a hand-written {@link StringBuilder}
+ * equivalent, which is the lower bound. The patterns with a {@code %s},
+ * {@code %d}, {@code %x} or {@code %0Nd} conversion only take the fast path
+ * of the formatter; the last pattern takes the general path.
+ */
+public class CompiledFormatDemo {
+    private static final int ITERATIONS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    // Prevents the formatting from being optimized away
+    private static int sink;
+
+    private static class Case {
+        final String format;
+        final IntFunction<Object[]> args;
+        final IntFunction<String> manual;
+
+        Case(String format, IntFunction<Object[]> args,
+                IntFunction<String> manual) {
+            this.format = format;
+            this.args = args;
+            this.manual = manual;
+        }
+    }
+
+    private static String pad(String s, int width, char c) {
+        StringBuilder sb = new StringBuilder(width);
+        for (int i = s.length(); i < width; i++) {
+            sb.append(c);
+        }
+        return sb.append(s).toString();
+    }
+
+    private static final Case[] CASES = {
+        new Case("%s", i -> new Object[] { "name" },
+                 i -> "name"),
+        new Case("part-%05d.dat", i -> new Object[] { i },
+                 i -> "part-" + pad(Integer.toString(i), 5, '0') + ".dat"),
+        new Case("%s:%d", i -> new Object[] { "line", i },
+                 i -> "line:" + i),
+        new Case("0x%08x", i -> new Object[] { i },
+                 i -> "0x" + pad(Integer.toHexString(i), 8, '0')),
+        new Case("%-12s|%8d|", i -> new Object[] { "column", (long) i },
+                 i -> "column      |" + pad(Long.toString(i), 8, ' ') + "|"),
+        new Case("%,d items, %.2f%%", i -> new Object[] { i, i / 7.0 },
+                 null),
+    };
+
+    private interface Formatting {
+        String format(Case c, int i);
+    }
+
+    private static double measure(Case c, Formatting f) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += f.format(c, i).length();
+            }
+            best = Math.min(best,
+                    (double) (System.nanoTime() - start) / ITERATIONS);
+        }
+        return best;
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%-20s %14s %14s %14s%n", "pattern",
+                "String.format", "compiled", "StringBuilder");
+        for (Case c : CASES) {
+            CompiledFormat compiled = Formatter.compile(c.format);
+            for (int i = 0; i < 1000; i++) {
+                String expected = String.format(c.format, c.args.apply(i));
+                if (!expected.equals(compiled.format(c.args.apply(i)))
+                        || (c.manual != null
+                            && !expected.equals(c.manual.apply(i)))) {
+                    throw new AssertionError("Different output for "
+                            + c.format);
+                }
+            }
+            double plain = measure(c, (k, i) ->
+                    String.format(k.format, k.args.apply(i)));
+            double comp = measure(c, (k, i) ->
+                    compiled.format(k.args.apply(i)));
+            String manual = "-";
+            if (c.manual != null) {
+                manual = String.format("%.1f", measure(c, (k, i) ->
+                        k.manual.apply(i)));
+            }
+            System.out.printf("%-20s %11.1f ns %11.1f ns %11s ns%n",
+                    c.format, plain, comp, manual);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+}
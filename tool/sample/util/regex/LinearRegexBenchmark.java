@@ -0,0 +1,195 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LinearRegexBenchmark compares patterns compiled with
+ * {@link Pattern#compile}, which match by backtracking, with the same
+ * patterns compiled with {@link Pattern#compileLinear}.
+ *
+ * <p>The first table filters generated source and log lines the way the
+ * Grep sample in {@code lambda/BulkDataOperations} does, with
+ * {@code Matcher.find}; most lines do not match.  The second table matches
+ * patterns prone to catastrophic backtracking against inputs of growing
+ * length that almost match: the backtracking time doubles with every few
+ * characters, while the linear time grows with the length of the input.
+ * Both engines must agree on every line and input.
+ */
+public class LinearRegexBenchmark {
+    private static final int LINES = 200_000;
+    private static final int ROUNDS = 5;
+
+    // Prevents the matching from being optimized away
+    private static int sink;
+
+    private static final String[] GREP_PATTERNS = {
+        "IOException",
+        "import java\\.util\\.[a-z]+\\.",
+        "[0-9]{4}-[0-9]{2}-[0-9]{2} [0-9]{2}:[0-9]{2}",
+        "(ERROR|WARN).*timeout after [0-9]+ ?ms",
+        "\\bstatic\\s+final\\b",
+        "(?i)todo|fixme",
+    };
+
+    // Input lengths; the backtracking engine is only timed on the first
+    private static final int[] LENGTHS = { 16, 20, 24, 1 << 10, 1 << 20 };
+    private static final int BACKTRACKING_LENGTHS = 3;
+
+    private static final String[] CATASTROPHIC_PATTERNS = {
+        "(a+)+b",
+        "(a|aa)*c",
+        "(x+x+)+y",
+        "(\\w|\\d)+!",
+    };
+
+    private static final String[] WORDS = {
+        "public", "static", "final", "int", "return", "if", "else", "for",
+        "new", "String", "List", "map", "value", "index", "result", "null",
+        "import", "java.util.List;", "{", "}", "(", ")", "=", "+", "//",
+    };
+
+    private static List<String> lines() {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>(LINES);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            sb.setLength(0);
+            if (i % 3 == 0) {
+                sb.append(String.format("2021-%02d-%02d %02d:%02d:%02d ",
+                        random.nextInt(12) + 1, random.nextInt(28) + 1,
+                        random.nextInt(24), random.nextInt(60),
+                        random.nextInt(60)));
+                sb.append(random.nextInt(50) == 0 ? "ERROR " : "INFO ");
+            } else {
+                for (int k = random.nextInt(8); k > 0; k--) {
+                    sb.append("    ");
+                }
+            }
+            for (int k = random.nextInt(12) + 1; k > 0; k--) {
+                sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            if (random.nextInt(500) == 0) {
+                sb.append("timeout after ").append(random.nextInt(1000))
+                        .append(" ms");
+            }
+            if (random.nextInt(1000) == 0) {
+                sb.append("// TODO handle IOException");
+            }
+            if (random.nextInt(1000) == 0) {
+                sb.append("import java.util.concurrent.Future;");
+            }
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+
+    private static int grep(Pattern pattern, List<String> lines) {
+        Matcher m = pattern.matcher("");
+        int count = 0;
+        for (String line : lines) {
+            if (m.reset(line).find()) {
+                count += m.end();
+            }
+        }
+        return count;
+    }
+
+    private static double measure(Pattern pattern, List<String> lines) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            sink += grep(pattern, lines);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+
+    private static double measure(Pattern pattern, String input) {
+        long start = System.nanoTime();
+        Matcher m = pattern.matcher(input);
+        sink += m.find() ? m.end() : -1;
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static String result(Pattern pattern, String input) {
+        Matcher m = pattern.matcher(input);
+        StringBuilder sb = new StringBuilder();
+        while (m.find()) {
+            for (int g = 0; g <= m.groupCount(); g++) {
+                sb.append(m.start(g)).append(',').append(m.end(g)).append(' ');
+            }
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) {
+        List<String> lines = lines();
+        System.out.printf("%-48s %12s %12s%n", "pattern (" + LINES
+                + " lines)", "compile", "compileLinear");
+        for (String regex : GREP_PATTERNS) {
+            Pattern backtracking = Pattern.compile(regex);
+            Pattern linear = Pattern.compileLinear(regex);
+            for (String line : lines) {
+                if (!result(backtracking, line).equals(result(linear, line))) {
+                    throw new AssertionError("Different matches of " + regex
+                            + " in " + line);
+                }
+            }
+            System.out.printf("%-48s %9.1f ms %9.1f ms%n", regex,
+                    measure(backtracking, lines), measure(linear, lines));
+        }
+
+        System.out.println();
+        System.out.printf("%-12s %8s %12s %12s%n", "pattern", "length",
+                "compile", "compileLinear");
+        for (String regex : CATASTROPHIC_PATTERNS) {
+            Pattern backtracking = Pattern.compile(regex);
+            Pattern linear = Pattern.compileLinear(regex);
+            char c = regex.charAt(1) == '\\' ? '7' : regex.charAt(1);
+            for (int k = 0; k < LENGTHS.length; k++) {
+                int length = LENGTHS[k];
+                StringBuilder sb = new StringBuilder(length);
+                for (int i = 0; i < length; i++) {
+                    sb.append(c);
+                }
+                String input = sb.toString();
+                double lt = measure(linear, input);
+                String bt = "-";
+                if (k < BACKTRACKING_LENGTHS) {
+                    if (!result(backtracking, input).equals(
+                            result(linear, input))) {
+                        throw new AssertionError("Different matches of "
+                                + regex);
+                    }
+                    bt = String.format("%.1f", measure(backtracking, input));
+                }
+                System.out.printf("%-12s %8d %9s ms %9.1f ms%n", regex,
+                        length, bt, lt);
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.BlockGZIPInputStream;
+import java.util.zip.BlockGZIPOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * BlockGZIPBenchmark compresses generated call-log text with
+ * {@link GZIPOutputStream} and with {@link BlockGZIPOutputStream}, checks
+ * that {@link GZIPInputStream} reads both files back, and compares the
+ * time taken to read records at random offsets: by skipping through a
+ * {@code GZIPInputStream}, and by seeking a {@link BlockGZIPInputStream}.
+ * It also reports how much of the block file a {@code GZIPInputStream}
+ * reads through a stream that, like a pipe or a socket, returns few bytes
+ * at a time and reports none available: such a reader may stop at the end
+ * of any block, as described in {@link BlockGZIPOutputStream}.
+ *
+ * <p>Usage: {@code java BlockGZIPBenchmark [MEGABYTES [READS]]}.
+ */
+public class BlockGZIPBenchmark {
+    private static final int ROUNDS = 3;
+
+    // Length of the records read at random offsets
+    private static final int RECORD = 4096;
+
+    // Keeps the results live
+    private static long sink;
+
+    private interface Compressor {
+        OutputStream open(File file) throws IOException;
+    }
+
+    private static byte[] callLog(int size) {
+        String[] states = { "ANSWERED", "BUSY", "NO ANSWER", "FAILED" };
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(size + 200);
+        long time = 1_600_000_000L;
+        while (sb.length() < size) {
+            time += random.nextInt(30);
+            sb.append(time)
+              .append(",+1555").append(1_000_000 + random.nextInt(9_000_000))
+              .append(",+1555").append(1_000_000 + random.nextInt(9_000_000))
+              .append(',').append(random.nextInt(3600))
+              .append(',').append(states[random.nextInt(states.length)])
+              .append(",trunk-").append(random.nextInt(64)).append('\n');
+        }
+        sb.setLength(size);
+        return sb.toString().getBytes();
+    }
+
+    private static double compress(File file, byte[] data, Compressor c)
+            throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            try (OutputStream out = c.open(file)) {
+                for (int off = 0; off < data.length; off += 8192) {
+                    out.write(data, off, Math.min(8192, data.length - off));
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+    private static double decompress(File file, byte[] data)
+            throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            ByteArrayOutputStream bytes =
+                    new ByteArrayOutputStream(data.length);
+            try (InputStream in = new GZIPInputStream(
+                    new FileInputStream(file), 65536)) {
+                byte[] b = new byte[65536];
+                for (int n; (n = in.read(b)) > 0; ) {
+                    bytes.write(b, 0, n);
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            if (!Arrays.equals(bytes.toByteArray(), data)) {
+                throw new AssertionError("GZIPInputStream read other data");
+            }
+        }
+        return best / 1e6;
+    }
+
+    // Reads the file through a stream that, as a pipe or a socket may,
+    // returns few bytes at a time and reports none available, and returns
+    // the number of bytes read before GZIPInputStream reported the end
+    private static int readStreamed(File file, byte[] data)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length);
+        try (InputStream in = new GZIPInputStream(
+                new FilterInputStream(new FileInputStream(file)) {
+                    public int read(byte[] b, int off, int len)
+                            throws IOException {
+                        return super.read(b, off, Math.min(len, 16));
+                    }
+
+                    public int available() {
+                        return 0;
+                    }
+                }, 65536)) {
+            byte[] b = new byte[65536];
+            for (int n; (n = in.read(b)) > 0; ) {
+                bytes.write(b, 0, n);
+            }
+        }
+        byte[] read = bytes.toByteArray();
+        if (read.length > data.length
+                || !Arrays.equals(read, Arrays.copyOf(data, read.length))) {
+            throw new AssertionError("GZIPInputStream read other data");
+        }
+        return read.length;
+    }
+
+    private static void readFully(InputStream in, byte[] b) throws IOException {
+        for (int off = 0; off < b.length; ) {
+            int n = in.read(b, off, b.length - off);
+            if (n < 0) {
+                throw new AssertionError("Unexpected end of data");
+            }
+            off += n;
+        }
+    }
+
+    // Returns the average time to read a record at a random offset, in ms
+    private static double skipRead(File file, byte[] data, long[] offsets)
+            throws IOException {
+        byte[] record = new byte[RECORD];
+        long start = System.nanoTime();
+        for (long offset : offsets) {
+            try (InputStream in = new GZIPInputStream(
+                    new FileInputStream(file), 65536)) {
+                for (long n = offset; n > 0; ) {
+                    n -= in.skip(n);
+                }
+                readFully(in, record);
+            }
+            check(record, data, offset);
+        }
+        return (System.nanoTime() - start) / 1e6 / offsets.length;
+    }
+
+    private static double seekRead(File file, byte[] data, long[] offsets)
+            throws IOException {
+        byte[] record = new byte[RECORD];
+        long best = Long.MAX_VALUE;
+        try (BlockGZIPInputStream in = new BlockGZIPInputStream(file)) {
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (long offset : offsets) {
+                    in.seek(offset);
+                    readFully(in, record);
+                    check(record, data, offset);
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        return best / 1e6 / offsets.length;
+    }
+
+    private static void check(byte[] record, byte[] data, long offset) {
+        for (int i = 0; i < record.length; i++) {
+            if (record[i] != data[(int) offset + i]) {
+                throw new AssertionError("Wrong data at " + (offset + i));
+            }
+        }
+        sink += record[0];
+    }
+
+    public static void main(String[] args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 128;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        byte[] data = callLog(megabytes << 20);
+        File plain = File.createTempFile("calls", ".gz");
+        File blocks = File.createTempFile("calls", ".bgz");
+        plain.deleteOnExit();
+        blocks.deleteOnExit();
+
+        System.out.printf("%d MB of call log, %d processors%n", megabytes,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-24s %10s %10s %12s%n", "", "compress",
+                "gunzip", "size");
+        double t = compress(plain, data, new Compressor() {
+            public OutputStream open(File file) throws IOException {
+                return new GZIPOutputStream(new FileOutputStream(file), 65536);
+            }
+        });
+        System.out.printf("%-24s %7.0f ms %7.0f ms %12d%n", "GZIPOutputStream",
+                t, decompress(plain, data), plain.length());
+        t = compress(blocks, data, new Compressor() {
+            public OutputStream open(File file) throws IOException {
+                return new BlockGZIPOutputStream(new FileOutputStream(file));
+            }
+        });
+        System.out.printf("%-24s %7.0f ms %7.0f ms %12d%n",
+                "BlockGZIPOutputStream", t, decompress(blocks, data),
+                blocks.length());
+        System.out.printf("%-24s %10d of %d bytes read%n",
+                "GZIPInputStream via pipe", readStreamed(blocks, data),
+                data.length);
+
+        Random random = new Random(7);
+        long[] offsets = new long[reads];
+        for (int i = 0; i < reads; i++) {
+            offsets[i] = random.nextInt(data.length - RECORD);
+        }
+        // Skipping through the whole stream is slow: time fewer reads
+        long[] few = Arrays.copyOf(offsets, Math.max(1, Math.min(reads, 20)));
+        System.out.printf("%n%d byte records at random offsets%n", RECORD);
+        System.out.printf("%-24s %10.3f ms/read%n", "GZIPInputStream skip",
+                skipRead(plain, data, few));
+        System.out.printf("%-24s %10.3f ms/read%n", "BlockGZIPInputStream seek",
+                seekRead(blocks, data, offsets));
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+
+/**
+ * ChecksumBenchmark measures the throughput of {@link CRC32} and
+ * {@link Adler32} on inputs from 4 KB to 4 GB: on heap arrays and direct
+ * buffers for the sizes that fit in memory, and on files read sequentially
+ * through a direct buffer or checksummed in parallel with
+ * {@code update(FileChannel, long, long)}. The files are written to the
+ * temporary directory, and sizes for which there is not enough space are
+ * skipped.
+ *
+ * <p>Usage: {@code java ChecksumBenchmark [MAX_FILE_BYTES]}.
+ */
+public class ChecksumBenchmark {
+    private static final int ROUNDS = 3;
+
+    // Largest input checksummed in memory
+    private static final int MAX_MEMORY_SIZE = 64 << 20;
+
+    // Keeps the results live
+    private static long sink;
+
+    private interface Workload {
+        long run() throws IOException;
+    }
+
+    // Returns the best throughput in MB/s
+    private static double measure(long bytes, Workload workload)
+            throws IOException {
+        long rounds = Math.max(1, (256L << 20) / bytes);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (long i = 0; i < rounds; i++) {
+                sink += workload.run();
+            }
+            best = Math.min(best, (System.nanoTime() - start) / rounds);
+        }
+        return bytes * 1e3 / best;
+    }
+
+    private static String size(long bytes) {
+        return bytes >= 1L << 30 ? (bytes >> 30) + " GB"
+                : bytes >= 1 << 20 ? (bytes >> 20) + " MB"
+                : (bytes >> 10) + " KB";
+    }
+
+    private static void memory(final byte[] data, final int len)
+            throws IOException {
+        final ByteBuffer direct = ByteBuffer.allocateDirect(len);
+        direct.put(data, 0, len).flip();
+        double crcArray = measure(len, new Workload() {
+            public long run() {
+                CRC32 crc = new CRC32();
+                crc.update(data, 0, len);
+                return crc.getValue();
+            }
+        });
+        double crcDirect = measure(len, new Workload() {
+            public long run() {
+                CRC32 crc = new CRC32();
+                crc.update(direct.duplicate());
+                return crc.getValue();
+            }
+        });
+        double adlerArray = measure(len, new Workload() {
+            public long run() {
+                Adler32 adler = new Adler32();
+                adler.update(data, 0, len);
+                return adler.getValue();
+            }
+        });
+        double adlerDirect = measure(len, new Workload() {
+            public long run() {
+                Adler32 adler = new Adler32();
+                adler.update(direct.duplicate());
+                return adler.getValue();
+            }
+        });
+        System.out.printf("%-8s %-8s %12.0f %12.0f %12.0f %12.0f%n", size(len),
+                "memory", crcArray, crcDirect, adlerArray, adlerDirect);
+    }
+
+    private static void file(Path path, final long len, byte[] data)
+            throws IOException {
+        try (FileChannel out = FileChannel.open(path,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long written = 0; written < len; ) {
+                int n = (int) Math.min(data.length, len - written);
+                written += out.write(ByteBuffer.wrap(data, 0, n));
+            }
+        }
+        try (final FileChannel in = FileChannel.open(path)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            Workload crcSequential = new Workload() {
+                public long run() throws IOException {
+                    CRC32 crc = new CRC32();
+                    for (long pos = 0; in.read(buffer, pos) >= 0; ) {
+                        buffer.flip();
+                        pos += buffer.remaining();
+                        crc.update(buffer);
+                        buffer.clear();
+                    }
+                    return crc.getValue();
+                }
+            };
+            Workload crcParallel = new Workload() {
+                public long run() throws IOException {
+                    CRC32 crc = new CRC32();
+                    crc.update(in, 0, len);
+                    return crc.getValue();
+                }
+            };
+            Workload adlerSequential = new Workload() {
+                public long run() throws IOException {
+                    Adler32 adler = new Adler32();
+                    for (long pos = 0; in.read(buffer, pos) >= 0; ) {
+                        buffer.flip();
+                        pos += buffer.remaining();
+                        adler.update(buffer);
+                        buffer.clear();
+                    }
+                    return adler.getValue();
+                }
+            };
+            Workload adlerParallel = new Workload() {
+                public long run() throws IOException {
+                    Adler32 adler = new Adler32();
+                    adler.update(in, 0, len);
+                    return adler.getValue();
+                }
+            };
+            if (crcSequential.run() != crcParallel.run()
+                    || adlerSequential.run() != adlerParallel.run()) {
+                throw new AssertionError("Parallel checksum differs");
+            }
+            System.out.printf("%-8s %-8s %12.0f %12.0f %12.0f %12.0f%n",
+                    size(len), "file", measure(len, crcSequential),
+                    measure(len, crcParallel), measure(len, adlerSequential),
+                    measure(len, adlerParallel));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        long maxFile = args.length > 0 ? Long.parseLong(args[0]) : 4L << 30;
+
+        byte[] data = new byte[MAX_MEMORY_SIZE];
+        new Random(42).nextBytes(data);
+
+        // The combined checksum of two halves is that of the whole
+        CRC32 whole = new CRC32();
+        whole.update(data, 0, 1 << 20);
+        CRC32 first = new CRC32();
+        first.update(data, 0, 1000);
+        CRC32 second = new CRC32();
+        second.update(data, 1000, (1 << 20) - 1000);
+        if (CRC32.combine(first.getValue(), second.getValue(), (1 << 20) - 1000)
+                != whole.getValue()) {
+            throw new AssertionError("CRC32.combine is wrong");
+        }
+
+        System.out.printf("%d processors, throughput in MB/s%n",
+                ForkJoinPool.commonPool().getParallelism());
+        System.out.printf("%-8s %-8s %12s %12s %12s %12s%n", "", "",
+                "crc array/", "crc direct/", "adler array/", "adler direct/");
+        System.out.printf("%-8s %-8s %12s %12s %12s %12s%n", "size", "input",
+                "sequential", "parallel", "sequential", "parallel");
+        for (int len = 4 << 10; len <= MAX_MEMORY_SIZE; len <<= 4) {
+            memory(data, len);
+        }
+
+        Path path = Files.createTempFile("checksum", ".bin");
+        try {
+            File dir = path.toFile().getParentFile();
+            for (long len = 64L << 20; len <= maxFile; len <<= 2) {
+                if (dir.getUsableSpace() < len + (64L << 20)) {
+                    System.out.printf("%-8s skipped, not enough space%n",
+                            size(len));
+                    continue;
+                }
+                file(path, len, data);
+            }
+        } finally {
+            Files.delete(path);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+}
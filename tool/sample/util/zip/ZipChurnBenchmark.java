@@ -0,0 +1,194 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * 
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+/*
+ * This source code is provided to illustrate the usage of a given feature
+ * or technique and has been deliberately simplified. Additional steps
+ * required for a production-quality application, such as security checks,
+ * input validation and proper error handling, might not be present in
+ * this sample code.
+ */
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * ZipChurnBenchmark creates Deflaters, Inflaters and ZipFile input streams
+ * and drops them without ending or closing them, leaving their native
+ * resources to be released once they are no longer reachable. For each
+ * workload it reports the elapsed time, the time spent in garbage
+ * collection, the largest number of objects seen pending finalization and,
+ * where {@code /proc/self/fd} exists, the largest number of open file
+ * descriptors. Each iteration also allocates some heap garbage, as the
+ * requests of an application would, since the native resources are only
+ * released after the collections that this garbage triggers.
+ *
+ * <p>The native memory held by unreleased zlib streams cannot be measured
+ * portably from Java; watch the resident size of the process with the
+ * tools of the platform while the benchmark runs.
+ *
+ * <p>Usage: {@code java ZipChurnBenchmark [ITERATIONS [GARBAGE_BYTES]]}.
+ */
+public class ZipChurnBenchmark {
+    private static final int ROUNDS = 3;
+
+    // Keeps the results live
+    private static long sink;
+
+    private static final MemoryMXBean MEMORY =
+            ManagementFactory.getMemoryMXBean();
+    private static final List<GarbageCollectorMXBean> COLLECTORS =
+            ManagementFactory.getGarbageCollectorMXBeans();
+    private static final File FDS = new File("/proc/self/fd");
+
+    private interface Workload {
+        void run(int i) throws Exception;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : COLLECTORS) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : COLLECTORS) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static int openFiles() {
+        String[] fds = FDS.list();
+        return fds == null ? -1 : fds.length;
+    }
+
+    private static void measure(String name, int n, int garbage,
+            Workload workload)
+            throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            System.gc();
+            long gcTime = gcMillis();
+            long gcs = gcCount();
+            int pending = 0;
+            int files = openFiles();
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                workload.run(i);
+                sink += new byte[garbage].length;
+                if ((i & 1023) == 0) {
+                    pending = Math.max(pending,
+                            MEMORY.getObjectPendingFinalizationCount());
+                    files = Math.max(files, openFiles());
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-22s %8.1f ms %8d ms %6d %10d %10s%n", name,
+                    elapsed / 1e6, gcMillis() - gcTime, gcCount() - gcs,
+                    pending, files < 0 ? "n/a" : Integer.toString(files));
+        }
+    }
+
+    private static File createZip(byte[] data) throws IOException {
+        File file = File.createTempFile("churn", ".zip");
+        file.deleteOnExit();
+        try (ZipOutputStream out =
+                new ZipOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < 16; i++) {
+                out.putNextEntry(new ZipEntry("entry" + i));
+                out.write(data);
+                out.closeEntry();
+            }
+        }
+        return file;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int garbage = args.length > 1 ? Integer.parseInt(args[1]) : 64 * 1024;
+
+        final byte[] data = new byte[4096];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ("churn benchmark ".charAt(i % 16) + i / 512);
+        }
+        final byte[] compressed = new byte[data.length * 2];
+        final byte[] restored = new byte[data.length];
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        final int compressedLength = deflater.deflate(compressed);
+        deflater.end();
+
+        Inflater check = new Inflater();
+        check.setInput(compressed, 0, compressedLength);
+        if (check.inflate(restored) != data.length
+                || !java.util.Arrays.equals(data, restored)) {
+            throw new AssertionError("Round trip changed the data");
+        }
+        check.end();
+
+        final File zip = createZip(data);
+        final ZipFile shared = new ZipFile(zip);
+
+        System.out.printf("%d iterations with %d bytes of garbage each,"
+                + " dropped without end() or close()%n", n, garbage);
+        System.out.printf("%-22s %11s %11s %6s %10s %10s%n", "", "time",
+                "gc time", "gcs", "pending", "open fds");
+        measure("Deflater", n, garbage, new Workload() {
+            public void run(int i) {
+                Deflater d = new Deflater(Deflater.BEST_SPEED);
+                d.setInput(data, 0, 512);
+                d.finish();
+                sink += d.deflate(compressed);
+            }
+        });
+        measure("Inflater", n, garbage, new Workload() {
+            public void run(int i) throws DataFormatException {
+                Inflater inf = new Inflater();
+                inf.setInput(compressed, 0, compressedLength);
+                sink += inf.inflate(restored, 0, 512);
+            }
+        });
+        measure("ZipFile stream", n, garbage, new Workload() {
+            public void run(int i) throws IOException {
+                ZipEntry entry = shared.getEntry("entry" + (i & 15));
+                InputStream in = shared.getInputStream(entry);
+                sink += in.read(restored, 0, 512);
+            }
+        });
+        measure("ZipFile", n / 20, garbage, new Workload() {
+            public void run(int i) throws IOException {
+                ZipFile file = new ZipFile(zip);
+                InputStream in = file.getInputStream(file.getEntry("entry0"));
+                sink += in.read(restored, 0, 512);
+            }
+        });
+        shared.close();
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+}
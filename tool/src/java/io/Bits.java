@@ -36,12 +36,49 @@
 
 package java.io;
 
+import java.nio.ByteOrder;
+import java.security.AccessController;
+import sun.misc.Unsafe;
+import sun.security.action.GetPropertyAction;
+
 /**
  * Utility methods for packing/unpacking primitive values in/out of byte arrays
  * using big-endian byte ordering.
  */
 class Bits {
 
+    /** handle for performing unsafe operations */
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+
+    /** offsets of the first elements of primitive arrays */
+    private static final long BYTE_BASE = unsafe.arrayBaseOffset(byte[].class);
+    private static final long CHAR_BASE = unsafe.arrayBaseOffset(char[].class);
+    private static final long SHORT_BASE =
+        unsafe.arrayBaseOffset(short[].class);
+    private static final long INT_BASE = unsafe.arrayBaseOffset(int[].class);
+    private static final long LONG_BASE = unsafe.arrayBaseOffset(long[].class);
+
+    /**
+     * true if values may be read from and written to byte arrays at any
+     * offset, so that the bulk methods can move whole values at a time
+     * when they need to byte-swap them
+     */
+    private static final boolean UNALIGNED;
+
+    /** true if values must be byte-swapped to or from big-endian order */
+    private static final boolean SWAP =
+        (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN);
+
+    static {
+        String arch = AccessController.doPrivileged(
+            new GetPropertyAction("os.arch", ""));
+        UNALIGNED = arch.equals("i386") || arch.equals("x86")
+            || arch.equals("amd64") || arch.equals("x86_64")
+            || arch.equals("ppc") || arch.equals("ppc64")
+            || arch.equals("ppc64le")
+            || arch.equals("s390") || arch.equals("s390x");
+    }
+
     /*
      * Methods for unpacking primitive values from byte arrays starting at
      * given offsets.
@@ -131,4 +168,177 @@ class Bits {
     static void putDouble(byte[] b, int off, double val) {
         putLong(b, off, Double.doubleToLongBits(val));
     }
+
+    /*
+     * Methods for packing and unpacking arrays of primitive values into and
+     * out of byte arrays, as the methods above do for single values.  On
+     * big-endian platforms the values are already in stream order, and the
+     * whole range is moved with a single Unsafe.copyMemory; otherwise each
+     * value is byte-swapped, and moved a whole value at a time where the
+     * platform allows unaligned access.
+     */
+
+    private static void checkBounds(byte[] b, int off, int len, int size) {
+        if ((off | len) < 0 || off > b.length - (long) len * size) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+    }
+
+    private static void checkBounds(int length, int voff, int len) {
+        if ((voff | len) < 0 || voff > length - len) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+    }
+
+    static void getChars(byte[] b, int off, char[] v, int voff, int len) {
+        checkBounds(b, off, len, 2);
+        checkBounds(v.length, voff, len);
+        int end = voff + len;
+        if (!SWAP) {
+            unsafe.copyMemory(b, BYTE_BASE + off,
+                v, CHAR_BASE + ((long) voff << 1), (long) len << 1);
+        } else if (UNALIGNED) {
+            long a = BYTE_BASE + off;
+            for (int i = voff; i < end; i++, a += 2) {
+                v[i] = Character.reverseBytes(unsafe.getChar(b, a));
+            }
+        } else {
+            for (int i = voff; i < end; i++, off += 2) {
+                v[i] = getChar(b, off);
+            }
+        }
+    }
+
+    static void getShorts(byte[] b, int off, short[] v, int voff, int len) {
+        checkBounds(b, off, len, 2);
+        checkBounds(v.length, voff, len);
+        int end = voff + len;
+        if (!SWAP) {
+            unsafe.copyMemory(b, BYTE_BASE + off,
+                v, SHORT_BASE + ((long) voff << 1), (long) len << 1);
+        } else if (UNALIGNED) {
+            long a = BYTE_BASE + off;
+            for (int i = voff; i < end; i++, a += 2) {
+                v[i] = Short.reverseBytes(unsafe.getShort(b, a));
+            }
+        } else {
+            for (int i = voff; i < end; i++, off += 2) {
+                v[i] = getShort(b, off);
+            }
+        }
+    }
+
+    static void getInts(byte[] b, int off, int[] v, int voff, int len) {
+        checkBounds(b, off, len, 4);
+        checkBounds(v.length, voff, len);
+        int end = voff + len;
+        if (!SWAP) {
+            unsafe.copyMemory(b, BYTE_BASE + off,
+                v, INT_BASE + ((long) voff << 2), (long) len << 2);
+        } else if (UNALIGNED) {
+            long a = BYTE_BASE + off;
+            for (int i = voff; i < end; i++, a += 4) {
+                v[i] = Integer.reverseBytes(unsafe.getInt(b, a));
+            }
+        } else {
+            for (int i = voff; i < end; i++, off += 4) {
+                v[i] = getInt(b, off);
+            }
+        }
+    }
+
+    static void getLongs(byte[] b, int off, long[] v, int voff, int len) {
+        checkBounds(b, off, len, 8);
+        checkBounds(v.length, voff, len);
+        int end = voff + len;
+        if (!SWAP) {
+            unsafe.copyMemory(b, BYTE_BASE + off,
+                v, LONG_BASE + ((long) voff << 3), (long) len << 3);
+        } else if (UNALIGNED) {
+            long a = BYTE_BASE + off;
+            for (int i = voff; i < end; i++, a += 8) {
+                v[i] = Long.reverseBytes(unsafe.getLong(b, a));
+            }
+        } else {
+            for (int i = voff; i < end; i++, off += 8) {
+                v[i] = getLong(b, off);
+            }
+        }
+    }
+
+    static void putChars(byte[] b, int off, char[] v, int voff, int len) {
+        checkBounds(b, off, len, 2);
+        checkBounds(v.length, voff, len);
+        int end = voff + len;
+        if (!SWAP) {
+            unsafe.copyMemory(v, CHAR_BASE + ((long) voff << 1),
+                b, BYTE_BASE + off, (long) len << 1);
+        } else if (UNALIGNED) {
+            long a = BYTE_BASE + off;
+            for (int i = voff; i < end; i++, a += 2) {
+                unsafe.putChar(b, a, Character.reverseBytes(v[i]));
+            }
+        } else {
+            for (int i = voff; i < end; i++, off += 2) {
+                putChar(b, off, v[i]);
+            }
+        }
+    }
+
+    static void putShorts(byte[] b, int off, short[] v, int voff, int len) {
+        checkBounds(b, off, len, 2);
+        checkBounds(v.length, voff, len);
+        int end = voff + len;
+        if (!SWAP) {
+            unsafe.copyMemory(v, SHORT_BASE + ((long) voff << 1),
+                b, BYTE_BASE + off, (long) len << 1);
+        } else if (UNALIGNED) {
+            long a = BYTE_BASE + off;
+            for (int i = voff; i < end; i++, a += 2) {
+                unsafe.putShort(b, a, Short.reverseBytes(v[i]));
+            }
+        } else {
+            for (int i = voff; i < end; i++, off += 2) {
+                putShort(b, off, v[i]);
+            }
+        }
+    }
+
+    static void putInts(byte[] b, int off, int[] v, int voff, int len) {
+        checkBounds(b, off, len, 4);
+        checkBounds(v.length, voff, len);
+        int end = voff + len;
+        if (!SWAP) {
+            unsafe.copyMemory(v, INT_BASE + ((long) voff << 2),
+                b, BYTE_BASE + off, (long) len << 2);
+        } else if (UNALIGNED) {
+            long a = BYTE_BASE + off;
+            for (int i = voff; i < end; i++, a += 4) {
+                unsafe.putInt(b, a, Integer.reverseBytes(v[i]));
+            }
+        } else {
+            for (int i = voff; i < end; i++, off += 4) {
+                putInt(b, off, v[i]);
+            }
+        }
+    }
+
+    static void putLongs(byte[] b, int off, long[] v, int voff, int len) {
+        checkBounds(b, off, len, 8);
+        checkBounds(v.length, voff, len);
+        int end = voff + len;
+        if (!SWAP) {
+            unsafe.copyMemory(v, LONG_BASE + ((long) voff << 3),
+                b, BYTE_BASE + off, (long) len << 3);
+        } else if (UNALIGNED) {
+            long a = BYTE_BASE + off;
+            for (int i = voff; i < end; i++, a += 8) {
+                unsafe.putLong(b, a, Long.reverseBytes(v[i]));
+            }
+        } else {
+            for (int i = voff; i < end; i++, off += 8) {
+                putLong(b, off, v[i]);
+            }
+        }
+    }
 }
@@ -0,0 +1,1112 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.io;
+
+import java.nio.MappedRegion;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A random access file that reads and writes through a cache of pages held
+ * in memory, so that reading or writing a primitive value costs no system
+ * call unless its page must be read from, or written back to, the file.
+ * Instances of this class support the same operations as a {@link
+ * RandomAccessFile}, with the same meaning, and the same access modes.
+ *
+ * <p> The cache holds a configurable number of pages of a configurable size,
+ * and replaces the least recently used page when it is full.  When the file
+ * is read sequentially, pages are read ahead of the file pointer, several at
+ * a time, up to a quarter of the cache or 8 MB, whichever is smaller.
+ * Changes are written behind: a page that has been written to is written
+ * back to the file when it is replaced in the cache, and all pages are
+ * written back when the file is {@linkplain #flush flushed} or closed.
+ * Because of this, changes made in the <tt>"rws"</tt> and <tt>"rwd"</tt>
+ * modes reach the storage device when they are written back rather than
+ * when they are made, and changes made to the file by other means while it
+ * is open are not necessarily seen.
+ *
+ * <p> A file opened for reading with {@link #map(File) map} is read through
+ * a memory mapping of the whole file instead of a page cache.
+ *
+ * <p> It is generally true of all the reading routines in this class that
+ * if end-of-file is reached before the desired number of bytes has been
+ * read, an {@code EOFException} is thrown.  Instances of this class are not
+ * safe for use by multiple concurrent threads.
+ *
+ * @see     java.io.RandomAccessFile
+ * @since   1.8
+ */
+
+public class BufferedRandomAccessFile implements DataOutput, DataInput, Closeable {
+
+    private static final int DEFAULT_PAGE_SIZE = 8192;
+    private static final int DEFAULT_PAGE_COUNT = 32;
+
+    /**
+     * A page of the file.  Bytes <tt>0</tt> through <tt>valid - 1</tt> of
+     * <tt>data</tt> hold the contents of the file from <tt>start</tt>; bytes
+     * <tt>dirtyLo</tt> through <tt>dirtyHi - 1</tt> have been written and
+     * not yet written back.
+     */
+    private static final class Page {
+        long start;
+        final byte[] data;
+        int valid;
+        int dirtyLo = Integer.MAX_VALUE;
+        int dirtyHi;
+
+        Page(long start, byte[] data) {
+            this.start = start;
+            this.data = data;
+        }
+
+        boolean isDirty() {
+            return dirtyLo < dirtyHi;
+        }
+
+        void written(int lo, int hi) {
+            if (hi > valid)
+                valid = hi;
+            if (lo < dirtyLo)
+                dirtyLo = lo;
+            if (hi > dirtyHi)
+                dirtyHi = hi;
+        }
+
+        void clean() {
+            dirtyLo = Integer.MAX_VALUE;
+            dirtyHi = 0;
+        }
+    }
+
+    // The largest number of bytes read ahead by a single read
+    private static final int MAX_READ_AHEAD_BYTES = 8 << 20;
+
+    // The page current when no page is, which holds no bytes
+    private static final Page NO_PAGE = new Page(0, new byte[0]);
+
+    private final RandomAccessFile raf;
+    private final boolean rw;
+    private final int pageSize;
+    private final int pageCount;
+
+    // The cached pages by start position, least recently used first
+    private final LinkedHashMap<Long, Page> pages;
+
+    // The mapping the file is read through, or null if it is cached
+    private final MappedRegion region;
+
+    // The page that holds the file pointer, if any; the read and write
+    // methods use it without consulting the cache
+    private Page cur = NO_PAGE;
+
+    private long pos;
+    private long length;
+
+    // The length of the file itself; pages beyond it need not be read
+    private long diskLength;
+
+    // Read-ahead state: the position the next sequential page read would
+    // start at, the number of pages read ahead and its limit
+    private long nextRead = -1;
+    private int readAhead = 1;
+    private final int maxReadAhead;
+    private byte[] readAheadBuf;
+
+    private final byte[] scratch = new byte[8];
+    private boolean closed;
+
+    /**
+     * Creates a buffered random access file to read from, and optionally to
+     * write to, a file with the specified name, with a cache of 32 pages of
+     * 8192 bytes.
+     *
+     * @param      name   the system-dependent filename
+     * @param      mode   the access mode, as for
+     *                    {@link RandomAccessFile#RandomAccessFile(String, String)}
+     * @exception  IllegalArgumentException  if the mode argument is not equal
+     *               to one of <tt>"r"</tt>, <tt>"rw"</tt>, <tt>"rws"</tt>, or
+     *               <tt>"rwd"</tt>
+     * @exception  FileNotFoundException  if the file cannot be opened, as for
+     *               {@link RandomAccessFile#RandomAccessFile(String, String)}
+     * @exception  IOException  if an I/O error occurs
+     * @exception  SecurityException  if a security manager exists and denies
+     *               access to the file
+     */
+    public BufferedRandomAccessFile(String name, String mode)
+        throws IOException
+    {
+        this(name != null ? new File(name) : null, mode);
+    }
+
+    /**
+     * Creates a buffered random access file to read from, and optionally to
+     * write to, the file specified by the {@link File} argument, with a
+     * cache of 32 pages of 8192 bytes.
+     *
+     * @param      file   the file object
+     * @param      mode   the access mode, as for
+     *                    {@link RandomAccessFile#RandomAccessFile(File, String)}
+     * @exception  IllegalArgumentException  if the mode argument is not equal
+     *               to one of <tt>"r"</tt>, <tt>"rw"</tt>, <tt>"rws"</tt>, or
+     *               <tt>"rwd"</tt>
+     * @exception  FileNotFoundException  if the file cannot be opened, as for
+     *               {@link RandomAccessFile#RandomAccessFile(File, String)}
+     * @exception  IOException  if an I/O error occurs
+     * @exception  SecurityException  if a security manager exists and denies
+     *               access to the file
+     */
+    public BufferedRandomAccessFile(File file, String mode)
+        throws IOException
+    {
+        this(file, mode, DEFAULT_PAGE_SIZE, DEFAULT_PAGE_COUNT);
+    }
+
+    /**
+     * Creates a buffered random access file to read from, and optionally to
+     * write to, the file specified by the {@link File} argument, with a
+     * cache of the specified number of pages of the specified size.
+     *
+     * @param      file       the file object
+     * @param      mode       the access mode, as for
+     *                        {@link RandomAccessFile#RandomAccessFile(File, String)}
+     * @param      pageSize   the size of a page, in bytes
+     * @param      pageCount  the number of pages in the cache
+     * @exception  IllegalArgumentException  if the mode argument is not equal
+     *               to one of <tt>"r"</tt>, <tt>"rw"</tt>, <tt>"rws"</tt>, or
+     *               <tt>"rwd"</tt>, or if <tt>pageSize</tt> or
+     *               <tt>pageCount</tt> is not positive
+     * @exception  FileNotFoundException  if the file cannot be opened, as for
+     *               {@link RandomAccessFile#RandomAccessFile(File, String)}
+     * @exception  IOException  if an I/O error occurs
+     * @exception  SecurityException  if a security manager exists and denies
+     *               access to the file
+     */
+    public BufferedRandomAccessFile(File file, String mode, int pageSize,
+                                    int pageCount)
+        throws IOException
+    {
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("Page size <= 0");
+        if (pageCount <= 0)
+            throw new IllegalArgumentException("Page count <= 0");
+        this.raf = new RandomAccessFile(file, mode);
+        this.rw = mode.startsWith("rw");
+        this.pageSize = pageSize;
+        this.pageCount = pageCount;
+        this.pages = new LinkedHashMap<>(
+            (int)Math.min((long)pageCount * 4 / 3 + 1, 1 << 30), 0.75f, true);
+        this.region = null;
+        // Bounded in bytes, so that the read-ahead buffer stays small
+        // (and its size within int range) whatever the page geometry
+        this.maxReadAhead = Math.max(1, Math.min(pageCount / 4,
+                                                 MAX_READ_AHEAD_BYTES / pageSize));
+        try {
+            this.length = this.diskLength = raf.length();
+        } catch (IOException x) {
+            raf.close();
+            throw x;
+        }
+    }
+
+    private BufferedRandomAccessFile(RandomAccessFile raf, MappedRegion region) {
+        this.raf = raf;
+        this.rw = false;
+        this.pageSize = 0;
+        this.pageCount = 0;
+        this.pages = null;
+        this.region = region;
+        this.maxReadAhead = 0;
+        this.length = this.diskLength = region.size();
+    }
+
+    /**
+     * Opens the file specified by the {@link File} argument for reading
+     * through a memory mapping of the whole file rather than a page cache.
+     * The mapping is made when the file is opened and released when it is
+     * closed; changes to the length of the file made by other means while
+     * it is open are not seen.
+     *
+     * @param      file   the file object
+     * @return     a buffered random access file that reads the file through
+     *             a memory mapping
+     * @exception  FileNotFoundException  if the file does not exist, is a
+     *               directory, or cannot be opened for reading
+     * @exception  IOException  if an I/O error occurs
+     * @exception  SecurityException  if a security manager exists and denies
+     *               read access to the file
+     */
+    public static BufferedRandomAccessFile map(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            MappedRegion region = MappedRegion.map(raf.getChannel(),
+                                                   FileChannel.MapMode.READ_ONLY,
+                                                   0, raf.length());
+            return new BufferedRandomAccessFile(raf, region);
+        } catch (IOException | RuntimeException | Error x) {
+            raf.close();
+            throw x;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream Closed");
+    }
+
+    private void ensureWritable() throws IOException {
+        ensureOpen();
+        if (!rw)
+            throw new IOException("File not opened for writing");
+    }
+
+    // -- Page cache --
+
+    /**
+     * Writes back the changed bytes of the given page.
+     */
+    private void writeBack(Page p) throws IOException {
+        if (p.isDirty()) {
+            raf.seek(p.start + p.dirtyLo);
+            raf.write(p.data, p.dirtyLo, p.dirtyHi - p.dirtyLo);
+            diskLength = Math.max(diskLength, p.start + p.dirtyHi);
+            p.clean();
+        }
+    }
+
+    /**
+     * Returns an empty page for the given position, replacing the least
+     * recently used page if the cache is full.
+     */
+    private Page newPage(long start) throws IOException {
+        Page p;
+        if (pages.size() >= pageCount) {
+            Iterator<Page> it = pages.values().iterator();
+            p = it.next();
+            writeBack(p);
+            it.remove();
+            if (p == cur)
+                cur = NO_PAGE;
+            p.start = start;
+            p.valid = 0;
+        } else {
+            p = new Page(start, new byte[pageSize]);
+        }
+        return p;
+    }
+
+    /**
+     * Reads as many bytes as possible, up to len, at the given position.
+     */
+    private int readAt(long position, byte[] b, int off, int len)
+        throws IOException
+    {
+        raf.seek(position);
+        int n = 0;
+        while (n < len) {
+            int count = raf.read(b, off + n, len - n);
+            if (count < 0)
+                break;
+            n += count;
+        }
+        return n;
+    }
+
+    /**
+     * Reads the page at the given position into the cache, reading ahead
+     * the pages that follow it if the file is being read sequentially.
+     */
+    private Page load(long start) throws IOException {
+        Page p = newPage(start);
+        if (start < diskLength) {
+            readAhead = (start == nextRead) ? Math.min(readAhead * 2, maxReadAhead)
+                                            : 1;
+            int n = 1;
+            while (n < readAhead
+                   && start + (long)n * pageSize < diskLength
+                   && !pages.containsKey(start + (long)n * pageSize))
+                n++;
+            if (n == 1) {
+                p.valid = readAt(start, p.data, 0,
+                                 (int)Math.min(pageSize, diskLength - start));
+            } else {
+                if (readAheadBuf == null)
+                    readAheadBuf = new byte[maxReadAhead * pageSize];
+                int total = readAt(start, readAheadBuf, 0,
+                                   (int)Math.min((long)n * pageSize,
+                                                 diskLength - start));
+                p.valid = Math.min(total, pageSize);
+                System.arraycopy(readAheadBuf, 0, p.data, 0, p.valid);
+                pages.put(start, p);
+                for (int i = 1; i < n && i * pageSize < total; i++) {
+                    Page q = newPage(start + (long)i * pageSize);
+                    q.valid = Math.min(total - i * pageSize, pageSize);
+                    System.arraycopy(readAheadBuf, i * pageSize, q.data, 0,
+                                     q.valid);
+                    pages.put(q.start, q);
+                }
+                // Make the requested page the most recently used
+                pages.get(start);
+            }
+            nextRead = start + (long)n * pageSize;
+        }
+        pages.put(start, p);
+        return p;
+    }
+
+    /**
+     * Makes the page holding the file pointer current and returns it.  The
+     * valid bytes of the page are extended to the length of the file, as
+     * the file may have been extended past the page by writing elsewhere.
+     */
+    private Page page() throws IOException {
+        Page p = cur;
+        long d = pos - p.start;
+        if (d < 0 || d >= p.data.length) {
+            long start = pos - pos % pageSize;
+            p = pages.get(start);
+            if (p == null)
+                p = load(start);
+            cur = p;
+        }
+        int limit = (int)Math.min(pageSize, length - p.start);
+        if (p.valid < limit) {
+            Arrays.fill(p.data, p.valid, limit, (byte)0);
+            p.valid = limit;
+        }
+        return p;
+    }
+
+    /**
+     * Returns the offset in the current page of n bytes at the file
+     * pointer, advancing the file pointer past them, or -1 if the current
+     * page does not hold them all.
+     */
+    private int readable(int n) {
+        Page p = cur;
+        long d = pos - p.start;
+        if (d >= 0 && d <= p.valid - n) {
+            pos += n;
+            return (int)d;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset in the current page at which n bytes may be written
+     * at the file pointer, advancing the file pointer past them, or -1 if
+     * they do not fit in the current page.
+     */
+    private int writable(int n) {
+        Page p = cur;
+        long d = pos - p.start;
+        if (rw && d >= 0 && d <= p.valid && d <= p.data.length - n) {
+            int off = (int)d;
+            p.written(off, off + n);
+            pos += n;
+            if (pos > length)
+                length = pos;
+            return off;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads n bytes at the file pointer into the scratch buffer.
+     */
+    private byte[] fill(int n) throws IOException {
+        readFully(scratch, 0, n);
+        return scratch;
+    }
+
+    /**
+     * Returns the file pointer and advances it past n bytes of the mapping.
+     */
+    private long advance(int n) throws IOException {
+        ensureOpen();
+        long p = pos;
+        if (p > length - n) {
+            pos = Math.max(p, length);    /* as if read byte by byte */
+            throw new EOFException();
+        }
+        pos = p + n;
+        return p;
+    }
+
+    // -- Positioning --
+
+    /**
+     * Returns the current offset in this file.
+     *
+     * @return     the offset from the beginning of the file, in bytes,
+     *             at which the next read or write occurs.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public long getFilePointer() throws IOException {
+        ensureOpen();
+        return pos;
+    }
+
+    /**
+     * Sets the file-pointer offset, measured from the beginning of this
+     * file, at which the next read or write occurs, as specified by
+     * {@link RandomAccessFile#seek(long)}.  No I/O is performed.
+     *
+     * @param      pos   the offset position, measured in bytes from the
+     *                   beginning of the file, at which to set the file
+     *                   pointer.
+     * @exception  IOException  if {@code pos} is less than
+     *                          {@code 0} or if an I/O error occurs.
+     */
+    public void seek(long pos) throws IOException {
+        ensureOpen();
+        if (pos < 0)
+            throw new IOException("Negative seek offset");
+        this.pos = pos;
+    }
+
+    /**
+     * Returns the length of this file, including bytes written to the cache
+     * and not yet written back.
+     *
+     * @return     the length of this file, measured in bytes.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public long length() throws IOException {
+        ensureOpen();
+        return length;
+    }
+
+    /**
+     * Sets the length of this file, as specified by
+     * {@link RandomAccessFile#setLength(long)}.  The cache is written back
+     * and emptied first.
+     *
+     * @param      newLength    The desired length of the file
+     * @exception  IOException  If an I/O error occurs, or the file was not
+     *                          opened for writing
+     */
+    public void setLength(long newLength) throws IOException {
+        ensureWritable();
+        flush();
+        pages.clear();
+        cur = NO_PAGE;
+        nextRead = -1;
+        raf.setLength(newLength);
+        length = diskLength = raf.length();
+        if (pos > length)
+            pos = length;
+    }
+
+    // -- Reading --
+
+    /**
+     * Reads a byte of data from this file, as specified by
+     * {@link RandomAccessFile#read()}.
+     *
+     * @return     the next byte of data, or {@code -1} if the end of the
+     *             file has been reached.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public int read() throws IOException {
+        int off = readable(1);
+        if (off >= 0)
+            return cur.data[off] & 0xff;
+        ensureOpen();
+        if (pos >= length)
+            return -1;
+        if (region != null)
+            return region.get(pos++) & 0xff;
+        Page p = page();
+        return p.data[(int)(pos++ - p.start)] & 0xff;
+    }
+
+    /**
+     * Reads up to {@code len} bytes of data from this file into an array of
+     * bytes, as specified by {@link RandomAccessFile#read(byte[], int, int)}.
+     * This method blocks only while pages are read from the file, and
+     * returns fewer than {@code len} bytes only at the end of the file.
+     *
+     * @param      b     the buffer into which the data is read.
+     * @param      off   the start offset in array {@code b}
+     *                   at which the data is written.
+     * @param      len   the maximum number of bytes read.
+     * @return     the total number of bytes read into the buffer, or
+     *             {@code -1} if there is no more data because the end of
+     *             the file has been reached.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public int read(byte b[], int off, int len) throws IOException {
+        ensureOpen();
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0)
+            throw new IndexOutOfBoundsException();
+        if (len == 0)
+            return 0;
+        if (pos >= length)
+            return -1;
+        int n = (int)Math.min(len, length - pos);
+        if (region != null) {
+            region.get(pos, b, off, n);
+            pos += n;
+            return n;
+        }
+        int remaining = n;
+        while (remaining > 0) {
+            Page p = page();
+            int o = (int)(pos - p.start);
+            int count = Math.min(remaining, p.valid - o);
+            System.arraycopy(p.data, o, b, off, count);
+            pos += count;
+            off += count;
+            remaining -= count;
+        }
+        return n;
+    }
+
+    /**
+     * Reads up to {@code b.length} bytes of data from this file into an
+     * array of bytes.
+     *
+     * @param      b   the buffer into which the data is read.
+     * @return     the total number of bytes read into the buffer, or
+     *             {@code -1} if the end of the file has been reached.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public int read(byte b[]) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    /**
+     * Reads {@code b.length} bytes from this file into the byte array.
+     *
+     * @param      b   the buffer into which the data is read.
+     * @exception  EOFException  if this file reaches the end before reading
+     *               all the bytes.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final void readFully(byte b[]) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    /**
+     * Reads exactly {@code len} bytes from this file into the byte array.
+     *
+     * @param      b     the buffer into which the data is read.
+     * @param      off   the start offset of the data.
+     * @param      len   the number of bytes to read.
+     * @exception  EOFException  if this file reaches the end before reading
+     *               all the bytes.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final void readFully(byte b[], int off, int len) throws IOException {
+        if (read(b, off, len) < len)
+            throw new EOFException();
+    }
+
+    /**
+     * Attempts to skip over {@code n} bytes of input, as specified by
+     * {@link RandomAccessFile#skipBytes(int)}.
+     *
+     * @param      n   the number of bytes to be skipped.
+     * @return     the actual number of bytes skipped.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public int skipBytes(int n) throws IOException {
+        ensureOpen();
+        if (n <= 0)
+            return 0;
+        long newpos = Math.min(pos + n, length);
+        int skipped = (int)(newpos - pos);
+        pos = newpos;
+        return skipped;
+    }
+
+    /**
+     * Reads a {@code boolean} from this file.
+     *
+     * @return     the {@code boolean} value read.
+     * @exception  EOFException  if this file has reached the end.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final boolean readBoolean() throws IOException {
+        int ch = this.read();
+        if (ch < 0)
+            throw new EOFException();
+        return (ch != 0);
+    }
+
+    /**
+     * Reads a signed eight-bit value from this file.
+     *
+     * @return     the next byte of this file as a signed eight-bit
+     *             {@code byte}.
+     * @exception  EOFException  if this file has reached the end.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final byte readByte() throws IOException {
+        int ch = this.read();
+        if (ch < 0)
+            throw new EOFException();
+        return (byte)(ch);
+    }
+
+    /**
+     * Reads an unsigned eight-bit number from this file.
+     *
+     * @return     the next byte of this file, interpreted as an unsigned
+     *             eight-bit number.
+     * @exception  EOFException  if this file has reached the end.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final int readUnsignedByte() throws IOException {
+        int ch = this.read();
+        if (ch < 0)
+            throw new EOFException();
+        return ch;
+    }
+
+    /**
+     * Reads a signed 16-bit number from this file.
+     *
+     * @return     the next two bytes of this file, interpreted as a signed
+     *             16-bit number.
+     * @exception  EOFException  if this file reaches the end before reading
+     *               two bytes.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final short readShort() throws IOException {
+        int off = readable(2);
+        return (off >= 0) ? Bits.getShort(cur.data, off)
+                          : Bits.getShort(fill(2), 0);
+    }
+
+    /**
+     * Reads an unsigned 16-bit number from this file.
+     *
+     * @return     the next two bytes of this file, interpreted as an
+     *             unsigned 16-bit integer.
+     * @exception  EOFException  if this file reaches the end before reading
+     *               two bytes.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final int readUnsignedShort() throws IOException {
+        return readShort() & 0xffff;
+    }
+
+    /**
+     * Reads a character from this file.
+     *
+     * @return     the next two bytes of this file, interpreted as a
+     *             {@code char}.
+     * @exception  EOFException  if this file reaches the end before reading
+     *               two bytes.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final char readChar() throws IOException {
+        int off = readable(2);
+        return (off >= 0) ? Bits.getChar(cur.data, off)
+                          : Bits.getChar(fill(2), 0);
+    }
+
+    /**
+     * Reads a signed 32-bit integer from this file.
+     *
+     * @return     the next four bytes of this file, interpreted as an
+     *             {@code int}.
+     * @exception  EOFException  if this file reaches the end before reading
+     *               four bytes.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final int readInt() throws IOException {
+        int off = readable(4);
+        if (off >= 0)
+            return Bits.getInt(cur.data, off);
+        if (region != null)
+            return region.getInt(advance(4));
+        return Bits.getInt(fill(4), 0);
+    }
+
+    /**
+     * Reads a signed 64-bit integer from this file.
+     *
+     * @return     the next eight bytes of this file, interpreted as a
+     *             {@code long}.
+     * @exception  EOFException  if this file reaches the end before reading
+     *               eight bytes.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final long readLong() throws IOException {
+        int off = readable(8);
+        if (off >= 0)
+            return Bits.getLong(cur.data, off);
+        if (region != null)
+            return region.getLong(advance(8));
+        return Bits.getLong(fill(8), 0);
+    }
+
+    /**
+     * Reads a {@code float} from this file.
+     *
+     * @return     the next four bytes of this file, interpreted as a
+     *             {@code float}.
+     * @exception  EOFException  if this file reaches the end before reading
+     *             four bytes.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    /**
+     * Reads a {@code double} from this file.
+     *
+     * @return     the next eight bytes of this file, interpreted as a
+     *             {@code double}.
+     * @exception  EOFException  if this file reaches the end before reading
+     *             eight bytes.
+     * @exception  IOException   if an I/O error occurs.
+     */
+    public final double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    /**
+     * Reads the next line of text from this file, as specified by
+     * {@link RandomAccessFile#readLine()}.
+     *
+     * @return     the next line of text from this file, or null if end
+     *             of file is encountered before even one byte is read.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final String readLine() throws IOException {
+        StringBuilder input = new StringBuilder();
+        int c = -1;
+        boolean eol = false;
+
+        while (!eol) {
+            switch (c = read()) {
+            case -1:
+            case '\n':
+                eol = true;
+                break;
+            case '\r':
+                eol = true;
+                long cur = getFilePointer();
+                if ((read()) != '\n') {
+                    seek(cur);
+                }
+                break;
+            default:
+                input.append((char)c);
+                break;
+            }
+        }
+
+        if ((c == -1) && (input.length() == 0)) {
+            return null;
+        }
+        return input.toString();
+    }
+
+    /**
+     * Reads in a string from this file, encoded using
+     * <a href="DataInput.html#modified-utf-8">modified UTF-8</a>.
+     *
+     * @return     a Unicode string.
+     * @exception  EOFException            if this file reaches the end before
+     *               reading all the bytes.
+     * @exception  IOException             if an I/O error occurs.
+     * @exception  UTFDataFormatException  if the bytes do not represent
+     *               valid modified UTF-8 encoding of a Unicode string.
+     * @see        java.io.RandomAccessFile#readUnsignedShort()
+     */
+    public final String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+
+    // -- Writing --
+
+    /**
+     * Writes the specified byte to this file.
+     *
+     * @param      b   the {@code byte} to be written.
+     * @exception  IOException  if an I/O error occurs, or the file was not
+     *                          opened for writing.
+     */
+    public void write(int b) throws IOException {
+        int off = writable(1);
+        if (off >= 0) {
+            cur.data[off] = (byte)b;
+        } else {
+            scratch[0] = (byte)b;
+            write(scratch, 0, 1);
+        }
+    }
+
+    /**
+     * Writes {@code len} bytes from the specified byte array starting at
+     * offset {@code off} to this file.
+     *
+     * @param      b     the data.
+     * @param      off   the start offset in the data.
+     * @param      len   the number of bytes to write.
+     * @exception  IOException  if an I/O error occurs, or the file was not
+     *                          opened for writing.
+     */
+    public void write(byte b[], int off, int len) throws IOException {
+        ensureWritable();
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0)
+            throw new IndexOutOfBoundsException();
+        if (len == 0)           /* does not extend the file */
+            return;
+        while (len > 0) {
+            Page p = page();
+            int o = (int)(pos - p.start);
+            if (o > p.valid)    /* writing past the end of the file */
+                Arrays.fill(p.data, p.valid, o, (byte)0);
+            int n = Math.min(len, pageSize - o);
+            System.arraycopy(b, off, p.data, o, n);
+            p.written(o, o + n);
+            pos += n;
+            off += n;
+            len -= n;
+        }
+        if (pos > length)
+            length = pos;
+    }
+
+    /**
+     * Writes {@code b.length} bytes from the specified byte array to this
+     * file, starting at the current file pointer.
+     *
+     * @param      b   the data.
+     * @exception  IOException  if an I/O error occurs, or the file was not
+     *                          opened for writing.
+     */
+    public void write(byte b[]) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    /**
+     * Writes a {@code boolean} to the file as a one-byte value.
+     *
+     * @param      v   a {@code boolean} value to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final void writeBoolean(boolean v) throws IOException {
+        write(v ? 1 : 0);
+    }
+
+    /**
+     * Writes a {@code byte} to the file as a one-byte value.
+     *
+     * @param      v   a {@code byte} value to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final void writeByte(int v) throws IOException {
+        write(v);
+    }
+
+    /**
+     * Writes a {@code short} to the file as two bytes, high byte first.
+     *
+     * @param      v   a {@code short} to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final void writeShort(int v) throws IOException {
+        int off = writable(2);
+        if (off >= 0) {
+            Bits.putShort(cur.data, off, (short)v);
+        } else {
+            Bits.putShort(scratch, 0, (short)v);
+            write(scratch, 0, 2);
+        }
+    }
+
+    /**
+     * Writes a {@code char} to the file as a two-byte value, high
+     * byte first.
+     *
+     * @param      v   a {@code char} value to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final void writeChar(int v) throws IOException {
+        writeShort(v);
+    }
+
+    /**
+     * Writes an {@code int} to the file as four bytes, high byte first.
+     *
+     * @param      v   an {@code int} to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final void writeInt(int v) throws IOException {
+        int off = writable(4);
+        if (off >= 0) {
+            Bits.putInt(cur.data, off, v);
+        } else {
+            Bits.putInt(scratch, 0, v);
+            write(scratch, 0, 4);
+        }
+    }
+
+    /**
+     * Writes a {@code long} to the file as eight bytes, high byte first.
+     *
+     * @param      v   a {@code long} to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final void writeLong(long v) throws IOException {
+        int off = writable(8);
+        if (off >= 0) {
+            Bits.putLong(cur.data, off, v);
+        } else {
+            Bits.putLong(scratch, 0, v);
+            write(scratch, 0, 8);
+        }
+    }
+
+    /**
+     * Converts the float argument to an {@code int} using the
+     * {@code floatToIntBits} method in class {@code Float},
+     * and then writes that {@code int} value to the file as a
+     * four-byte quantity, high byte first.
+     *
+     * @param      v   a {@code float} value to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final void writeFloat(float v) throws IOException {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    /**
+     * Converts the double argument to a {@code long} using the
+     * {@code doubleToLongBits} method in class {@code Double},
+     * and then writes that {@code long} value to the file as an
+     * eight-byte quantity, high byte first.
+     *
+     * @param      v   a {@code double} value to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final void writeDouble(double v) throws IOException {
+        writeLong(Double.doubleToLongBits(v));
+    }
+
+    /**
+     * Writes the string to the file as a sequence of bytes. Each
+     * character in the string is written out, in sequence, by discarding
+     * its high eight bits.
+     *
+     * @param      s   a string of bytes to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    @SuppressWarnings("deprecation")
+    public final void writeBytes(String s) throws IOException {
+        int len = s.length();
+        byte[] b = new byte[len];
+        s.getBytes(0, len, b, 0);
+        write(b, 0, len);
+    }
+
+    /**
+     * Writes a string to the file as a sequence of characters. Each
+     * character is written to the data output stream as if by the
+     * {@code writeChar} method.
+     *
+     * @param      s   a {@code String} value to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final void writeChars(String s) throws IOException {
+        int clen = s.length();
+        byte[] b = new byte[clen * 2];
+        for (int i = 0; i < clen; i++)
+            Bits.putChar(b, i * 2, s.charAt(i));
+        write(b, 0, b.length);
+    }
+
+    /**
+     * Writes a string to the file using
+     * <a href="DataInput.html#modified-utf-8">modified UTF-8</a>
+     * encoding in a machine-independent manner.
+     *
+     * @param      str   a string to be written.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public final void writeUTF(String str) throws IOException {
+        DataOutputStream.writeUTF(str, this);
+    }
+
+    /**
+     * Writes back to the file all the pages of the cache that have been
+     * written to.  This method does not force the changes to the storage
+     * device; use {@link FileDescriptor#sync()} on the descriptor returned
+     * by {@link #getFD()} after flushing to do so.
+     *
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public void flush() throws IOException {
+        ensureOpen();
+        if (pages == null)
+            return;
+        List<Page> dirty = new ArrayList<>();
+        for (Page p : pages.values()) {
+            if (p.isDirty())
+                dirty.add(p);
+        }
+        dirty.sort((a, b) -> Long.compare(a.start, b.start));
+        for (Page p : dirty)
+            writeBack(p);
+    }
+
+    /**
+     * Returns the opaque file descriptor object associated with this file.
+     *
+     * @return     the file descriptor object associated with this file.
+     * @exception  IOException  if an I/O error occurs.
+     * @see        java.io.FileDescriptor
+     */
+    public final FileDescriptor getFD() throws IOException {
+        return raf.getFD();
+    }
+
+    /**
+     * Closes this file, writing back the cache first, and releases the
+     * file and any memory mapping of it.  A closed file cannot perform
+     * input or output operations and cannot be reopened.  Closing a closed
+     * file has no effect.
+     *
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public void close() throws IOException {
+        if (closed)
+            return;
+        try {
+            flush();
+        } finally {
+            closed = true;
+            cur = NO_PAGE;
+            try {
+                if (region != null)
+                    region.unmap();
+                else
+                    pages.clear();
+            } finally {
+                raf.close();
+            }
+        }
+    }
+}
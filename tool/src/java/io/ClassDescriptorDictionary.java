@@ -0,0 +1,173 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.io;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A fixed list of class descriptors that an {@link ObjectOutputStream} and
+ * an {@link ObjectInputStream} agree upon in advance, so that descriptors of
+ * the listed classes are written to the stream as their index in the list
+ * instead of in full.
+ *
+ * <p>Serialized objects of a few classes that are written to many short
+ * streams, such as the entries of a cache, spend much of their size and of
+ * the time taken to read them on the class descriptors at the start of each
+ * stream.  A stream that {@link ObjectOutputStream#useClassDescriptorDictionary
+ * uses} a dictionary writes a reference to an entry of the dictionary in place
+ * of the descriptor of a listed class, and the descriptor in full for any
+ * other class.  Such a stream can only be read by an
+ * {@code ObjectInputStream} that uses an equal dictionary: one listing the
+ * same classes in the same order, whose serializable fields and
+ * serialVersionUIDs are the same.  The dictionaries are compared through a
+ * fingerprint written to the stream, and a stream that was written with a
+ * different dictionary is rejected.  Streams that do not use a dictionary are
+ * unaffected.
+ *
+ * <p>While a stream uses {@link ObjectStreamConstants#PROTOCOL_VERSION_1
+ * PROTOCOL_VERSION_1}, all class descriptors are written in full.  Dynamic
+ * proxy classes may not be listed.
+ *
+ * @see ObjectOutputStream#useClassDescriptorDictionary
+ * @see ObjectInputStream#useClassDescriptorDictionary
+ * @since 1.8
+ */
+public final class ClassDescriptorDictionary {
+
+    /** descriptors, in index order */
+    private final ObjectStreamClass[] descs;
+    /** map from class to index of its descriptor */
+    private final Map<Class<?>, Integer> indexes;
+    /** fingerprint of the descriptors */
+    private final long fingerprint;
+
+    /**
+     * Creates a dictionary of the descriptors of the given classes and of
+     * their serializable superclasses.  The descriptors are listed in the
+     * order of the classes, each class followed by those of its
+     * serializable superclasses that are not listed yet.
+     *
+     * @param   classes the classes to list
+     * @throws  IllegalArgumentException if a class is not serializable, or
+     *          is a dynamic proxy class
+     * @throws  NullPointerException if {@code classes} or an element of it
+     *          is {@code null}
+     */
+    public ClassDescriptorDictionary(Class<?>... classes) {
+        List<ObjectStreamClass> list = new ArrayList<>();
+        indexes = new HashMap<>();
+        for (Class<?> cl : classes) {
+            ObjectStreamClass desc = ObjectStreamClass.lookup(cl);
+            if (desc == null || desc.isProxy()) {
+                throw new IllegalArgumentException(
+                    "not a serializable class: " + cl.getName());
+            }
+            for (; desc != null; desc = desc.getSuperDesc()) {
+                Class<?> c = desc.forClass();
+                if (indexes.containsKey(c)) {
+                    continue;
+                }
+                indexes.put(c, list.size());
+                list.add(desc);
+            }
+        }
+        descs = list.toArray(new ObjectStreamClass[list.size()]);
+        fingerprint = computeFingerprint(descs);
+    }
+
+    /**
+     * Returns the number of descriptors in this dictionary.
+     *
+     * @return  the number of descriptors
+     */
+    public int size() {
+        return descs.length;
+    }
+
+    /**
+     * Returns the index of the descriptor of the given class, or -1 if the
+     * class is not listed.
+     */
+    int indexOf(Class<?> cl) {
+        Integer index = indexes.get(cl);
+        return (index != null) ? index : -1;
+    }
+
+    /**
+     * Returns the descriptor at the given index.
+     *
+     * @throws  StreamCorruptedException if the index is out of range
+     */
+    ObjectStreamClass get(int index) throws StreamCorruptedException {
+        if (index < 0 || index >= descs.length) {
+            throw new StreamCorruptedException(
+                String.format("invalid class descriptor index %d", index));
+        }
+        return descs[index];
+    }
+
+    /**
+     * Returns the fingerprint of this dictionary, which is written to streams
+     * that use it.
+     */
+    long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Computes a hash of the descriptors as they would be written to a
+     * stream.
+     */
+    private static long computeFingerprint(ObjectStreamClass[] descs) {
+        try {
+            ByteArrayOutputStream bout = new ByteArrayOutputStream();
+            DataOutputStream dout = new DataOutputStream(bout);
+            dout.writeInt(descs.length);
+            for (ObjectStreamClass desc : descs) {
+                dout.writeUTF(desc.getName());
+                dout.writeLong(desc.getSerialVersionUID());
+                dout.writeBoolean(desc.isSerializable());
+                dout.writeBoolean(desc.isExternalizable());
+                dout.writeBoolean(desc.isEnum());
+                dout.writeBoolean(desc.hasWriteObjectData());
+                ObjectStreamField[] fields = desc.getFields(false);
+                dout.writeShort(fields.length);
+                for (ObjectStreamField f : fields) {
+                    dout.writeByte(f.getTypeCode());
+                    dout.writeUTF(f.getName());
+                    if (!f.isPrimitive()) {
+                        dout.writeUTF(f.getTypeString());
+                    }
+                }
+            }
+            dout.flush();
+
+            MessageDigest md = MessageDigest.getInstance("SHA");
+            byte[] hashBytes = md.digest(bout.toByteArray());
+            long hash = 0;
+            for (int i = Math.min(hashBytes.length, 8) - 1; i >= 0; i--) {
+                hash = (hash << 8) | (hashBytes[i] & 0xFF);
+            }
+            return hash;
+        } catch (IOException ex) {
+            throw new InternalError(ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new SecurityException(ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import jdk.internal.util.CharCoding;
+import sun.nio.cs.HistoricallyNamedCharset;
+
+/**
+ * The decoder of an {@link InputStreamReader} for the charsets that have
+ * a fast decoding loop, see {@link CharCoding}. It behaves as the
+ * {@code StreamDecoder} it replaces, and uses a decoder of the charset for
+ * the bytes the loop does not handle.
+ */
+final class FastStreamDecoder extends Reader {
+
+    private static final int DEFAULT_BYTE_BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final Charset cs;
+    private final CharsetDecoder decoder;
+    private final int kind;
+    private final ByteBuffer bb;
+
+    private volatile boolean isOpen = true;
+
+    // In order to handle surrogates properly we must never try to produce
+    // fewer than two characters at a time.  If we're only asked to return one
+    // character then the other is saved here to be returned later.
+    private boolean haveLeftoverChar = false;
+    private char leftoverChar;
+
+    /**
+     * Returns whether the given charset has a fast decoding loop.
+     */
+    static boolean isSupported(Charset cs) {
+        return CharCoding.kindOf(cs) != CharCoding.NONE;
+    }
+
+    FastStreamDecoder(InputStream in, Object lock, Charset cs) {
+        super(lock);
+        this.in = in;
+        this.cs = cs;
+        this.decoder = cs.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.kind = CharCoding.kindOf(cs);
+        this.bb = ByteBuffer.allocate(DEFAULT_BYTE_BUFFER_SIZE);
+        bb.flip();                      // So that bb is initially empty
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!isOpen)
+            throw new IOException("Stream closed");
+    }
+
+    String getEncoding() {
+        if (isOpen) {
+            if (cs instanceof HistoricallyNamedCharset)
+                return ((HistoricallyNamedCharset)cs).historicalName();
+            return cs.name();
+        }
+        return null;
+    }
+
+    public int read() throws IOException {
+        synchronized (lock) {
+            // Return the leftover char, if there is one
+            if (haveLeftoverChar) {
+                haveLeftoverChar = false;
+                return leftoverChar;
+            }
+
+            // Convert more bytes
+            char cb[] = new char[2];
+            int n = read(cb, 0, 2);
+            switch (n) {
+            case -1:
+                return -1;
+            case 2:
+                leftoverChar = cb[1];
+                haveLeftoverChar = true;
+                // FALL THROUGH
+            case 1:
+                return cb[0];
+            default:
+                assert false : n;
+                return -1;
+            }
+        }
+    }
+
+    public int read(char cbuf[], int offset, int length) throws IOException {
+        int off = offset;
+        int len = length;
+        synchronized (lock) {
+            ensureOpen();
+            if ((off < 0) || (off > cbuf.length) || (len < 0) ||
+                ((off + len) > cbuf.length) || ((off + len) < 0)) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0)
+                return 0;
+
+            int n = 0;
+
+            if (haveLeftoverChar) {
+                // Copy the leftover char into the buffer
+                cbuf[off] = leftoverChar;
+                off++; len--;
+                haveLeftoverChar = false;
+                n = 1;
+                if ((len == 0) || !implReady())
+                    // Return now if this is all we can produce w/o blocking
+                    return n;
+            }
+
+            if (len == 1) {
+                // Treat single-character array reads just like read()
+                int c = read();
+                if (c == -1)
+                    return (n == 0) ? -1 : n;
+                cbuf[off] = (char)c;
+                return n + 1;
+            }
+
+            return n + implRead(cbuf, off, off + len);
+        }
+    }
+
+    public boolean ready() throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            return haveLeftoverChar || implReady();
+        }
+    }
+
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (!isOpen)
+                return;
+            in.close();
+            isOpen = false;
+        }
+    }
+
+    private int readBytes() throws IOException {
+        bb.compact();
+        try {
+            int lim = bb.limit();
+            int pos = bb.position();
+            int rem = (pos <= lim ? lim - pos : 0);
+            int n = in.read(bb.array(), bb.arrayOffset() + pos, rem);
+            if (n < 0)
+                return n;
+            if (n == 0)
+                throw new IOException("Underlying input stream returned zero bytes");
+            bb.position(pos + n);
+        } finally {
+            // Flip even when an IOException is thrown,
+            // otherwise the stream will stutter
+            bb.flip();
+        }
+        return bb.remaining();
+    }
+
+    private int implRead(char[] cbuf, int off, int end) throws IOException {
+        CharBuffer cb = CharBuffer.wrap(cbuf, off, end - off);
+        if (cb.position() != 0)
+            // Ensure that cb[0] == cbuf[off]
+            cb = cb.slice();
+
+        boolean eof = false;
+        for (;;) {
+            // Decode what the fast loop handles, then let the decoder
+            // handle the rest of the bytes
+            if (bb.hasRemaining() && cb.hasRemaining()) {
+                int sp = bb.arrayOffset() + bb.position();
+                int dp = off + cb.position();
+                long r = CharCoding.decode(kind, bb.array(), sp,
+                                           bb.arrayOffset() + bb.limit(),
+                                           cbuf, dp, end);
+                bb.position(CharCoding.srcPos(r) - bb.arrayOffset());
+                cb.position(CharCoding.dstPos(r) - off);
+            }
+            CoderResult cr = decoder.decode(bb, cb, eof);
+            if (cr.isUnderflow()) {
+                if (eof)
+                    break;
+                if (!cb.hasRemaining())
+                    break;
+                if ((cb.position() > 0) && !inReady())
+                    break;          // Block at most once
+                int n = readBytes();
+                if (n < 0) {
+                    eof = true;
+                    if ((cb.position() == 0) && (!bb.hasRemaining()))
+                        break;
+                    decoder.reset();
+                }
+                continue;
+            }
+            if (cr.isOverflow()) {
+                assert cb.position() > 0;
+                break;
+            }
+            cr.throwException();
+        }
+
+        if (eof) {
+            // ## Need to flush decoder
+            decoder.reset();
+        }
+
+        if (cb.position() == 0) {
+            if (eof)
+                return -1;
+            assert false;
+        }
+        return cb.position();
+    }
+
+    private boolean inReady() {
+        try {
+            return in.available() > 0;
+        } catch (IOException x) {
+            return false;
+        }
+    }
+
+    private boolean implReady() {
+        return bb.hasRemaining() || inReady();
+    }
+}
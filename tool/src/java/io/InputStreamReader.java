@@ -38,6 +38,7 @@ package java.io;
 
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
+import java.nio.charset.IllegalCharsetNameException;
 import sun.nio.cs.StreamDecoder;
 import com.ibm.jvm.io.ConsoleInputStream;                                       //IBM-zos_bringup
 import com.ibm.jvm.io.LocalizedInputStream;                                     //IBM-zos_bringup
@@ -76,6 +77,27 @@ public class InputStreamReader extends Reader {
 
     private final StreamDecoder sd;
 
+    /**
+     * The decoder used instead of sd for charsets with a fast decoding loop,
+     * or null.
+     */
+    private final FastStreamDecoder fd;
+
+    /**
+     * Returns the named charset if it has a fast decoding loop, or null.
+     * A null name denotes the default charset.
+     */
+    private static Charset fastCharset(String charsetName) {
+        Charset cs = null;
+        try {
+            if (charsetName == null)
+                cs = Charset.defaultCharset();
+            else if (Charset.isSupported(charsetName))
+                cs = Charset.forName(charsetName);
+        } catch (IllegalCharsetNameException x) { }
+        return (cs != null && FastStreamDecoder.isSupported(cs)) ? cs : null;
+    }
+
     /**
      * Creates an InputStreamReader that uses the default charset.
      *
@@ -89,9 +111,17 @@ public class InputStreamReader extends Reader {
                 !(in instanceof com.ibm.jvm.io.ConsoleInputStream)) {           //IBM-zos_bringup
                 sd = StreamDecoder.forInputStreamReader                         //IBM-zos_bringup
                     (localized, this, ConsoleInputStream.getEncoding(localized)); //IBM-zos_bringup
+                fd = null;
             } else {                                                            //IBM-zos_bringup
-                sd = StreamDecoder.forInputStreamReader                         //IBM-zos_bringup
-                    (localized, this, ConsoleInputStream.getEncoding(in));      //IBM-zos_bringup
+                String csn = ConsoleInputStream.getEncoding(in);                //IBM-zos_bringup
+                Charset cs = fastCharset(csn);
+                if (cs != null) {
+                    sd = null;
+                    fd = new FastStreamDecoder(localized, this, cs);
+                } else {
+                    sd = StreamDecoder.forInputStreamReader(localized, this, csn); //IBM-zos_bringup
+                    fd = null;
+                }
             }                                                                   //IBM-zos_bringup
         } catch (UnsupportedEncodingException e) {
             // The default encoding should always be available
@@ -118,7 +148,14 @@ public class InputStreamReader extends Reader {
         super(in);
         if (charsetName == null)
             throw new NullPointerException("charsetName");
-        sd = StreamDecoder.forInputStreamReader(LocalizedInputStream.getInputStream(in), this, charsetName); //IBM-zos_bringup
+        Charset cs = fastCharset(charsetName);
+        if (cs != null) {
+            sd = null;
+            fd = new FastStreamDecoder(LocalizedInputStream.getInputStream(in), this, cs); //IBM-zos_bringup
+        } else {
+            sd = StreamDecoder.forInputStreamReader(LocalizedInputStream.getInputStream(in), this, charsetName); //IBM-zos_bringup
+            fd = null;
+        }
     }
 
     /**
@@ -134,7 +171,13 @@ public class InputStreamReader extends Reader {
         super(in);
         if (cs == null)
             throw new NullPointerException("charset");
-        sd = StreamDecoder.forInputStreamReader(LocalizedInputStream.getInputStream(in), this, cs); //IBM-zos_bringup
+        if (FastStreamDecoder.isSupported(cs)) {
+            sd = null;
+            fd = new FastStreamDecoder(LocalizedInputStream.getInputStream(in), this, cs); //IBM-zos_bringup
+        } else {
+            sd = StreamDecoder.forInputStreamReader(LocalizedInputStream.getInputStream(in), this, cs); //IBM-zos_bringup
+            fd = null;
+        }
     }
 
     /**
@@ -151,6 +194,7 @@ public class InputStreamReader extends Reader {
         if (dec == null)
             throw new NullPointerException("charset decoder");
         sd = StreamDecoder.forInputStreamReader(LocalizedInputStream.getInputStream(in), this, dec); //IBM-zos_bringup
+        fd = null;
     }
 
     /**
@@ -174,7 +218,7 @@ public class InputStreamReader extends Reader {
      * @spec JSR-51
      */
     public String getEncoding() {
-        return sd.getEncoding();
+        return (fd != null) ? fd.getEncoding() : sd.getEncoding();
     }
 
     /**
@@ -186,7 +230,7 @@ public class InputStreamReader extends Reader {
      * @exception  IOException  If an I/O error occurs
      */
     public int read() throws IOException {
-        return sd.read();
+        return (fd != null) ? fd.read() : sd.read();
     }
 
     /**
@@ -202,7 +246,7 @@ public class InputStreamReader extends Reader {
      * @exception  IOException  If an I/O error occurs
      */
     public int read(char cbuf[], int offset, int length) throws IOException {
-        return sd.read(cbuf, offset, length);
+        return (fd != null) ? fd.read(cbuf, offset, length) : sd.read(cbuf, offset, length);
     }
 
     /**
@@ -213,11 +257,14 @@ public class InputStreamReader extends Reader {
      * @exception  IOException  If an I/O error occurs
      */
     public boolean ready() throws IOException {
-        return sd.ready();
+        return (fd != null) ? fd.ready() : sd.ready();
     }
 
     public void close() throws IOException {
-        sd.close();
+        if (fd != null)
+            fd.close();
+        else
+            sd.close();
     }
 }
 //IBM-zos_bringup
@@ -348,6 +348,8 @@ public class ObjectInputStream
 
     /** wire handle -> obj/exception map */
     private final HandleTable handles;
+    /** class descriptor dictionary, or null if not in use */
+    private ClassDescriptorDictionary dictionary;
     /** scratch field for passing handle values up/down call stack */
     private int passHandle = NULL_HANDLE;
     /** flag set when at end of field value block with no TC_ENDBLOCKDATA */
@@ -1137,6 +1139,47 @@ public class ObjectInputStream
         return desc;
     }
 
+    /**
+     * Specify the dictionary of class descriptors that the stream was
+     * written with.  This method must be invoked at the point of the stream
+     * at which the corresponding method in ObjectOutputStream,
+     * <code>useClassDescriptorDictionary</code>, was invoked when writing
+     * it; it reads the fingerprint of the dictionary written there and
+     * checks that it is that of the given dictionary.  Unless this stream
+     * is an instance of a subclass of ObjectInputStream, the classes listed
+     * in the dictionary are used as they are, without being resolved again
+     * by <code>resolveClass</code>.
+     *
+     * @param   dictionary the class descriptor dictionary
+     * @throws  IllegalStateException if called after any objects have been
+     *          deserialized, or if a dictionary is already in use
+     * @throws  InvalidClassException if the stream was written with a
+     *          different dictionary
+     * @throws  NullPointerException if <code>dictionary</code> is
+     *          <code>null</code>
+     * @throws  IOException if I/O errors occur
+     * @see java.io.ObjectOutputStream#useClassDescriptorDictionary
+     * @since   1.8
+     */
+    public void useClassDescriptorDictionary(ClassDescriptorDictionary dictionary)
+        throws IOException
+    {
+        if (dictionary == null) {
+            throw new NullPointerException();
+        }
+        if (handles.size() != 0) {
+            throw new IllegalStateException("stream non-empty");
+        }
+        if (this.dictionary != null) {
+            throw new IllegalStateException("dictionary already in use");
+        }
+        if (bin.readLong() != dictionary.fingerprint()) {
+            throw new InvalidClassException(
+                "stream written with a different class descriptor dictionary");
+        }
+        this.dictionary = dictionary;
+    }
+
     /**
      * Reads a byte of data. This method will block if no input is available.
      *
@@ -2144,8 +2187,16 @@ public class ObjectInputStream
         passHandle = NULL_HANDLE;
 
         ObjectStreamClass readDesc = null;
+        boolean inDictionary = false;
         try {
-            readDesc = readClassDescriptor();
+            // index of dictionary entry plus one, or 0 if written in full
+            int index = (dictionary != null) ? bin.readInt() : 0;
+            if (index != 0) {
+                readDesc = dictionary.get(index - 1);
+                inDictionary = true;
+            } else {
+                readDesc = readClassDescriptor();
+            }
         } catch (ClassNotFoundException ex) {
             throw (IOException) new InvalidClassException(
                 "failed to read class descriptor").initCause(ex);
@@ -2156,7 +2207,11 @@ public class ObjectInputStream
         bin.setBlockDataMode(true);
         final boolean checksRequired = isCustomSubclass();
         try {
-            cl = (serializationValidator == null) ? resolveClass(readDesc) : serializationValidator.get(resolveClass(readDesc));
+            // the class of a dictionary entry is known, unless a subclass
+            // may resolve it differently
+            Class<?> resolved = (inDictionary && !checksRequired) ?
+                readDesc.forClass() : resolveClass(readDesc);
+            cl = (serializationValidator == null) ? resolved : serializationValidator.get(resolved);
             if (cl == null) {
                 resolveEx = new ClassNotFoundException("null class");
             } else if (checksRequired) {
@@ -3575,10 +3630,9 @@ public class ObjectInputStream
                     stop = Math.min(endoff, off + ((end - pos) >> 1));
                 }
 
-                while (off < stop) {
-                    v[off++] = Bits.getChar(buf, pos);
-                    pos += 2;
-                }
+                Bits.getChars(buf, pos, v, off, stop - off);
+                pos += (stop - off) << 1;
+                off = stop;
             }
         }
 
@@ -3597,10 +3651,9 @@ public class ObjectInputStream
                     stop = Math.min(endoff, off + ((end - pos) >> 1));
                 }
 
-                while (off < stop) {
-                    v[off++] = Bits.getShort(buf, pos);
-                    pos += 2;
-                }
+                Bits.getShorts(buf, pos, v, off, stop - off);
+                pos += (stop - off) << 1;
+                off = stop;
             }
         }
 
@@ -3619,10 +3672,9 @@ public class ObjectInputStream
                     stop = Math.min(endoff, off + ((end - pos) >> 2));
                 }
 
-                while (off < stop) {
-                    v[off++] = Bits.getInt(buf, pos);
-                    pos += 4;
-                }
+                Bits.getInts(buf, pos, v, off, stop - off);
+                pos += (stop - off) << 2;
+                off = stop;
             }
         }
 
@@ -3661,10 +3713,9 @@ public class ObjectInputStream
                     stop = Math.min(endoff, off + ((end - pos) >> 3));
                 }
 
-                while (off < stop) {
-                    v[off++] = Bits.getLong(buf, pos);
-                    pos += 8;
-                }
+                Bits.getLongs(buf, pos, v, off, stop - off);
+                pos += (stop - off) << 3;
+                off = stop;
             }
         }
 
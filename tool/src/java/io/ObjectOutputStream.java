@@ -193,6 +193,8 @@ public class ObjectOutputStream
     private final ReplaceTable subs;
     /** stream protocol version */
     private int protocol = PROTOCOL_VERSION_2;
+    /** class descriptor dictionary, or null if not in use */
+    private ClassDescriptorDictionary dictionary;
     /** recursion depth */
     private int depth;
 
@@ -335,6 +337,42 @@ public class ObjectOutputStream
         }
     }
 
+    /**
+     * Specify a dictionary of class descriptors to use when writing the
+     * stream.  Descriptors of the classes listed in the dictionary are
+     * written as references to its entries, so the stream can only be read
+     * by an ObjectInputStream that uses an equal dictionary.  A fingerprint
+     * of the dictionary is written to the stream as block data when this
+     * method is invoked; the corresponding method in ObjectInputStream,
+     * <code>useClassDescriptorDictionary</code>, reads and checks it.
+     * Descriptors written with <code>PROTOCOL_VERSION_1</code> are never
+     * replaced by dictionary references.
+     *
+     * @param   dictionary the class descriptor dictionary
+     * @throws  IllegalStateException if called after any objects have been
+     *          serialized, or if a dictionary is already in use
+     * @throws  NullPointerException if <code>dictionary</code> is
+     *          <code>null</code>
+     * @throws  IOException if I/O errors occur
+     * @see java.io.ObjectInputStream#useClassDescriptorDictionary
+     * @since   1.8
+     */
+    public void useClassDescriptorDictionary(ClassDescriptorDictionary dictionary)
+        throws IOException
+    {
+        if (dictionary == null) {
+            throw new NullPointerException();
+        }
+        if (handles.size() != 0) {
+            throw new IllegalStateException("stream non-empty");
+        }
+        if (this.dictionary != null) {
+            throw new IllegalStateException("dictionary already in use");
+        }
+        bout.writeLong(dictionary.fingerprint());
+        this.dictionary = dictionary;
+    }
+
     /**
      * Write the specified object to the ObjectOutputStream.  The class of the
      * object, the signature of the class, and the values of the non-transient
@@ -1319,14 +1357,25 @@ public class ObjectOutputStream
         else
             handles.assign(desc, descHash);
 
-        if (protocol == PROTOCOL_VERSION_1) {
-            // do not invoke class descriptor write hook with old protocol
-            desc.writeNonProxy(this);
-        } else {
-            writeClassDescriptor(desc);
+        Class<?> cl = desc.forClass();
+        int index = -1;
+        if (dictionary != null) {
+            if (protocol != PROTOCOL_VERSION_1 && cl != null) {
+                index = dictionary.indexOf(cl);
+            }
+            // index of dictionary entry plus one, or 0 if written in full
+            bout.writeInt(index + 1);
+        }
+
+        if (index < 0) {
+            if (protocol == PROTOCOL_VERSION_1) {
+                // do not invoke class descriptor write hook with old protocol
+                desc.writeNonProxy(this);
+            } else {
+                writeClassDescriptor(desc);
+            }
         }
 
-        Class<?> cl = desc.forClass();
         bout.setBlockDataMode(true);
         if (cl != null && isCustomSubclass()) {
             ReflectUtil.checkPackageAccess(cl);
@@ -2102,11 +2151,10 @@ public class ObjectOutputStream
             while (off < endoff) {
                 if (pos <= limit) {
                     int avail = (MAX_BLOCK_SIZE - pos) >> 1;
-                    int stop = Math.min(endoff, off + avail);
-                    while (off < stop) {
-                        Bits.putChar(buf, pos, v[off++]);
-                        pos += 2;
-                    }
+                    int chunklen = Math.min(endoff - off, avail);
+                    Bits.putChars(buf, pos, v, off, chunklen);
+                    off += chunklen;
+                    pos += chunklen << 1;
                 } else {
                     dout.writeChar(v[off++]);
                 }
@@ -2119,11 +2167,10 @@ public class ObjectOutputStream
             while (off < endoff) {
                 if (pos <= limit) {
                     int avail = (MAX_BLOCK_SIZE - pos) >> 1;
-                    int stop = Math.min(endoff, off + avail);
-                    while (off < stop) {
-                        Bits.putShort(buf, pos, v[off++]);
-                        pos += 2;
-                    }
+                    int chunklen = Math.min(endoff - off, avail);
+                    Bits.putShorts(buf, pos, v, off, chunklen);
+                    off += chunklen;
+                    pos += chunklen << 1;
                 } else {
                     dout.writeShort(v[off++]);
                 }
@@ -2136,11 +2183,10 @@ public class ObjectOutputStream
             while (off < endoff) {
                 if (pos <= limit) {
                     int avail = (MAX_BLOCK_SIZE - pos) >> 2;
-                    int stop = Math.min(endoff, off + avail);
-                    while (off < stop) {
-                        Bits.putInt(buf, pos, v[off++]);
-                        pos += 4;
-                    }
+                    int chunklen = Math.min(endoff - off, avail);
+                    Bits.putInts(buf, pos, v, off, chunklen);
+                    off += chunklen;
+                    pos += chunklen << 2;
                 } else {
                     dout.writeInt(v[off++]);
                 }
@@ -2169,11 +2215,10 @@ public class ObjectOutputStream
             while (off < endoff) {
                 if (pos <= limit) {
                     int avail = (MAX_BLOCK_SIZE - pos) >> 3;
-                    int stop = Math.min(endoff, off + avail);
-                    while (off < stop) {
-                        Bits.putLong(buf, pos, v[off++]);
-                        pos += 8;
-                    }
+                    int chunklen = Math.min(endoff - off, avail);
+                    Bits.putLongs(buf, pos, v, off, chunklen);
+                    off += chunklen;
+                    pos += chunklen << 3;
                 } else {
                     dout.writeLong(v[off++]);
                 }
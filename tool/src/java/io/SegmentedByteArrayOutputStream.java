@@ -0,0 +1,538 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.io;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * This class implements an output stream in which the data is written
+ * into a chain of byte array segments.  Unlike {@link ByteArrayOutputStream},
+ * the data already written is never copied when the stream grows: a new
+ * segment is added to the chain instead.  The data can be retrieved without
+ * copying using {@link #toByteBuffers()}, {@link #toInputStream()} and
+ * {@link #writeTo(WritableByteChannel)}, or copied into a single array
+ * using {@link #toByteArray()}.
+ *
+ * <p> Segments start small and double in size up to a limit, so that small
+ * streams stay cheap and large ones are made of few large segments.  A
+ * stream may instead take fixed-size segments from a {@link Pool}, in which
+ * case {@link #reset()} and {@link #close()} return them to the pool for use
+ * by other streams.
+ *
+ * <p> The buffers and input streams returned by this class share the
+ * segments of the stream.  They remain valid as more data is written, but
+ * must not be used after the stream has been reset, or closed if it takes
+ * its segments from a pool.
+ *
+ * <p> Closing a stream that does not take its segments from a pool has no
+ * effect. The methods in this class can be called after the stream has
+ * been closed without generating an <tt>IOException</tt>.
+ *
+ * @see     java.io.ByteArrayOutputStream
+ * @since   1.8
+ */
+
+public class SegmentedByteArrayOutputStream extends OutputStream {
+
+    /**
+     * The maximum size of a segment allocated by a stream that grows its
+     * segments, unless a larger initial size is specified.
+     */
+    private static final int MAX_SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * The maximum size of array to allocate.
+     * Some VMs reserve some header words in an array.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    // The pool segments are taken from, or null
+    private final Pool pool;
+
+    // The size of the first segment allocated if there is no pool
+    private final int initialSize;
+
+    // The allocated segments; segments after current are spare capacity
+    // retained by reset
+    private byte[][] segments = new byte[8][];
+    private int allocated;
+
+    // The segment being written and the position in it; all segments
+    // before it are full
+    private int current = -1;
+    private byte[] buf = EMPTY;
+    private int pos;
+
+    // The number of bytes written
+    private long count;
+
+    /**
+     * Creates a new segmented byte array output stream. The first segment
+     * is 256 bytes, and segments grow as necessary.
+     */
+    public SegmentedByteArrayOutputStream() {
+        this(256);
+    }
+
+    /**
+     * Creates a new segmented byte array output stream, with a first
+     * segment of the specified size, in bytes.  Further segments double in
+     * size up to 64 kilobytes, or up to the specified size if it is larger.
+     *
+     * @param   size   the size of the first segment.
+     * @exception  IllegalArgumentException if size is negative.
+     */
+    public SegmentedByteArrayOutputStream(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative initial size: "
+                                               + size);
+        }
+        this.pool = null;
+        this.initialSize = Math.max(size, 1);
+    }
+
+    /**
+     * Creates a new segmented byte array output stream that takes its
+     * segments from the specified pool.
+     *
+     * @param   pool   the pool of segments.
+     */
+    public SegmentedByteArrayOutputStream(Pool pool) {
+        if (pool == null)
+            throw new NullPointerException();
+        this.pool = pool;
+        this.initialSize = pool.segmentSize;
+    }
+
+    /**
+     * Moves to the next segment, allocating it if there is no spare one.
+     */
+    private void nextSegment() {
+        if (++current == allocated) {
+            byte[] segment;
+            if (pool != null) {
+                segment = pool.take();
+            } else if (allocated == 0) {
+                segment = new byte[initialSize];
+            } else {
+                int last = segments[allocated - 1].length;
+                segment = new byte[Math.max(last,
+                                    Math.min(last << 1, MAX_SEGMENT_SIZE))];
+            }
+            if (allocated == segments.length)
+                segments = Arrays.copyOf(segments, allocated << 1);
+            segments[allocated++] = segment;
+        }
+        buf = segments[current];
+        pos = 0;
+    }
+
+    /**
+     * Writes the specified byte to this output stream.
+     *
+     * @param   b   the byte to be written.
+     */
+    public synchronized void write(int b) {
+        if (pos == buf.length)
+            nextSegment();
+        buf[pos++] = (byte) b;
+        count++;
+    }
+
+    /**
+     * Writes <code>len</code> bytes from the specified byte array
+     * starting at offset <code>off</code> to this output stream.
+     *
+     * @param   b     the data.
+     * @param   off   the start offset in the data.
+     * @param   len   the number of bytes to write.
+     */
+    public synchronized void write(byte b[], int off, int len) {
+        if ((off < 0) || (off > b.length) || (len < 0) ||
+            ((off + len) - b.length > 0)) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (pos == buf.length)
+                nextSegment();
+            int n = Math.min(len, buf.length - pos);
+            System.arraycopy(b, off, buf, pos, n);
+            pos += n;
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    // Returns the number of valid bytes in the given segment.
+    private int length(int segment) {
+        return (segment == current) ? pos : segments[segment].length;
+    }
+
+    /**
+     * Writes the complete contents of this output stream to the specified
+     * output stream argument, one segment at a time.
+     *
+     * @param      out   the output stream to which to write the data.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i <= current; i++)
+            out.write(segments[i], 0, length(i));
+    }
+
+    /**
+     * Writes the complete contents of this output stream to the specified
+     * channel.  If the channel is a {@link GatheringByteChannel} then the
+     * segments are written with gathering writes, otherwise they are written
+     * one at a time.  No copy of the contents is made.
+     *
+     * @param      ch   the channel to which to write the data.
+     * @exception  IllegalBlockingModeException
+     *             if the channel is selectable and configured non-blocking.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public synchronized void writeTo(WritableByteChannel ch)
+        throws IOException
+    {
+        if (ch instanceof SelectableChannel) {
+            SelectableChannel sc = (SelectableChannel)ch;
+            synchronized (sc.blockingLock()) {
+                if (!sc.isBlocking())
+                    throw new IllegalBlockingModeException();
+                writeFully(ch, buffers());
+            }
+        } else {
+            writeFully(ch, buffers());
+        }
+    }
+
+    private static void writeFully(WritableByteChannel ch, ByteBuffer[] bbs)
+        throws IOException
+    {
+        int i = 0;
+        if (ch instanceof GatheringByteChannel) {
+            GatheringByteChannel gch = (GatheringByteChannel)ch;
+            while (i < bbs.length) {
+                gch.write(bbs, i, bbs.length - i);
+                while (i < bbs.length && !bbs[i].hasRemaining())
+                    i++;
+            }
+        } else {
+            for (; i < bbs.length; i++) {
+                while (bbs[i].hasRemaining())
+                    ch.write(bbs[i]);
+            }
+        }
+    }
+
+    // Returns buffers that wrap the valid bytes of each segment.
+    private ByteBuffer[] buffers() {
+        ByteBuffer[] bbs = new ByteBuffer[current + 1];
+        for (int i = 0; i <= current; i++)
+            bbs[i] = ByteBuffer.wrap(segments[i], 0, length(i));
+        return bbs;
+    }
+
+    /**
+     * Returns the contents of this output stream as an array of read-only
+     * byte buffers, one for each segment, without copying the contents.
+     * The buffers share the segments of this stream; see the class
+     * description for how long they remain valid.
+     *
+     * @return  the current contents of this output stream, as an array of
+     *          read-only byte buffers.
+     */
+    public synchronized ByteBuffer[] toByteBuffers() {
+        ByteBuffer[] bbs = buffers();
+        for (int i = 0; i < bbs.length; i++)
+            bbs[i] = bbs[i].asReadOnlyBuffer();
+        return bbs;
+    }
+
+    /**
+     * Returns an input stream that reads the current contents of this
+     * output stream without copying them.  Bytes written to this output
+     * stream later are not read by the input stream.  The input stream
+     * shares the segments of this stream; see the class description for
+     * how long it remains valid.
+     *
+     * <p> The input stream supports the {@link InputStream#mark mark} and
+     * {@link InputStream#reset reset} methods, and is not safe for use by
+     * multiple concurrent threads.
+     *
+     * @return  an input stream over the current contents of this output
+     *          stream.
+     */
+    public synchronized InputStream toInputStream() {
+        return new SegmentInputStream(Arrays.copyOf(segments, current + 1),
+                                      pos, count);
+    }
+
+    /**
+     * Resets this output stream so that all currently accumulated output
+     * is discarded.  If this stream takes its segments from a pool then
+     * they are returned to it, otherwise the stream can be used again,
+     * reusing the already allocated segments.
+     */
+    public synchronized void reset() {
+        if (pool != null) {
+            pool.give(segments, allocated);
+            Arrays.fill(segments, 0, allocated, null);
+            allocated = 0;
+        }
+        current = -1;
+        buf = EMPTY;
+        pos = 0;
+        count = 0;
+    }
+
+    /**
+     * Creates a newly allocated byte array. Its size is the current
+     * size of this output stream and the contents of the segments
+     * have been copied into it.
+     *
+     * @return  the current contents of this output stream, as a byte array.
+     * @throws  OutOfMemoryError if the contents are too large to be held
+     *          in an array.
+     * @see     #size()
+     */
+    public synchronized byte toByteArray()[] {
+        if (count > MAX_ARRAY_SIZE)
+            throw new OutOfMemoryError("Required array size too large");
+        byte[] result = new byte[(int)count];
+        int off = 0;
+        for (int i = 0; i <= current; i++) {
+            int n = length(i);
+            System.arraycopy(segments[i], 0, result, off, n);
+            off += n;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes written to this output stream since it
+     * was created or last reset.  Unlike {@link ByteArrayOutputStream#size()}
+     * the size is a <code>long</code>, as it may exceed the size of an array.
+     *
+     * @return  the number of bytes in this output stream.
+     */
+    public synchronized long size() {
+        return count;
+    }
+
+    /**
+     * Converts the contents of this output stream into a string decoding
+     * bytes using the platform's default character set.
+     *
+     * @return String decoded from the contents of this output stream.
+     * @see    ByteArrayOutputStream#toString()
+     */
+    public synchronized String toString() {
+        return new String(toByteArray());
+    }
+
+    /**
+     * Converts the contents of this output stream into a string by decoding
+     * the bytes using the named {@link java.nio.charset.Charset charset}.
+     *
+     * @param      charsetName  the name of a supported
+     *             {@link java.nio.charset.Charset charset}
+     * @return     String decoded from the contents of this output stream.
+     * @exception  UnsupportedEncodingException
+     *             If the named charset is not supported
+     * @see        ByteArrayOutputStream#toString(String)
+     */
+    public synchronized String toString(String charsetName)
+        throws UnsupportedEncodingException
+    {
+        return new String(toByteArray(), charsetName);
+    }
+
+    /**
+     * Closes this output stream.  If the stream takes its segments from a
+     * pool then it is reset, returning them to the pool, otherwise closing
+     * has no effect.
+     */
+    public void close() throws IOException {
+        if (pool != null)
+            reset();
+    }
+
+    /**
+     * A pool of fixed-size segments shared by streams that build and
+     * discard many large outputs, so that their segments are reused rather
+     * than allocated and collected each time.  A pool retains at most a
+     * given number of segments; segments returned to a full pool are left
+     * to the garbage collector.  Pools are safe for use by multiple
+     * concurrent threads.
+     *
+     * @since   1.8
+     */
+    public static final class Pool {
+        private final int segmentSize;
+        private final int capacity;
+        private final ArrayDeque<byte[]> free = new ArrayDeque<>();
+
+        /**
+         * Creates a pool of segments of the specified size.
+         *
+         * @param   segmentSize  the size of each segment, in bytes.
+         * @param   capacity     the maximum number of free segments
+         *                       retained by the pool.
+         * @exception  IllegalArgumentException if segmentSize is not
+         *             positive or capacity is negative.
+         */
+        public Pool(int segmentSize, int capacity) {
+            if (segmentSize <= 0)
+                throw new IllegalArgumentException("Illegal segment size: "
+                                                   + segmentSize);
+            if (capacity < 0)
+                throw new IllegalArgumentException("Negative capacity: "
+                                                   + capacity);
+            this.segmentSize = segmentSize;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Returns the size of the segments in this pool.
+         *
+         * @return  the segment size, in bytes.
+         */
+        public int segmentSize() {
+            return segmentSize;
+        }
+
+        synchronized byte[] take() {
+            byte[] segment = free.pollFirst();
+            return (segment != null) ? segment : new byte[segmentSize];
+        }
+
+        synchronized void give(byte[][] segments, int n) {
+            for (int i = 0; i < n && free.size() < capacity; i++)
+                free.addFirst(segments[i]);
+        }
+    }
+
+    /**
+     * An input stream over a snapshot of the segments of the stream.
+     */
+    private static final class SegmentInputStream extends InputStream {
+        private final byte[][] segments;
+        private final int lastLength;
+        private final long count;
+
+        // The segment being read, the position in it and the total
+        // number of bytes read
+        private int index;
+        private int pos;
+        private long read;
+
+        private int markIndex;
+        private int markPos;
+        private long markRead;
+
+        SegmentInputStream(byte[][] segments, int lastLength, long count) {
+            this.segments = segments;
+            this.lastLength = lastLength;
+            this.count = count;
+        }
+
+        private int length(int segment) {
+            return (segment == segments.length - 1) ? lastLength
+                                                    : segments[segment].length;
+        }
+
+        // Moves past exhausted segments; returns false at end of stream.
+        private boolean advance() {
+            if (read == count)
+                return false;
+            while (pos == length(index)) {
+                index++;
+                pos = 0;
+            }
+            return true;
+        }
+
+        public int read() {
+            if (!advance())
+                return -1;
+            read++;
+            return segments[index][pos++] & 0xff;
+        }
+
+        public int read(byte b[], int off, int len) {
+            if (b == null) {
+                throw new NullPointerException();
+            } else if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0)
+                return 0;
+            if (!advance())
+                return -1;
+            int total = 0;
+            do {
+                int n = Math.min(len, length(index) - pos);
+                System.arraycopy(segments[index], pos, b, off, n);
+                pos += n;
+                read += n;
+                off += n;
+                len -= n;
+                total += n;
+            } while (len > 0 && advance());
+            return total;
+        }
+
+        public long skip(long n) {
+            long k = Math.max(0, Math.min(n, count - read));
+            long remaining = k;
+            while (remaining > 0) {
+                advance();
+                int m = (int)Math.min(remaining, length(index) - pos);
+                pos += m;
+                read += m;
+                remaining -= m;
+            }
+            return k;
+        }
+
+        public int available() {
+            return (int)Math.min(count - read, Integer.MAX_VALUE);
+        }
+
+        public boolean markSupported() {
+            return true;
+        }
+
+        public void mark(int readAheadLimit) {
+            markIndex = index;
+            markPos = pos;
+            markRead = read;
+        }
+
+        public void reset() {
+            index = markIndex;
+            pos = markPos;
+            read = markRead;
+        }
+    }
+}
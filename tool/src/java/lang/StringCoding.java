@@ -53,6 +53,7 @@ import sun.misc.MessageUtils;
 import sun.nio.cs.HistoricallyNamedCharset;
 import sun.nio.cs.ArrayDecoder;
 import sun.nio.cs.ArrayEncoder;
+import jdk.internal.util.CharCoding;
 
 /**
  * Utility class for string encoding and decoding.
@@ -63,14 +64,20 @@ class StringCoding {
 
     private StringCoding() { }
 
-    /** The cached coders for each thread */
-    private final static ThreadLocal<SoftReference<StringDecoder>> decoder =
+    /** The number of coders cached for each thread */
+    private final static int CACHE_SIZE = 4;
+
+    /**
+     * The cached coders for each thread, most recently used first, so
+     * that alternating between a few charsets does not create new coders.
+     */
+    private final static ThreadLocal<SoftReference<StringDecoder[]>> decoder =
         new ThreadLocal<>();
-    private final static ThreadLocal<SoftReference<StringEncoder>> encoder =
+    private final static ThreadLocal<SoftReference<StringEncoder[]>> encoder =
         new ThreadLocal<>();
-    private final static ThreadLocal<SoftReference<CharsetDecoder>> csDecoder =
+    private final static ThreadLocal<SoftReference<StringDecoder[]>> csDecoder =
         new ThreadLocal<>();
-    private final static ThreadLocal<SoftReference<CharsetEncoder>> csEncoder =
+    private final static ThreadLocal<SoftReference<StringEncoder[]>> csEncoder =
         new ThreadLocal<>();
 
     private static boolean warnUnsupportedCharset = true;
@@ -86,6 +93,34 @@ class StringCoding {
         tl.set(new SoftReference<T>(ob));
     }
 
+    private static StringDecoder[] decoders(ThreadLocal<SoftReference<StringDecoder[]>> tl) {
+        StringDecoder[] cache = deref(tl);
+        if (cache == null) {
+            cache = new StringDecoder[CACHE_SIZE];
+            set(tl, cache);
+        }
+        return cache;
+    }
+
+    private static StringEncoder[] encoders(ThreadLocal<SoftReference<StringEncoder[]>> tl) {
+        StringEncoder[] cache = deref(tl);
+        if (cache == null) {
+            cache = new StringEncoder[CACHE_SIZE];
+            set(tl, cache);
+        }
+        return cache;
+    }
+
+    // Move the i-th entry of the cache to the front, or insert the given
+    // entry at the front, evicting the last one, if i is negative
+    //
+    private static <T> void moveToFront(T[] cache, int i, T ob) {
+        if (i < 0)
+            i = cache.length - 1;
+        System.arraycopy(cache, 0, cache, 1, i);
+        cache[0] = ob;
+    }
+
     // Trim the given byte array to the given length
     //
     private static byte[] safeTrim(byte[] ba, int len, Charset cs, boolean isTrusted) {
@@ -140,6 +175,7 @@ class StringCoding {
         private final Charset cs;
         private final CharsetDecoder cd;
         private final boolean isTrusted;
+        private final int kind;
 
         private StringDecoder(Charset cs, String rcn) {
             this.requestedCharsetName = rcn;
@@ -148,6 +184,7 @@ class StringCoding {
                 .onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
             this.isTrusted = (cs.getClass().getClassLoader0() == null);
+            this.kind = CharCoding.kindOf(cs);
         }
 
         String charsetName() {
@@ -165,13 +202,25 @@ class StringCoding {
             char[] ca = new char[en];
             if (len == 0)
                 return ca;
-            if (cd instanceof ArrayDecoder) {
+            int sp = off;
+            int dp = 0;
+            if (kind != CharCoding.NONE) {
+                // Decode the well-formed ASCII, UTF-8 or GBK prefix
+                // without the decoder, usually the whole input
+                long r = CharCoding.decode(kind, ba, off, off + len, ca, 0, en);
+                sp = CharCoding.srcPos(r);
+                dp = CharCoding.dstPos(r);
+                if (sp == off + len)
+                    return safeTrim(ca, dp, cs, isTrusted);
+            }
+            if (dp == 0 && cd instanceof ArrayDecoder) {
                 int clen = ((ArrayDecoder)cd).decode(ba, off, len, ca);
                 return safeTrim(ca, clen, cs, isTrusted);
             } else {
+                // Decode the rest, appending to the prefix
                 cd.reset();
-                ByteBuffer bb = ByteBuffer.wrap(ba, off, len);
-                CharBuffer cb = CharBuffer.wrap(ca);
+                ByteBuffer bb = ByteBuffer.wrap(ba, sp, off + len - sp);
+                CharBuffer cb = CharBuffer.wrap(ca, dp, en - dp);
                 try {
                     CoderResult cr = cd.decode(bb, cb, true);
                     if (!cr.isUnderflow())
@@ -192,11 +241,19 @@ class StringCoding {
     static char[] decode(String charsetName, byte[] ba, int off, int len)
         throws UnsupportedEncodingException
     {
-        StringDecoder sd = deref(decoder);
+        StringDecoder[] cache = decoders(decoder);
         String csn = (charsetName == null) ? "ISO-8859-1" : charsetName;
-        if ((sd == null) || !(csn.equals(sd.requestedCharsetName())
-                              || csn.equals(sd.charsetName()))) {
-            sd = null;
+        StringDecoder sd = null;
+        int i = 0;
+        for (; i < CACHE_SIZE; i++) {
+            StringDecoder d = cache[i];
+            if ((d != null) && (csn.equals(d.requestedCharsetName())
+                                || csn.equals(d.charsetName()))) {
+                sd = d;
+                break;
+            }
+        }
+        if (sd == null) {
             try {
                 Charset cs = lookupCharset(csn);
                 if (cs != null)
@@ -204,17 +261,19 @@ class StringCoding {
             } catch (IllegalCharsetNameException x) {}
             if (sd == null)
                 throw new UnsupportedEncodingException(csn);
-            set(decoder, sd);
+            i = -1;
         }
+        if (i != 0)
+            moveToFront(cache, i, sd);
         return sd.decode(ba, off, len);
     }
 
     static char[] decode(Charset cs, byte[] ba, int off, int len) {
-        // (1)We never cache the "external" cs, the only benefit of creating
-        // an additional StringDe/Encoder object to wrap it is to share the
-        // de/encode() method. These SD/E objects are short-lifed, the young-gen
-        // gc should be able to take care of them well. But the best approash
-        // is still not to generate them if not really necessary.
+        // (1)The "external" cs is not looked up by name or shared between
+        // threads, but the StringDe/Encoder objects wrapping it are kept
+        // in the small per-thread caches of (5), keyed by the identity of
+        // the cs, rather than created for each call. A cs that is not
+        // reused is soon pushed out of the cache by moveToFront.
         // (2)The defensive copy of the input byte/char[] has a big performance
         // impact, as well as the outgoing result byte/char[]. Need to do the
         // optimization check of (sm==null && classLoader0==null) for both.
@@ -226,47 +285,30 @@ class StringCoding {
         // check (... && (isTrusted || SM == null || getClassLoader0())) in trim
         // but it then can be argued that the SM is null when the opertaion
         // is started...
-        CharsetDecoder cd = deref(csDecoder);
-
-        if (cd == null || cd.charset() != cs) {
-            cd = cs.newDecoder();
-            set(csDecoder, cd);
-        }
-
-        int en = scale(len, cd.maxCharsPerByte());
-        char[] ca = new char[en];
-        if (len == 0)
-            return ca;
-        boolean isTrusted = false;
-        if (System.getSecurityManager() != null) {
-            if (!(isTrusted = (cs.getClass().getClassLoader0() == null))) {
-                ba =  Arrays.copyOfRange(ba, off, off + len);
-                off = 0;
+        // (5)The decoders are cached per thread with the charset they wrap,
+        // which also caches the expensive isTrusted check of (3).
+        StringDecoder[] cache = decoders(csDecoder);
+        StringDecoder sd = null;
+        int i = 0;
+        for (; i < CACHE_SIZE; i++) {
+            StringDecoder d = cache[i];
+            if ((d != null) && (d.cs == cs)) {
+                sd = d;
+                break;
             }
         }
-        cd.onMalformedInput(CodingErrorAction.REPLACE)
-          .onUnmappableCharacter(CodingErrorAction.REPLACE)
-          .reset();
-        if (cd instanceof ArrayDecoder) {
-            int clen = ((ArrayDecoder)cd).decode(ba, off, len, ca);
-            return safeTrim(ca, clen, cs, isTrusted);
-        } else {
-            ByteBuffer bb = ByteBuffer.wrap(ba, off, len);
-            CharBuffer cb = CharBuffer.wrap(ca);
-            try {
-                CoderResult cr = cd.decode(bb, cb, true);
-                if (!cr.isUnderflow())
-                    cr.throwException();
-                cr = cd.flush(cb);
-                if (!cr.isUnderflow())
-                    cr.throwException();
-            } catch (CharacterCodingException x) {
-                // Substitution is always enabled,
-                // so this shouldn't happen
-                throw new Error(x);
-            }
-            return safeTrim(ca, cb.position(), cs, isTrusted);
+        if (sd == null) {
+            sd = new StringDecoder(cs, cs.name());
+            i = -1;
         }
+        if (i != 0)
+            moveToFront(cache, i, sd);
+
+        if (System.getSecurityManager() != null && !sd.isTrusted && len > 0) {
+            ba =  Arrays.copyOfRange(ba, off, off + len);
+            off = 0;
+        }
+        return sd.decode(ba, off, len);
     }
 
     static char[] decode(byte[] ba, int off, int len) {
@@ -297,6 +339,7 @@ class StringCoding {
         private CharsetEncoder ce;
         private final String requestedCharsetName;
         private final boolean isTrusted;
+        private final int kind;
 
         private StringEncoder(Charset cs, String rcn) {
             this.requestedCharsetName = rcn;
@@ -305,6 +348,7 @@ class StringCoding {
                 .onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
             this.isTrusted = (cs.getClass().getClassLoader0() == null);
+            this.kind = CharCoding.kindOf(cs);
         }
 
         String charsetName() {
@@ -322,13 +366,21 @@ class StringCoding {
             byte[] ba = new byte[en];
             if (len == 0)
                 return ba;
-            if (ce instanceof ArrayEncoder) {
+            int dp = 0;
+            if (kind != CharCoding.NONE) {
+                // Encode the ASCII prefix without the encoder
+                dp = CharCoding.encodeASCII(ca, off, ba, 0, Math.min(len, en));
+                if (dp == len)
+                    return safeTrim(ba, dp, cs, isTrusted);
+            }
+            if (dp == 0 && ce instanceof ArrayEncoder) {
                 int blen = ((ArrayEncoder)ce).encode(ca, off, len, ba);
                 return safeTrim(ba, blen, cs, isTrusted);
             } else {
+                // Encode the rest, appending to the prefix
                 ce.reset();
-                ByteBuffer bb = ByteBuffer.wrap(ba);
-                CharBuffer cb = CharBuffer.wrap(ca, off, len);
+                ByteBuffer bb = ByteBuffer.wrap(ba, dp, en - dp);
+                CharBuffer cb = CharBuffer.wrap(ca, off + dp, len - dp);
                 try {
                     CoderResult cr = ce.encode(cb, bb, true);
                     if (!cr.isUnderflow())
@@ -349,11 +401,19 @@ class StringCoding {
     static byte[] encode(String charsetName, char[] ca, int off, int len)
         throws UnsupportedEncodingException
     {
-        StringEncoder se = deref(encoder);
+        StringEncoder[] cache = encoders(encoder);
         String csn = (charsetName == null) ? "ISO-8859-1" : charsetName;
-        if ((se == null) || !(csn.equals(se.requestedCharsetName())
-                              || csn.equals(se.charsetName()))) {
-            se = null;
+        StringEncoder se = null;
+        int i = 0;
+        for (; i < CACHE_SIZE; i++) {
+            StringEncoder e = cache[i];
+            if ((e != null) && (csn.equals(e.requestedCharsetName())
+                                || csn.equals(e.charsetName()))) {
+                se = e;
+                break;
+            }
+        }
+        if (se == null) {
             try {
                 Charset cs = lookupCharset(csn);
                 if (cs != null)
@@ -361,51 +421,36 @@ class StringCoding {
             } catch (IllegalCharsetNameException x) {}
             if (se == null)
                 throw new UnsupportedEncodingException (csn);
-            set(encoder, se);
+            i = -1;
         }
+        if (i != 0)
+            moveToFront(cache, i, se);
         return se.encode(ca, off, len);
     }
 
     static byte[] encode(Charset cs, char[] ca, int off, int len) {
-        CharsetEncoder ce = deref(csEncoder);
-
-        if (ce == null || ce.charset() != cs) {
-            ce = cs.newEncoder();
-            set(csEncoder, ce);
-         }
-
-        int en = scale(len, ce.maxBytesPerChar());
-        byte[] ba = new byte[en];
-        if (len == 0)
-            return ba;
-        boolean isTrusted = false;
-        if (System.getSecurityManager() != null) {
-            if (!(isTrusted = (cs.getClass().getClassLoader0() == null))) {
-                ca =  Arrays.copyOfRange(ca, off, off + len);
-                off = 0;
+        StringEncoder[] cache = encoders(csEncoder);
+        StringEncoder se = null;
+        int i = 0;
+        for (; i < CACHE_SIZE; i++) {
+            StringEncoder e = cache[i];
+            if ((e != null) && (e.cs == cs)) {
+                se = e;
+                break;
             }
         }
-        ce.onMalformedInput(CodingErrorAction.REPLACE)
-          .onUnmappableCharacter(CodingErrorAction.REPLACE)
-          .reset();
-        if (ce instanceof ArrayEncoder) {
-            int blen = ((ArrayEncoder)ce).encode(ca, off, len, ba);
-            return safeTrim(ba, blen, cs, isTrusted);
-        } else {
-            ByteBuffer bb = ByteBuffer.wrap(ba);
-            CharBuffer cb = CharBuffer.wrap(ca, off, len);
-            try {
-                CoderResult cr = ce.encode(cb, bb, true);
-                if (!cr.isUnderflow())
-                    cr.throwException();
-                cr = ce.flush(bb);
-                if (!cr.isUnderflow())
-                    cr.throwException();
-            } catch (CharacterCodingException x) {
-                throw new Error(x);
-            }
-            return safeTrim(ba, bb.position(), cs, isTrusted);
+        if (se == null) {
+            se = new StringEncoder(cs, cs.name());
+            i = -1;
+        }
+        if (i != 0)
+            moveToFront(cache, i, se);
+
+        if (System.getSecurityManager() != null && !se.isTrusted && len > 0) {
+            ca =  Arrays.copyOfRange(ca, off, off + len);
+            off = 0;
         }
+        return se.encode(ca, off, len);
     }
 
     static byte[] encode(char[] ca, int off, int len) {
@@ -0,0 +1,232 @@
+package java.lang.ref;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*******************************************************************************
+ * Copyright (c) 2021, 2021 IBM Corp. and others
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which accompanies this
+ * distribution and is available at https://www.eclipse.org/legal/epl-2.0/
+ * or the Apache License, Version 2.0 which accompanies this distribution and
+ * is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * This Source Code may also be made available under the following
+ * Secondary Licenses when the conditions for such availability set
+ * forth in the Eclipse Public License, v. 2.0 are satisfied: GNU
+ * General Public License, version 2 with the GNU Classpath
+ * Exception [1] and GNU General Public License, version 2 with the
+ * OpenJDK Assembly Exception [2].
+ *
+ * [1] https://www.gnu.org/software/classpath/license.html
+ * [2] http://openjdk.java.net/legal/assembly-exception.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0 OR GPL-2.0 WITH Classpath-exception-2.0 OR LicenseRef-GPL-2.0 WITH Assembly-exception
+ *******************************************************************************/
+ 
+/**
+ * A Cleaner runs cleaning actions for objects that have become phantom
+ * reachable.  An object is registered with a cleaner together with an
+ * action, and the action is run by the cleaner's thread once the object
+ * is no longer reachable, unless it has been run before by calling
+ * {@link Cleanable#clean() clean}.  Each action is run at most once.
+ * <p>
+ * Unlike finalization, cleaning does not delay the reclamation of the
+ * object: the action must not refer to the object, and is typically an
+ * instance of a static nested class holding only the resources to release.
+ * Actions should be short and must not block, since a cleaner runs them
+ * one at a time; exceptions thrown by an action are ignored.
+ * <p>
+ * The cleaner's thread is a daemon thread, and terminates once the cleaner
+ * is no longer reachable and all the actions registered with it have run.
+ *
+ * @since		1.8
+ */
+public final class Cleaner {
+
+	private static final AtomicInteger threadNumber = new AtomicInteger();
+
+	/* The state shared with the cleaning thread, which must not refer to the Cleaner itself */
+	private final State state;
+
+	/**
+	 * Cleanable represents an object and cleaning action registered with a Cleaner.
+	 */
+	public interface Cleanable {
+		/**
+		 * Unregisters the cleanable and runs its cleaning action, if it has not
+		 * been run before.  The action is run at most once, however many times
+		 * this method is called.
+		 */
+		void clean();
+	}
+
+private Cleaner() {
+	state = new State();
+}
+
+/**
+ * Returns a new Cleaner, running its actions on a new daemon thread.
+ *
+ * @return		Cleaner
+ *					a new Cleaner.
+ * @exception	SecurityException
+ *					if the current thread is not allowed to create or start a thread.
+ */
+public static Cleaner create() {
+	final Cleaner cleaner = new Cleaner();
+	Thread thread = AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+		public Thread run() {
+			Thread t = new Thread(cleaner.state, "Cleaner-" + threadNumber.getAndIncrement()); //$NON-NLS-1$
+			t.setPriority(Thread.MAX_PRIORITY);
+			return t;
+		}
+	});
+	cleaner.start(thread);
+	return cleaner;
+}
+
+/**
+ * Returns a new Cleaner, running its actions on a daemon thread obtained
+ * from the given factory.
+ *
+ * @param		threadFactory
+ *					the factory of the cleaning thread.
+ * @return		Cleaner
+ *					a new Cleaner.
+ * @exception	IllegalThreadStateException
+ *					if the thread from the factory is not in a new state.
+ * @exception	SecurityException
+ *					if the current thread is not allowed to create or start a thread.
+ */
+public static Cleaner create(ThreadFactory threadFactory) {
+	if (threadFactory == null) {
+		throw new NullPointerException("threadFactory"); //$NON-NLS-1$
+	}
+	Cleaner cleaner = new Cleaner();
+	cleaner.start(threadFactory.newThread(cleaner.state));
+	return cleaner;
+}
+
+private void start(Thread thread) {
+	if (thread.getState() != Thread.State.NEW) {
+		throw new IllegalThreadStateException("Thread is already started"); //$NON-NLS-1$
+	}
+	/* Keep the thread running while this Cleaner is reachable */
+	state.add(new PhantomCleanable(this, state, null));
+	thread.setDaemon(true);
+	thread.start();
+}
+
+/**
+ * Registers an object and a cleaning action to run when the object
+ * becomes phantom reachable.
+ *
+ * @param		obj
+ *					the object to monitor.
+ * @param		action
+ *					the action to run when the object becomes phantom reachable;
+ *					it must not refer to the object.
+ * @return		Cleanable
+ *					the registration, whose clean method runs the action early.
+ */
+public Cleanable register(Object obj, Runnable action) {
+	if (obj == null) {
+		throw new NullPointerException("obj"); //$NON-NLS-1$
+	}
+	if (action == null) {
+		throw new NullPointerException("action"); //$NON-NLS-1$
+	}
+	PhantomCleanable cleanable = new PhantomCleanable(obj, state, action);
+	state.add(cleanable);
+	return cleanable;
+}
+
+/**
+ * The queue and the list of registered cleanables of a Cleaner, and the
+ * loop run by its thread.  The list keeps the cleanables reachable until
+ * they are cleaned.
+ */
+static final class State implements Runnable {
+	final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+	private final PhantomCleanable list = new PhantomCleanable();
+
+	void add(PhantomCleanable cleanable) {
+		synchronized (list) {
+			cleanable.prev = list;
+			cleanable.next = list.next;
+			list.next.prev = cleanable;
+			list.next = cleanable;
+		}
+	}
+
+	/* Returns true if the cleanable was in the list, false if it has been removed before */
+	boolean remove(PhantomCleanable cleanable) {
+		synchronized (list) {
+			if (cleanable.next == cleanable) {
+				return false;
+			}
+			cleanable.next.prev = cleanable.prev;
+			cleanable.prev.next = cleanable.next;
+			cleanable.prev = cleanable;
+			cleanable.next = cleanable;
+			return true;
+		}
+	}
+
+	private boolean isEmpty() {
+		synchronized (list) {
+			return list.next == list;
+		}
+	}
+
+	public void run() {
+		while (!isEmpty()) {
+			try {
+				/* Wake up now and then in case the last cleanable was cleaned explicitly */
+				PhantomCleanable ref = (PhantomCleanable)queue.remove(60 * 1000L);
+				if (ref != null) {
+					ref.clean();
+				}
+			} catch (Throwable t) {
+				/* ignore exceptions from the cleaning action and interrupts */
+			}
+		}
+	}
+}
+
+/**
+ * A phantom reference to a registered object, linked into the list of its
+ * Cleaner until it is cleaned.
+ */
+static final class PhantomCleanable extends PhantomReference<Object> implements Cleanable {
+	private final State state;
+	private final Runnable action;
+	PhantomCleanable prev = this, next = this;
+
+	/* The head of a list */
+	PhantomCleanable() {
+		super(null, null);
+		this.state = null;
+		this.action = null;
+	}
+
+	PhantomCleanable(Object obj, State state, Runnable action) {
+		super(obj, state.queue);
+		this.state = state;
+		this.action = action;
+	}
+
+	public void clean() {
+		if (state.remove(this)) {
+			clear();
+			if (action != null) {
+				action.run();
+			}
+		}
+	}
+}
+}
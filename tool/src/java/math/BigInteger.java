@@ -511,10 +511,23 @@ public class BigInteger extends Number implements Comparable<BigInteger>,
             sign = -1;
             startChar = 1;
             stringLength--;
+        } else if (val.charAt(0) == '+') {
+            sign = 1;
+            startChar = 1;
+            stringLength--;
         } else {
             sign = 1;
             startChar = 0;
         }
+        if (stringLength >= Conversion.whenUseRecursiveParse
+                * Conversion.digitFitInInt[radix]) {
+            BigInteger magnitude = Conversion.string2BigInteger(val,
+                    startChar, endChar, radix);
+            bi.sign = (magnitude.sign == 0) ? 0 : sign;
+            bi.numberLength = magnitude.numberLength;
+            bi.digits = magnitude.digits;
+            return;
+        }
         /*
          * We use the following algorithm: split a string into portions of n
          * characters and convert each portion to an integer according to the
@@ -1144,6 +1157,30 @@ public class BigInteger extends Number implements Comparable<BigInteger>,
         return Multiplication.multiply(this, val);
     }
 
+    /**
+     * Returns a new {@code BigInteger} whose value is {@code this * val}.
+     * When both factors are large, the partial products are computed in
+     * parallel in the {@link java.util.concurrent.ForkJoinPool#commonPool()
+     * common pool}; the result is the same as {@link #multiply(BigInteger)}.
+     *
+     * @param val
+     *            value to be multiplied with {@code this}.
+     * @return {@code this * val}.
+     * @throws NullPointerException
+     *             if {@code val == null}.
+     * @since 1.8
+     */
+    public BigInteger parallelMultiply(BigInteger val) {
+        // This let us to throw NullPointerException when val == null
+        if (val.sign == 0) {
+            return ZERO;
+        }
+        if (sign == 0) {
+            return ZERO;
+        }
+        return Multiplication.multiply(this, val, true);
+    }
+
     /**
      * Returns a new {@code BigInteger} whose value is {@code this ^ exp}.
      *
@@ -1211,6 +1248,17 @@ public class BigInteger extends Number implements Comparable<BigInteger>,
             return new BigInteger[] { ZERO, this };
         }
         int thisSign = sign;
+        if (Division.useBurnikelZiegler(thisLen, divisorLen)) {
+            BigInteger[] res = Division.divideAndRemainderBurnikelZiegler(
+                    this, divisor);
+            if (thisSign != divisorSign) {
+                res[0] = res[0].negate();
+            }
+            if (thisSign < 0) {
+                res[1] = res[1].negate();
+            }
+            return res;
+        }
         int quotientLength = thisLen - divisorLen + 1;
         int remainderLength = divisorLen;
         int quotientSign = ((thisSign == divisorSign) ? 1 : -1);
@@ -1265,6 +1313,11 @@ public class BigInteger extends Number implements Comparable<BigInteger>,
         if (cmp == LESS) {
             return ZERO;
         }
+        if (Division.useBurnikelZiegler(thisLen, divisorLen)) {
+            BigInteger result = Division.divideAndRemainderBurnikelZiegler(
+                    this, divisor)[0];
+            return ((thisSign == divisorSign) ? result : result.negate());
+        }
         int resLength = thisLen - divisorLen + 1;
         int resDigits[] = new int[resLength];
         int resSign = ((thisSign == divisorSign) ? 1 : -1);
@@ -1304,6 +1357,11 @@ public class BigInteger extends Number implements Comparable<BigInteger>,
                 : Elementary.compareArrays(digits, divisor.digits, thisLen)) == LESS) {
             return this;
         }
+        if (Division.useBurnikelZiegler(thisLen, divisorLen)) {
+            BigInteger result = Division.divideAndRemainderBurnikelZiegler(
+                    this, divisor)[1];
+            return ((sign > 0) ? result : result.negate());
+        }
         int resLength = divisorLen;
         int resDigits[] = new int[resLength];
         if (resLength == 1) {
@@ -53,7 +53,198 @@ class Conversion {
             387420489, 481890304, 594823321, 729000000, 887503681, 1073741824,
             1291467969, 1544804416, 1838265625, 60466176 };
 
-    
+    /**
+     * Break point in digits (number of {@code int} elements) from which the
+     * conversion to a {@code String} splits the number recursively at
+     * powers of the radix, so that it takes the time of a few divisions
+     * instead of quadratic time.
+     */
+    static final int whenUseRecursiveToString = 200; // an heuristic value
+
+    /**
+     * Break point in digits (number of {@code int} elements) from which the
+     * conversion from a {@code String} splits the string recursively at
+     * powers of the radix, so that it takes the time of a few
+     * multiplications instead of quadratic time. The quadratic method is
+     * cheap, so the break point is high.
+     */
+    static final int whenUseRecursiveParse = 1024; // an heuristic value
+
+    private static final double LOG_TWO = Math.log(2.0);
+
+    /**
+     * The cache of powers radix<sup>2<sup>i</sup></sup> for each radix, used
+     * by the recursive conversions. The lines are only ever replaced by
+     * longer copies, so readers need no locking.
+     */
+    private static volatile BigInteger[][] powerCache = new BigInteger[Character.MAX_RADIX + 1][];
+
+    /**
+     * Returns radix<sup>2<sup>exponent</sup></sup> from the cache, computing
+     * and caching the missing powers if needed.
+     */
+    private static BigInteger getRadixPower(int radix, int exponent) {
+        BigInteger[] cacheLine = powerCache[radix];
+        if (cacheLine != null && exponent < cacheLine.length) {
+            return cacheLine[exponent];
+        }
+        int oldLength;
+        if (cacheLine == null) {
+            cacheLine = new BigInteger[exponent + 1];
+            cacheLine[0] = BigInteger.valueOf(radix);
+            oldLength = 1;
+        } else {
+            oldLength = cacheLine.length;
+            BigInteger[] newLine = new BigInteger[exponent + 1];
+            System.arraycopy(cacheLine, 0, newLine, 0, oldLength);
+            cacheLine = newLine;
+        }
+        for (int i = oldLength; i <= exponent; i++) {
+            cacheLine[i] = cacheLine[i - 1].multiply(cacheLine[i - 1]);
+        }
+        BigInteger[][] cache = powerCache;
+        BigInteger[] current = cache[radix];
+        if (current == null || current.length < cacheLine.length) {
+            cache = cache.clone();
+            cache[radix] = cacheLine;
+            powerCache = cache;
+        }
+        return cacheLine[exponent];
+    }
+
+    /**
+     * Writes the digits of the non-negative number {@code val} in the given
+     * radix to {@code result}, ending before the index {@code end} and
+     * padded with leading zeros to at least {@code padding} characters.
+     * Large numbers are divided by the power of the radix nearest to their
+     * square root and both halves are converted recursively. See the
+     * Schoenhage's method in D. Knuth, The Art of Computer Programming,
+     * vol. 2, section 4.4.
+     * 
+     * @return the index of the first character written
+     */
+    static int toStringRecursive(BigInteger val, int radix, char[] result,
+            int end, int padding) {
+        if (val.numberLength < whenUseRecursiveToString) {
+            int currentChar = smallToString(val, radix, result, end);
+            while (end - currentChar < padding) {
+                result[--currentChar] = '0';
+            }
+            return currentChar;
+        }
+        int bitLength = val.bitLength();
+        // The exponent such that radix^(2^n) is about the square root of val
+        int n = (int) Math.round(Math.log(bitLength * LOG_TWO
+                / Math.log(radix)) / LOG_TWO - 1.0);
+        BigInteger[] qr = val.divideAndRemainder(getRadixPower(radix, n));
+        int lowDigits = 1 << n;
+        toStringRecursive(qr[1], radix, result, end, lowDigits);
+        return toStringRecursive(qr[0], radix, result, end - lowDigits,
+                padding - lowDigits);
+    }
+
+    /**
+     * Writes the digits of the non-negative number {@code val} in the given
+     * radix to {@code result}, ending before the index {@code end}, without
+     * leading zeros. Zero writes no characters.
+     * 
+     * @return the index of the first character written
+     */
+    private static int smallToString(BigInteger val, int radix, char[] result,
+            int end) {
+        int currentChar = end;
+        if (val.sign == 0) {
+            return currentChar;
+        }
+        int tempLen = val.numberLength;
+        int temp[] = new int[tempLen];
+        System.arraycopy(val.digits, 0, temp, 0, tempLen);
+        int charsPerInt = digitFitInInt[radix];
+        int bigRadix = bigRadices[radix - 2];
+        while (true) {
+            // divide the array of digits by bigRadix and convert remainders
+            // to characters collecting them in the char array
+            int resDigit = Division.divideArrayByInt(temp, temp, tempLen,
+                    bigRadix);
+            while ((tempLen > 1) && (temp[tempLen - 1] == 0)) {
+                tempLen--;
+            }
+            boolean last = (tempLen == 1) && (temp[0] == 0);
+            long digit = resDigit & 0xFFFFFFFFL;
+            int previous = currentChar;
+            while (digit != 0) {
+                result[--currentChar] = Character.forDigit(
+                        (int) (digit % radix), radix);
+                digit /= radix;
+            }
+            if (last) {
+                return currentChar;
+            }
+            int delta = charsPerInt - previous + currentChar;
+            for (int i = 0; i < delta; i++) {
+                result[--currentChar] = '0';
+            }
+        }
+    }
+
+    /**
+     * Parses the characters from {@code start} (inclusive) to {@code end}
+     * (exclusive) of {@code val}, which hold no sign, as a non-negative
+     * number in the given radix. Long strings are split at a power of the
+     * radix and both halves are parsed recursively.
+     * 
+     * @throws NumberFormatException
+     *             if a character is not a digit in the radix.
+     */
+    static BigInteger string2BigInteger(String val, int start, int end,
+            int radix) {
+        int length = end - start;
+        int charsPerInt = digitFitInInt[radix];
+        if (length < whenUseRecursiveParse * charsPerInt) {
+            return smallString2BigInteger(val, start, end, radix);
+        }
+        // The low part has the largest power of two of characters not
+        // above half the length, so the halves are of similar size
+        int n = 31 - Integer.numberOfLeadingZeros(length >> 1);
+        int split = end - (1 << n);
+        BigInteger high = string2BigInteger(val, start, split, radix);
+        BigInteger low = string2BigInteger(val, split, end, radix);
+        return high.multiply(getRadixPower(radix, n)).add(low);
+    }
+
+    /**
+     * Parses a string of digits with the multiplication method.
+     * 
+     * @see #string2BigInteger(String, int, int, int)
+     */
+    private static BigInteger smallString2BigInteger(String val, int start,
+            int end, int radix) {
+        int length = end - start;
+        int charsPerInt = digitFitInInt[radix];
+        int bigRadixDigitsLength = length / charsPerInt;
+        int topChars = length % charsPerInt;
+        if (topChars != 0) {
+            bigRadixDigitsLength++;
+        }
+        int digits[] = new int[bigRadixDigitsLength];
+        int bigRadix = bigRadices[radix - 2];
+        int digitIndex = 0;
+        int substrEnd = start + ((topChars == 0) ? charsPerInt : topChars);
+        for (int substrStart = start; substrStart < end; substrStart = substrEnd, substrEnd = substrStart
+                + charsPerInt) {
+            int bigRadixDigit = Integer.parseInt(val.substring(substrStart,
+                    substrEnd), radix);
+            int newDigit = Multiplication.multiplyByInt(digits, digitIndex,
+                    bigRadix);
+            newDigit += Elementary.inplaceAdd(digits, digitIndex,
+                    bigRadixDigit);
+            digits[digitIndex++] = newDigit;
+        }
+        BigInteger result = new BigInteger(1, digitIndex, digits);
+        result.cutOffLeadingZeroes();
+        return result;
+    }
+
     /** @see BigInteger#toString(int) */
     static String bigInteger2String(BigInteger val, int radix) {
         int sign = val.sign;
@@ -83,7 +274,10 @@ class Conversion {
         char result[] = new char[resLengthInChars];
         int currentChar = resLengthInChars;
         int resDigit;
-        if (radix != 16) {
+        if (radix != 16 && numberLength >= whenUseRecursiveToString) {
+            currentChar = toStringRecursive(val.abs(), radix, result,
+                    currentChar, 0);
+        } else if (radix != 16) {
             int temp[] = new int[numberLength];
             System.arraycopy(digits, 0, temp, 0, numberLength);
             int tempLen = numberLength;
@@ -201,6 +395,12 @@ class Conversion {
                     result[--currentChar] = (char) (0x0030 + (prev - v * 10));
                 } while (v != 0);
             }
+        } else if (numberLength >= whenUseRecursiveToString) {
+            currentChar = toStringRecursive(val.abs(), 10, result,
+                    currentChar, 0);
+            while (result[currentChar] == '0') {
+                currentChar++;
+            }
         } else {
             int temp[] = new int[numberLength];
             int tempLen = numberLength;
@@ -346,6 +346,173 @@ class Division {
         return new BigInteger[] { result0, result1 };
     }
 
+    /**
+     * Break point in digits (number of {@code int} elements) of the divisor
+     * from which the Burnikel-Ziegler division is used. Below it the
+     * Knuth's division algorithm is used.
+     */
+    static final int whenUseBurnikelZiegler = 400; // an heuristic value
+
+    /**
+     * Minimal number of digits by which the dividend must be longer than the
+     * divisor for the Burnikel-Ziegler division to be used.
+     */
+    static final int whenUseBurnikelZieglerOffset = 200; // an heuristic value
+
+    /**
+     * Returns whether the division of a dividend of {@code aLength} digits
+     * by a divisor of {@code bLength} digits should use the Burnikel-Ziegler
+     * algorithm.
+     */
+    static boolean useBurnikelZiegler(int aLength, int bLength) {
+        return bLength >= whenUseBurnikelZiegler
+                && aLength - bLength >= whenUseBurnikelZieglerOffset;
+    }
+
+    /**
+     * Computes the quotient and the remainder of the absolute values of
+     * {@code a} and {@code b} with the recursive division of C. Burnikel and
+     * J. Ziegler, "Fast Recursive Division", MPI-I-98-1-022. The dividend is
+     * cut into blocks of the size of the (normalized) divisor, and each
+     * block is divided by a recursive 2n/1n division, which reduces to two
+     * 3n/2n divisions, each of them costing a multiplication of half size.
+     * The division therefore takes about twice the time of a
+     * multiplication of the same size.
+     * 
+     * @return an array of the form {@code [|a| / |b|, |a| % |b|]}.
+     */
+    static BigInteger[] divideAndRemainderBurnikelZiegler(BigInteger a,
+            BigInteger b) {
+        a = a.abs();
+        b = b.abs();
+        int s = b.numberLength;
+        // Step 1: the block length n = j * m is a multiple of a power of two
+        // m such that the recursion bottoms out at about the threshold
+        int m = 1 << (32 - Integer.numberOfLeadingZeros(s
+                / whenUseBurnikelZiegler));
+        int j = (s + m - 1) / m;
+        int n = j * m;
+        long n32 = 32L * n;
+        // Steps 2 and 3: normalize so that the divisor fills n digits
+        int sigma = (int) Math.max(0, n32 - b.bitLength());
+        BigInteger bShifted = b.shiftLeft(sigma);
+        BigInteger aShifted = a.shiftLeft(sigma);
+        // Step 4: the number of blocks of the dividend, with at least one
+        // leading zero bit
+        int t = (int) ((aShifted.bitLength() + n32) / n32);
+        if (t < 2) {
+            t = 2;
+        }
+        // Step 5: divide the two leading blocks, then shift in the others
+        BigInteger z = getBlocks(aShifted, t - 2, t, n);
+        BigInteger quotient = BigInteger.ZERO;
+        BigInteger[] qr;
+        for (int i = t - 2; i > 0; i--) {
+            qr = divide2n1n(z, bShifted);
+            z = qr[1].shiftLeft(32 * n).add(getBlocks(aShifted, i - 1, i, n));
+            quotient = quotient.add(qr[0]).shiftLeft(32 * n);
+        }
+        qr = divide2n1n(z, bShifted);
+        quotient = quotient.add(qr[0]);
+        return new BigInteger[] { quotient, qr[1].shiftRight(sigma) };
+    }
+
+    /**
+     * Divides a non-negative number of at most {@code 2n} digits by a
+     * normalized divisor of {@code n} digits, where the quotient is known to
+     * fit into {@code n} digits.
+     */
+    private static BigInteger[] divide2n1n(BigInteger a, BigInteger b) {
+        int n = b.numberLength;
+        if ((n & 1) != 0 || n < whenUseBurnikelZiegler) {
+            return divideAndRemainderKnuth(a, b);
+        }
+        int half = n >> 1;
+        // a = [a1, a2, a3, a4] in blocks of n/2 digits
+        BigInteger[] qr1 = divide3n2n(a.shiftRight(32 * half), b);
+        BigInteger a4 = getBlocks(a, 0, 1, half);
+        BigInteger[] qr2 = divide3n2n(qr1[1].shiftLeft(32 * half).add(a4), b);
+        return new BigInteger[] {
+                qr1[0].shiftLeft(32 * half).add(qr2[0]), qr2[1] };
+    }
+
+    /**
+     * Divides a non-negative number of at most {@code 3n} digits by a
+     * normalized divisor of {@code 2n} digits, where the quotient is known to
+     * fit into {@code n} digits.
+     */
+    private static BigInteger[] divide3n2n(BigInteger a, BigInteger b) {
+        int n = b.numberLength >> 1;
+        int shift = 32 * n;
+        // a = [a1, a2, a3] and b = [b1, b2] in blocks of n digits
+        BigInteger a12 = a.shiftRight(shift);
+        BigInteger a1 = a12.shiftRight(shift);
+        BigInteger b1 = b.shiftRight(shift);
+        BigInteger b2 = getBlocks(b, 0, 1, n);
+        BigInteger q;
+        BigInteger r1;
+        if (a1.compareTo(b1) < 0) {
+            BigInteger[] qr = divide2n1n(a12, b1);
+            q = qr[0];
+            r1 = qr[1];
+        } else {
+            // The quotient is beta^n - 1
+            q = BigInteger.ONE.shiftLeft(shift).subtract(BigInteger.ONE);
+            r1 = a12.subtract(b1.shiftLeft(shift)).add(b1);
+        }
+        BigInteger d = q.multiply(b2);
+        BigInteger r = r1.shiftLeft(shift).add(getBlocks(a, 0, 1, n)).subtract(d);
+        // The estimated quotient is at most two too large
+        while (r.sign < 0) {
+            r = r.add(b);
+            q = q.subtract(BigInteger.ONE);
+        }
+        return new BigInteger[] { q, r };
+    }
+
+    /**
+     * Returns the blocks {@code from} (inclusive) to {@code to} (exclusive)
+     * of {@code blockLength} digits of a non-negative number.
+     */
+    private static BigInteger getBlocks(BigInteger val, int from, int to,
+            int blockLength) {
+        int start = from * blockLength;
+        int end = Math.min(to * blockLength, val.numberLength);
+        if (start >= end) {
+            return BigInteger.ZERO;
+        }
+        int[] block = new int[end - start];
+        System.arraycopy(val.digits, start, block, 0, block.length);
+        return new BigInteger(1, block);
+    }
+
+    /**
+     * Computes the quotient and the remainder of two non-negative numbers
+     * with the Knuth's division algorithm.
+     * 
+     * @return an array of the form {@code [a / b, a % b]}.
+     */
+    private static BigInteger[] divideAndRemainderKnuth(BigInteger a,
+            BigInteger b) {
+        int aLen = a.numberLength;
+        int bLen = b.numberLength;
+        if (a.compareTo(b) < 0) {
+            return new BigInteger[] { BigInteger.ZERO, a };
+        }
+        if (bLen == 1) {
+            return divideAndRemainderByInteger(a, b.digits[0], 1);
+        }
+        int quotLength = aLen - bLen + 1;
+        int[] quotDigits = new int[quotLength];
+        int[] remDigits = divide(quotDigits, quotLength, a.digits, aLen,
+                b.digits, bLen);
+        // The remainder array may be longer than the remainder
+        int[] remainder = new int[bLen];
+        System.arraycopy(remDigits, 0, remainder, 0, bLen);
+        return new BigInteger[] { new BigInteger(1, quotDigits),
+                new BigInteger(1, remainder) };
+    }
+
     /**
      * Multiplies an array by int and subtracts it from a subarray of another
      * array.
@@ -22,6 +22,9 @@
 
 package java.math;
 
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
 import org.apache.harmony.math.internal.nls.Messages;
 
 /**
@@ -38,6 +41,20 @@ class Multiplication {
      */
     static final int whenUseKaratsuba = 63; // an heuristic value
 
+    /**
+     * Break point in digits (number of {@code int} elements)
+     * between Toom-Cook 3 and Karatsuba multiply. Both factors must
+     * be at least this long.
+     */
+    static final int whenUseToomCook3 = 400; // an heuristic value
+
+    /**
+     * Break point in digits (number of {@code int} elements) above which
+     * {@link BigInteger#parallelMultiply(BigInteger)} computes the five
+     * partial products of Toom-Cook 3 in parallel.
+     */
+    static final int whenUseParallelToomCook3 = 1536; // an heuristic value
+
     /**
      * An array with powers of ten that fit in the type {@code int}.
      * ({@code 10^0,10^1,...,10^9})
@@ -89,9 +106,157 @@ class Multiplication {
      * @see BigInteger#multiply(BigInteger)
      */
     static BigInteger multiply(BigInteger x, BigInteger y) {
+        return multiply(x, y, false);
+    }
+
+    /**
+     * Performs a multiplication of two BigInteger, optionally computing the
+     * partial products of large factors in the common
+     * {@link java.util.concurrent.ForkJoinPool}.
+     * @see BigInteger#multiply(BigInteger)
+     * @see BigInteger#parallelMultiply(BigInteger)
+     */
+    static BigInteger multiply(BigInteger x, BigInteger y, boolean parallel) {
+        if (x.sign == 0 || y.sign == 0) {
+            return BigInteger.ZERO;
+        }
+        if (x.numberLength >= whenUseToomCook3 && y.numberLength >= whenUseToomCook3) {
+            return toomCook3(x, y, parallel);
+        }
         return karatsuba(x, y);
     }
 
+    /**
+     * Performs the multiplication with the Toom-Cook 3-way algorithm, using
+     * the evaluation points 0, 1, -1, 2 and infinity and the interpolation
+     * sequence of M. Bodrato, "Towards Optimal Toom-Cook Multiplication for
+     * Univariate and Multivariate Polynomials in Characteristic 2 and 0".
+     * <b>Toom-Cook 3:</b>
+     *<tt>
+     *             u = u<sub>2</sub> * B<sup>2</sup> + u<sub>1</sub> * B + u<sub>0</sub><br>
+     *             v = v<sub>2</sub> * B<sup>2</sup> + v<sub>1</sub> * B + v<sub>0</sub><br>
+     *</tt>
+     * Both polynomials are evaluated at the five points, the five values are
+     * multiplied recursively, and the coefficients of the product polynomial
+     * are recovered by interpolation, which takes only additions, shifts and
+     * one exact division by 3. The five products are a third of the size of
+     * the factors, so the algorithm takes O(n<sup>1.465</sup>) time.
+     *
+     * @param a first factor of the product
+     * @param b second factor of the product
+     * @param parallel whether to compute the products of large slices in parallel
+     * @return {@code a * b}
+     * @see #multiply(BigInteger, BigInteger, boolean)
+     */
+    static BigInteger toomCook3(BigInteger a, BigInteger b, boolean parallel) {
+        int largest = Math.max(a.numberLength, b.numberLength);
+        // The size of the slices, in ints
+        int k = (largest + 2) / 3;
+
+        BigInteger a0 = getSlice(a, 0, k);
+        BigInteger a1 = getSlice(a, k, 2 * k);
+        BigInteger a2 = getSlice(a, 2 * k, a.numberLength);
+        BigInteger b0 = getSlice(b, 0, k);
+        BigInteger b1 = getSlice(b, k, 2 * k);
+        BigInteger b2 = getSlice(b, 2 * k, b.numberLength);
+
+        // Evaluate at 0, -1, 1, 2 and infinity
+        BigInteger da1 = a2.add(a0);
+        BigInteger db1 = b2.add(b0);
+        BigInteger am1 = da1.subtract(a1);
+        BigInteger bm1 = db1.subtract(b1);
+        da1 = da1.add(a1);
+        db1 = db1.add(b1);
+        BigInteger da2 = da1.add(a2).shiftLeft(1).subtract(a0);
+        BigInteger db2 = db1.add(b2).shiftLeft(1).subtract(b0);
+
+        BigInteger v0, vm1, v1, v2, vinf;
+        if (parallel && largest >= whenUseParallelToomCook3) {
+            MultiplyTask tm1 = new MultiplyTask(am1, bm1);
+            MultiplyTask t1 = new MultiplyTask(da1, db1);
+            MultiplyTask t2 = new MultiplyTask(da2, db2);
+            MultiplyTask tinf = new MultiplyTask(a2, b2);
+            ForkJoinTask.invokeAll(tm1, t1, t2, tinf);
+            v0 = multiply(a0, b0, true);
+            vm1 = tm1.join();
+            v1 = t1.join();
+            v2 = t2.join();
+            vinf = tinf.join();
+        } else {
+            v0 = multiply(a0, b0, parallel);
+            vm1 = multiply(am1.abs(), bm1.abs(), parallel);
+            v1 = multiply(da1, db1, parallel);
+            v2 = multiply(da2, db2, parallel);
+            vinf = multiply(a2, b2, parallel);
+        }
+        // The product at -1 was computed from the absolute values
+        if ((am1.sign < 0) != (bm1.sign < 0)) {
+            vm1 = vm1.negate();
+        }
+
+        // Interpolate; all divisions are exact
+        BigInteger t2 = exactDivideBy3(v2.subtract(vm1));
+        BigInteger tm1 = v1.subtract(vm1).shiftRight(1);
+        BigInteger t1 = v1.subtract(v0);
+        t2 = t2.subtract(t1).shiftRight(1);
+        t1 = t1.subtract(tm1).subtract(vinf);
+        t2 = t2.subtract(vinf.shiftLeft(1));
+        tm1 = tm1.subtract(t2);
+
+        // Recompose: (((vinf * B + t2) * B + t1) * B + tm1) * B + v0
+        int shift = k << 5;
+        BigInteger result = vinf.shiftLeft(shift).add(t2).shiftLeft(shift)
+                .add(t1).shiftLeft(shift).add(tm1).shiftLeft(shift).add(v0);
+        return (a.sign != b.sign) ? result.negate() : result;
+    }
+
+    /**
+     * Returns the magnitude of the digits {@code from} (inclusive) to
+     * {@code to} (exclusive) of {@code val} as a non-negative number.
+     */
+    private static BigInteger getSlice(BigInteger val, int from, int to) {
+        to = Math.min(to, val.numberLength);
+        if (from >= to) {
+            return BigInteger.ZERO;
+        }
+        int[] slice = new int[to - from];
+        System.arraycopy(val.digits, from, slice, 0, slice.length);
+        return new BigInteger(1, slice);
+    }
+
+    /**
+     * Divides a multiple of 3 by 3.
+     */
+    private static BigInteger exactDivideBy3(BigInteger val) {
+        if (val.sign == 0) {
+            return BigInteger.ZERO;
+        }
+        int[] quotient = new int[val.numberLength];
+        Division.divideArrayByInt(quotient, val.digits, val.numberLength, 3);
+        return new BigInteger(val.sign, quotient);
+    }
+
+    /**
+     * Computes one of the partial products of a parallel multiplication.
+     * The product is computed from the absolute values of the factors.
+     */
+    private static final class MultiplyTask extends RecursiveTask<BigInteger> {
+        private static final long serialVersionUID = 3453085829178592441L;
+
+        private final BigInteger a;
+        private final BigInteger b;
+
+        MultiplyTask(BigInteger a, BigInteger b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            return multiply(a.abs(), b.abs(), true);
+        }
+    }
+
     /**
      * Performs the multiplication with the Karatsuba's algorithm.
      * <b>Karatsuba's algorithm:</b>
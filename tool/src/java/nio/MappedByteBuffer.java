@@ -217,6 +217,21 @@ public abstract class MappedByteBuffer
         return this;
     }
 
+    // Advises the operating system that the given range of this buffer will
+    // be needed soon, without touching its pages as load() does. Used by
+    // MappedRegion for read-ahead.
+    final void willNeed(long index, long length) {            // package-private
+        checkMapped();
+        if ((address == 0) || (length <= 0))
+            return;
+        long a = address + index;
+        int ps = Bits.pageSize();
+        long offset = a % ps;
+        if (offset < 0)
+            offset += ps;
+        load0(a - offset, length + offset);
+    }
+
     private native boolean isLoaded0(long address, long length, int pageCount);
     private native void load0(long address, long length);
     private native void force0(FileDescriptor fd, long address, long length);
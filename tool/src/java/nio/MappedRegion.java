@@ -0,0 +1,762 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.nio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import sun.misc.Cleaner;
+import sun.misc.Unsafe;
+
+
+/**
+ * A region of a file mapped into memory, indexed by {@code long}.
+ *
+ * <p> A {@link MappedByteBuffer} is indexed by {@code int} and so maps at
+ * most {@link Integer#MAX_VALUE} bytes, and the mapping it represents is
+ * only released when the buffer is garbage-collected.  A mapped region may
+ * be of any size that the platform can map, and its mapping is released as
+ * soon as the region is {@link #unmap unmapped}, so that large files can be
+ * scanned without running out of virtual address space or file handles
+ * while waiting for the garbage collector.  A region that is not unmapped
+ * is released when it is garbage-collected, as a buffer is.
+ *
+ * <p> A region is created by the {@link #map map} method and is <i>confined</i>
+ * to the thread that created it: only that thread may access or unmap it,
+ * and any attempt by another thread throws {@link IllegalStateException}.
+ * This guarantees that the memory is not accessed after it is unmapped.  A
+ * file may be scanned by several threads by mapping a region for each of
+ * them.  Any access to a region after it is unmapped also throws {@code
+ * IllegalStateException}.
+ *
+ * <p> Multi-byte values are read and written in the region's {@link
+ * #order() byte order}, which is initially {@link ByteOrder#BIG_ENDIAN
+ * BIG_ENDIAN}, and need not be aligned.
+ *
+ * <p> The {@link #advise advise} method passes the expected access pattern
+ * to the region so that it can read ahead of a sequential scan.  Whether
+ * the operating system acts upon the advice is unspecified.
+ *
+ * <p> The behavior of a region when the mapped part of the file is
+ * truncated, and the propagation of changes between the region and the
+ * file, are as for {@link FileChannel#map FileChannel.map}.
+ *
+ * @see FileChannel#map
+ * @since 1.8
+ */
+
+public final class MappedRegion implements Closeable {
+
+    /**
+     * Access patterns for the {@link MappedRegion#advise advise} method.
+     */
+    public static enum Advice {
+        /** No particular access pattern; the default. */
+        NORMAL,
+        /**
+         * The region is accessed sequentially from lower to higher
+         * indexes, so pages ahead of the last access are read in advance.
+         */
+        SEQUENTIAL,
+        /** The region is accessed in random order; nothing is read ahead. */
+        RANDOM,
+        /** The whole region will be accessed soon. */
+        WILLNEED
+    }
+
+    // Cached unsafe-access object
+    private static final Unsafe unsafe = Bits.unsafe();
+
+    // Cached array base offset
+    private static final long arrayBaseOffset = (long)unsafe.arrayBaseOffset(byte[].class);
+
+    // Cached unaligned-access capability
+    private static final boolean unaligned = Bits.unaligned();
+
+    // The region is mapped in chunks of 1GB, so an index is split into
+    // the chunk and the offset within it with a shift and a mask
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Distance read ahead of a sequential scan
+    private static final long READ_AHEAD = 8L << 20;
+
+    private final Thread owner;
+    // The thread that may access the region: the owner, or null once unmapped
+    private Thread accessor;
+    private final long size;
+    private final boolean readOnly;
+
+    // The mapped chunks and their addresses; null once unmapped
+    private MappedByteBuffer[] chunks;
+    private long[] addresses;
+
+    private boolean bigEndian = true;
+    private boolean nativeByteOrder
+        = (Bits.byteOrder() == ByteOrder.BIG_ENDIAN);
+
+    // Read-ahead state: an access at or beyond readAheadMark reads ahead
+    // from the greater of the access and readAheadLimit
+    private long readAheadMark = Long.MAX_VALUE;
+    private long readAheadLimit;
+
+    // The window of the last access that took the slow path: the part of a
+    // chunk, up to the read-ahead mark, that later accesses may reach with
+    // a single check; empty once unmapped or advised
+    private long windowStart;
+    private long windowSize = -1;
+    private long windowAddress;
+
+    private MappedRegion(MappedByteBuffer[] chunks, long size, boolean readOnly) {
+        this.owner = Thread.currentThread();
+        this.accessor = owner;
+        this.size = size;
+        this.readOnly = readOnly;
+        this.chunks = chunks;
+        this.addresses = new long[chunks.length];
+        for (int i = 0; i < chunks.length; i++)
+            addresses[i] = chunks[i].address;
+    }
+
+    /**
+     * Maps a region of a channel's file directly into memory.
+     *
+     * <p> This method works as {@link FileChannel#map FileChannel.map}
+     * except that the size of the region may exceed {@link
+     * Integer#MAX_VALUE}.  The returned region is confined to the current
+     * thread.
+     *
+     * @param  channel
+     *         The file channel
+     *
+     * @param  mode
+     *         One of the constants {@link FileChannel.MapMode#READ_ONLY
+     *         READ_ONLY}, {@link FileChannel.MapMode#READ_WRITE READ_WRITE},
+     *         or {@link FileChannel.MapMode#PRIVATE PRIVATE} defined in the
+     *         {@link FileChannel.MapMode} class
+     *
+     * @param  position
+     *         The position within the file at which the mapped region
+     *         is to start; must be non-negative
+     *
+     * @param  size
+     *         The size of the region to be mapped; must be non-negative and
+     *         the sum <tt>position</tt>&nbsp;+&nbsp;<tt>size</tt> must be
+     *         non-negative
+     *
+     * @return  The mapped region
+     *
+     * @throws java.nio.channels.NonReadableChannelException
+     *         If the <tt>mode</tt> is {@link FileChannel.MapMode#READ_ONLY
+     *         READ_ONLY} but the channel was not opened for reading
+     *
+     * @throws java.nio.channels.NonWritableChannelException
+     *         If the <tt>mode</tt> is {@link FileChannel.MapMode#READ_WRITE
+     *         READ_WRITE} or {@link FileChannel.MapMode#PRIVATE PRIVATE} but
+     *         the channel was not opened for both reading and writing
+     *
+     * @throws IllegalArgumentException
+     *         If the preconditions on the parameters do not hold
+     *
+     * @throws IOException
+     *         If some other I/O error occurs
+     */
+    public static MappedRegion map(FileChannel channel, FileChannel.MapMode mode,
+                                   long position, long size)
+        throws IOException
+    {
+        if (mode == null)
+            throw new NullPointerException("Mode is null");
+        if (position < 0L)
+            throw new IllegalArgumentException("Negative position");
+        if (size < 0L)
+            throw new IllegalArgumentException("Negative size");
+        if (position + size < 0)
+            throw new IllegalArgumentException("Position + size overflow");
+
+        int n = (int)((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+        MappedByteBuffer[] chunks = new MappedByteBuffer[Math.max(n, 1)];
+        int mapped = 0;
+        try {
+            if (n == 0) {
+                chunks[mapped++] = channel.map(mode, position, 0);
+            }
+            for (; mapped < n; mapped++) {
+                long offset = (long)mapped << CHUNK_SHIFT;
+                chunks[mapped] = channel.map(mode, position + offset,
+                                             Math.min(CHUNK_SIZE, size - offset));
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            while (mapped > 0)
+                unmap(chunks[--mapped]);
+            throw e;
+        }
+        return new MappedRegion(chunks, size, mode == FileChannel.MapMode.READ_ONLY);
+    }
+
+    private static void unmap(MappedByteBuffer chunk) {
+        Cleaner cl = ((DirectByteBuffer)chunk).cleaner();
+        if (cl != null)
+            cl.clean();
+    }
+
+
+    // -- Checks --
+
+    private void checkOwner() {
+        if (Thread.currentThread() != owner)
+            throw new IllegalStateException(
+                "Region is confined to thread " + owner.getName());
+    }
+
+    private void checkMapped() {
+        checkOwner();
+        if (accessor == null)
+            throw new IllegalStateException("Region is unmapped");
+    }
+
+    // Checks that the given range may be accessed by the current thread,
+    // and returns the chunk addresses
+    private long[] checkAccess(long index, long length) {
+        if (Thread.currentThread() != accessor)
+            checkMapped();
+        long[] a = addresses;
+        if ((index | length) < 0 || length > size - index)
+            throw new IndexOutOfBoundsException();
+        if (index >= readAheadMark)
+            readAhead(index);
+        return a;
+    }
+
+    private void checkWritable() {
+        if (readOnly)
+            throw new ReadOnlyBufferException();
+    }
+
+    // Returns the address of the given index for an access of n bytes, or 0
+    // if the bytes straddle two chunks
+    private long address(long index, int n) {
+        long offset = index - windowStart;
+        if (Thread.currentThread() == accessor
+            && offset >= 0 && offset <= windowSize - n)
+            return windowAddress + offset;
+        return slowAddress(index, n);
+    }
+
+    // Checks the access, reads ahead if needed, and moves the window to
+    // the chunk of the given index
+    private long slowAddress(long index, int n) {
+        long[] a = checkAccess(index, n);
+        long offset = index & CHUNK_MASK;
+        if (offset > CHUNK_SIZE - n)
+            return 0;
+        long start = index - offset;
+        long end = Math.min(size, start + CHUNK_SIZE);
+        if (readAheadMark < end)
+            end = Math.max(readAheadMark, index + n);
+        windowStart = start;
+        windowSize = end - start;
+        windowAddress = a[(int)(index >>> CHUNK_SHIFT)];
+        return windowAddress + offset;
+    }
+
+
+    // -- Properties --
+
+    /**
+     * Returns the size of this region.
+     *
+     * @return  The size of this region, in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Tells whether or not this region is read-only.
+     *
+     * @return  <tt>true</tt> if, and only if, this region was mapped with
+     *          {@link FileChannel.MapMode#READ_ONLY READ_ONLY}
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Tells whether or not this region is still mapped.
+     *
+     * @return  <tt>true</tt> if, and only if, this region has not been
+     *          unmapped
+     */
+    public boolean isMapped() {
+        return accessor != null;
+    }
+
+    /**
+     * Retrieves this region's byte order.
+     *
+     * @return  This region's byte order
+     */
+    public ByteOrder order() {
+        return bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+
+    /**
+     * Modifies this region's byte order.
+     *
+     * @param  bo
+     *         The new byte order,
+     *         either {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}
+     *         or {@link ByteOrder#LITTLE_ENDIAN LITTLE_ENDIAN}
+     *
+     * @return  This region
+     */
+    public MappedRegion order(ByteOrder bo) {
+        bigEndian = (bo == ByteOrder.BIG_ENDIAN);
+        nativeByteOrder = (bigEndian == (Bits.byteOrder() == ByteOrder.BIG_ENDIAN));
+        return this;
+    }
+
+
+    // -- Advice --
+
+    /**
+     * Advises this region of the way it is to be accessed.
+     *
+     * <p> After {@link Advice#SEQUENTIAL SEQUENTIAL} advice, each access
+     * asks the operating system to read the pages some distance ahead of it
+     * into memory, as {@link MappedByteBuffer#load load} does but without
+     * waiting for them.  {@link Advice#WILLNEED WILLNEED} advice asks for the
+     * whole region at once.  {@link Advice#NORMAL NORMAL} and {@link
+     * Advice#RANDOM RANDOM} advice stop reading ahead; the read-ahead of the
+     * operating system itself is not changed.
+     *
+     * @param  advice
+     *         The expected access pattern
+     *
+     * @return  This region
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public MappedRegion advise(Advice advice) {
+        checkMapped();
+        switch (advice) {
+        case SEQUENTIAL:
+            windowSize = -1;
+            readAheadMark = 0;
+            readAheadLimit = 0;
+            break;
+        case WILLNEED:
+            for (MappedByteBuffer chunk : chunks)
+                chunk.willNeed(0, chunk.capacity());
+            // fall through
+        default:
+            windowSize = -1;
+            readAheadMark = Long.MAX_VALUE;
+        }
+        return this;
+    }
+
+    private void readAhead(long index) {
+        long from = Math.max(index, readAheadLimit);
+        long to = Math.min(size, index + 2 * READ_AHEAD);
+        while (from < to) {
+            MappedByteBuffer chunk = chunks[(int)(from >>> CHUNK_SHIFT)];
+            long offset = from & CHUNK_MASK;
+            long n = Math.min(to - from, chunk.capacity() - offset);
+            chunk.willNeed(offset, n);
+            from += n;
+        }
+        readAheadLimit = to;
+        readAheadMark = (to < size) ? index + READ_AHEAD : Long.MAX_VALUE;
+    }
+
+
+    // -- Single-byte and bulk access --
+
+    /**
+     * Reads the byte at the given index.
+     *
+     * @param  index
+     *         The index from which the byte will be read
+     *
+     * @return  The byte at the given index
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or not smaller than the size
+     *          of this region
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public byte get(long index) {
+        byte x = unsafe.getByte(address(index, 1));
+        Bits.keepAlive(this);
+        return x;
+    }
+
+    /**
+     * Writes the given byte at the given index.
+     *
+     * @param  index
+     *         The index at which the byte will be written
+     *
+     * @param  b
+     *         The byte value to be written
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or not smaller than the size
+     *          of this region
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this region is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public MappedRegion put(long index, byte b) {
+        checkWritable();
+        unsafe.putByte(address(index, 1), b);
+        Bits.keepAlive(this);
+        return this;
+    }
+
+    /**
+     * Reads bytes from this region, starting at the given index, into the
+     * given array.
+     *
+     * @param  index
+     *         The index of the first byte to be read
+     *
+     * @param  dst
+     *         The array into which bytes are to be written
+     *
+     * @param  offset
+     *         The offset within the array of the first byte to be
+     *         written; must be non-negative and no larger than
+     *         <tt>dst.length</tt>
+     *
+     * @param  length
+     *         The number of bytes to be read; must be non-negative and no
+     *         larger than <tt>dst.length - offset</tt>
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the <tt>offset</tt> and
+     *          <tt>length</tt> parameters do not hold, or if <tt>index</tt>
+     *          is negative or fewer than <tt>length</tt> bytes follow it
+     *          in this region
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public MappedRegion get(long index, byte[] dst, int offset, int length) {
+        Buffer.checkBounds(offset, length, dst.length);
+        long[] a = checkAccess(index, length);
+        while (length > 0) {
+            long chunkOffset = index & CHUNK_MASK;
+            int n = (int)Math.min(length, CHUNK_SIZE - chunkOffset);
+            Bits.copyToArray(a[(int)(index >>> CHUNK_SHIFT)] + chunkOffset,
+                             dst, arrayBaseOffset, offset, n);
+            index += n;
+            offset += n;
+            length -= n;
+        }
+        Bits.keepAlive(this);
+        return this;
+    }
+
+    /**
+     * Writes bytes from the given array into this region, starting at the
+     * given index.
+     *
+     * @param  index
+     *         The index at which the first byte will be written
+     *
+     * @param  src
+     *         The array from which bytes are to be read
+     *
+     * @param  offset
+     *         The offset within the array of the first byte to be read;
+     *         must be non-negative and no larger than <tt>src.length</tt>
+     *
+     * @param  length
+     *         The number of bytes to be written; must be non-negative and
+     *         no larger than <tt>src.length - offset</tt>
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the <tt>offset</tt> and
+     *          <tt>length</tt> parameters do not hold, or if <tt>index</tt>
+     *          is negative or fewer than <tt>length</tt> bytes follow it
+     *          in this region
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this region is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public MappedRegion put(long index, byte[] src, int offset, int length) {
+        checkWritable();
+        Buffer.checkBounds(offset, length, src.length);
+        long[] a = checkAccess(index, length);
+        while (length > 0) {
+            long chunkOffset = index & CHUNK_MASK;
+            int n = (int)Math.min(length, CHUNK_SIZE - chunkOffset);
+            Bits.copyFromArray(src, arrayBaseOffset, offset,
+                               a[(int)(index >>> CHUNK_SHIFT)] + chunkOffset, n);
+            index += n;
+            offset += n;
+            length -= n;
+        }
+        Bits.keepAlive(this);
+        return this;
+    }
+
+
+    // -- Multi-byte access --
+
+    // Reads and writes the bytes of a value that straddles two chunks
+    private long getBytes(long index, int n) {
+        long[] a = addresses;
+        long x = 0;
+        for (int i = 0; i < n; i++) {
+            long j = index + (bigEndian ? i : n - 1 - i);
+            x = (x << 8) | (unsafe.getByte(a[(int)(j >>> CHUNK_SHIFT)] + (j & CHUNK_MASK)) & 0xff);
+        }
+        return x;
+    }
+
+    private void putBytes(long index, int n, long x) {
+        long[] a = addresses;
+        for (int i = 0; i < n; i++) {
+            long j = index + (bigEndian ? n - 1 - i : i);
+            unsafe.putByte(a[(int)(j >>> CHUNK_SHIFT)] + (j & CHUNK_MASK), (byte)x);
+            x >>= 8;
+        }
+    }
+
+    /**
+     * Reads the four bytes at the given index, composing them into an int
+     * value according to the current byte order.
+     *
+     * @param  index
+     *         The index from which the bytes will be read
+     *
+     * @return  The int value at the given index
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or fewer than four bytes
+     *          follow it in this region
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public int getInt(long index) {
+        long addr = address(index, 4);
+        int x;
+        if (addr == 0) {
+            x = (int)getBytes(index, 4);
+        } else if (unaligned) {
+            int y = unsafe.getInt(addr);
+            x = (nativeByteOrder ? y : Bits.swap(y));
+        } else {
+            x = Bits.getInt(addr, bigEndian);
+        }
+        Bits.keepAlive(this);
+        return x;
+    }
+
+    /**
+     * Writes four bytes containing the given int value, in the current byte
+     * order, at the given index.
+     *
+     * @param  index
+     *         The index at which the bytes will be written
+     *
+     * @param  value
+     *         The int value to be written
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or fewer than four bytes
+     *          follow it in this region
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this region is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public MappedRegion putInt(long index, int value) {
+        checkWritable();
+        long addr = address(index, 4);
+        if (addr == 0) {
+            putBytes(index, 4, value);
+        } else if (unaligned) {
+            unsafe.putInt(addr, (nativeByteOrder ? value : Bits.swap(value)));
+        } else {
+            Bits.putInt(addr, value, bigEndian);
+        }
+        Bits.keepAlive(this);
+        return this;
+    }
+
+    /**
+     * Reads the eight bytes at the given index, composing them into a long
+     * value according to the current byte order.
+     *
+     * @param  index
+     *         The index from which the bytes will be read
+     *
+     * @return  The long value at the given index
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or fewer than eight bytes
+     *          follow it in this region
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public long getLong(long index) {
+        long addr = address(index, 8);
+        long x;
+        if (addr == 0) {
+            x = getBytes(index, 8);
+        } else if (unaligned) {
+            long y = unsafe.getLong(addr);
+            x = (nativeByteOrder ? y : Bits.swap(y));
+        } else {
+            x = Bits.getLong(addr, bigEndian);
+        }
+        Bits.keepAlive(this);
+        return x;
+    }
+
+    /**
+     * Writes eight bytes containing the given long value, in the current
+     * byte order, at the given index.
+     *
+     * @param  index
+     *         The index at which the bytes will be written
+     *
+     * @param  value
+     *         The long value to be written
+     *
+     * @return  This region
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If <tt>index</tt> is negative or fewer than eight bytes
+     *          follow it in this region
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this region is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public MappedRegion putLong(long index, long value) {
+        checkWritable();
+        long addr = address(index, 8);
+        if (addr == 0) {
+            putBytes(index, 8, value);
+        } else if (unaligned) {
+            unsafe.putLong(addr, (nativeByteOrder ? value : Bits.swap(value)));
+        } else {
+            Bits.putLong(addr, value, bigEndian);
+        }
+        Bits.keepAlive(this);
+        return this;
+    }
+
+
+    // -- Mapping operations --
+
+    /**
+     * Loads this region's content into physical memory, as {@link
+     * MappedByteBuffer#load} does.
+     *
+     * @return  This region
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public MappedRegion load() {
+        checkMapped();
+        for (MappedByteBuffer chunk : chunks)
+            chunk.load();
+        return this;
+    }
+
+    /**
+     * Forces any changes made to this region's content to be written to the
+     * storage device containing the mapped file, as {@link
+     * MappedByteBuffer#force} does.
+     *
+     * @return  This region
+     *
+     * @throws  IllegalStateException
+     *          If this region is unmapped or is confined to another thread
+     */
+    public MappedRegion force() {
+        checkMapped();
+        for (MappedByteBuffer chunk : chunks)
+            chunk.force();
+        return this;
+    }
+
+    /**
+     * Unmaps this region, releasing its mapping immediately.
+     *
+     * <p> Once unmapped, any further access to the region throws {@link
+     * IllegalStateException}.  Changes made to a region mapped with {@link
+     * FileChannel.MapMode#READ_WRITE READ_WRITE} are not lost, but are
+     * written to the file at a time chosen by the operating system unless
+     * the region is {@link #force forced} first.  If this region is already
+     * unmapped then invoking this method has no effect.
+     *
+     * @throws  IllegalStateException
+     *          If this region is confined to another thread
+     */
+    public void unmap() {
+        checkOwner();
+        MappedByteBuffer[] cs = chunks;
+        if (cs == null)
+            return;
+        accessor = null;
+        windowSize = -1;
+        chunks = null;
+        addresses = null;
+        for (MappedByteBuffer chunk : cs)
+            unmap(chunk);
+    }
+
+    /**
+     * Unmaps this region, as {@link #unmap} does.
+     *
+     * @throws  IllegalStateException
+     *          If this region is confined to another thread
+     */
+    @Override
+    public void close() {
+        unmap();
+    }
+}
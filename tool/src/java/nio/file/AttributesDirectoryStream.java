@@ -0,0 +1,149 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.nio.file;
+
+import java.io.IOException;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiPredicate;
+import sun.nio.fs.BasicFileAttributesHolder;
+
+/**
+ * A directory stream that pairs the entries of a directory stream with
+ * their basic attributes, for {@link Files#newDirectoryStreamWithAttributes}.
+ *
+ * <p>The attributes are taken from the entry when the provider cached them
+ * while reading the directory, as the Windows provider does.  Otherwise,
+ * when the directory stream is a {@link SecureDirectoryStream}, they are
+ * read relative to the open directory, which saves resolving the path of
+ * every entry; only then are they read by path.
+ */
+final class AttributesDirectoryStream
+    implements DirectoryStream<Map.Entry<Path, BasicFileAttributes>>
+{
+    private final DirectoryStream<Path> stream;
+    private final SecureDirectoryStream<Path> secure;
+    private final BiPredicate<? super Path, ? super BasicFileAttributes> filter;
+    private final boolean followLinks;
+    private final LinkOption[] linkOptions;
+
+    AttributesDirectoryStream(DirectoryStream<Path> stream,
+                              BiPredicate<? super Path, ? super BasicFileAttributes> filter,
+                              LinkOption... options)
+    {
+        boolean fl = true;
+        for (LinkOption option: options) {
+            if (option == LinkOption.NOFOLLOW_LINKS) {
+                fl = false;
+            } else {
+                if (option == null)
+                    throw new NullPointerException();
+                throw new AssertionError("Should not get here");
+            }
+        }
+        this.stream = stream;
+        this.secure = (stream instanceof SecureDirectoryStream)
+            ? (SecureDirectoryStream<Path>)stream : null;
+        this.filter = filter;
+        this.followLinks = fl;
+        this.linkOptions = (fl) ? new LinkOption[0] :
+            new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
+    }
+
+    /**
+     * Returns the attributes of the given entry, or {@code null} if it no
+     * longer exists.
+     */
+    private BasicFileAttributes getAttributes(Path entry) throws IOException {
+        // if attributes are cached then use them if possible
+        if ((entry instanceof BasicFileAttributesHolder) &&
+            (System.getSecurityManager() == null))
+        {
+            BasicFileAttributes cached = ((BasicFileAttributesHolder)entry).get();
+            if (cached != null && (!followLinks || !cached.isSymbolicLink())) {
+                return cached;
+            }
+        }
+
+        try {
+            try {
+                return readAttributes(entry, linkOptions);
+            } catch (IOException ioe) {
+                if (!followLinks)
+                    throw ioe;
+
+                // the link target might not exist so get attributes of link
+                return readAttributes(entry, LinkOption.NOFOLLOW_LINKS);
+            }
+        } catch (NoSuchFileException x) {
+            // removed since the directory was read
+            return null;
+        }
+    }
+
+    private BasicFileAttributes readAttributes(Path entry,
+                                               LinkOption... options)
+        throws IOException
+    {
+        if (secure != null) {
+            BasicFileAttributeView view = secure.getFileAttributeView(
+                entry.getFileName(), BasicFileAttributeView.class, options);
+            if (view != null)
+                return view.readAttributes();
+        }
+        return Files.readAttributes(entry, BasicFileAttributes.class, options);
+    }
+
+    @Override
+    public Iterator<Map.Entry<Path, BasicFileAttributes>> iterator() {
+        // throws IllegalStateException if closed or already obtained
+        final Iterator<Path> iterator = stream.iterator();
+        return new Iterator<Map.Entry<Path, BasicFileAttributes>>() {
+            private Map.Entry<Path, BasicFileAttributes> next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && iterator.hasNext()) {
+                    Path entry = iterator.next();
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = getAttributes(entry);
+                    } catch (IOException ioe) {
+                        throw new DirectoryIteratorException(ioe);
+                    }
+                    if (attrs != null && filter.test(entry, attrs))
+                        next = new AbstractMap.SimpleImmutableEntry<>(entry, attrs);
+                }
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<Path, BasicFileAttributes> next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                Map.Entry<Path, BasicFileAttributes> result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+}
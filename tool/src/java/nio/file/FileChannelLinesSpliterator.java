@@ -0,0 +1,231 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.nio.file;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A file-based lines spliterator, leveraging a shared file channel to
+ * split the file into byte ranges that are memory mapped and traversed
+ * independently.
+ *
+ * <p>Splitting takes the middle of the remaining byte range and moves
+ * forward to the start of the next line, so each split covers whole
+ * lines.  This is only correct for charsets in which the bytes of the
+ * line terminators {@code '\n'} and {@code '\r'} never occur within the
+ * encoding of another character, hence the restriction to
+ * {@link #SUPPORTED_CHARSET_NAMES}.  Since splitting only reads a few
+ * bytes around the split point, a file of any size is split in
+ * logarithmic time.
+ *
+ * <p>Traversal maps the range in windows of at most {@link #WINDOW_SIZE}
+ * bytes and decodes it through a {@code BufferedReader}, so lines may
+ * straddle windows and the supported line terminators are the same as
+ * for {@link BufferedReader#readLine}.  Once traversal has started the
+ * spliterator no longer splits.
+ *
+ * <p>The file channel is shared by all spliterators and is closed by
+ * the stream's close handler.
+ */
+final class FileChannelLinesSpliterator implements Spliterator<String> {
+
+    static final Set<String> SUPPORTED_CHARSET_NAMES;
+    static {
+        SUPPORTED_CHARSET_NAMES = Collections.unmodifiableSet(new HashSet<>(
+            Arrays.asList("UTF-8", "ISO-8859-1", "US-ASCII", "GBK")));
+    }
+
+    /** Maximum number of bytes mapped at a time during traversal. */
+    static final int WINDOW_SIZE = 1 << 26;
+
+    /** Number of bytes read at a time when looking for a split point. */
+    private static final int SCAN_SIZE = 8192;
+
+    private final FileChannel fc;
+    private final Charset cs;
+    private long index;
+    private final long fence;
+
+    // Non-null when traversing
+    private BufferedReader reader;
+
+    FileChannelLinesSpliterator(FileChannel fc, Charset cs, long index,
+                                long fence) {
+        this.fc = fc;
+        this.cs = cs;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        String line = readLine();
+        if (line != null) {
+            action.accept(line);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        String line;
+        while ((line = readLine()) != null) {
+            action.accept(line);
+        }
+    }
+
+    private BufferedReader getBufferedReader() {
+        // A readable byte channel that reads bytes from the mapped file
+        // windows between index and fence
+        ReadableByteChannel rrbc = new ReadableByteChannel() {
+            private ByteBuffer window;
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                ByteBuffer w = window;
+                if (w == null || !w.hasRemaining()) {
+                    long bytesToMap = fence - index;
+                    if (bytesToMap <= 0)
+                        return -1;
+                    if (bytesToMap > WINDOW_SIZE)
+                        bytesToMap = WINDOW_SIZE;
+                    window = w = fc.map(FileChannel.MapMode.READ_ONLY,
+                                        index, bytesToMap);
+                }
+                int n = Math.min(dst.remaining(), w.remaining());
+                if (n < w.remaining()) {
+                    ByteBuffer s = w.slice();
+                    s.limit(n);
+                    dst.put(s);
+                    w.position(w.position() + n);
+                } else {
+                    dst.put(w);
+                }
+                index += n;
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return fc.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                // The file channel is closed by the stream
+            }
+        };
+        return new BufferedReader(Channels.newReader(rrbc, cs.newDecoder(), -1));
+    }
+
+    private String readLine() {
+        if (reader == null) {
+            reader = getBufferedReader();
+        }
+
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the position following the first line terminator at or
+     * after the given position and before the fence, or the fence if
+     * there is none.  A carriage return followed by a line feed counts
+     * as a single terminator.
+     */
+    private long nextLineStart(long pos) {
+        ByteBuffer b = ByteBuffer.allocate(SCAN_SIZE);
+        try {
+            boolean cr = false;
+            while (pos < fence) {
+                b.clear();
+                if (fence - pos < SCAN_SIZE)
+                    b.limit((int)(fence - pos));
+                int n = fc.read(b, pos);
+                if (n <= 0)
+                    return fence;
+                for (int i = 0; i < n; i++, pos++) {
+                    byte c = b.get(i);
+                    if (cr)
+                        return (c == '\n') ? pos + 1 : pos;
+                    if (c == '\n')
+                        return pos + 1;
+                    if (c == '\r')
+                        cr = true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return fence;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        // Cannot split after partial traverse
+        if (reader != null)
+            return null;
+
+        long lo = index, mid = (lo + fence) >>> 1;
+        if (mid <= lo)
+            return null;
+        long end = nextLineStart(mid);
+        // A carriage return ending the range may be the first half of
+        // a terminator whose line feed lies beyond the fence, so never
+        // split at the fence itself
+        if (end >= fence)
+            return null;
+
+        // The left spliterator covers [lo, end)
+        Spliterator<String> prefix =
+            new FileChannelLinesSpliterator(fc, cs, lo, end);
+        index = end;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        // Use the number of bytes as an estimate.
+        // We could divide by a constant that is the average number of
+        // characters per-line, but that constant will be factored out.
+        return fence - index;
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return -1;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+}
@@ -0,0 +1,307 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.nio.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileTreeWalker.Ancestor;
+import java.nio.file.FileTreeWalker.Event;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over the files of a file tree, for {@link Files#walk} and
+ * {@link Files#find}.
+ *
+ * <p>Traversed sequentially, the spliterator walks the tree depth first
+ * with a single {@link FileTreeWalker} and skips {@code END_DIRECTORY}
+ * events, as {@code FileTreeIterator} did.  Splitting takes entries of the
+ * starting directory of the walker that it has not reached yet, reads
+ * their attributes, and hands them to a new spliterator, which walks each
+ * directory among them with a walker of its own; so whole subtrees go to
+ * other workers, and the attributes read while splitting are those the
+ * walker would have read.  The split entries carry their ancestors, so the
+ * {@link FileVisitOption#FOLLOW_LINKS} cycle detection still sees every
+ * directory above them.
+ *
+ * <p>Split entries do not hold any directory open until they are
+ * traversed, so at most as many walkers as there are threads traversing
+ * the stream have directories open, each no more than the depth of the
+ * tree.  Closing any spliterator of a walk closes the walkers of all of
+ * them.
+ */
+final class FileTreeSpliterator implements Spliterator<Event>, Closeable {
+
+    /** Number of entries taken by the first split of a walker. */
+    private static final int MIN_BATCH = 16;
+
+    /** Maximum number of entries taken by a split. */
+    private static final int MAX_BATCH = 1 << 12;
+
+    /**
+     * The state shared by the spliterators of a walk.
+     */
+    private static final class Walk {
+        final List<FileVisitOption> options;
+        final int maxDepth;
+        final Set<FileTreeWalker> walkers = ConcurrentHashMap.newKeySet();
+        volatile boolean closed;
+
+        Walk(FileVisitOption[] options, int maxDepth) {
+            this.options = Arrays.asList(options);
+            this.maxDepth = maxDepth;
+        }
+
+        FileTreeWalker newWalker(int depth, Ancestor ancestors) {
+            if (closed)
+                throw new IllegalStateException();
+            FileTreeWalker walker =
+                new FileTreeWalker(options, maxDepth - depth, ancestors);
+            walkers.add(walker);
+            return walker;
+        }
+
+        void release(FileTreeWalker walker) {
+            walker.close();
+            walkers.remove(walker);
+        }
+
+        void close() {
+            closed = true;
+            for (FileTreeWalker walker : walkers)
+                release(walker);
+        }
+    }
+
+    private final Walk walk;
+
+    // Entries visited but not walked, all at the same depth
+    private final ArrayDeque<Event> pending;
+    private final int pendingDepth;
+    private final Ancestor pendingAncestors;
+    // Number of pending entries that are directories to walk into
+    private int pendingDirs;
+
+    // Walks one entry and its subtree, or null
+    private FileTreeWalker walker;
+    private int walkerDepth;
+    // The event of the entry itself, not yet returned
+    private Event first;
+    private int batch = MIN_BATCH;
+
+    /**
+     * Creates a spliterator to walk the file tree starting at the given
+     * file.
+     *
+     * @throws  IllegalArgumentException
+     *          if {@code maxDepth} is negative
+     * @throws  IOException
+     *          if an I/O errors occurs opening the starting file
+     * @throws  SecurityException
+     *          if the security manager denies access to the starting file
+     * @throws  NullPointerException
+     *          if {@code start} or {@code options} is {@code null} or
+     *          the options array contains a {@code null} element
+     */
+    FileTreeSpliterator(Path start, int maxDepth, FileVisitOption... options)
+        throws IOException
+    {
+        this.walk = new Walk(options, maxDepth);
+        this.pending = new ArrayDeque<>();
+        this.pendingDepth = 1;
+        this.pendingAncestors = null;
+        this.walker = walk.newWalker(0, null);
+        try {
+            this.first = walker.walk(start);
+        } catch (RuntimeException | Error e) {
+            walk.release(walker);
+            throw e;
+        }
+        assert first.type() == FileTreeWalker.EventType.ENTRY ||
+               first.type() == FileTreeWalker.EventType.START_DIRECTORY;
+
+        // IOException if there a problem accessing the starting file
+        IOException ioe = first.ioeException();
+        if (ioe != null) {
+            walk.release(walker);
+            throw ioe;
+        }
+    }
+
+    private FileTreeSpliterator(Walk walk, ArrayDeque<Event> pending,
+                                int depth, Ancestor ancestors)
+    {
+        this.walk = walk;
+        this.pending = pending;
+        this.pendingDepth = depth;
+        this.pendingAncestors = ancestors;
+        for (Event ev : pending) {
+            if (isDirectoryToWalk(ev))
+                pendingDirs++;
+        }
+    }
+
+    private boolean isDirectoryToWalk(Event ev) {
+        BasicFileAttributes attrs = ev.attributes();
+        return attrs != null && attrs.isDirectory()
+            && pendingDepth < walk.maxDepth;
+    }
+
+    /**
+     * Starts walking the given pending entry, which is a directory.
+     * Returns false if access to it is denied by the security manager.
+     */
+    private boolean startWalker(Event ev) {
+        FileTreeWalker w = walk.newWalker(pendingDepth, pendingAncestors);
+        Event ev0 = w.walk(ev.file(), ev.attributes());
+        if (ev0 == null) {
+            walk.release(w);
+            return false;
+        }
+        walker = w;
+        walkerDepth = pendingDepth;
+        first = ev0;
+        batch = MIN_BATCH;
+        return true;
+    }
+
+    /**
+     * Returns the next event that is not an {@code END_DIRECTORY}, or
+     * {@code null} when the walk is done.
+     */
+    private Event nextEvent() {
+        if (walk.closed)
+            throw new IllegalStateException();
+        for (;;) {
+            if (walker != null) {
+                Event ev = first;
+                if (ev != null) {
+                    first = null;
+                } else {
+                    ev = walker.next();
+                }
+                if (ev != null) {
+                    IOException ioe = ev.ioeException();
+                    if (ioe != null)
+                        throw new UncheckedIOException(ioe);
+                    if (ev.type() != FileTreeWalker.EventType.END_DIRECTORY)
+                        return ev;
+                    continue;
+                }
+                walk.release(walker);
+                walker = null;
+            }
+
+            Event ev = pending.poll();
+            if (ev == null)
+                return null;
+            if (isDirectoryToWalk(ev)) {
+                pendingDirs--;
+                startWalker(ev);
+                continue;
+            }
+            IOException ioe = ev.ioeException();
+            if (ioe != null)
+                throw new UncheckedIOException(ioe);
+            return ev;
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Event> action) {
+        Event ev = nextEvent();
+        if (ev == null)
+            return false;
+        action.accept(ev);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Event> action) {
+        Event ev;
+        while ((ev = nextEvent()) != null)
+            action.accept(ev);
+    }
+
+    @Override
+    public Spliterator<Event> trySplit() {
+        if (walk.closed)
+            return null;
+
+        // Hand over half of the pending entries
+        int n = pending.size();
+        if (n > 1) {
+            ArrayDeque<Event> prefix = new ArrayDeque<>(n / 2);
+            for (int i = n / 2; i > 0; i--)
+                prefix.add(pending.poll());
+            FileTreeSpliterator split = new FileTreeSpliterator(
+                walk, prefix, pendingDepth, pendingAncestors);
+            pendingDirs -= split.pendingDirs;
+            return split;
+        }
+
+        // A single directory left: start walking it to split its entries
+        if (walker == null) {
+            Event ev = pending.peek();
+            if (ev == null || !isDirectoryToWalk(ev))
+                return null;
+            pending.poll();
+            pendingDirs--;
+            if (!startWalker(ev))
+                return null;
+        }
+
+        // Hand over entries of the starting directory of the walker
+        if (walker.depth() == 0)
+            return null;
+        List<Path> entries = walker.takeOutermost(batch);
+        if (entries.isEmpty())
+            return null;
+        batch = Math.min(batch * 2, MAX_BATCH);
+        ArrayDeque<Event> events = new ArrayDeque<>(entries.size());
+        for (Path entry : entries) {
+            Event ev = walker.entry(entry);
+            if (ev != null)
+                events.add(ev);
+        }
+        return new FileTreeSpliterator(walk, events, walkerDepth + 1,
+                                       walker.outermostAncestors());
+    }
+
+    @Override
+    public long estimateSize() {
+        // Only entries that are not directories are known to be leaves
+        return (walker != null || pendingDirs > 0)
+            ? Long.MAX_VALUE : pending.size();
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.DISTINCT | Spliterator.NONNULL;
+    }
+
+    /**
+     * Closes the walkers of all spliterators of the walk.
+     */
+    @Override
+    public void close() {
+        walk.close();
+    }
+}
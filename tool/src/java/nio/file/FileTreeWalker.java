@@ -40,8 +40,10 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import sun.nio.fs.BasicFileAttributesHolder;
 
 /**
@@ -70,8 +72,26 @@ class FileTreeWalker implements Closeable {
     private final LinkOption[] linkOptions;
     private final int maxDepth;
     private final ArrayDeque<DirectoryNode> stack = new ArrayDeque<>();
+    private final Ancestor ancestors;
     private boolean closed;
 
+    /**
+     * A directory above the starting file of a walker that walks part of
+     * a larger file tree, checked for cycles like the directories on the
+     * walking stack.
+     */
+    static final class Ancestor {
+        final Path dir;
+        final Object key;
+        final Ancestor parent;
+
+        Ancestor(Path dir, Object key, Ancestor parent) {
+            this.dir = dir;
+            this.key = key;
+            this.parent = parent;
+        }
+    }
+
     /**
      * The element on the walking stack corresponding to a directory node.
      */
@@ -81,6 +101,7 @@ class FileTreeWalker implements Closeable {
         private final DirectoryStream<Path> stream;
         private final Iterator<Path> iterator;
         private boolean skipped;
+        private IOException ioe;
 
         DirectoryNode(Path dir, Object key, DirectoryStream<Path> stream) {
             this.dir = dir;
@@ -112,6 +133,14 @@ class FileTreeWalker implements Closeable {
         boolean skipped() {
             return skipped;
         }
+
+        void fail(IOException ioe) {
+            this.ioe = ioe;
+        }
+
+        IOException failure() {
+            return ioe;
+        }
     }
 
     /**
@@ -186,6 +215,16 @@ class FileTreeWalker implements Closeable {
      *          array contains a {@code null} element
      */
     FileTreeWalker(Collection<FileVisitOption> options, int maxDepth) {
+        this(options, maxDepth, null);
+    }
+
+    /**
+     * Creates a {@code FileTreeWalker} that walks part of a larger file
+     * tree, below the given ancestors.
+     */
+    FileTreeWalker(Collection<FileVisitOption> options, int maxDepth,
+                   Ancestor ancestors)
+    {
         boolean fl = false;
         for (FileVisitOption option: options) {
             // will throw NPE if options contains null
@@ -202,6 +241,7 @@ class FileTreeWalker implements Closeable {
         this.linkOptions = (fl) ? new LinkOption[0] :
             new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
         this.maxDepth = maxDepth;
+        this.ancestors = ancestors;
     }
 
     /**
@@ -265,6 +305,20 @@ class FileTreeWalker implements Closeable {
                 }
             }
         }
+        for (Ancestor ancestor = ancestors; ancestor != null;
+             ancestor = ancestor.parent) {
+            if (key != null && ancestor.key != null) {
+                if (key.equals(ancestor.key))
+                    return true;
+            } else {
+                try {
+                    if (Files.isSameFile(dir, ancestor.dir))
+                        return true;
+                } catch (IOException | SecurityException x) {
+                    // ignore
+                }
+            }
+        }
         return false;
     }
 
@@ -292,7 +346,15 @@ class FileTreeWalker implements Closeable {
                 return null;
             throw se;
         }
+        return visit(entry, attrs, ignoreSecurityException);
+    }
 
+    /**
+     * Visits the given file whose attributes are known.
+     */
+    private Event visit(Path entry, BasicFileAttributes attrs,
+                        boolean ignoreSecurityException)
+    {
         // at maximum depth or file is not a directory
         int depth = stack.size();
         if (depth >= maxDepth || !attrs.isDirectory()) {
@@ -337,6 +399,72 @@ class FileTreeWalker implements Closeable {
         return ev;
     }
 
+    /**
+     * Start walking from the given entry of a directory of a larger walk,
+     * whose attributes have already been read.  Returns {@code null} if
+     * access to the entry is denied by the security manager.
+     */
+    Event walk(Path entry, BasicFileAttributes attrs) {
+        if (closed)
+            throw new IllegalStateException("Closed");
+        return visit(entry, attrs,
+                     true);   // ignoreSecurityException
+    }
+
+    /**
+     * Returns the {@code ENTRY} event for the given entry of a directory,
+     * with its attributes or the exception reading them, without walking
+     * into it, or {@code null} if access to the entry is denied by the
+     * security manager.
+     */
+    Event entry(Path entry) {
+        try {
+            return new Event(EventType.ENTRY, entry,
+                             getAttributes(entry, true));
+        } catch (IOException ioe) {
+            return new Event(EventType.ENTRY, entry, ioe);
+        } catch (SecurityException se) {
+            return null;
+        }
+    }
+
+    /**
+     * Removes up to {@code max} entries that have not been visited from the
+     * directory at the bottom of the stack, which is the starting
+     * directory, so that they can be walked apart from this walker.  An
+     * I/O error reading the directory is left to be reported by
+     * {@link #next}.
+     */
+    List<Path> takeOutermost(int max) {
+        List<Path> entries = new ArrayList<>();
+        DirectoryNode bottom = stack.peekLast();
+        if (bottom == null || bottom.skipped() || bottom.failure() != null)
+            return entries;
+        Iterator<Path> iterator = bottom.iterator();
+        try {
+            while (entries.size() < max && iterator.hasNext())
+                entries.add(iterator.next());
+        } catch (DirectoryIteratorException x) {
+            bottom.fail(x.getCause());
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the ancestors of the entries of the starting directory.
+     */
+    Ancestor outermostAncestors() {
+        DirectoryNode bottom = stack.peekLast();
+        return new Ancestor(bottom.directory(), bottom.key(), ancestors);
+    }
+
+    /**
+     * Returns the number of directories open on the walking stack.
+     */
+    int depth() {
+        return stack.size();
+    }
+
     /**
      * Returns the next Event or {@code null} if there are no more events or
      * the walker is closed.
@@ -353,7 +481,9 @@ class FileTreeWalker implements Closeable {
             IOException ioe = null;
 
             // get next entry in the directory
-            if (!top.skipped()) {
+            if (top.failure() != null) {
+                ioe = top.failure();
+            } else if (!top.skipped()) {
                 Iterator<Path> iterator = top.iterator();
                 try {
                     if (iterator.hasNext()) {
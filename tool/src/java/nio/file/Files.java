@@ -600,6 +600,145 @@ public final class Files {
         return provider(dir).newDirectoryStream(dir, filter);
     }
 
+    /**
+     * Opens a directory, returning a {@link DirectoryStream} to iterate over
+     * the entries in the directory together with their basic file attributes.
+     * The elements returned by the directory stream's {@link
+     * DirectoryStream#iterator iterator} are pairs of the {@code Path} of an
+     * entry, obtained as by the {@link #newDirectoryStream(Path)
+     * newDirectoryStream} method, and its {@link BasicFileAttributes}.
+     *
+     * <p> This method works as if invoking it were equivalent to evaluating
+     * the expression:
+     * <blockquote><pre>
+     * newDirectoryStreamWithAttributes(dir, (path, attrs) -&gt; true, options)
+     * </pre></blockquote>
+     *
+     * @param   dir
+     *          the path to the directory
+     * @param   options
+     *          options indicating how symbolic links are handled
+     *
+     * @return  a new and open {@code DirectoryStream} object
+     *
+     * @throws  NotDirectoryException
+     *          if the file could not otherwise be opened because it is not
+     *          a directory <i>(optional specific exception)</i>
+     * @throws  IOException
+     *          if an I/O error occurs
+     * @throws  SecurityException
+     *          In the case of the default provider, and a security manager is
+     *          installed, the {@link SecurityManager#checkRead(String) checkRead}
+     *          method is invoked to check read access to the directory and
+     *          to each entry.
+     *
+     * @see #newDirectoryStreamWithAttributes(Path, BiPredicate, LinkOption...)
+     * @since 1.8
+     */
+    public static DirectoryStream<Map.Entry<Path, BasicFileAttributes>>
+        newDirectoryStreamWithAttributes(Path dir, LinkOption... options)
+        throws IOException
+    {
+        return newDirectoryStreamWithAttributes(dir, (path, attrs) -> true,
+                                                options);
+    }
+
+    /**
+     * Opens a directory, returning a {@link DirectoryStream} to iterate over
+     * the entries in the directory together with their basic file attributes.
+     * The elements returned by the directory stream's {@link
+     * DirectoryStream#iterator iterator} are pairs of the {@code Path} of an
+     * entry, obtained as by the {@link #newDirectoryStream(Path)
+     * newDirectoryStream} method, and its {@link BasicFileAttributes}. The
+     * entries returned by the iterator are filtered by the given {@link
+     * BiPredicate} on the path and the attributes.
+     *
+     * <p> The attributes are read as by the {@link #readAttributes(Path,
+     * Class, LinkOption[]) readAttributes} method, but where the
+     * implementation obtains them while reading the directory, or can read
+     * them relative to the open directory, they are not read again by path.
+     * Compared to reading the attributes of each entry returned by a
+     * directory stream, this can save a file system operation per entry,
+     * which is significant on file systems where such operations are
+     * expensive, such as network file systems. The attributes are a snapshot
+     * taken while iterating and are not updated if the file changes.
+     *
+     * <p> The {@code options} array may be used to indicate how symbolic links
+     * are handled. By default, symbolic links are followed and the attributes
+     * of the final target of the link are returned; where the target does
+     * not exist, the attributes of the link itself are returned instead. If
+     * the option {@link LinkOption#NOFOLLOW_LINKS NOFOLLOW_LINKS} is present
+     * then symbolic links are not followed.
+     *
+     * <p> Entries that are deleted while the directory is being read, after
+     * the entry is found but before its attributes are read, are not
+     * returned. Where an {@code IOException} is thrown reading the attributes
+     * of an entry, it results in the {@code hasNext} or {@code next} method
+     * throwing a {@link DirectoryIteratorException} with the {@code
+     * IOException} as the cause. Where the filter terminates due to an
+     * uncaught error or runtime exception then it is propagated to the
+     * {@code hasNext} or {@code next} method.
+     *
+     * <p> When not using the try-with-resources construct, then directory
+     * stream's {@code close} method should be invoked after iteration is
+     * completed so as to free any resources held for the open directory.
+     *
+     * <p> <b>Usage Example:</b>
+     * Suppose we want to iterate over the files in a directory that are
+     * larger than 8K.
+     * <pre>
+     *     Path dir = ...
+     *     try (DirectoryStream&lt;Map.Entry&lt;Path,BasicFileAttributes&gt;&gt; stream =
+     *              Files.newDirectoryStreamWithAttributes(dir,
+     *                  (path, attrs) -&gt; attrs.size() &gt; 8192L)) {
+     *         :
+     *     }
+     * </pre>
+     *
+     * @param   dir
+     *          the path to the directory
+     * @param   filter
+     *          the function used to decide if an entry should be returned
+     * @param   options
+     *          options indicating how symbolic links are handled
+     *
+     * @return  a new and open {@code DirectoryStream} object
+     *
+     * @throws  NotDirectoryException
+     *          if the file could not otherwise be opened because it is not
+     *          a directory <i>(optional specific exception)</i>
+     * @throws  IOException
+     *          if an I/O error occurs
+     * @throws  SecurityException
+     *          In the case of the default provider, and a security manager is
+     *          installed, the {@link SecurityManager#checkRead(String) checkRead}
+     *          method is invoked to check read access to the directory and
+     *          to each entry.
+     *
+     * @since 1.8
+     */
+    public static DirectoryStream<Map.Entry<Path, BasicFileAttributes>>
+        newDirectoryStreamWithAttributes(Path dir,
+                                         BiPredicate<? super Path, ? super BasicFileAttributes> filter,
+                                         LinkOption... options)
+        throws IOException
+    {
+        Objects.requireNonNull(filter);
+        DirectoryStream<Path> ds = newDirectoryStream(dir);
+        try {
+            return new AttributesDirectoryStream(ds, filter, options);
+        } catch (Error|RuntimeException e) {
+            try {
+                ds.close();
+            } catch (IOException ex) {
+                try {
+                    e.addSuppressed(ex);
+                } catch (Throwable ignore) {}
+            }
+            throw e;
+        }
+    }
+
     // -- Creation and deletion --
 
     /**
@@ -3514,6 +3653,12 @@ public final class Files {
      * directory is closed. The file tree walk then continues at the next
      * <em>sibling</em> of the directory.
      *
+     * <p> When the stream is {@link Stream#parallel parallel}, subtrees are
+     * split off and walked by different threads, each depth-first, so that
+     * the elements are no longer in depth-first order. The attributes of
+     * the entries that are split off are read as they are split, and each
+     * thread only keeps the directories of the subtree it is walking open.
+     *
      * <p> The stream is <i>weakly consistent</i>. It does not freeze the
      * file tree while iterating, so it may (or may not) reflect updates to
      * the file tree that occur after returned from this method.
@@ -3582,13 +3727,13 @@ public final class Files {
                                     FileVisitOption... options)
         throws IOException
     {
-        FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, options);
+        FileTreeSpliterator spliterator = new FileTreeSpliterator(start, maxDepth, options);
         try {
-            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT), false)
-                                .onClose(iterator::close)
+            return StreamSupport.stream(spliterator, false)
+                                .onClose(spliterator::close)
                                 .map(entry -> entry.file());
         } catch (Error|RuntimeException e) {
-            iterator.close();
+            spliterator.close();
             throw e;
         }
     }
@@ -3695,14 +3840,14 @@ public final class Files {
                                     FileVisitOption... options)
         throws IOException
     {
-        FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, options);
+        FileTreeSpliterator spliterator = new FileTreeSpliterator(start, maxDepth, options);
         try {
-            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT), false)
-                                .onClose(iterator::close)
+            return StreamSupport.stream(spliterator, false)
+                                .onClose(spliterator::close)
                                 .filter(entry -> matcher.test(entry.file(), entry.attributes()))
                                 .map(entry -> entry.file());
         } catch (Error|RuntimeException e) {
-            iterator.close();
+            spliterator.close();
             throw e;
         }
     }
@@ -3731,6 +3876,25 @@ public final class Files {
      * {@link Stream#close close} method is invoked after the stream operations
      * are completed.
      *
+     * @implNote
+     * This implementation supports good parallel stream performance for the
+     * standard charsets {@link StandardCharsets#UTF_8 UTF-8},
+     * {@link StandardCharsets#US_ASCII US-ASCII} and
+     * {@link StandardCharsets#ISO_8859_1 ISO-8859-1}, and for the {@code GBK}
+     * charset, when the file is associated with the default file system.
+     * Such line-optimal charsets have the property that the encoded bytes
+     * of a line feed ('\n') or a carriage return ('\r') are efficiently
+     * identifiable from other encoded characters when randomly accessing
+     * the bytes of the file.  The file is then split at byte offsets that
+     * are realigned to the start of the next line, and each part is memory
+     * mapped and decoded independently, without any limit on the size of
+     * the file.
+     *
+     * <p> For non-line-optimal charsets the stream source's spliterator has
+     * poor splitting properties, similar to that of a spliterator associated
+     * with an iterator or that associated with a stream returned from
+     * {@link BufferedReader#lines()}.  Poor splitting properties can result
+     * in poor parallel stream performance.
      *
      * @param   path
      *          the path to the file
@@ -3752,6 +3916,20 @@ public final class Files {
      * @since   1.8
      */
     public static Stream<String> lines(Path path, Charset cs) throws IOException {
+        // Use the good splitting spliterator if:
+        // 1) the path is associated with the default file system; and
+        // 2) the character set is supported
+        if (path.getFileSystem() == FileSystems.getDefault() &&
+            FileChannelLinesSpliterator.SUPPORTED_CHARSET_NAMES.contains(cs.name())) {
+            FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
+
+            Stream<String> lines = createFileChannelLinesStream(fc, cs);
+            if (lines != null) {
+                return lines;
+            }
+            fc.close();
+        }
+
         BufferedReader br = Files.newBufferedReader(path, cs);
         try {
             return br.lines().onClose(asUncheckedRunnable(br));
@@ -3767,6 +3945,32 @@ public final class Files {
         }
     }
 
+    private static Stream<String> createFileChannelLinesStream(FileChannel fc, Charset cs) throws IOException {
+        try {
+            // Obtaining the size from the FileChannel is much faster
+            // than obtaining using path.toFile().length()
+            long length = fc.size();
+            // FileChannel.size() may in certain circumstances return zero
+            // for a non-zero length file so disallow this case.
+            if (length > 0) {
+                Spliterator<String> s =
+                    new FileChannelLinesSpliterator(fc, cs, 0, length);
+                return StreamSupport.stream(s, false)
+                        .onClose(asUncheckedRunnable(fc));
+            }
+        } catch (Error|RuntimeException|IOException e) {
+            try {
+                fc.close();
+            } catch (IOException ex) {
+                try {
+                    e.addSuppressed(ex);
+                } catch (Throwable ignore) {}
+            }
+            throw e;
+        }
+        return null;
+    }
+
     /**
      * Read all lines from a file as a {@code Stream}. Bytes from the file are
      * decoded into characters using the {@link StandardCharsets#UTF_8 UTF-8}
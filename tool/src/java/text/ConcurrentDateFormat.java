@@ -0,0 +1,416 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.text;
+
+import java.io.ObjectStreamException;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An immutable and thread-safe {@link DateFormat} with the same pattern
+ * syntax, and the same results, as {@link SimpleDateFormat}.
+ *
+ * <p>A {@code SimpleDateFormat} keeps the calendar fields of the date being
+ * formatted or parsed in its calendar, so it cannot be shared by threads
+ * without synchronization. The usual workarounds are to create a format
+ * per call, which compiles the pattern and creates the calendar, the
+ * number format and the date format symbols of the locale each time, or to
+ * keep a format per thread. A {@code ConcurrentDateFormat} instead keeps a
+ * small pool of working copies of a prototype format. A call takes a copy
+ * from the pool with a single atomic operation, uses it, and puts it back,
+ * so concurrent calls neither block nor contend for a lock. A copy is only
+ * created when the pool is empty, by cloning the prototype, which shares
+ * its compiled pattern.
+ *
+ * <p>Since instances are immutable, the methods of {@code DateFormat} that
+ * modify the format, such as {@link #setTimeZone} and {@link #setLenient},
+ * throw {@code UnsupportedOperationException}. Use {@link #withTimeZone} and
+ * {@link #withLenient} to obtain a modified copy, or configure a
+ * {@code SimpleDateFormat} and pass it to {@link #of(SimpleDateFormat)}.
+ * The methods returning the calendar and the number format return copies.
+ *
+ * <p>Typical usage is to keep an instance in a static field:
+ * <blockquote><pre>{@code
+ * private static final ConcurrentDateFormat FORMAT =
+ *         ConcurrentDateFormat.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+ * ...
+ * String text = FORMAT.format(new Date());
+ * }</pre></blockquote>
+ *
+ * @see SimpleDateFormat
+ * @since 1.8
+ */
+public final class ConcurrentDateFormat extends DateFormat {
+
+    private static final long serialVersionUID = -1297472138312652718L;
+
+    /**
+     * The number of working copies kept, a power of two.
+     */
+    private static final int POOL_SIZE;
+    static {
+        int n = Runtime.getRuntime().availableProcessors() << 1;
+        POOL_SIZE = (n >= 64) ? 64 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * The format copied by every call, never used nor modified itself.
+     * @serial
+     */
+    private final SimpleDateFormat prototype;
+
+    /**
+     * The working copies not in use. A null slot is empty.
+     */
+    private transient final AtomicReferenceArray<SimpleDateFormat> pool;
+
+    private ConcurrentDateFormat(SimpleDateFormat prototype) {
+        this.prototype = prototype;
+        // Copies for the inherited methods that read them
+        this.calendar = (Calendar) prototype.calendar.clone();
+        this.numberFormat = (NumberFormat) prototype.numberFormat.clone();
+        this.pool = new AtomicReferenceArray<>(POOL_SIZE);
+    }
+
+    /**
+     * Returns a format with the given pattern for the default
+     * {@link java.util.Locale.Category#FORMAT FORMAT} locale and the
+     * default time zone.
+     * This is equivalent to {@code of(new SimpleDateFormat(pattern))}.
+     *
+     * @param pattern the pattern describing the date and time format
+     * @return the format, not null
+     * @exception NullPointerException if the given pattern is null
+     * @exception IllegalArgumentException if the given pattern is invalid
+     */
+    public static ConcurrentDateFormat ofPattern(String pattern) {
+        return new ConcurrentDateFormat(new SimpleDateFormat(pattern));
+    }
+
+    /**
+     * Returns a format with the given pattern for the given locale and the
+     * default time zone.
+     * This is equivalent to {@code of(new SimpleDateFormat(pattern, locale))}.
+     *
+     * @param pattern the pattern describing the date and time format
+     * @param locale the locale whose date format symbols should be used
+     * @return the format, not null
+     * @exception NullPointerException if the given pattern or locale is null
+     * @exception IllegalArgumentException if the given pattern is invalid
+     */
+    public static ConcurrentDateFormat ofPattern(String pattern, Locale locale) {
+        return new ConcurrentDateFormat(new SimpleDateFormat(pattern, locale));
+    }
+
+    /**
+     * Returns a format that formats and parses as the given format does
+     * now. Later changes to the given format do not affect the result.
+     *
+     * @param format the format to copy
+     * @return the format, not null
+     * @exception NullPointerException if the given format is null
+     */
+    public static ConcurrentDateFormat of(SimpleDateFormat format) {
+        return new ConcurrentDateFormat((SimpleDateFormat) format.clone());
+    }
+
+    /**
+     * Returns a copy of this format with the given time zone.
+     *
+     * @param zone the time zone
+     * @return the format, not null
+     * @exception NullPointerException if the given zone is null
+     */
+    public ConcurrentDateFormat withTimeZone(TimeZone zone) {
+        if (zone == null) {
+            throw new NullPointerException();
+        }
+        SimpleDateFormat f = (SimpleDateFormat) prototype.clone();
+        f.setTimeZone((TimeZone) zone.clone());
+        return new ConcurrentDateFormat(f);
+    }
+
+    /**
+     * Returns a copy of this format with the given leniency.
+     *
+     * @param lenient when {@code true}, parsing is lenient
+     * @return the format, not null
+     * @see DateFormat#setLenient(boolean)
+     */
+    public ConcurrentDateFormat withLenient(boolean lenient) {
+        SimpleDateFormat f = (SimpleDateFormat) prototype.clone();
+        f.setLenient(lenient);
+        return new ConcurrentDateFormat(f);
+    }
+
+    /**
+     * Takes a working copy from the pool, or creates one if the pool is
+     * empty.
+     */
+    private SimpleDateFormat acquire(int h) {
+        AtomicReferenceArray<SimpleDateFormat> p = pool;
+        int m = p.length() - 1;
+        for (int i = 0; i < 2; i++) {
+            int j = (h + i) & m;
+            SimpleDateFormat f = p.get(j);
+            if (f != null && p.compareAndSet(j, f, null)) {
+                return f;
+            }
+        }
+        return (SimpleDateFormat) prototype.clone();
+    }
+
+    /**
+     * Puts a working copy back into the pool, or drops it if the pool is
+     * full around the given hash.
+     */
+    private void release(int h, SimpleDateFormat f) {
+        AtomicReferenceArray<SimpleDateFormat> p = pool;
+        int m = p.length() - 1;
+        for (int i = 0; i < 2; i++) {
+            int j = (h + i) & m;
+            if (p.get(j) == null && p.compareAndSet(j, null, f)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the pool slot preferred by the current thread, so that
+     * threads mostly use distinct slots.
+     */
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Formats the given {@code Date} into a date/time string and appends
+     * the result to the given {@code StringBuffer}, as
+     * {@link SimpleDateFormat#format(Date, StringBuffer, FieldPosition)} does.
+     *
+     * @param date the date-time value to be formatted into a date-time string.
+     * @param toAppendTo where the new date-time text is to be appended.
+     * @param pos the formatting position. On input: an alignment field,
+     * if desired. On output: the offsets of the alignment field.
+     * @return the formatted date-time string.
+     * @exception NullPointerException if the given {@code date} is {@code null}.
+     */
+    @Override
+    public StringBuffer format(Date date, StringBuffer toAppendTo,
+                               FieldPosition pos) {
+        int h = probe();
+        SimpleDateFormat f = acquire(h);
+        StringBuffer result = f.format(date, toAppendTo, pos);
+        release(h, f);
+        return result;
+    }
+
+    /**
+     * Formats an Object producing an {@code AttributedCharacterIterator},
+     * as {@link SimpleDateFormat#formatToCharacterIterator} does.
+     *
+     * @exception NullPointerException if obj is null.
+     * @exception IllegalArgumentException if the Format cannot format the
+     *            given object.
+     * @param obj The object to format
+     * @return AttributedCharacterIterator describing the formatted value.
+     */
+    @Override
+    public AttributedCharacterIterator formatToCharacterIterator(Object obj) {
+        int h = probe();
+        SimpleDateFormat f = acquire(h);
+        AttributedCharacterIterator result = f.formatToCharacterIterator(obj);
+        release(h, f);
+        return result;
+    }
+
+    /**
+     * Parses text from a string to produce a {@code Date}, as
+     * {@link SimpleDateFormat#parse(String, ParsePosition)} does.
+     *
+     * @param text  A {@code String}, part of which should be parsed.
+     * @param pos   A {@code ParsePosition} object with index and error
+     *              index information as described above.
+     * @return A {@code Date} parsed from the string. In case of
+     *         error, returns null.
+     * @exception NullPointerException if {@code text} or {@code pos} is null.
+     */
+    @Override
+    public Date parse(String text, ParsePosition pos) {
+        int h = probe();
+        SimpleDateFormat f = acquire(h);
+        Date result = f.parse(text, pos);
+        release(h, f);
+        return result;
+    }
+
+    /**
+     * Returns a pattern string describing this date format.
+     *
+     * @return a pattern string describing this date format.
+     */
+    public String toPattern() {
+        return prototype.toPattern();
+    }
+
+    /**
+     * Returns a localized pattern string describing this date format.
+     *
+     * @return a localized pattern string describing this date format.
+     */
+    public String toLocalizedPattern() {
+        return prototype.toLocalizedPattern();
+    }
+
+    /**
+     * Returns the beginning date of the 100-year period 2-digit years are
+     * interpreted as being within.
+     *
+     * @return the start of the 100-year period into which two digit years are
+     * parsed
+     */
+    public Date get2DigitYearStart() {
+        return prototype.get2DigitYearStart();
+    }
+
+    /**
+     * Gets a copy of the date and time format symbols of this date format.
+     *
+     * @return the date and time format symbols of this date format
+     */
+    public DateFormatSymbols getDateFormatSymbols() {
+        return prototype.getDateFormatSymbols();
+    }
+
+    /**
+     * Returns a copy of the calendar of this format.
+     *
+     * @return a copy of the calendar of this format
+     */
+    @Override
+    public Calendar getCalendar() {
+        return (Calendar) calendar.clone();
+    }
+
+    /**
+     * Returns a copy of the number format of this format.
+     *
+     * @return a copy of the number format of this format
+     */
+    @Override
+    public NumberFormat getNumberFormat() {
+        return (NumberFormat) numberFormat.clone();
+    }
+
+    /**
+     * Returns a copy of the time zone of this format.
+     *
+     * @return a copy of the time zone of this format
+     */
+    @Override
+    public TimeZone getTimeZone() {
+        return (TimeZone) calendar.getTimeZone().clone();
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException}, as this format is
+     * immutable.
+     *
+     * @param newCalendar ignored
+     * @exception UnsupportedOperationException always
+     */
+    @Override
+    public void setCalendar(Calendar newCalendar) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException}, as this format is
+     * immutable.
+     *
+     * @param newNumberFormat ignored
+     * @exception UnsupportedOperationException always
+     */
+    @Override
+    public void setNumberFormat(NumberFormat newNumberFormat) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException}, as this format is
+     * immutable. Use {@link #withTimeZone} instead.
+     *
+     * @param zone ignored
+     * @exception UnsupportedOperationException always
+     */
+    @Override
+    public void setTimeZone(TimeZone zone) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException}, as this format is
+     * immutable. Use {@link #withLenient} instead.
+     *
+     * @param lenient ignored
+     * @exception UnsupportedOperationException always
+     */
+    @Override
+    public void setLenient(boolean lenient) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns this format, as it is immutable.
+     *
+     * @return this format
+     */
+    @Override
+    public Object clone() {
+        return this;
+    }
+
+    /**
+     * Returns the hash code value for this format.
+     *
+     * @return the hash code value for this format
+     */
+    @Override
+    public int hashCode() {
+        return prototype.hashCode();
+    }
+
+    /**
+     * Compares the given object with this format for equality. Formats
+     * are equal if their prototypes are equal {@code SimpleDateFormat}s.
+     *
+     * @return true if the given object is equal to this format
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || (obj instanceof ConcurrentDateFormat
+                && prototype.equals(((ConcurrentDateFormat) obj).prototype));
+    }
+
+    /**
+     * Recreates the pool of working copies after deserialization.
+     */
+    private Object readResolve() throws ObjectStreamException {
+        return new ConcurrentDateFormat(prototype);
+    }
+}
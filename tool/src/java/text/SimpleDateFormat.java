@@ -535,6 +535,18 @@ public class SimpleDateFormat extends DateFormat {
     private static final ConcurrentMap<Locale, NumberFormat> cachedNumberFormatData
         = new ConcurrentHashMap<>(3);
 
+    /**
+     * Cache compiled patterns with pattern key. Compiled patterns are never
+     * modified, so all instances with the same pattern share one.
+     */
+    private static final ConcurrentMap<String, CompiledPattern> cachedCompiledPatterns
+        = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum number of compiled patterns cached.
+     */
+    private static final int MAX_CACHED_PATTERNS = 256;
+
     /**
      * The Locale used to instantiate this
      * <code>SimpleDateFormat</code>. The value may be null if this object
@@ -734,6 +746,37 @@ public class SimpleDateFormat extends DateFormat {
      * @exception IllegalArgumentException if the given pattern is invalid
      */
     private char[] compile(String pattern) {
+        /* try the cache first */
+        CompiledPattern cached = cachedCompiledPatterns.get(pattern);
+        if (cached == null) { /* cache miss */
+            cached = new CompiledPattern(compileImpl(pattern), forceStandaloneForm);
+
+            /* update cache */
+            if (cachedCompiledPatterns.size() < MAX_CACHED_PATTERNS) {
+                cachedCompiledPatterns.putIfAbsent(pattern, cached);
+            }
+        }
+        forceStandaloneForm = cached.forceStandaloneForm;
+        return cached.compiledPattern;
+    }
+
+    /**
+     * A compiled pattern and whether it needs the standalone form.
+     */
+    private static final class CompiledPattern {
+        final char[] compiledPattern;
+        final boolean forceStandaloneForm;
+
+        CompiledPattern(char[] compiledPattern, boolean forceStandaloneForm) {
+            this.compiledPattern = compiledPattern;
+            this.forceStandaloneForm = forceStandaloneForm;
+        }
+    }
+
+    /**
+     * Compiles the given pattern, bypassing the cache. See {@link #compile}.
+     */
+    private char[] compileImpl(String pattern) {
         int length = pattern.length();
         boolean inQuote = false;
         StringBuilder compiledCode = new StringBuilder(length * 2);
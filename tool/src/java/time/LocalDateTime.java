@@ -500,7 +500,7 @@ public final class LocalDateTime
      */
     public static LocalDateTime parse(CharSequence text, DateTimeFormatter formatter) {
         Objects.requireNonNull(formatter, "formatter");
-        return formatter.parse(text, LocalDateTime::from);
+        return formatter.parseLocalDateTime(text);
     }
 
     //-----------------------------------------------------------------------
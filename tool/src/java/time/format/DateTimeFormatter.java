@@ -88,6 +88,7 @@ import java.text.Format;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.time.DateTimeException;
+import java.time.LocalDateTime;
 import java.time.Period;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
@@ -521,6 +522,10 @@ public final class DateTimeFormatter {
      * The zone to use for formatting, null for no override.
      */
     private final ZoneId zone;
+    /**
+     * The fixed-width printer-parser, null if not applicable.
+     */
+    private final DateTimeFormatterBuilder.FixedWidthPrinterParser fixedWidth;
 
     //-----------------------------------------------------------------------
     /**
@@ -1391,6 +1396,12 @@ public final class DateTimeFormatter {
         this.resolverStyle = Objects.requireNonNull(resolverStyle, "resolverStyle");
         this.chrono = chrono;
         this.zone = zone;
+        if ((chrono == null || chrono == IsoChronology.INSTANCE) && zone == null
+                && resolverFields == null && decimalStyle.equals(DecimalStyle.STANDARD)) {
+            this.fixedWidth = DateTimeFormatterBuilder.FixedWidthPrinterParser.compile(printerParser, resolverStyle);
+        } else {
+            this.fixedWidth = null;
+        }
     }
 
     //-----------------------------------------------------------------------
@@ -1752,6 +1763,10 @@ public final class DateTimeFormatter {
         Objects.requireNonNull(temporal, "temporal");
         Objects.requireNonNull(appendable, "appendable");
         try {
+            if (fixedWidth != null && appendable instanceof StringBuilder
+                    && fixedWidth.format(temporal, (StringBuilder) appendable)) {
+                return;
+            }
             DateTimePrintContext context = new DateTimePrintContext(temporal, this);
             if (appendable instanceof StringBuilder) {
                 printerParser.format(context, (StringBuilder) appendable);
@@ -1867,6 +1882,91 @@ public final class DateTimeFormatter {
         }
     }
 
+    /**
+     * Fully parses a range of the text producing a local date-time.
+     * <p>
+     * This is equivalent to {@code parse(text.subSequence(start, end), LocalDateTime::from)}.
+     * When the formatter consists only of literals and fixed-width numeric ISO
+     * fields, such as {@code yyyyMMddHHmmss} or {@code uuuu-MM-dd'T'HH:mm:ss.SSS},
+     * the text is parsed directly, without creating the intermediate parsed
+     * and resolved objects or copying the range of the text.
+     * This makes the method suitable for parsing timestamps embedded in
+     * larger buffers, such as log lines.
+     *
+     * @param text  the text to parse, not null
+     * @param start  the start of the range to parse, inclusive
+     * @param end  the end of the range to parse, exclusive
+     * @return the parsed local date-time, not null
+     * @throws IndexOutOfBoundsException if {@code start} is negative, or
+     *  {@code end} is less than {@code start} or greater than the length of the text
+     * @throws DateTimeParseException if unable to parse the requested result
+     * @since 1.8
+     */
+    public LocalDateTime parseLocalDateTime(CharSequence text, int start, int end) {
+        Objects.requireNonNull(text, "text");
+        if (start < 0 || end < start || end > text.length()) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + text.length());
+        }
+        if (fixedWidth != null) {
+            LocalDateTime result = fixedWidth.parseLocalDateTime(text, start, end);
+            if (result != null) {
+                return result;
+            }
+        }
+        return parse(text.subSequence(start, end), LocalDateTime::from);
+    }
+
+    /**
+     * Fully parses the text producing a local date-time.
+     * <p>
+     * This is equivalent to {@code parse(text, LocalDateTime::from)},
+     * see {@link #parseLocalDateTime(CharSequence, int, int)}.
+     *
+     * @param text  the text to parse, not null
+     * @return the parsed local date-time, not null
+     * @throws DateTimeParseException if unable to parse the requested result
+     * @since 1.8
+     */
+    public LocalDateTime parseLocalDateTime(CharSequence text) {
+        Objects.requireNonNull(text, "text");
+        return parseLocalDateTime(text, 0, text.length());
+    }
+
+    /**
+     * Fully parses a range of the text producing the number of seconds from
+     * the epoch of 1970-01-01T00:00:00Z.
+     * <p>
+     * This is equivalent to
+     * {@code parseLocalDateTime(text, start, end).toEpochSecond(offset)},
+     * but does not create the local date-time when the fast path of
+     * {@link #parseLocalDateTime(CharSequence, int, int)} applies, in which
+     * case the method allocates no objects at all.
+     *
+     * @param text  the text to parse, not null
+     * @param start  the start of the range to parse, inclusive
+     * @param end  the end of the range to parse, exclusive
+     * @param offset  the offset of the parsed local date-time, not null
+     * @return the number of seconds from the epoch of 1970-01-01T00:00:00Z
+     * @throws IndexOutOfBoundsException if {@code start} is negative, or
+     *  {@code end} is less than {@code start} or greater than the length of the text
+     * @throws DateTimeParseException if unable to parse the requested result
+     * @since 1.8
+     */
+    public long parseEpochSecond(CharSequence text, int start, int end, ZoneOffset offset) {
+        Objects.requireNonNull(text, "text");
+        Objects.requireNonNull(offset, "offset");
+        if (start < 0 || end < start || end > text.length()) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + text.length());
+        }
+        if (fixedWidth != null) {
+            long epochSecond = fixedWidth.parseEpochSecond(text, start, end, offset);
+            if (epochSecond != Long.MIN_VALUE) {
+                return epochSecond;
+            }
+        }
+        return parse(text.subSequence(start, end), LocalDateTime::from).toEpochSecond(offset);
+    }
+
     /**
      * Fully parses the text producing an object of one of the specified types.
      * <p>
@@ -91,6 +91,8 @@ import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.chrono.ChronoLocalDate;
@@ -2258,6 +2260,414 @@ public final class DateTimeFormatterBuilder {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Prints and parses a format made only of fixed-width numeric ISO fields
+     * and literals, such as {@code yyyyMMddHHmmss}, directly from and to
+     * local date-time values.
+     * <p>
+     * This bypasses the print and parse contexts, the map of parsed fields
+     * and the resolver. It only handles input that is certain to give the
+     * same result as the composite printer-parser it was compiled from: the
+     * text must have exactly the expected length, literals must match
+     * exactly, and the values must be within the range of their field.
+     * For anything else the methods report failure, and the caller uses the
+     * composite printer-parser, which produces the result or the exception.
+     * <p>
+     * This class is immutable and thread-safe.
+     */
+    static final class FixedWidthPrinterParser {
+        // The fields, in order of significance
+        private static final int YEAR_FIELD = 0;
+        private static final int MONTH_FIELD = 1;
+        private static final int DAY_FIELD = 2;
+        private static final int HOUR_FIELD = 3;
+        private static final int MINUTE_FIELD = 4;
+        private static final int SECOND_FIELD = 5;
+        private static final int NANO_FIELD = 6;
+
+        private static final int DATE_FIELDS =
+            (1 << YEAR_FIELD) | (1 << MONTH_FIELD) | (1 << DAY_FIELD);
+        private static final int TIME_FIELDS =
+            (1 << HOUR_FIELD) | (1 << MINUTE_FIELD) | (1 << SECOND_FIELD) | (1 << NANO_FIELD);
+
+        /**
+         * Array of 10 to the power of n.
+         */
+        private static final int[] POWERS_OF_TEN = {
+            1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000,
+        };
+        /**
+         * The number of days from year zero to year 1970, see {@code LocalDate}.
+         */
+        private static final long DAYS_0000_TO_1970 = (146097L * 5L) - (30L * 365L + 7L);
+
+        /** The printed form, with zeros in place of the digits of the fields. */
+        private final char[] template;
+        /** Whether each character of the template belongs to a field. */
+        private final boolean[] digit;
+        /** The field, offset and width of each numeric field. */
+        private final int[] fields;
+        private final int[] offsets;
+        private final int[] widths;
+        /** The index in fields of each field, -1 if absent. */
+        private final int[] index;
+        /** The bit set of the fields present. */
+        private final int present;
+        /** Whether the year is the year-of-era rather than the proleptic year. */
+        private final boolean yearOfEra;
+
+        private FixedWidthPrinterParser(char[] template, boolean[] digit,
+                int[] fields, int[] offsets, int[] widths, int present, boolean yearOfEra) {
+            this.template = template;
+            this.digit = digit;
+            this.fields = fields;
+            this.offsets = offsets;
+            this.widths = widths;
+            this.present = present;
+            this.yearOfEra = yearOfEra;
+            this.index = new int[NANO_FIELD + 1];
+            Arrays.fill(index, -1);
+            for (int k = 0; k < fields.length; k++) {
+                index[fields[k]] = k;
+            }
+        }
+
+        /**
+         * Compiles a composite printer-parser, if it only contains literals
+         * and fixed-width numeric ISO fields.
+         *
+         * @param composite  the printer-parser to compile, not null
+         * @param resolverStyle  the resolver style of the formatter, not null
+         * @return the fixed-width printer-parser, null if not applicable
+         */
+        static FixedWidthPrinterParser compile(CompositePrinterParser composite,
+                ResolverStyle resolverStyle) {
+            if (composite.optional) {
+                return null;
+            }
+            DateTimePrinterParser[] pps = composite.printerParsers;
+            StringBuilder template = new StringBuilder();
+            int[] fields = new int[pps.length];
+            int[] offsets = new int[pps.length];
+            int[] widths = new int[pps.length];
+            int count = 0;
+            int present = 0;
+            boolean yearOfEra = false;
+            for (int i = 0; i < pps.length; i++) {
+                DateTimePrinterParser pp = pps[i];
+                if (pp instanceof CharLiteralPrinterParser) {
+                    template.append(((CharLiteralPrinterParser) pp).literal);
+                    continue;
+                }
+                if (pp instanceof StringLiteralPrinterParser) {
+                    template.append(((StringLiteralPrinterParser) pp).literal);
+                    continue;
+                }
+                int field;
+                int width;
+                if (pp.getClass() == FractionPrinterParser.class) {
+                    FractionPrinterParser fpp = (FractionPrinterParser) pp;
+                    if (fpp.field != NANO_OF_SECOND || fpp.decimalPoint
+                            || fpp.minWidth != fpp.maxWidth || fpp.minWidth == 0) {
+                        return null;
+                    }
+                    field = NANO_FIELD;
+                    width = fpp.minWidth;
+                } else if (pp.getClass() == NumberPrinterParser.class) {
+                    NumberPrinterParser npp = (NumberPrinterParser) pp;
+                    field = fieldOf(npp.field);
+                    width = npp.minWidth;
+                    if (field < 0 || npp.signStyle == SignStyle.ALWAYS || width > 9) {
+                        return null;
+                    }
+                    if (npp.field == ChronoField.YEAR_OF_ERA) {
+                        if (resolverStyle == ResolverStyle.STRICT) {
+                            // the year-of-era is not resolved without an era
+                            return null;
+                        }
+                        yearOfEra = true;
+                    }
+                    if (npp.minWidth != npp.maxWidth
+                            && !isDelimited(pps, i, npp.subsequentWidth)) {
+                        return null;
+                    }
+                } else {
+                    return null;
+                }
+                if ((present & (1 << field)) != 0) {
+                    return null;
+                }
+                present |= 1 << field;
+                fields[count] = field;
+                offsets[count] = template.length();
+                widths[count] = width;
+                count++;
+                for (int j = 0; j < width; j++) {
+                    template.append('0');
+                }
+            }
+            if (count == 0) {
+                return null;
+            }
+            char[] chars = template.toString().toCharArray();
+            boolean[] digit = new boolean[chars.length];
+            for (int k = 0; k < count; k++) {
+                Arrays.fill(digit, offsets[k], offsets[k] + widths[k], true);
+            }
+            return new FixedWidthPrinterParser(chars, digit,
+                    Arrays.copyOf(fields, count), Arrays.copyOf(offsets, count),
+                    Arrays.copyOf(widths, count), present, yearOfEra);
+        }
+
+        private static int fieldOf(TemporalField field) {
+            if (field == YEAR || field == ChronoField.YEAR_OF_ERA) {
+                return YEAR_FIELD;
+            } else if (field == MONTH_OF_YEAR) {
+                return MONTH_FIELD;
+            } else if (field == DAY_OF_MONTH) {
+                return DAY_FIELD;
+            } else if (field == HOUR_OF_DAY) {
+                return HOUR_FIELD;
+            } else if (field == MINUTE_OF_HOUR) {
+                return MINUTE_FIELD;
+            } else if (field == SECOND_OF_MINUTE) {
+                return SECOND_FIELD;
+            }
+            return -1;
+        }
+
+        /**
+         * Checks that a variable-width value parses with its minimum width
+         * when the text has the expected length. That is the case when the
+         * value is followed by fixed-width adjacent values whose widths sum
+         * to the subsequent width, and then by the end of the text or by a
+         * literal that is not a digit.
+         */
+        private static boolean isDelimited(DateTimePrinterParser[] pps, int index,
+                int subsequentWidth) {
+            int width = 0;
+            int i = index + 1;
+            for (; i < pps.length; i++) {
+                DateTimePrinterParser pp = pps[i];
+                if (pp.getClass() != NumberPrinterParser.class
+                        && pp.getClass() != FractionPrinterParser.class) {
+                    break;
+                }
+                NumberPrinterParser npp = (NumberPrinterParser) pp;
+                if (npp.minWidth != npp.maxWidth) {
+                    return false;
+                }
+                width += npp.minWidth;
+            }
+            if (width != subsequentWidth) {
+                return false;
+            }
+            if (i == pps.length) {
+                return true;
+            }
+            char next;
+            if (pps[i] instanceof CharLiteralPrinterParser) {
+                next = ((CharLiteralPrinterParser) pps[i]).literal;
+            } else if (pps[i] instanceof StringLiteralPrinterParser) {
+                next = ((StringLiteralPrinterParser) pps[i]).literal.charAt(0);
+            } else {
+                return false;
+            }
+            return next < '0' || next > '9';
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Prints a local date-time, local date or local time.
+         *
+         * @param temporal  the temporal object to print, not null
+         * @param buf  the buffer to append to, not null
+         * @return false if the temporal object cannot be printed by this
+         *  printer, in which case nothing was appended
+         */
+        boolean format(TemporalAccessor temporal, StringBuilder buf) {
+            LocalDate date = null;
+            LocalTime time = null;
+            if (temporal instanceof LocalDateTime) {
+                date = ((LocalDateTime) temporal).toLocalDate();
+                time = ((LocalDateTime) temporal).toLocalTime();
+            } else if (temporal instanceof LocalDate) {
+                date = (LocalDate) temporal;
+            } else if (temporal instanceof LocalTime) {
+                time = (LocalTime) temporal;
+            } else {
+                return false;
+            }
+            if (((present & DATE_FIELDS) != 0 && date == null)
+                    || ((present & TIME_FIELDS) != 0 && time == null)) {
+                return false;
+            }
+            char[] chars = template.clone();
+            for (int k = 0; k < fields.length; k++) {
+                int value;
+                switch (fields[k]) {
+                    case YEAR_FIELD:
+                        value = date.getYear();
+                        if (value < (yearOfEra ? 1 : 0)
+                                || value >= POWERS_OF_TEN[widths[k]]) {
+                            // needs an era, a sign or more digits
+                            return false;
+                        }
+                        break;
+                    case MONTH_FIELD: value = date.getMonthValue(); break;
+                    case DAY_FIELD: value = date.getDayOfMonth(); break;
+                    case HOUR_FIELD: value = time.getHour(); break;
+                    case MINUTE_FIELD: value = time.getMinute(); break;
+                    case SECOND_FIELD: value = time.getSecond(); break;
+                    default:
+                        // the fraction is truncated to the width
+                        value = time.getNano() / POWERS_OF_TEN[9 - widths[k]];
+                        break;
+                }
+                if (value >= POWERS_OF_TEN[widths[k]]) {
+                    return false;
+                }
+                for (int pos = offsets[k] + widths[k] - 1; value != 0; pos--) {
+                    chars[pos] = (char) ('0' + value % 10);
+                    value /= 10;
+                }
+            }
+            buf.append(chars);
+            return true;
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Parses a local date-time from a range of the text.
+         * <p>
+         * The fields are decoded into local variables, so that nothing is
+         * allocated but the result.
+         *
+         * @param text  the text to parse, not null
+         * @param start  the start of the range, inclusive
+         * @param end  the end of the range, exclusive
+         * @return the parsed date-time, null if the text cannot be parsed by
+         *  this parser
+         */
+        LocalDateTime parseLocalDateTime(CharSequence text, int start, int end) {
+            if (!matches(text, start, end)) {
+                return null;
+            }
+            int year = value(text, start, YEAR_FIELD);
+            int month = value(text, start, MONTH_FIELD);
+            int day = value(text, start, DAY_FIELD);
+            int hour = value(text, start, HOUR_FIELD);
+            int minute = value(text, start, MINUTE_FIELD);
+            int second = value(text, start, SECOND_FIELD);
+            if (!isValid(year, month, day, hour, minute, second)) {
+                return null;
+            }
+            return LocalDateTime.of(year, month, day, hour, minute, second,
+                    value(text, start, NANO_FIELD));
+        }
+
+        /**
+         * Parses a local date-time from a range of the text, converting it
+         * to the number of seconds from the epoch of 1970-01-01T00:00:00Z.
+         * <p>
+         * Nothing is allocated.
+         *
+         * @param text  the text to parse, not null
+         * @param start  the start of the range, inclusive
+         * @param end  the end of the range, exclusive
+         * @param offset  the offset of the local date-time, not null
+         * @return the epoch second, {@code Long.MIN_VALUE} if the text cannot
+         *  be parsed by this parser
+         */
+        long parseEpochSecond(CharSequence text, int start, int end, ZoneOffset offset) {
+            if (!matches(text, start, end)) {
+                return Long.MIN_VALUE;
+            }
+            int year = value(text, start, YEAR_FIELD);
+            int month = value(text, start, MONTH_FIELD);
+            int day = value(text, start, DAY_FIELD);
+            int hour = value(text, start, HOUR_FIELD);
+            int minute = value(text, start, MINUTE_FIELD);
+            int second = value(text, start, SECOND_FIELD);
+            if (!isValid(year, month, day, hour, minute, second)) {
+                return Long.MIN_VALUE;
+            }
+            // see LocalDate.toEpochDay()
+            long y = year;
+            long m = month;
+            long total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+            total += ((367 * m - 362) / 12);
+            total += day - 1;
+            if (m > 2) {
+                total--;
+                if (!IsoChronology.INSTANCE.isLeapYear(y)) {
+                    total--;
+                }
+            }
+            long epochDay = total - DAYS_0000_TO_1970;
+            return epochDay * 86400 + hour * 3600 + minute * 60 + second - offset.getTotalSeconds();
+        }
+
+        /**
+         * Checks that the fields present are enough to resolve a local
+         * date-time, and that the text matches the template.
+         */
+        private boolean matches(CharSequence text, int start, int end) {
+            if ((present & (DATE_FIELDS | (1 << HOUR_FIELD) | (1 << MINUTE_FIELD)))
+                    != (DATE_FIELDS | (1 << HOUR_FIELD) | (1 << MINUTE_FIELD))
+                    || ((present & (1 << NANO_FIELD)) != 0 && (present & (1 << SECOND_FIELD)) == 0)) {
+                // the resolver would fail, or default the missing fields
+                return false;
+            }
+            if (end - start != template.length) {
+                return false;
+            }
+            for (int i = 0; i < template.length; i++) {
+                char ch = text.charAt(start + i);
+                if (digit[i] ? (ch < '0' || ch > '9') : ch != template[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Decodes the value of a field from text that matches the template,
+         * zero if the field is absent.
+         */
+        private int value(CharSequence text, int start, int field) {
+            int k = index[field];
+            if (k < 0) {
+                return 0;
+            }
+            int value = 0;
+            for (int pos = start + offsets[k], limit = pos + widths[k]; pos < limit; pos++) {
+                value = value * 10 + (text.charAt(pos) - '0');
+            }
+            if (field == NANO_FIELD) {
+                value *= POWERS_OF_TEN[9 - widths[k]];
+            }
+            return value;
+        }
+
+        /**
+         * Checks that the values are within the range of their field.
+         */
+        private boolean isValid(int year, int month, int day, int hour, int minute, int second) {
+            // otherwise let the resolver report the error or apply its style
+            return !(yearOfEra && year < 1) && month >= 1 && month <= 12
+                    && day >= 1
+                    && day <= Month.of(month).length(IsoChronology.INSTANCE.isLeapYear(year))
+                    && hour <= 23 && minute <= 59 && second <= 59;
+        }
+
+        @Override
+        public String toString() {
+            return "FixedWidth(" + new String(template) + ")";
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Pads the output to a fixed width.
@@ -1307,6 +1307,384 @@ public class Arrays {
                  MIN_ARRAY_SORT_GRAN : g).invoke();
     }
 
+    /**
+     * Sorts the specified array into ascending numerical order, using a
+     * parallel radix sort.
+     *
+     * @implNote The sorting algorithm is a least-significant-digit radix sort
+     * that makes at most four stable passes over the elements, one per
+     * 8-bit digit, skipping the digits shared by all elements.
+     * In each pass the array is divided into blocks whose digit histograms,
+     * and then the scatter of their elements, are computed in parallel.
+     * Unlike {@link #parallelSort(int[]) parallelSort}, the number of
+     * operations is linear in the length of the array, which makes this
+     * method faster for large arrays of keys such as timestamps or
+     * identifiers. If the length of the specified array is less than the
+     * minimum granularity, then it is sorted using the appropriate {@link
+     * Arrays#sort(int[]) Arrays.sort} method. The algorithm requires a
+     * working space no greater than the size of the original array. The
+     * {@link ForkJoinPool#commonPool() ForkJoin common pool} is used to
+     * execute any parallel tasks.
+     *
+     * @param a the array to be sorted
+     *
+     * @see #parallelArgsort(int[])
+     * @since 1.8
+     */
+    public static void parallelRadixSort(int[] a) {
+        int n = a.length;
+        if (n <= MIN_ARRAY_SORT_GRAN)
+            DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+        else
+            ArraysParallelRadixSort.sort(a, 0, n);
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending numerical order,
+     * using a parallel radix sort.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * @implNote See {@link #parallelRadixSort(int[])}. The algorithm
+     * requires a working space no greater than the size of the specified
+     * range of the original array.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @since 1.8
+     */
+    public static void parallelRadixSort(int[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        int n = toIndex - fromIndex;
+        if (n <= MIN_ARRAY_SORT_GRAN)
+            DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        else
+            ArraysParallelRadixSort.sort(a, fromIndex, toIndex);
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, using a
+     * parallel radix sort.
+     *
+     * @implNote The sorting algorithm is a least-significant-digit radix sort
+     * that makes at most eight stable passes over the elements, one per
+     * 8-bit digit, skipping the digits shared by all elements.
+     * In each pass the array is divided into blocks whose digit histograms,
+     * and then the scatter of their elements, are computed in parallel.
+     * Unlike {@link #parallelSort(long[]) parallelSort}, the number of
+     * operations is linear in the length of the array, which makes this
+     * method faster for large arrays of keys such as timestamps or
+     * identifiers. If the length of the specified array is less than the
+     * minimum granularity, then it is sorted using the appropriate {@link
+     * Arrays#sort(long[]) Arrays.sort} method. The algorithm requires a
+     * working space no greater than the size of the original array. The
+     * {@link ForkJoinPool#commonPool() ForkJoin common pool} is used to
+     * execute any parallel tasks.
+     *
+     * @param a the array to be sorted
+     *
+     * @see #parallelArgsort(long[])
+     * @since 1.8
+     */
+    public static void parallelRadixSort(long[] a) {
+        int n = a.length;
+        if (n <= MIN_ARRAY_SORT_GRAN)
+            DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+        else
+            ArraysParallelRadixSort.sort(a, 0, n);
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending numerical order,
+     * using a parallel radix sort.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * @implNote See {@link #parallelRadixSort(long[])}. The algorithm
+     * requires a working space no greater than the size of the specified
+     * range of the original array.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @since 1.8
+     */
+    public static void parallelRadixSort(long[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        int n = toIndex - fromIndex;
+        if (n <= MIN_ARRAY_SORT_GRAN)
+            DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        else
+            ArraysParallelRadixSort.sort(a, fromIndex, toIndex);
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, using a
+     * parallel radix sort.
+     *
+     * <p>The {@code <} relation does not provide a total order on all float
+     * values: {@code -0.0f == 0.0f} is {@code true} and a {@code Float.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Float#compareTo}: {@code -0.0f} is treated as less than value
+     * {@code 0.0f} and {@code Float.NaN} is considered greater than any
+     * other value and all {@code Float.NaN} values are considered equal.
+     *
+     * @implNote The sorting algorithm is a least-significant-digit radix sort
+     * that makes at most four stable passes over the elements, one per
+     * 8-bit digit, skipping the digits shared by all elements. The bits of
+     * each value are first mapped to an integer key whose unsigned order is
+     * the order of {@link Float#compare}. In each pass the array is divided
+     * into blocks whose digit histograms, and then the scatter of their
+     * elements, are computed in parallel.
+     * Unlike {@link #parallelSort(float[]) parallelSort}, the number of
+     * operations is linear in the length of the array, which makes this
+     * method faster for large arrays of keys such as timestamps or
+     * identifiers. If the length of the specified array is less than the
+     * minimum granularity, then it is sorted using the appropriate {@link
+     * Arrays#sort(float[]) Arrays.sort} method. The algorithm requires a
+     * working space of twice the size of the original array, in int or long
+     * keys. The {@link ForkJoinPool#commonPool() ForkJoin common pool} is
+     * used to execute any parallel tasks.
+     *
+     * @param a the array to be sorted
+     *
+     * @see #parallelArgsort(float[])
+     * @since 1.8
+     */
+    public static void parallelRadixSort(float[] a) {
+        int n = a.length;
+        if (n <= MIN_ARRAY_SORT_GRAN)
+            DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+        else
+            ArraysParallelRadixSort.sort(a, 0, n);
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending numerical order,
+     * using a parallel radix sort.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * @implNote See {@link #parallelRadixSort(float[])}. The algorithm
+     * requires a working space of twice the size of the specified range of
+     * the original array, in int or long keys.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @since 1.8
+     */
+    public static void parallelRadixSort(float[] a, int fromIndex,
+                                         int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        int n = toIndex - fromIndex;
+        if (n <= MIN_ARRAY_SORT_GRAN)
+            DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        else
+            ArraysParallelRadixSort.sort(a, fromIndex, toIndex);
+    }
+
+    /**
+     * Sorts the specified array into ascending numerical order, using a
+     * parallel radix sort.
+     *
+     * <p>The {@code <} relation does not provide a total order on all double
+     * values: {@code -0.0d == 0.0d} is {@code true} and a {@code Double.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * @implNote The sorting algorithm is a least-significant-digit radix sort
+     * that makes at most eight stable passes over the elements, one per
+     * 8-bit digit, skipping the digits shared by all elements. The bits of
+     * each value are first mapped to an integer key whose unsigned order is
+     * the order of {@link Double#compare}. In each pass the array is divided
+     * into blocks whose digit histograms, and then the scatter of their
+     * elements, are computed in parallel.
+     * Unlike {@link #parallelSort(double[]) parallelSort}, the number of
+     * operations is linear in the length of the array, which makes this
+     * method faster for large arrays of keys such as timestamps or
+     * identifiers. If the length of the specified array is less than the
+     * minimum granularity, then it is sorted using the appropriate {@link
+     * Arrays#sort(double[]) Arrays.sort} method. The algorithm requires a
+     * working space of twice the size of the original array, in int or long
+     * keys. The {@link ForkJoinPool#commonPool() ForkJoin common pool} is
+     * used to execute any parallel tasks.
+     *
+     * @param a the array to be sorted
+     *
+     * @see #parallelArgsort(double[])
+     * @since 1.8
+     */
+    public static void parallelRadixSort(double[] a) {
+        int n = a.length;
+        if (n <= MIN_ARRAY_SORT_GRAN)
+            DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+        else
+            ArraysParallelRadixSort.sort(a, 0, n);
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending numerical order,
+     * using a parallel radix sort.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * @implNote See {@link #parallelRadixSort(double[])}. The algorithm
+     * requires a working space of twice the size of the specified range of
+     * the original array, in int or long keys.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @since 1.8
+     */
+    public static void parallelRadixSort(double[] a, int fromIndex,
+                                         int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        int n = toIndex - fromIndex;
+        if (n <= MIN_ARRAY_SORT_GRAN)
+            DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        else
+            ArraysParallelRadixSort.sort(a, fromIndex, toIndex);
+    }
+
+    /**
+     * Returns the permutation of indices that sorts the specified array into
+     * ascending numerical order (an "argsort"): the returned array {@code p}
+     * has the same length as {@code a}, and {@code a[p[0]], a[p[1]], ...}
+     * are in ascending order. The sort is stable: the indices of equal
+     * elements appear in ascending order. The specified array is not
+     * modified.
+     *
+     * <p>This is useful for sorting several arrays by the values of one of
+     * them, or for finding the rank of each element.
+     *
+     * @implNote The indices are computed by the parallel radix sort
+     * described in {@link #parallelRadixSort(int[])}, which moves each
+     * index along with its key. The algorithm requires a working space of
+     * twice the size of the original array in keys, plus the size of the
+     * original array in ints.
+     *
+     * @param a the array whose sorting permutation is computed
+     * @return the sorting permutation of the indices of {@code a}
+     *
+     * @since 1.8
+     */
+    public static int[] parallelArgsort(int[] a) {
+        return ArraysParallelRadixSort.argsort(a);
+    }
+
+    /**
+     * Returns the permutation of indices that sorts the specified array into
+     * ascending numerical order (an "argsort"): the returned array {@code p}
+     * has the same length as {@code a}, and {@code a[p[0]], a[p[1]], ...}
+     * are in ascending order. The sort is stable: the indices of equal
+     * elements appear in ascending order. The specified array is not
+     * modified.
+     *
+     * <p>This is useful for sorting several arrays by the values of one of
+     * them, or for finding the rank of each element.
+     *
+     * @implNote The indices are computed by the parallel radix sort
+     * described in {@link #parallelRadixSort(long[])}, which moves each
+     * index along with its key. The algorithm requires a working space of
+     * twice the size of the original array in keys, plus the size of the
+     * original array in ints.
+     *
+     * @param a the array whose sorting permutation is computed
+     * @return the sorting permutation of the indices of {@code a}
+     *
+     * @since 1.8
+     */
+    public static int[] parallelArgsort(long[] a) {
+        return ArraysParallelRadixSort.argsort(a);
+    }
+
+    /**
+     * Returns the permutation of indices that sorts the specified array into
+     * ascending numerical order (an "argsort"): the returned array {@code p}
+     * has the same length as {@code a}, and {@code a[p[0]], a[p[1]], ...}
+     * are in ascending order. The sort is stable: the indices of equal
+     * elements appear in ascending order. The specified array is not
+     * modified.
+     * Values are ordered as by {@link #parallelRadixSort(float[])}, with all
+     * NaN values last.
+     *
+     * <p>This is useful for sorting several arrays by the values of one of
+     * them, or for finding the rank of each element.
+     *
+     * @implNote The indices are computed by the parallel radix sort
+     * described in {@link #parallelRadixSort(float[])}, which moves each
+     * index along with its key. The algorithm requires a working space of
+     * twice the size of the original array in keys, plus the size of the
+     * original array in ints.
+     *
+     * @param a the array whose sorting permutation is computed
+     * @return the sorting permutation of the indices of {@code a}
+     *
+     * @since 1.8
+     */
+    public static int[] parallelArgsort(float[] a) {
+        return ArraysParallelRadixSort.argsort(a);
+    }
+
+    /**
+     * Returns the permutation of indices that sorts the specified array into
+     * ascending numerical order (an "argsort"): the returned array {@code p}
+     * has the same length as {@code a}, and {@code a[p[0]], a[p[1]], ...}
+     * are in ascending order. The sort is stable: the indices of equal
+     * elements appear in ascending order. The specified array is not
+     * modified.
+     * Values are ordered as by {@link #parallelRadixSort(double[])}, with all
+     * NaN values last.
+     *
+     * <p>This is useful for sorting several arrays by the values of one of
+     * them, or for finding the rank of each element.
+     *
+     * @implNote The indices are computed by the parallel radix sort
+     * described in {@link #parallelRadixSort(double[])}, which moves each
+     * index along with its key. The algorithm requires a working space of
+     * twice the size of the original array in keys, plus the size of the
+     * original array in ints.
+     *
+     * @param a the array whose sorting permutation is computed
+     * @return the sorting permutation of the indices of {@code a}
+     *
+     * @since 1.8
+     */
+    public static int[] parallelArgsort(double[] a) {
+        return ArraysParallelRadixSort.argsort(a);
+    }
+
     /**
      * Sorts the specified array of objects into ascending order, according
      * to the {@linkplain Comparable natural ordering} of its elements.
@@ -0,0 +1,456 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+package java.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel least-significant-digit radix sort, used by the
+ * Arrays.parallelRadixSort and Arrays.parallelArgsort methods.
+ *
+ * Keys are sorted by successive 8-bit digits, from the least to the
+ * most significant.  Each pass is stable, so after the last pass the
+ * keys are sorted.  For a pass, the keys are divided into a fixed
+ * number of contiguous blocks, and a pass consists of three phases:
+ *
+ * 1. In parallel, each block counts the occurrences of each digit value
+ *    among its keys (the histogram of the block).
+ *
+ * 2. Sequentially, the histograms are turned into the offsets at which
+ *    each block writes the keys of each digit value: all keys with a
+ *    smaller digit value go first, then the keys with the same digit
+ *    value in earlier blocks.
+ *
+ * 3. In parallel, each block scatters its keys to their offsets in
+ *    the other buffer.
+ *
+ * A pass is skipped when all keys share the same digit, which is
+ * common for the high digits of keys of limited range (timestamps,
+ * identifiers).  Signed keys are handled by flipping the sign bit of
+ * the most significant digit.  Floating-point keys are first mapped to
+ * integer keys whose unsigned order is the numerical order (see
+ * floatKey and doubleKey), so the most significant digit is not
+ * flipped for them.
+ *
+ * An optional array of int values (the indices, for argsort) is moved
+ * along with the keys.
+ *
+ * The histograms take 256 ints per block, and the scatter needs a
+ * buffer as large as the keys (and another for the indices), so the
+ * working space is n keys plus, for argsort, n ints.
+ */
+/*package*/ class ArraysParallelRadixSort {
+
+    /**
+     * Number of bits of a digit.
+     */
+    static final int DIGIT_BITS = 8;
+
+    /**
+     * Number of digit values.
+     */
+    static final int RADIX = 1 << DIGIT_BITS;
+
+    /**
+     * Minimum number of keys per block, below which the per-block
+     * overhead dominates.
+     */
+    static final int MIN_BLOCK_SIZE = 1 << 14;
+
+    /**
+     * Returns the number of blocks to use for n keys: one if n is small
+     * or there is no parallelism, else about four per thread.
+     */
+    static int blocks(int n) {
+        int p = ForkJoinPool.getCommonPoolParallelism();
+        if (p <= 1 || n < (MIN_BLOCK_SIZE << 1))
+            return 1;
+        return Math.max(1, Math.min(p << 2, n / MIN_BLOCK_SIZE));
+    }
+
+    // Floating-point key mappings
+
+    /**
+     * Maps a float to an int whose unsigned order is the order of
+     * Float.compare, except that NaNs must be handled by the caller.
+     * Positive values get their sign bit set; negative values have all
+     * bits flipped, so that larger magnitudes come first.
+     */
+    static int floatKey(float f) {
+        int bits = Float.floatToRawIntBits(f);
+        return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+    }
+
+    static float keyToFloat(int k) {
+        return Float.intBitsToFloat(k ^ ((~k >> 31) | Integer.MIN_VALUE));
+    }
+
+    static long doubleKey(double d) {
+        long bits = Double.doubleToRawLongBits(d);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    static double keyToDouble(long k) {
+        return Double.longBitsToDouble(k ^ ((~k >> 63) | Long.MIN_VALUE));
+    }
+
+    /**
+     * Runs the given phase of a pass over blocks [lo, hi), forking
+     * halves until a single block remains.
+     */
+    static final class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 2249069246763182397L;
+        final Pass pass;
+        final int phase, lo, hi;
+
+        BlockTask(Pass pass, int phase, int lo, int hi) {
+            this.pass = pass; this.phase = phase; this.lo = lo; this.hi = hi;
+        }
+
+        public final void compute() {
+            int l = lo, h = hi;
+            if (h - l > 1) {
+                int mid = (l + h) >>> 1;
+                invokeAll(new BlockTask(pass, phase, l, mid),
+                          new BlockTask(pass, phase, mid, h));
+            }
+            else if (phase == Pass.HISTOGRAM)
+                pass.histogram(l);
+            else
+                pass.scatter(l);
+        }
+    }
+
+    /**
+     * State of a sort, shared by the block tasks of each pass.
+     */
+    abstract static class Pass {
+        static final int HISTOGRAM = 0, SCATTER = 1;
+
+        final int n;               // number of keys
+        final int nblocks;
+        final int[] counts;        // RADIX per block, then offsets
+        int[] idx, idxBuf;         // moved along with keys, or null
+        int shift;                 // of the current digit
+        int flip;                  // xor-ed into the current digit
+
+        Pass(int n, int[] idx) {
+            this.n = n;
+            this.nblocks = blocks(n);
+            this.counts = new int[nblocks * RADIX];
+            if ((this.idx = idx) != null)
+                this.idxBuf = new int[n];
+        }
+
+        /** Returns the start of the given block. */
+        final int blockStart(int b) {
+            return (int)((long)n * b / nblocks);
+        }
+
+        abstract void histogram(int b);
+
+        abstract void scatter(int b);
+
+        /** Swaps the source and destination buffers after a scatter. */
+        abstract void swap();
+
+        /** Number of digits of a key. */
+        abstract int digits();
+
+        /**
+         * Sorts the keys, returning true if the sorted keys (and
+         * indices) are in the buffers rather than the original arrays.
+         */
+        final boolean sort(boolean signed) {
+            int digits = digits();
+            boolean swapped = false;
+            for (int d = 0; d < digits; ++d) {
+                shift = d * DIGIT_BITS;
+                flip = (signed && d == digits - 1) ? RADIX >>> 1 : 0;
+                run(HISTOGRAM);
+                if (offsets()) {
+                    run(SCATTER);
+                    swap();
+                    if (idx != null) {
+                        int[] t = idx; idx = idxBuf; idxBuf = t;
+                    }
+                    swapped = !swapped;
+                }
+            }
+            return swapped;
+        }
+
+        private void run(int phase) {
+            if (nblocks == 1) {
+                if (phase == HISTOGRAM)
+                    histogram(0);
+                else
+                    scatter(0);
+            }
+            else
+                new BlockTask(this, phase, 0, nblocks).invoke();
+        }
+
+        /**
+         * Replaces the counts by the offsets of each block and digit
+         * value.  Returns false if all keys have the same digit, in
+         * which case the pass is skipped.
+         */
+        private boolean offsets() {
+            final int[] c = counts;
+            final int nb = nblocks;
+            int sum = 0;
+            for (int v = 0; v < RADIX; ++v) {
+                int total = 0;
+                for (int b = 0, i = v; b < nb; ++b, i += RADIX) {
+                    int k = c[i];
+                    c[i] = sum + total;
+                    total += k;
+                }
+                if (total == n)
+                    return false;
+                sum += total;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A sort of the int keys a[base, base + n), using a buffer of n keys.
+     */
+    static final class IntPass extends Pass {
+        int[] src, dst;
+        int srcBase, dstBase;
+
+        IntPass(int[] a, int base, int n, int[] idx) {
+            super(n, idx);
+            this.src = a; this.srcBase = base;
+            this.dst = new int[n]; this.dstBase = 0;
+        }
+
+        int digits() { return 32 / DIGIT_BITS; }
+
+        void histogram(int blk) {
+            final int[] c = counts, a = src;
+            final int s = shift, f = flip, o = blk * RADIX;
+            Arrays.fill(c, o, o + RADIX, 0);
+            for (int i = srcBase + blockStart(blk),
+                     end = srcBase + blockStart(blk + 1); i < end; ++i)
+                ++c[o + (((a[i] >>> s) & (RADIX - 1)) ^ f)];
+        }
+
+        void scatter(int blk) {
+            final int[] c = counts, a = src, t = dst, x = idx, y = idxBuf;
+            final int s = shift, f = flip, o = blk * RADIX;
+            final int sb = srcBase, db = dstBase;
+            int lo = blockStart(blk), hi = blockStart(blk + 1);
+            if (x == null) {
+                for (int i = sb + lo, end = sb + hi; i < end; ++i) {
+                    int k = a[i];
+                    t[db + c[o + (((k >>> s) & (RADIX - 1)) ^ f)]++] = k;
+                }
+            }
+            else {
+                for (int i = lo; i < hi; ++i) {
+                    int k = a[sb + i];
+                    int p = c[o + (((k >>> s) & (RADIX - 1)) ^ f)]++;
+                    t[db + p] = k;
+                    y[p] = x[i];
+                }
+            }
+        }
+
+        void swap() {
+            int[] t = src; src = dst; dst = t;
+            int tb = srcBase; srcBase = dstBase; dstBase = tb;
+        }
+
+        /**
+         * Sorts and leaves the keys (and indices) in the original
+         * arrays.
+         */
+        void sortInPlace(boolean signed, int[] a, int[] idx) {
+            if (sort(signed)) {
+                // Keys are in the buffer; the original array is dst
+                System.arraycopy(src, srcBase, a, dstBase, n);
+                if (idx != null)
+                    System.arraycopy(this.idx, 0, idx, 0, n);
+            }
+        }
+    }
+
+    /**
+     * A sort of the long keys a[base, base + n), using a buffer of n keys.
+     */
+    static final class LongPass extends Pass {
+        long[] src, dst;
+        int srcBase, dstBase;
+
+        LongPass(long[] a, int base, int n, int[] idx) {
+            super(n, idx);
+            this.src = a; this.srcBase = base;
+            this.dst = new long[n]; this.dstBase = 0;
+        }
+
+        int digits() { return 64 / DIGIT_BITS; }
+
+        void histogram(int blk) {
+            final int[] c = counts;
+            final long[] a = src;
+            final int s = shift, f = flip, o = blk * RADIX;
+            Arrays.fill(c, o, o + RADIX, 0);
+            for (int i = srcBase + blockStart(blk),
+                     end = srcBase + blockStart(blk + 1); i < end; ++i)
+                ++c[o + (((int)(a[i] >>> s) & (RADIX - 1)) ^ f)];
+        }
+
+        void scatter(int blk) {
+            final int[] c = counts, x = idx, y = idxBuf;
+            final long[] a = src, t = dst;
+            final int s = shift, f = flip, o = blk * RADIX;
+            final int sb = srcBase, db = dstBase;
+            int lo = blockStart(blk), hi = blockStart(blk + 1);
+            if (x == null) {
+                for (int i = sb + lo, end = sb + hi; i < end; ++i) {
+                    long k = a[i];
+                    t[db + c[o + (((int)(k >>> s) & (RADIX - 1)) ^ f)]++] = k;
+                }
+            }
+            else {
+                for (int i = lo; i < hi; ++i) {
+                    long k = a[sb + i];
+                    int p = c[o + (((int)(k >>> s) & (RADIX - 1)) ^ f)]++;
+                    t[db + p] = k;
+                    y[p] = x[i];
+                }
+            }
+        }
+
+        void swap() {
+            long[] t = src; src = dst; dst = t;
+            int tb = srcBase; srcBase = dstBase; dstBase = tb;
+        }
+
+        void sortInPlace(boolean signed, long[] a, int[] idx) {
+            if (sort(signed)) {
+                System.arraycopy(src, srcBase, a, dstBase, n);
+                if (idx != null)
+                    System.arraycopy(this.idx, 0, idx, 0, n);
+            }
+        }
+    }
+
+    // Entry points; ranges are already checked and non-trivial
+
+    static void sort(int[] a, int lo, int hi) {
+        new IntPass(a, lo, hi - lo, null).sortInPlace(true, a, null);
+    }
+
+    static void sort(long[] a, int lo, int hi) {
+        new LongPass(a, lo, hi - lo, null).sortInPlace(true, a, null);
+    }
+
+    static void sort(float[] a, int lo, int hi) {
+        // Move NaNs to the end, as Arrays.sort does, keeping their bits
+        while (lo < hi && Float.isNaN(a[hi - 1]))
+            --hi;
+        for (int k = hi - 1; --k >= lo; ) {
+            float ak = a[k];
+            if (ak != ak) {
+                a[k] = a[--hi];
+                a[hi] = ak;
+            }
+        }
+        int n = hi - lo;
+        int[] keys = new int[n];
+        for (int i = 0; i < n; ++i)
+            keys[i] = floatKey(a[lo + i]);
+        new IntPass(keys, 0, n, null).sortInPlace(false, keys, null);
+        for (int i = 0; i < n; ++i)
+            a[lo + i] = keyToFloat(keys[i]);
+    }
+
+    static void sort(double[] a, int lo, int hi) {
+        while (lo < hi && Double.isNaN(a[hi - 1]))
+            --hi;
+        for (int k = hi - 1; --k >= lo; ) {
+            double ak = a[k];
+            if (ak != ak) {
+                a[k] = a[--hi];
+                a[hi] = ak;
+            }
+        }
+        int n = hi - lo;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; ++i)
+            keys[i] = doubleKey(a[lo + i]);
+        new LongPass(keys, 0, n, null).sortInPlace(false, keys, null);
+        for (int i = 0; i < n; ++i)
+            a[lo + i] = keyToDouble(keys[i]);
+    }
+
+    static int[] identity(int n) {
+        int[] idx = new int[n];
+        for (int i = 0; i < n; ++i)
+            idx[i] = i;
+        return idx;
+    }
+
+    static int[] argsort(int[] a) {
+        int n = a.length;
+        int[] idx = identity(n);
+        if (n > 1) {
+            int[] keys = a.clone();
+            new IntPass(keys, 0, n, idx).sortInPlace(true, keys, idx);
+        }
+        return idx;
+    }
+
+    static int[] argsort(long[] a) {
+        int n = a.length;
+        int[] idx = identity(n);
+        if (n > 1) {
+            long[] keys = a.clone();
+            new LongPass(keys, 0, n, idx).sortInPlace(true, keys, idx);
+        }
+        return idx;
+    }
+
+    static int[] argsort(float[] a) {
+        int n = a.length;
+        int[] idx = identity(n);
+        if (n > 1) {
+            int[] keys = new int[n];
+            for (int i = 0; i < n; ++i) {
+                float f = a[i];
+                keys[i] = (f != f) ? -1 : floatKey(f); // NaNs last
+            }
+            new IntPass(keys, 0, n, idx).sortInPlace(false, keys, idx);
+        }
+        return idx;
+    }
+
+    static int[] argsort(double[] a) {
+        int n = a.length;
+        int[] idx = identity(n);
+        if (n > 1) {
+            long[] keys = new long[n];
+            for (int i = 0; i < n; ++i) {
+                double d = a[i];
+                keys[i] = (d != d) ? -1L : doubleKey(d); // NaNs last
+            }
+            new LongPass(keys, 0, n, idx).sortInPlace(false, keys, idx);
+        }
+        return idx;
+    }
+}
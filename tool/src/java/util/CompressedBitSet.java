@@ -0,0 +1,2070 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compressed set of bits, indexed by nonnegative integers, with the
+ * operations of {@link BitSet}.  Unlike a {@code BitSet}, whose size
+ * is proportional to the index of its highest set bit, the size of a
+ * {@code CompressedBitSet} depends on the number of set bits and on how
+ * they are clustered, so that large sparse sets and large sets made of
+ * long runs remain small, and logical operations on them take time
+ * proportional to their compressed size.
+ *
+ * <p>The indices are divided into chunks of 65536 consecutive bits,
+ * identified by the upper 16 bits of the index.  Each chunk that
+ * contains at least one set bit is held in one of three kinds of
+ * containers, following the Roaring bitmap design:
+ * <ul>
+ * <li>an <em>array container</em> holds the sorted lower 16 bits of at
+ *     most 4096 set bits, using two bytes per set bit;
+ * <li>a <em>bitmap container</em> holds more than 4096 set bits as a
+ *     plain bitmap of 8 kilobytes;
+ * <li>a <em>run container</em> holds the set bits as a sorted list of
+ *     runs of consecutive set bits, using four bytes per run.
+ * </ul>
+ * Array and bitmap containers are converted into each other as bits
+ * are set and cleared.  Run containers are created by setting ranges of
+ * bits and by {@link #runOptimize}, which picks the smallest of the
+ * three representations for every chunk.
+ *
+ * <p>A {@code CompressedBitSet} can be stored in the portable format of
+ * the Roaring bitmap specification with {@link #serialize}, which
+ * allows exchanging it with other Roaring implementations as long as
+ * all indices are nonnegative {@code int} values.  A stored bit set
+ * can either be read with {@link #deserialize}, or used directly with
+ * {@link #map}, typically on a {@link java.nio.MappedByteBuffer}.  A
+ * mapped bit set reads its containers from the buffer without copying
+ * them, so it is available in time proportional to the number of
+ * chunks rather than to its size, and the operating system only loads
+ * the parts of the file that are used.  A container is copied to the
+ * heap when a mapped bit set is modified, so the buffer is never
+ * written.
+ *
+ * <p>Unless otherwise noted, passing a null parameter to any of the
+ * methods in a {@code CompressedBitSet} will result in a
+ * {@code NullPointerException}.
+ *
+ * <p>A {@code CompressedBitSet} is not safe for multithreaded use
+ * without external synchronization.
+ *
+ * @see BitSet
+ * @since 1.8
+ */
+public class CompressedBitSet implements Cloneable, java.io.Serializable {
+
+    private static final long serialVersionUID = -6521783590317298012L;
+
+    /** The number of bits in a chunk. */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /** The number of longs in a bitmap container. */
+    private static final int BITMAP_WORDS = CHUNK_SIZE >>> 6;
+
+    /** The maximum cardinality of an array container. */
+    private static final int ARRAY_MAX_SIZE = 4096;
+
+    /** The highest chunk key, as indices are nonnegative ints. */
+    private static final int MAX_KEY = Integer.MAX_VALUE >>> 16;
+
+    /*
+     * The serialized format, as defined by the Roaring format
+     * specification, consists of little-endian values:
+     *
+     * - a cookie: either the int SERIAL_COOKIE_NO_RUNCONTAINER followed
+     *   by the number n of containers as an int, or, if there are run
+     *   containers, the short SERIAL_COOKIE followed by n - 1 as a
+     *   short, followed by a bitset of (n + 7) / 8 bytes flagging the
+     *   run containers;
+     * - for each container, its key and its cardinality - 1, as shorts;
+     * - unless there are run containers and n < NO_OFFSET_THRESHOLD,
+     *   for each container the offset of its data from the start of
+     *   the serialized form, as an int;
+     * - the data of each container: the sorted values of an array
+     *   container as shorts, the 1024 longs of a bitmap container, or
+     *   the number of runs of a run container as a short followed by the
+     *   start and the length - 1 of each run as shorts.
+     *
+     * Containers that are not flagged as run containers are bitmap
+     * containers if their cardinality exceeds ARRAY_MAX_SIZE and array
+     * containers otherwise.
+     */
+    private static final int SERIAL_COOKIE_NO_RUNCONTAINER = 12346;
+    private static final int SERIAL_COOKIE = 12347;
+    private static final int NO_OFFSET_THRESHOLD = 4;
+
+    /**
+     * Intersections and differences of array containers are computed by
+     * merging unless the second array is this many times larger than the
+     * first, in which case the second array is binary searched.
+     */
+    private static final int MERGE_RATIO = 64;
+
+    private static final int ARRAY = 0;
+    private static final int BITMAP = 1;
+    private static final int RUN = 2;
+
+    /**
+     * The keys of the chunks in use, in ascending order, in the first
+     * size elements.
+     */
+    private transient char[] keys;
+
+    /**
+     * The containers of the chunks in use, corresponding to keys.
+     * Mutable containers are never shared between bit sets.
+     */
+    private transient Container[] containers;
+
+    /**
+     * The number of chunks in use.
+     */
+    private transient int size;
+
+    /**
+     * Creates a new empty bit set.
+     */
+    public CompressedBitSet() {
+        keys = new char[4];
+        containers = new Container[4];
+    }
+
+    /**
+     * Returns a new compressed bit set containing all the bits set in
+     * the given bit set.  The containers of the result are optimized as
+     * if by {@link #runOptimize}.
+     *
+     * @param set a bit set
+     * @return a {@code CompressedBitSet} containing the bits of the bit set
+     */
+    public static CompressedBitSet valueOf(BitSet set) {
+        CompressedBitSet result = new CompressedBitSet();
+        long[] longs = set.toLongArray();
+        for (int from = 0, key = 0; from < longs.length; from += BITMAP_WORDS, key++) {
+            long[] words = new long[BITMAP_WORDS];
+            System.arraycopy(longs, from, words, 0,
+                             Math.min(BITMAP_WORDS, longs.length - from));
+            Container c = optimize(fromWords(words));
+            if (c != null)
+                result.insertAt(result.size, key, c);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new {@code BitSet} containing all the bits set in this
+     * bit set.
+     *
+     * @return a {@code BitSet} containing the bits of this bit set
+     */
+    public BitSet toBitSet() {
+        int length = length();
+        long[] longs = new long[(length + 63) >>> 6];
+        long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < size; i++) {
+            Arrays.fill(words, 0L);
+            containers[i].orInto(words);
+            int from = keys[i] * BITMAP_WORDS;
+            System.arraycopy(words, 0, longs, from,
+                             Math.min(BITMAP_WORDS, longs.length - from));
+        }
+        return BitSet.valueOf(longs);
+    }
+
+    /**
+     * Checks that fromIndex ... toIndex is a valid range of bit indices.
+     */
+    private static void checkRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        if (toIndex < 0)
+            throw new IndexOutOfBoundsException("toIndex < 0: " + toIndex);
+        if (fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex +
+                                                " > toIndex: " + toIndex);
+    }
+
+    /**
+     * Returns the position of the chunk with the given key, or
+     * {@code -(insertion point) - 1} if there is none.
+     */
+    private int indexOf(int key) {
+        // Fast path for bits set in ascending order
+        int last = size - 1;
+        if (last >= 0 && keys[last] <= key)
+            return keys[last] == key ? last : -(size + 1);
+        return Arrays.binarySearch(keys, 0, size, (char) key);
+    }
+
+    private void insertAt(int i, int key, Container c) {
+        if (size == keys.length) {
+            int newLength = Math.max(4, size + (size >> 1));
+            keys = Arrays.copyOf(keys, newLength);
+            containers = Arrays.copyOf(containers, newLength);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = (char) key;
+        containers[i] = c;
+        size++;
+    }
+
+    private void removeAt(int i) {
+        size--;
+        System.arraycopy(keys, i + 1, keys, i, size - i);
+        System.arraycopy(containers, i + 1, containers, i, size - i);
+        containers[size] = null;
+    }
+
+    /**
+     * Stores the container c, which is null if it is empty, for the
+     * chunk with the given key at position i as returned by indexOf.
+     */
+    private void put(int i, int key, Container c) {
+        if (i >= 0) {
+            if (c == null)
+                removeAt(i);
+            else
+                containers[i] = c;
+        } else if (c != null) {
+            insertAt(-i - 1, key, c);
+        }
+    }
+
+    /**
+     * Sets the bit at the specified index to {@code true}.
+     *
+     * @param  bitIndex a bit index
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public void set(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+
+        int key = bitIndex >>> 16;
+        int i = indexOf(key);
+        if (i >= 0)
+            containers[i] = containers[i].set(bitIndex & 0xFFFF);
+        else
+            insertAt(-i - 1, key, new ArrayContainer().set(bitIndex & 0xFFFF));
+    }
+
+    /**
+     * Sets the bit at the specified index to the specified value.
+     *
+     * @param  bitIndex a bit index
+     * @param  value a boolean value to set
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public void set(int bitIndex, boolean value) {
+        if (value)
+            set(bitIndex);
+        else
+            clear(bitIndex);
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to {@code true}.
+     *
+     * @param  fromIndex index of the first bit to be set
+     * @param  toIndex index after the last bit to be set
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     */
+    public void set(int fromIndex, int toIndex) {
+        updateRange(fromIndex, toIndex, SET_RANGE);
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to the specified value.
+     *
+     * @param  fromIndex index of the first bit to be set
+     * @param  toIndex index after the last bit to be set
+     * @param  value value to set the selected bits to
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     */
+    public void set(int fromIndex, int toIndex, boolean value) {
+        updateRange(fromIndex, toIndex, value ? SET_RANGE : CLEAR_RANGE);
+    }
+
+    /**
+     * Sets the bit specified by the index to {@code false}.
+     *
+     * @param  bitIndex the index of the bit to be cleared
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public void clear(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+
+        int i = indexOf(bitIndex >>> 16);
+        if (i >= 0) {
+            Container c = containers[i].clear(bitIndex & 0xFFFF);
+            if (c.cardinality() == 0)
+                removeAt(i);
+            else
+                containers[i] = c;
+        }
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to {@code false}.
+     *
+     * @param  fromIndex index of the first bit to be cleared
+     * @param  toIndex index after the last bit to be cleared
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     */
+    public void clear(int fromIndex, int toIndex) {
+        updateRange(fromIndex, toIndex, CLEAR_RANGE);
+    }
+
+    /**
+     * Sets all of the bits in this bit set to {@code false}.
+     */
+    public void clear() {
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Sets the bit at the specified index to the complement of its
+     * current value.
+     *
+     * @param  bitIndex the index of the bit to flip
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public void flip(int bitIndex) {
+        if (get(bitIndex))
+            clear(bitIndex);
+        else
+            set(bitIndex);
+    }
+
+    /**
+     * Sets each bit from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to the complement of its current
+     * value.
+     *
+     * @param  fromIndex index of the first bit to flip
+     * @param  toIndex index after the last bit to flip
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     */
+    public void flip(int fromIndex, int toIndex) {
+        updateRange(fromIndex, toIndex, FLIP_RANGE);
+    }
+
+    private static final int SET_RANGE = 0;
+    private static final int CLEAR_RANGE = 1;
+    private static final int FLIP_RANGE = 2;
+
+    /**
+     * Sets, clears or flips the bits from fromIndex to toIndex - 1,
+     * chunk by chunk.
+     */
+    private void updateRange(int fromIndex, int toIndex, int op) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex)
+            return;
+
+        int firstKey = fromIndex >>> 16;
+        int lastKey = (toIndex - 1) >>> 16;
+        for (int key = firstKey; key <= lastKey; key++) {
+            int lo = (key == firstKey) ? fromIndex & 0xFFFF : 0;
+            int hi = (key == lastKey) ? ((toIndex - 1) & 0xFFFF) + 1 : CHUNK_SIZE;
+            int i = indexOf(key);
+            Container c = (i >= 0) ? containers[i] : null;
+            if (c == null && op == CLEAR_RANGE)
+                continue;
+            if (lo == 0 && hi == CHUNK_SIZE && op != FLIP_RANGE) {
+                put(i, key, (op == SET_RANGE) ? RunContainer.full() : null);
+                continue;
+            }
+            long[] words = (c != null) ? words(c) : new long[BITMAP_WORDS];
+            if (op == SET_RANGE)
+                setRange(words, lo, hi);
+            else if (op == CLEAR_RANGE)
+                clearRange(words, lo, hi);
+            else
+                flipRange(words, lo, hi);
+            put(i, key, optimize(fromWords(words)));
+        }
+    }
+
+    /**
+     * Returns the value of the bit with the specified index.
+     *
+     * @param  bitIndex the bit index
+     * @return the value of the bit with the specified index
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public boolean get(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+
+        int i = indexOf(bitIndex >>> 16);
+        return i >= 0 && containers[i].contains(bitIndex & 0xFFFF);
+    }
+
+    /**
+     * Returns the index of the first bit that is set to {@code true}
+     * that occurs on or after the specified starting index. If no such
+     * bit exists then {@code -1} is returned.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the next set bit, or {@code -1} if there
+     *         is no such bit
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     * @see BitSet#nextSetBit
+     */
+    public int nextSetBit(int fromIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+
+        int i = indexOf(fromIndex >>> 16);
+        if (i >= 0) {
+            int bit = containers[i].nextSetBit(fromIndex & 0xFFFF);
+            if (bit >= 0)
+                return (keys[i] << 16) | bit;
+            i++;
+        } else {
+            i = -i - 1;
+        }
+        return (i < size) ? (keys[i] << 16) | containers[i].nextSetBit(0) : -1;
+    }
+
+    /**
+     * Returns the index of the first bit that is set to {@code false}
+     * that occurs on or after the specified starting index.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the next clear bit
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public int nextClearBit(int fromIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+
+        int key = fromIndex >>> 16;
+        int i = indexOf(key);
+        if (i < 0)
+            return fromIndex;
+        int bit = containers[i].nextClearBit(fromIndex & 0xFFFF);
+        // Skip full chunks
+        while (bit == CHUNK_SIZE) {
+            key++;
+            i++;
+            if (i == size || keys[i] != key)
+                return key << 16;
+            bit = containers[i].nextClearBit(0);
+        }
+        return (key << 16) | bit;
+    }
+
+    /**
+     * Returns the index of the nearest bit that is set to {@code true}
+     * that occurs on or before the specified starting index.
+     * If no such bit exists, or if {@code -1} is given as the
+     * starting index, then {@code -1} is returned.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the previous set bit, or {@code -1} if there
+     *         is no such bit
+     * @throws IndexOutOfBoundsException if the specified index is less
+     *         than {@code -1}
+     */
+    public int previousSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1)
+                return -1;
+            throw new IndexOutOfBoundsException(
+                "fromIndex < -1: " + fromIndex);
+        }
+
+        int i = indexOf(fromIndex >>> 16);
+        if (i >= 0) {
+            int bit = containers[i].previousSetBit(fromIndex & 0xFFFF);
+            if (bit >= 0)
+                return (keys[i] << 16) | bit;
+            i--;
+        } else {
+            i = -i - 2;
+        }
+        return (i >= 0) ?
+            (keys[i] << 16) | containers[i].previousSetBit(CHUNK_SIZE - 1) : -1;
+    }
+
+    /**
+     * Returns the "logical size" of this bit set: the index of the
+     * highest set bit in the bit set plus one. Returns zero if the bit
+     * set contains no set bits.
+     *
+     * @return the logical size of this bit set
+     */
+    public int length() {
+        if (size == 0)
+            return 0;
+        return ((keys[size - 1] << 16) |
+                containers[size - 1].previousSetBit(CHUNK_SIZE - 1)) + 1;
+    }
+
+    /**
+     * Returns true if this bit set contains no bits that are set
+     * to {@code true}.
+     *
+     * @return boolean indicating whether this bit set is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of bits set to {@code true} in this bit set.
+     *
+     * @return the number of bits set to {@code true} in this bit set
+     */
+    public int cardinality() {
+        int sum = 0;
+        for (int i = 0; i < size; i++)
+            sum += containers[i].cardinality();
+        return sum;
+    }
+
+    /**
+     * Returns true if the specified bit set has any bits set to
+     * {@code true} that are also set to {@code true} in this bit set.
+     *
+     * @param  set bit set to intersect with
+     * @return boolean indicating whether this bit set intersects
+     *         the specified bit set
+     */
+    public boolean intersects(CompressedBitSet set) {
+        for (int i = 0, j = 0; i < size && j < set.size; ) {
+            if (keys[i] < set.keys[j]) {
+                i++;
+            } else if (keys[i] > set.keys[j]) {
+                j++;
+            } else {
+                if (intersects(containers[i], set.containers[j]))
+                    return true;
+                i++;
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Performs a logical <b>AND</b> of this target bit set with the
+     * argument bit set. This bit set is modified so that each bit in it
+     * has the value {@code true} if and only if it both initially
+     * had the value {@code true} and the corresponding bit in the
+     * bit set argument also had the value {@code true}.
+     *
+     * @param set a bit set
+     */
+    public void and(CompressedBitSet set) {
+        if (this == set)
+            return;
+
+        int n = 0;
+        for (int i = 0, j = 0; i < size && j < set.size; ) {
+            if (keys[i] < set.keys[j]) {
+                i++;
+            } else if (keys[i] > set.keys[j]) {
+                j++;
+            } else {
+                Container c = and(containers[i], set.containers[j]);
+                if (c != null) {
+                    keys[n] = keys[i];
+                    containers[n++] = c;
+                }
+                i++;
+                j++;
+            }
+        }
+        Arrays.fill(containers, n, size, null);
+        size = n;
+    }
+
+    /**
+     * Performs a logical <b>OR</b> of this bit set with the bit set
+     * argument. This bit set is modified so that a bit in it has the
+     * value {@code true} if and only if it either already had the
+     * value {@code true} or the corresponding bit in the bit set
+     * argument has the value {@code true}.
+     *
+     * @param set a bit set
+     */
+    public void or(CompressedBitSet set) {
+        if (this == set)
+            return;
+        merge(set, OR);
+    }
+
+    /**
+     * Performs a logical <b>XOR</b> of this bit set with the bit set
+     * argument. This bit set is modified so that a bit in it has the
+     * value {@code true} if and only if one of the following
+     * statements holds:
+     * <ul>
+     * <li>The bit initially has the value {@code true}, and the
+     *     corresponding bit in the argument has the value {@code false}.
+     * <li>The bit initially has the value {@code false}, and the
+     *     corresponding bit in the argument has the value {@code true}.
+     * </ul>
+     *
+     * @param  set a bit set
+     */
+    public void xor(CompressedBitSet set) {
+        if (this == set) {
+            clear();
+            return;
+        }
+        merge(set, XOR);
+    }
+
+    /**
+     * Clears all of the bits in this bit set whose corresponding
+     * bit is set in the specified bit set.
+     *
+     * @param  set the bit set with which to mask this bit set
+     */
+    public void andNot(CompressedBitSet set) {
+        if (this == set) {
+            clear();
+            return;
+        }
+        merge(set, AND_NOT);
+    }
+
+    private static final int OR = 0;
+    private static final int XOR = 1;
+    private static final int AND_NOT = 2;
+
+    /**
+     * Combines the chunks of this bit set and the given one into new
+     * arrays of keys and containers.  Chunks that only occur in the
+     * given set are copied for OR and XOR.
+     */
+    private void merge(CompressedBitSet set, int op) {
+        int capacity = (op == AND_NOT) ? size : size + set.size;
+        char[] newKeys = new char[Math.max(4, capacity)];
+        Container[] newContainers = new Container[newKeys.length];
+        int n = 0, i = 0, j = 0;
+        while (i < size || j < set.size) {
+            int k1 = (i < size) ? keys[i] : Integer.MAX_VALUE;
+            int k2 = (j < set.size) ? set.keys[j] : Integer.MAX_VALUE;
+            Container c;
+            if (k1 < k2) {
+                c = containers[i++];
+            } else if (k1 > k2) {
+                c = (op == AND_NOT) ? null : set.containers[j].share();
+                j++;
+            } else {
+                Container a = containers[i++], b = set.containers[j++];
+                c = (op == OR) ? or(a, b) : (op == XOR) ? xor(a, b) : andNot(a, b);
+            }
+            if (c != null) {
+                newKeys[n] = (char) Math.min(k1, k2);
+                newContainers[n++] = c;
+            }
+        }
+        keys = newKeys;
+        containers = newContainers;
+        size = n;
+    }
+
+    /**
+     * Converts the containers of this bit set into run containers if
+     * that makes them smaller, and run containers into array or bitmap
+     * containers otherwise.  This is worthwhile for bit sets that
+     * contain long runs of set bits and are not modified afterwards,
+     * especially before {@linkplain #serialize serializing} them.
+     *
+     * @return {@code true} if this bit set contains run containers
+     */
+    public boolean runOptimize() {
+        boolean hasRuns = false;
+        for (int i = 0; i < size; i++) {
+            Container c = optimize(containers[i]);
+            containers[i] = c;
+            hasRuns |= c.type() == RUN;
+        }
+        return hasRuns;
+    }
+
+    /**
+     * Returns the number of bytes needed to serialize this bit set.
+     *
+     * @return the size of the serialized form of this bit set
+     * @see #serialize
+     */
+    public int serializedSize() {
+        boolean hasRuns = false;
+        int sum = 0;
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            hasRuns |= c.type() == RUN;
+            sum += c.serializedSize();
+        }
+        return headerSize(size, hasRuns) + sum;
+    }
+
+    private static int headerSize(int n, boolean hasRuns) {
+        if (!hasRuns)
+            return 8 + 8 * n;
+        return 4 + (n + 7) / 8 + 4 * n + (n >= NO_OFFSET_THRESHOLD ? 4 * n : 0);
+    }
+
+    /**
+     * Writes this bit set in the portable Roaring format to the given
+     * buffer, starting at its current position, which is then advanced
+     * by {@link #serializedSize()} bytes.  The byte order of the buffer
+     * is ignored, as the format is always little-endian.  The format
+     * records whether each chunk is held in an array, bitmap or run
+     * container, so it may be worth calling {@link #runOptimize} first.
+     *
+     * @param  buffer the buffer to write to
+     * @throws BufferOverflowException if fewer than
+     *         {@code serializedSize()} bytes remain in the buffer
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+     */
+    public void serialize(ByteBuffer buffer) {
+        int length = serializedSize();
+        if (buffer.remaining() < length)
+            throw new BufferOverflowException();
+        ByteBuffer out = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        boolean hasRuns = false;
+        for (int i = 0; i < size; i++)
+            hasRuns |= containers[i].type() == RUN;
+        if (hasRuns) {
+            out.putInt(SERIAL_COOKIE | ((size - 1) << 16));
+            byte[] runFlags = new byte[(size + 7) / 8];
+            for (int i = 0; i < size; i++) {
+                if (containers[i].type() == RUN)
+                    runFlags[i >>> 3] |= 1 << (i & 7);
+            }
+            out.put(runFlags);
+        } else {
+            out.putInt(SERIAL_COOKIE_NO_RUNCONTAINER);
+            out.putInt(size);
+        }
+        for (int i = 0; i < size; i++) {
+            out.putChar(keys[i]);
+            out.putChar((char) (containers[i].cardinality() - 1));
+        }
+        if (!hasRuns || size >= NO_OFFSET_THRESHOLD) {
+            int offset = headerSize(size, hasRuns);
+            for (int i = 0; i < size; i++) {
+                out.putInt(offset);
+                offset += containers[i].serializedSize();
+            }
+        }
+        for (int i = 0; i < size; i++)
+            containers[i].serialize(out);
+
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Reads a bit set in the portable Roaring format from the given
+     * buffer, starting at its current position, which is then advanced
+     * past the bit set.  The bit set is copied from the buffer.
+     *
+     * @param  buffer the buffer to read from
+     * @return the bit set
+     * @throws IllegalArgumentException if the buffer does not contain a
+     *         valid serialized bit set, or if it contains indices
+     *         greater than {@code Integer.MAX_VALUE}
+     * @see #serialize
+     */
+    public static CompressedBitSet deserialize(ByteBuffer buffer) {
+        return read(buffer, true);
+    }
+
+    /**
+     * Returns a bit set backed by a bit set in the portable Roaring
+     * format in the given buffer, starting at its current position,
+     * which is then advanced past the bit set.  Only the headers of the
+     * format are read; the containers are accessed in the buffer when
+     * they are used.  The buffer must not be modified while the
+     * returned bit set is in use.  The returned bit set may be modified
+     * like any other, which copies the affected containers and never
+     * writes to the buffer.
+     *
+     * <p>The contents of the containers are not validated; if they are
+     * inconsistent with the format, the results of the operations on
+     * the bit set are undefined, but all accesses remain within the
+     * bounds of the serialized bit set.
+     *
+     * @param  buffer the buffer to read from, typically a
+     *         {@link java.nio.MappedByteBuffer}
+     * @return the bit set
+     * @throws IllegalArgumentException if the buffer does not contain a
+     *         valid serialized bit set, or if it contains indices
+     *         greater than {@code Integer.MAX_VALUE}
+     * @see #serialize
+     */
+    public static CompressedBitSet map(ByteBuffer buffer) {
+        return read(buffer, false);
+    }
+
+    private static CompressedBitSet read(ByteBuffer buffer, boolean copy) {
+        ByteBuffer in = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int limit = in.limit();
+        check(limit >= 4);
+        int cookie = in.getInt(0);
+        int n, pos, runFlags;
+        if ((cookie & 0xFFFF) == SERIAL_COOKIE) {
+            n = (cookie >>> 16) + 1;
+            runFlags = 4;
+            pos = 4 + (n + 7) / 8;
+        } else if (cookie == SERIAL_COOKIE_NO_RUNCONTAINER) {
+            check(limit >= 8);
+            n = in.getInt(4);
+            check(n >= 0 && n <= MAX_KEY + 1);
+            runFlags = -1;
+            pos = 8;
+        } else {
+            throw new IllegalArgumentException("Not a serialized bit set");
+        }
+        int header = pos;
+        pos += 4 * n;
+        int offsets = -1;
+        if (runFlags < 0 || n >= NO_OFFSET_THRESHOLD) {
+            offsets = pos;
+            pos += 4 * n;
+        }
+        check(pos <= limit);
+
+        CompressedBitSet set = new CompressedBitSet();
+        set.keys = new char[Math.max(4, n)];
+        set.containers = new Container[set.keys.length];
+        int end = pos;
+        for (int i = 0; i < n; i++) {
+            int key = in.getChar(header + 4 * i);
+            int cardinality = in.getChar(header + 4 * i + 2) + 1;
+            check(i == 0 || key > set.keys[i - 1]);
+            if (key > MAX_KEY)
+                throw new IllegalArgumentException("Bit index out of range");
+            boolean run = runFlags >= 0 &&
+                (in.get(runFlags + (i >>> 3)) & (1 << (i & 7))) != 0;
+            int offset = (offsets >= 0) ? in.getInt(offsets + 4 * i) : end;
+            check(offset >= 0 && offset <= limit - 2);
+            Container c;
+            int length;
+            if (run) {
+                int runs = in.getChar(offset);
+                c = new MappedRunContainer(in, offset, runs, cardinality);
+                length = 2 + 4 * runs;
+            } else if (cardinality <= ARRAY_MAX_SIZE) {
+                c = new MappedArrayContainer(in, offset, cardinality);
+                length = 2 * cardinality;
+            } else {
+                c = new MappedBitmapContainer(in, offset, cardinality);
+                length = 8 * BITMAP_WORDS;
+            }
+            check(length <= limit - offset);
+            end = Math.max(end, offset + length);
+            set.keys[i] = (char) key;
+            set.containers[i] = copy ? c.copy() : c;
+        }
+        set.size = n;
+        buffer.position(buffer.position() + end);
+        return set;
+    }
+
+    private static void check(boolean valid) {
+        if (!valid)
+            throw new IllegalArgumentException("Malformed serialized bit set");
+    }
+
+    /**
+     * Returns a stream of indices for which this bit set contains a bit
+     * in the set state. The indices are returned in order, from lowest
+     * to highest. The size of the stream is the number of bits in the
+     * set state, equal to the value returned by the {@link #cardinality()}
+     * method.
+     *
+     * <p>The bit set must remain constant during the execution of the
+     * terminal stream operation.  Otherwise, the result of the terminal
+     * stream operation is undefined.
+     *
+     * @return a stream of integers representing set indices
+     */
+    public IntStream stream() {
+        class BitSetIterator implements PrimitiveIterator.OfInt {
+            int next = nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next != -1;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next != -1) {
+                    int ret = next;
+                    next = (next == Integer.MAX_VALUE) ? -1 : nextSetBit(next+1);
+                    return ret;
+                } else {
+                    throw new NoSuchElementException();
+                }
+            }
+        }
+
+        return StreamSupport.intStream(
+                () -> Spliterators.spliterator(
+                        new BitSetIterator(), cardinality(),
+                        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED),
+                Spliterator.SIZED | Spliterator.SUBSIZED |
+                        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED,
+                false);
+    }
+
+    /**
+     * Returns the hash code value for this bit set. The hash code
+     * depends only on which bits are set, not on how they are stored.
+     *
+     * @return the hash code value for this bit set
+     */
+    public int hashCode() {
+        int h = 1234;
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            int base = keys[i] << 16;
+            for (int bit = c.nextSetBit(0); bit >= 0; bit = c.nextSetBit(bit + 1))
+                h = 31 * h + (base | bit);
+        }
+        return h;
+    }
+
+    /**
+     * Compares this object against the specified object.
+     * The result is {@code true} if and only if the argument is
+     * not {@code null} and is a {@code CompressedBitSet} object that has
+     * exactly the same set of bits set to {@code true} as this bit
+     * set.
+     *
+     * @param  obj the object to compare with
+     * @return {@code true} if the objects are the same;
+     *         {@code false} otherwise
+     */
+    public boolean equals(Object obj) {
+        if (!(obj instanceof CompressedBitSet))
+            return false;
+        if (this == obj)
+            return true;
+
+        CompressedBitSet set = (CompressedBitSet) obj;
+        if (size != set.size)
+            return false;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != set.keys[i] ||
+                !contentEquals(containers[i], set.containers[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Cloning this bit set produces a new bit set that is equal to it.
+     * Containers mapped from a buffer are shared with the clone.
+     *
+     * @return a clone of this bit set
+     */
+    public Object clone() {
+        try {
+            CompressedBitSet result = (CompressedBitSet) super.clone();
+            result.keys = keys.clone();
+            result.containers = containers.clone();
+            for (int i = 0; i < size; i++)
+                result.containers[i] = containers[i].share();
+            return result;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Returns a string representation of this bit set, in the same
+     * format as {@link BitSet#toString}.
+     *
+     * @return a string representation of this bit set
+     */
+    public String toString() {
+        StringBuilder b = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            int base = keys[i] << 16;
+            for (int bit = c.nextSetBit(0); bit >= 0; bit = c.nextSetBit(bit + 1)) {
+                if (b.length() > 1)
+                    b.append(", ");
+                b.append(base | bit);
+            }
+        }
+        return b.append('}').toString();
+    }
+
+    /**
+     * Saves the state of the {@code CompressedBitSet} instance to a
+     * stream (that is, serializes it).
+     *
+     * @serialData The length of the portable Roaring format of the bit
+     *             set ({@code int}), followed by the bytes of that
+     *             format, as written by {@link #serialize}.
+     */
+    private void writeObject(ObjectOutputStream s) throws IOException {
+        s.defaultWriteObject();
+        byte[] bytes = new byte[serializedSize()];
+        serialize(ByteBuffer.wrap(bytes));
+        s.writeInt(bytes.length);
+        s.write(bytes);
+    }
+
+    /**
+     * Reconstitutes the {@code CompressedBitSet} instance from a stream
+     * (that is, deserializes it).
+     */
+    private void readObject(ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        int length = s.readInt();
+        if (length < 0)
+            throw new StreamCorruptedException("Invalid length: " + length);
+        byte[] bytes = new byte[length];
+        s.readFully(bytes);
+        try {
+            CompressedBitSet set = deserialize(ByteBuffer.wrap(bytes));
+            keys = set.keys;
+            containers = set.containers;
+            size = set.size;
+        } catch (IllegalArgumentException e) {
+            throw new StreamCorruptedException(e.getMessage());
+        }
+    }
+
+    // Operations on containers
+
+    /**
+     * Returns the words of a bitmap with the bits of the container.
+     */
+    private static long[] words(Container c) {
+        long[] words = new long[BITMAP_WORDS];
+        c.orInto(words);
+        return words;
+    }
+
+    /**
+     * Returns an array or bitmap container with the bits set in the
+     * given words, which it may use, or null if no bit is set.
+     */
+    private static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long w : words)
+            cardinality += Long.bitCount(w);
+        if (cardinality == 0)
+            return null;
+        if (cardinality > ARRAY_MAX_SIZE)
+            return new BitmapContainer(words, cardinality);
+
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            for (long w = words[i]; w != 0; w &= w - 1)
+                values[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(w));
+        }
+        return new ArrayContainer(values, cardinality);
+    }
+
+    /**
+     * Returns the smallest kind of container for the bits of the given
+     * container, which may be null.
+     */
+    private static Container optimize(Container c) {
+        if (c == null)
+            return null;
+        int cardinality = c.cardinality();
+        int runSize = 2 + 4 * c.numberOfRuns();
+        int otherSize = (cardinality <= ARRAY_MAX_SIZE) ? 2 * cardinality : 8 * BITMAP_WORDS;
+        if (runSize < otherSize) {
+            if (c.type() == RUN)
+                return c;
+            return RunContainer.of(c);
+        }
+        return (c.type() == RUN) ? fromWords(words(c)) : c;
+    }
+
+    private static void setRange(long[] words, int from, int to) {
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        long firstMask = -1L << from, lastMask = -1L >>> -to;
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+        } else {
+            words[first] |= firstMask;
+            for (int i = first + 1; i < last; i++)
+                words[i] = -1L;
+            words[last] |= lastMask;
+        }
+    }
+
+    private static void clearRange(long[] words, int from, int to) {
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        long firstMask = -1L << from, lastMask = -1L >>> -to;
+        if (first == last) {
+            words[first] &= ~(firstMask & lastMask);
+        } else {
+            words[first] &= ~firstMask;
+            for (int i = first + 1; i < last; i++)
+                words[i] = 0L;
+            words[last] &= ~lastMask;
+        }
+    }
+
+    private static void flipRange(long[] words, int from, int to) {
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        long firstMask = -1L << from, lastMask = -1L >>> -to;
+        if (first == last) {
+            words[first] ^= firstMask & lastMask;
+        } else {
+            words[first] ^= firstMask;
+            for (int i = first + 1; i < last; i++)
+                words[i] = ~words[i];
+            words[last] ^= lastMask;
+        }
+    }
+
+    private static boolean intersects(Container a, Container b) {
+        if (b instanceof ArrayBase) {
+            Container t = a; a = b; b = t;
+        }
+        if (a instanceof ArrayBase) {
+            ArrayBase x = (ArrayBase) a;
+            for (int i = 0, n = x.cardinality(); i < n; i++) {
+                if (b.contains(x.value(i)))
+                    return true;
+            }
+            return false;
+        }
+        if (b instanceof RunBase) {
+            Container t = a; a = b; b = t;
+        }
+        if (a instanceof RunBase) {
+            RunBase x = (RunBase) a;
+            for (int i = 0, n = x.runs(); i < n; i++) {
+                int bit = b.nextSetBit(x.start(i));
+                if (bit < 0)
+                    return false;
+                if (bit <= x.last(i))
+                    return true;
+            }
+            return false;
+        }
+        BitmapBase x = (BitmapBase) a, y = (BitmapBase) b;
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            if ((x.word(i) & y.word(i)) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    private static Container and(Container a, Container b) {
+        if (b instanceof ArrayBase &&
+            (!(a instanceof ArrayBase) || b.cardinality() < a.cardinality())) {
+            Container t = a; a = b; b = t;
+        }
+        if (a instanceof ArrayBase) {
+            ArrayBase x = (ArrayBase) a;
+            int n1 = x.cardinality();
+            char[] values = new char[n1];
+            int n = 0;
+            if (b instanceof ArrayBase && b.cardinality() < MERGE_RATIO * n1) {
+                // Merge arrays of similar size
+                ArrayBase y = (ArrayBase) b;
+                int n2 = y.cardinality();
+                for (int i = 0, j = 0; i < n1 && j < n2; ) {
+                    int v1 = x.value(i), v2 = y.value(j);
+                    if (v1 < v2) {
+                        i++;
+                    } else if (v1 > v2) {
+                        j++;
+                    } else {
+                        values[n++] = (char) v1;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                // Look up the values of the smaller array
+                for (int i = 0; i < n1; i++) {
+                    int v = x.value(i);
+                    if (b.contains(v))
+                        values[n++] = (char) v;
+                }
+            }
+            return (n == 0) ? null : new ArrayContainer(values, n);
+        }
+        if (a instanceof RunBase && b instanceof RunBase) {
+            RunBase x = (RunBase) a, y = (RunBase) b;
+            int n1 = x.runs(), n2 = y.runs();
+            char[] runs = new char[2 * (n1 + n2)];
+            int n = 0, cardinality = 0;
+            for (int i = 0, j = 0; i < n1 && j < n2; ) {
+                int start = Math.max(x.start(i), y.start(j));
+                int last = Math.min(x.last(i), y.last(j));
+                if (start <= last) {
+                    runs[2 * n] = (char) start;
+                    runs[2 * n + 1] = (char) (last - start);
+                    n++;
+                    cardinality += last - start + 1;
+                }
+                if (x.last(i) < y.last(j))
+                    i++;
+                else
+                    j++;
+            }
+            return (n == 0) ? null : optimize(new RunContainer(runs, n, cardinality));
+        }
+        long[] words;
+        if (a instanceof BitmapBase && b instanceof BitmapBase) {
+            BitmapBase x = (BitmapBase) a, y = (BitmapBase) b;
+            words = new long[BITMAP_WORDS];
+            for (int i = 0; i < BITMAP_WORDS; i++)
+                words[i] = x.word(i) & y.word(i);
+            return fromWords(words);
+        }
+        words = words(a);
+        long[] other = words(b);
+        for (int i = 0; i < BITMAP_WORDS; i++)
+            words[i] &= other[i];
+        return optimize(fromWords(words));
+    }
+
+    private static Container or(Container a, Container b) {
+        if (a.cardinality() == CHUNK_SIZE || b.cardinality() == CHUNK_SIZE)
+            return RunContainer.full();
+        if (a instanceof ArrayBase && b instanceof ArrayBase &&
+            a.cardinality() + b.cardinality() <= ARRAY_MAX_SIZE) {
+            ArrayBase x = (ArrayBase) a, y = (ArrayBase) b;
+            int n1 = x.cardinality(), n2 = y.cardinality();
+            char[] values = new char[n1 + n2];
+            int i = 0, j = 0, n = 0;
+            while (i < n1 && j < n2) {
+                int v1 = x.value(i), v2 = y.value(j);
+                if (v1 <= v2) {
+                    values[n++] = (char) v1;
+                    i++;
+                    if (v1 == v2)
+                        j++;
+                } else {
+                    values[n++] = (char) v2;
+                    j++;
+                }
+            }
+            while (i < n1)
+                values[n++] = (char) x.value(i++);
+            while (j < n2)
+                values[n++] = (char) y.value(j++);
+            return new ArrayContainer(values, n);
+        }
+        if (a instanceof RunBase && b instanceof RunBase) {
+            RunBase x = (RunBase) a, y = (RunBase) b;
+            int n1 = x.runs(), n2 = y.runs();
+            char[] runs = new char[2 * (n1 + n2)];
+            int n = 0, cardinality = 0;
+            int start = -1, last = -2;
+            for (int i = 0, j = 0; i < n1 || j < n2; ) {
+                RunBase r;
+                int k;
+                if (j == n2 || (i < n1 && x.start(i) <= y.start(j))) {
+                    r = x;
+                    k = i++;
+                } else {
+                    r = y;
+                    k = j++;
+                }
+                if (r.start(k) > last + 1) {
+                    // Emit the current run and start a new one
+                    if (start >= 0) {
+                        runs[2 * n] = (char) start;
+                        runs[2 * n + 1] = (char) (last - start);
+                        n++;
+                        cardinality += last - start + 1;
+                    }
+                    start = r.start(k);
+                }
+                last = Math.max(last, r.last(k));
+            }
+            runs[2 * n] = (char) start;
+            runs[2 * n + 1] = (char) (last - start);
+            n++;
+            cardinality += last - start + 1;
+            return optimize(new RunContainer(runs, n, cardinality));
+        }
+        long[] words = words(a);
+        b.orInto(words);
+        Container c = fromWords(words);
+        return (a instanceof RunBase || b instanceof RunBase) ? optimize(c) : c;
+    }
+
+    private static Container xor(Container a, Container b) {
+        if (a instanceof ArrayBase && b instanceof ArrayBase &&
+            a.cardinality() + b.cardinality() <= ARRAY_MAX_SIZE) {
+            ArrayBase x = (ArrayBase) a, y = (ArrayBase) b;
+            int n1 = x.cardinality(), n2 = y.cardinality();
+            char[] values = new char[n1 + n2];
+            int i = 0, j = 0, n = 0;
+            while (i < n1 && j < n2) {
+                int v1 = x.value(i), v2 = y.value(j);
+                if (v1 < v2) {
+                    values[n++] = (char) v1;
+                    i++;
+                } else if (v1 > v2) {
+                    values[n++] = (char) v2;
+                    j++;
+                } else {
+                    i++;
+                    j++;
+                }
+            }
+            while (i < n1)
+                values[n++] = (char) x.value(i++);
+            while (j < n2)
+                values[n++] = (char) y.value(j++);
+            return (n == 0) ? null : new ArrayContainer(values, n);
+        }
+        long[] words = words(a);
+        if (b instanceof BitmapBase) {
+            BitmapBase y = (BitmapBase) b;
+            for (int i = 0; i < BITMAP_WORDS; i++)
+                words[i] ^= y.word(i);
+        } else {
+            long[] other = words(b);
+            for (int i = 0; i < BITMAP_WORDS; i++)
+                words[i] ^= other[i];
+        }
+        Container c = fromWords(words);
+        return (a instanceof RunBase || b instanceof RunBase) ? optimize(c) : c;
+    }
+
+    private static Container andNot(Container a, Container b) {
+        if (a instanceof ArrayBase) {
+            ArrayBase x = (ArrayBase) a;
+            int n1 = x.cardinality();
+            char[] values = new char[n1];
+            int n = 0;
+            if (b instanceof ArrayBase && b.cardinality() < MERGE_RATIO * n1) {
+                ArrayBase y = (ArrayBase) b;
+                int n2 = y.cardinality();
+                int i = 0;
+                for (int j = 0; i < n1 && j < n2; ) {
+                    int v1 = x.value(i), v2 = y.value(j);
+                    if (v1 < v2) {
+                        values[n++] = (char) v1;
+                        i++;
+                    } else {
+                        if (v1 == v2)
+                            i++;
+                        j++;
+                    }
+                }
+                while (i < n1)
+                    values[n++] = (char) x.value(i++);
+            } else {
+                for (int i = 0; i < n1; i++) {
+                    int v = x.value(i);
+                    if (!b.contains(v))
+                        values[n++] = (char) v;
+                }
+            }
+            return (n == 0) ? null : new ArrayContainer(values, n);
+        }
+        long[] words = words(a);
+        if (b instanceof ArrayBase) {
+            ArrayBase y = (ArrayBase) b;
+            for (int i = 0, n = y.cardinality(); i < n; i++) {
+                int v = y.value(i);
+                words[v >>> 6] &= ~(1L << v);
+            }
+        } else if (b instanceof BitmapBase) {
+            BitmapBase y = (BitmapBase) b;
+            for (int i = 0; i < BITMAP_WORDS; i++)
+                words[i] &= ~y.word(i);
+        } else {
+            RunBase y = (RunBase) b;
+            for (int i = 0, n = y.runs(); i < n; i++)
+                clearRange(words, y.start(i), y.last(i) + 1);
+        }
+        Container c = fromWords(words);
+        return (a instanceof RunBase) ? optimize(c) : c;
+    }
+
+    private static boolean contentEquals(Container a, Container b) {
+        if (a.cardinality() != b.cardinality())
+            return false;
+        if (a instanceof BitmapBase && b instanceof BitmapBase) {
+            BitmapBase x = (BitmapBase) a, y = (BitmapBase) b;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                if (x.word(i) != y.word(i))
+                    return false;
+            }
+            return true;
+        }
+        // Same cardinality, so it suffices that b contains all bits of a
+        for (int bit = a.nextSetBit(0); bit >= 0; bit = a.nextSetBit(bit + 1)) {
+            if (!b.contains(bit))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * The bits of one chunk.  Bit positions are ints from 0 to
+     * CHUNK_SIZE - 1.  Containers mapped from a buffer are immutable;
+     * the mutators of all containers return the container that holds
+     * the result, which may be a new one of a different kind, and which
+     * may be empty after clear.
+     */
+    private static abstract class Container {
+        /** Returns the number of set bits. */
+        abstract int cardinality();
+
+        abstract boolean contains(int bit);
+
+        /** Returns the next set bit at or after from, or -1. */
+        abstract int nextSetBit(int from);
+
+        /** Returns the next clear bit at or after from, or CHUNK_SIZE. */
+        abstract int nextClearBit(int from);
+
+        /** Returns the previous set bit at or before from, or -1. */
+        abstract int previousSetBit(int from);
+
+        /** Sets the bits of this container in the given bitmap words. */
+        abstract void orInto(long[] words);
+
+        /** Returns the number of runs of consecutive set bits. */
+        abstract int numberOfRuns();
+
+        abstract Container set(int bit);
+
+        abstract Container clear(int bit);
+
+        /** Returns a mutable copy of this container. */
+        abstract Container copy();
+
+        /**
+         * Returns a container that may be used by another bit set, that
+         * is a copy of a mutable container or an immutable one itself.
+         */
+        Container share() {
+            return copy();
+        }
+
+        /** Returns ARRAY, BITMAP or RUN. */
+        abstract int type();
+
+        abstract int serializedSize();
+
+        /** Writes the data of this container to a little-endian buffer. */
+        abstract void serialize(ByteBuffer out);
+    }
+
+    /**
+     * A container holding the sorted bit positions.
+     */
+    private static abstract class ArrayBase extends Container {
+        int cardinality;
+
+        /** Returns the i-th smallest set bit. */
+        abstract int value(int i);
+
+        int indexOf(int bit) {
+            int lo = 0, hi = cardinality - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int v = value(mid);
+                if (v < bit)
+                    lo = mid + 1;
+                else if (v > bit)
+                    hi = mid - 1;
+                else
+                    return mid;
+            }
+            return -(lo + 1);
+        }
+
+        int cardinality() {
+            return cardinality;
+        }
+
+        boolean contains(int bit) {
+            return indexOf(bit) >= 0;
+        }
+
+        int nextSetBit(int from) {
+            int i = indexOf(from);
+            if (i < 0)
+                i = -i - 1;
+            return (i < cardinality) ? value(i) : -1;
+        }
+
+        int nextClearBit(int from) {
+            int bit = from;
+            for (int i = indexOf(from); i >= 0 && i < cardinality && value(i) == bit; i++)
+                bit++;
+            return bit;
+        }
+
+        int previousSetBit(int from) {
+            int i = indexOf(from);
+            if (i >= 0)
+                return from;
+            i = -i - 2;
+            return (i >= 0) ? value(i) : -1;
+        }
+
+        void orInto(long[] words) {
+            for (int i = 0; i < cardinality; i++) {
+                int v = value(i);
+                words[v >>> 6] |= 1L << v;
+            }
+        }
+
+        int numberOfRuns() {
+            int runs = 0, previous = -2;
+            for (int i = 0; i < cardinality; i++) {
+                int v = value(i);
+                if (v != previous + 1)
+                    runs++;
+                previous = v;
+            }
+            return runs;
+        }
+
+        ArrayContainer copy() {
+            char[] values = new char[Math.max(4, cardinality)];
+            for (int i = 0; i < cardinality; i++)
+                values[i] = (char) value(i);
+            return new ArrayContainer(values, cardinality);
+        }
+
+        int type() {
+            return ARRAY;
+        }
+
+        int serializedSize() {
+            return 2 * cardinality;
+        }
+
+        void serialize(ByteBuffer out) {
+            for (int i = 0; i < cardinality; i++)
+                out.putChar((char) value(i));
+        }
+    }
+
+    private static final class ArrayContainer extends ArrayBase {
+        char[] values;
+
+        ArrayContainer() {
+            values = new char[4];
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        int value(int i) {
+            return values[i];
+        }
+
+        int indexOf(int bit) {
+            if (bit >= CHUNK_SIZE)
+                return -(cardinality + 1);
+            return Arrays.binarySearch(values, 0, cardinality, (char) bit);
+        }
+
+        Container set(int bit) {
+            int i = (cardinality == 0 || values[cardinality - 1] < bit) ?
+                -(cardinality + 1) : indexOf(bit);
+            if (i >= 0)
+                return this;
+            if (cardinality == ARRAY_MAX_SIZE) {
+                long[] words = new long[BITMAP_WORDS];
+                orInto(words);
+                words[bit >>> 6] |= 1L << bit;
+                return new BitmapContainer(words, cardinality + 1);
+            }
+            i = -i - 1;
+            if (cardinality == values.length)
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX_SIZE, 2 * cardinality));
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = (char) bit;
+            cardinality++;
+            return this;
+        }
+
+        Container clear(int bit) {
+            int i = indexOf(bit);
+            if (i >= 0) {
+                cardinality--;
+                System.arraycopy(values, i + 1, values, i, cardinality - i);
+            }
+            return this;
+        }
+    }
+
+    private static final class MappedArrayContainer extends ArrayBase {
+        final ByteBuffer buffer;
+        final int offset;
+
+        MappedArrayContainer(ByteBuffer buffer, int offset, int cardinality) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.cardinality = cardinality;
+        }
+
+        int value(int i) {
+            return buffer.getChar(offset + (i << 1));
+        }
+
+        Container set(int bit) {
+            return contains(bit) ? this : copy().set(bit);
+        }
+
+        Container clear(int bit) {
+            return contains(bit) ? copy().clear(bit) : this;
+        }
+
+        Container share() {
+            return this;
+        }
+    }
+
+    /**
+     * A container holding a bitmap of BITMAP_WORDS words, with more than
+     * ARRAY_MAX_SIZE set bits.
+     */
+    private static abstract class BitmapBase extends Container {
+        int cardinality;
+
+        abstract long word(int i);
+
+        int cardinality() {
+            return cardinality;
+        }
+
+        boolean contains(int bit) {
+            return (word(bit >>> 6) & (1L << bit)) != 0;
+        }
+
+        int nextSetBit(int from) {
+            if (from >= CHUNK_SIZE)
+                return -1;
+            int u = from >>> 6;
+            long w = word(u) & (-1L << from);
+            while (w == 0) {
+                if (++u == BITMAP_WORDS)
+                    return -1;
+                w = word(u);
+            }
+            return (u << 6) + Long.numberOfTrailingZeros(w);
+        }
+
+        int nextClearBit(int from) {
+            if (from >= CHUNK_SIZE)
+                return CHUNK_SIZE;
+            int u = from >>> 6;
+            long w = ~word(u) & (-1L << from);
+            while (w == 0) {
+                if (++u == BITMAP_WORDS)
+                    return CHUNK_SIZE;
+                w = ~word(u);
+            }
+            return (u << 6) + Long.numberOfTrailingZeros(w);
+        }
+
+        int previousSetBit(int from) {
+            int u = from >>> 6;
+            long w = word(u) & (-1L >>> -(from + 1));
+            while (w == 0) {
+                if (u-- == 0)
+                    return -1;
+                w = word(u);
+            }
+            return ((u + 1) << 6) - 1 - Long.numberOfLeadingZeros(w);
+        }
+
+        void orInto(long[] words) {
+            for (int i = 0; i < BITMAP_WORDS; i++)
+                words[i] |= word(i);
+        }
+
+        int numberOfRuns() {
+            int runs = 0;
+            long previous = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long w = word(i);
+                // Count the set bits that are not preceded by a set bit
+                runs += Long.bitCount(w & ~((w << 1) | (previous >>> 63)));
+                previous = w;
+            }
+            return runs;
+        }
+
+        BitmapContainer copy() {
+            long[] words = new long[BITMAP_WORDS];
+            orInto(words);
+            return new BitmapContainer(words, cardinality);
+        }
+
+        int type() {
+            return BITMAP;
+        }
+
+        int serializedSize() {
+            return 8 * BITMAP_WORDS;
+        }
+
+        void serialize(ByteBuffer out) {
+            for (int i = 0; i < BITMAP_WORDS; i++)
+                out.putLong(word(i));
+        }
+    }
+
+    private static final class BitmapContainer extends BitmapBase {
+        final long[] words;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        long word(int i) {
+            return words[i];
+        }
+
+        Container set(int bit) {
+            long w = words[bit >>> 6];
+            long mask = 1L << bit;
+            if ((w & mask) == 0) {
+                words[bit >>> 6] = w | mask;
+                cardinality++;
+            }
+            return this;
+        }
+
+        Container clear(int bit) {
+            long w = words[bit >>> 6];
+            long mask = 1L << bit;
+            if ((w & mask) != 0) {
+                words[bit >>> 6] = w & ~mask;
+                if (--cardinality <= ARRAY_MAX_SIZE)
+                    return fromWords(words);
+            }
+            return this;
+        }
+    }
+
+    private static final class MappedBitmapContainer extends BitmapBase {
+        final ByteBuffer buffer;
+        final int offset;
+
+        MappedBitmapContainer(ByteBuffer buffer, int offset, int cardinality) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.cardinality = cardinality;
+        }
+
+        long word(int i) {
+            return buffer.getLong(offset + (i << 3));
+        }
+
+        Container set(int bit) {
+            return contains(bit) ? this : copy().set(bit);
+        }
+
+        Container clear(int bit) {
+            return contains(bit) ? copy().clear(bit) : this;
+        }
+
+        Container share() {
+            return this;
+        }
+    }
+
+    /**
+     * A container holding sorted, disjoint runs of set bits.
+     */
+    private static abstract class RunBase extends Container {
+        int cardinality;
+
+        abstract int runs();
+
+        abstract int start(int i);
+
+        /** Returns the last set bit of the i-th run. */
+        abstract int last(int i);
+
+        /** Returns the last run starting at or before bit, or -1. */
+        int find(int bit) {
+            int lo = 0, hi = runs() - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start(mid) <= bit)
+                    lo = mid + 1;
+                else
+                    hi = mid - 1;
+            }
+            return lo - 1;
+        }
+
+        int cardinality() {
+            return cardinality;
+        }
+
+        boolean contains(int bit) {
+            int i = find(bit);
+            return i >= 0 && bit <= last(i);
+        }
+
+        int nextSetBit(int from) {
+            int i = find(from);
+            if (i >= 0 && from <= last(i))
+                return from;
+            return (i + 1 < runs()) ? start(i + 1) : -1;
+        }
+
+        int nextClearBit(int from) {
+            int i = find(from);
+            if (i < 0 || from > last(i))
+                return from;
+            int bit = last(i) + 1;
+            while (i + 1 < runs() && start(i + 1) == bit)
+                bit = last(++i) + 1;
+            return bit;
+        }
+
+        int previousSetBit(int from) {
+            int i = find(from);
+            return (i >= 0) ? Math.min(from, last(i)) : -1;
+        }
+
+        void orInto(long[] words) {
+            for (int i = 0, n = runs(); i < n; i++)
+                setRange(words, start(i), last(i) + 1);
+        }
+
+        int numberOfRuns() {
+            return runs();
+        }
+
+        RunContainer copy() {
+            int n = runs();
+            char[] runs = new char[Math.max(4, 2 * n)];
+            for (int i = 0; i < n; i++) {
+                runs[2 * i] = (char) start(i);
+                runs[2 * i + 1] = (char) (last(i) - start(i));
+            }
+            return new RunContainer(runs, n, cardinality);
+        }
+
+        int type() {
+            return RUN;
+        }
+
+        int serializedSize() {
+            return 2 + 4 * runs();
+        }
+
+        void serialize(ByteBuffer out) {
+            int n = runs();
+            out.putChar((char) n);
+            for (int i = 0; i < n; i++) {
+                out.putChar((char) start(i));
+                out.putChar((char) (last(i) - start(i)));
+            }
+        }
+    }
+
+    private static final class RunContainer extends RunBase {
+        /** The start and length - 1 of each run. */
+        char[] runs;
+        int n;
+
+        RunContainer(char[] runs, int n, int cardinality) {
+            this.runs = runs;
+            this.n = n;
+            this.cardinality = cardinality;
+        }
+
+        static RunContainer full() {
+            return new RunContainer(new char[] { 0, CHUNK_SIZE - 1 }, 1, CHUNK_SIZE);
+        }
+
+        /**
+         * Returns a run container with the bits of the given container.
+         */
+        static RunContainer of(Container c) {
+            char[] runs = new char[2 * c.numberOfRuns()];
+            int n = 0;
+            for (int bit = c.nextSetBit(0); bit >= 0; ) {
+                int end = c.nextClearBit(bit);
+                runs[2 * n] = (char) bit;
+                runs[2 * n + 1] = (char) (end - bit - 1);
+                n++;
+                bit = (end < CHUNK_SIZE) ? c.nextSetBit(end) : -1;
+            }
+            return new RunContainer(runs, n, c.cardinality());
+        }
+
+        int runs() {
+            return n;
+        }
+
+        int start(int i) {
+            return runs[2 * i];
+        }
+
+        int last(int i) {
+            return runs[2 * i] + runs[2 * i + 1];
+        }
+
+        private void insertRun(int i, int start, int last) {
+            if (2 * n + 2 > runs.length)
+                runs = Arrays.copyOf(runs, 2 * (n + Math.max(2, n >> 1)));
+            System.arraycopy(runs, 2 * i, runs, 2 * i + 2, 2 * (n - i));
+            runs[2 * i] = (char) start;
+            runs[2 * i + 1] = (char) (last - start);
+            n++;
+        }
+
+        private void removeRun(int i) {
+            n--;
+            System.arraycopy(runs, 2 * i + 2, runs, 2 * i, 2 * (n - i));
+        }
+
+        /**
+         * Returns this container, or an array or bitmap container if that
+         * is smaller.
+         */
+        private Container checkSize() {
+            int otherSize = (cardinality <= ARRAY_MAX_SIZE) ?
+                2 * cardinality : 8 * BITMAP_WORDS;
+            if (cardinality == 0 || serializedSize() <= otherSize)
+                return this;
+            return fromWords(words(this));
+        }
+
+        Container set(int bit) {
+            int i = find(bit);
+            if (i >= 0 && bit <= last(i))
+                return this;
+            cardinality++;
+            boolean joinsPrevious = i >= 0 && last(i) + 1 == bit;
+            boolean joinsNext = i + 1 < n && start(i + 1) == bit + 1;
+            if (joinsPrevious && joinsNext) {
+                runs[2 * i + 1] = (char) (last(i + 1) - start(i));
+                removeRun(i + 1);
+            } else if (joinsPrevious) {
+                runs[2 * i + 1]++;
+            } else if (joinsNext) {
+                runs[2 * i + 2]--;
+                runs[2 * i + 3]++;
+            } else {
+                insertRun(i + 1, bit, bit);
+            }
+            return checkSize();
+        }
+
+        Container clear(int bit) {
+            int i = find(bit);
+            if (i < 0 || bit > last(i))
+                return this;
+            cardinality--;
+            int start = start(i), last = last(i);
+            if (start == last) {
+                removeRun(i);
+            } else if (bit == start) {
+                runs[2 * i]++;
+                runs[2 * i + 1]--;
+            } else if (bit == last) {
+                runs[2 * i + 1]--;
+            } else {
+                runs[2 * i + 1] = (char) (bit - 1 - start);
+                insertRun(i + 1, bit + 1, last);
+            }
+            return checkSize();
+        }
+    }
+
+    private static final class MappedRunContainer extends RunBase {
+        final ByteBuffer buffer;
+        final int offset;
+        final int runs;
+
+        MappedRunContainer(ByteBuffer buffer, int offset, int runs, int cardinality) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.runs = runs;
+            this.cardinality = cardinality;
+        }
+
+        int runs() {
+            return runs;
+        }
+
+        int start(int i) {
+            return buffer.getChar(offset + 2 + (i << 2));
+        }
+
+        int last(int i) {
+            int p = offset + 2 + (i << 2);
+            return Math.min(buffer.getChar(p) + buffer.getChar(p + 2), CHUNK_SIZE - 1);
+        }
+
+        Container set(int bit) {
+            return contains(bit) ? this : copy().set(bit);
+        }
+
+        Container clear(int bit) {
+            return contains(bit) ? copy().clear(bit) : this;
+        }
+
+        Container share() {
+            return this;
+        }
+    }
+}
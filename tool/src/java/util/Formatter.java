@@ -2503,38 +2503,66 @@ public final class Formatter implements Closeable, Flushable {
      */
     public Formatter format(Locale l, String format, Object ... args) {
         ensureOpen();
+        return print(parseCached(format), l, args);
+    }
 
+    /**
+     * Compiles the given format string into a {@link CompiledFormat} that
+     * can be applied to any number of argument lists, by any number of
+     * threads, without parsing the format string again.
+     *
+     * @param  format
+     *         A format string as described in <a href="#syntax">Format string
+     *         syntax</a>
+     *
+     * @throws  IllegalFormatException
+     *          If the format string contains an illegal syntax or a format
+     *          specifier with illegal flags, width, precision or conversion.
+     *          Errors that depend on the arguments are only detected when the
+     *          compiled format is applied.
+     *
+     * @return  The compiled format
+     *
+     * @since 1.8
+     */
+    public static CompiledFormat compile(String format) {
+        return new CompiledFormat(format, parse(format));
+    }
+
+    /**
+     * Writes the parsed format string to this object's destination.
+     */
+    private Formatter print(FormatString[] fsa, Locale l, Object[] args) {
         // index of last argument referenced
         int last = -1;
         // last ordinary index
         int lasto = -1;
 
-        FormatString[] fsa = parse(format);
         for (int i = 0; i < fsa.length; i++) {
             FormatString fs = fsa[i];
             int index = fs.index();
             try {
                 switch (index) {
                 case -2:  // fixed string, "%n", or "%%"
-                    fs.print(null, l);
+                    fs.print(this, null, l);
                     break;
                 case -1:  // relative index
                     if (last < 0 || (args != null && last > args.length - 1))
                         throw new MissingFormatArgumentException(fs.toString());
-                    fs.print((args == null ? null : args[last]), l);
+                    fs.print(this, (args == null ? null : args[last]), l);
                     break;
                 case 0:  // ordinary index
                     lasto++;
                     last = lasto;
                     if (args != null && lasto > args.length - 1)
                         throw new MissingFormatArgumentException(fs.toString());
-                    fs.print((args == null ? null : args[lasto]), l);
+                    fs.print(this, (args == null ? null : args[lasto]), l);
                     break;
                 default:  // explicit index
                     last = index - 1;
                     if (args != null && last > args.length - 1)
                         throw new MissingFormatArgumentException(fs.toString());
-                    fs.print((args == null ? null : args[last]), l);
+                    fs.print(this, (args == null ? null : args[last]), l);
                     break;
                 }
             } catch (IOException x) {
@@ -2550,10 +2578,36 @@ public final class Formatter implements Closeable, Flushable {
 
     private static Pattern fsPattern = Pattern.compile(formatSpecifier);
 
+    // The formatter enclosing the parsed format specifiers.  It is never
+    // written to: specifiers print through a copy bound to the formatter
+    // being used.
+    private static final Formatter parser = new Formatter((Locale) null,
+                                                          (Appendable) null);
+
+    // Bounded cache of parsed format strings, indexed by hash code.  Parsed
+    // format strings are immutable, so a race only costs a redundant parse.
+    private static final int CACHE_SIZE = 256;
+    private static final int MAX_CACHED_LENGTH = 512;
+    private static final CompiledFormat[] cache = new CompiledFormat[CACHE_SIZE];
+
+    /**
+     * Finds format specifiers in the format string, reusing the result of
+     * a previous parse of an equal string if it is still in the cache.
+     */
+    private static FormatString[] parseCached(String s) {
+        if (s.length() > MAX_CACHED_LENGTH)
+            return parse(s);
+        int i = s.hashCode() & (CACHE_SIZE - 1);
+        CompiledFormat cf = cache[i];
+        if (cf == null || !cf.format.equals(s))
+            cache[i] = cf = new CompiledFormat(s, parse(s));
+        return cf.fsa;
+    }
+
     /**
      * Finds format specifiers in the format string.
      */
-    private FormatString[] parse(String s) {
+    private static FormatString[] parse(String s) {
         ArrayList<FormatString> al = new ArrayList<>();
         Matcher m = fsPattern.matcher(s);
         for (int i = 0, len = s.length(); i < len; ) {
@@ -2568,7 +2622,7 @@ public final class Formatter implements Closeable, Flushable {
                     al.add(new FixedString(s.substring(i, m.start())));
                 }
 
-                al.add(new FormatSpecifier(m));
+                al.add(parser.new FormatSpecifier(m));
                 i = m.end();
             } else {
                 // No more valid format specifiers.  Check for possible invalid
@@ -2594,19 +2648,124 @@ public final class Formatter implements Closeable, Flushable {
 
     private interface FormatString {
         int index();
-        void print(Object arg, Locale l) throws IOException;
+        void print(Formatter fmt, Object arg, Locale l) throws IOException;
         String toString();
     }
 
-    private class FixedString implements FormatString {
-        private String s;
+    private static class FixedString implements FormatString {
+        private final String s;
         FixedString(String s) { this.s = s; }
         public int index() { return -2; }
-        public void print(Object arg, Locale l)
-            throws IOException { a.append(s); }
+        public void print(Formatter fmt, Object arg, Locale l)
+            throws IOException { fmt.a.append(s); }
         public String toString() { return s; }
     }
 
+    /**
+     * A format string compiled by {@link Formatter#compile(String)}.
+     *
+     * <p> Applying a compiled format produces exactly the same output, and
+     * throws exactly the same exceptions for the arguments, as passing the
+     * format string to {@link Formatter#format(String, Object...)}.
+     * Compiled formats are immutable and safe for use by multiple
+     * concurrent threads.
+     *
+     * @since 1.8
+     */
+    public static final class CompiledFormat {
+        private final String format;
+        private final FormatString[] fsa;
+
+        private CompiledFormat(String format, FormatString[] fsa) {
+            this.format = format;
+            this.fsa = fsa;
+        }
+
+        /**
+         * Returns a formatted string using this format and the given
+         * arguments.  The locale always used is the one returned by {@link
+         * java.util.Locale#getDefault(java.util.Locale.Category)
+         * Locale.getDefault(Locale.Category.FORMAT)}, as for {@link
+         * String#format(String, Object...)}.
+         *
+         * @param  args
+         *         Arguments referenced by the format specifiers in this
+         *         format.  If there are more arguments than format
+         *         specifiers, the extra arguments are ignored.
+         *
+         * @throws  IllegalFormatException
+         *          If a format specifier is incompatible with the given
+         *          arguments, or there are insufficient arguments
+         *
+         * @return  A formatted string
+         */
+        public String format(Object ... args) {
+            Formatter formatter = new Formatter();
+            return formatter.print(fsa, formatter.l, args).toString();
+        }
+
+        /**
+         * Returns a formatted string using this format, the specified
+         * locale and the given arguments.
+         *
+         * @param  l
+         *         The {@linkplain java.util.Locale locale} to apply during
+         *         formatting.  If {@code l} is {@code null} then no
+         *         localization is applied.
+         *
+         * @param  args
+         *         Arguments referenced by the format specifiers in this
+         *         format.  If there are more arguments than format
+         *         specifiers, the extra arguments are ignored.
+         *
+         * @throws  IllegalFormatException
+         *          If a format specifier is incompatible with the given
+         *          arguments, or there are insufficient arguments
+         *
+         * @return  A formatted string
+         */
+        public String format(Locale l, Object ... args) {
+            return new Formatter(l).print(fsa, l, args).toString();
+        }
+
+        /**
+         * Writes a formatted string to the destination of the given
+         * formatter, using this format, the locale of the formatter and the
+         * given arguments.
+         *
+         * @param  formatter
+         *         The formatter to write to
+         *
+         * @param  args
+         *         Arguments referenced by the format specifiers in this
+         *         format.  If there are more arguments than format
+         *         specifiers, the extra arguments are ignored.
+         *
+         * @throws  IllegalFormatException
+         *          If a format specifier is incompatible with the given
+         *          arguments, or there are insufficient arguments
+         *
+         * @throws  FormatterClosedException
+         *          If the formatter has been closed by invoking its {@link
+         *          Formatter#close()} method
+         *
+         * @return  The formatter
+         */
+        public Formatter formatTo(Formatter formatter, Object ... args) {
+            formatter.ensureOpen();
+            return formatter.print(fsa, formatter.l, args);
+        }
+
+        /**
+         * Returns the format string from which this format was compiled.
+         *
+         * @return  The format string
+         */
+        public String toString() {
+            return format;
+        }
+    }
+
     /**
      * Enum for {@code BigDecimal} formatting.
      */
@@ -2713,6 +2872,18 @@ public final class Formatter implements Closeable, Flushable {
             return c;
         }
 
+        /**
+         * Creates a copy of the given specifier enclosed by this formatter.
+         */
+        FormatSpecifier(FormatSpecifier fs) {
+            index = fs.index;
+            f = fs.f;
+            width = fs.width;
+            precision = fs.precision;
+            dt = fs.dt;
+            c = fs.c;
+        }
+
         FormatSpecifier(Matcher m) {
             int idx = 1;
 
@@ -2746,7 +2917,99 @@ public final class Formatter implements Closeable, Flushable {
                 throw new UnknownFormatConversionException(String.valueOf(c));
         }
 
-        public void print(Object arg, Locale l) throws IOException {
+        public void print(Formatter fmt, Object arg, Locale l)
+            throws IOException
+        {
+            // Parsed specifiers are shared and enclosed by the parser,
+            // never by fmt, so print through a copy enclosed by fmt
+            if (!printFast(fmt, arg, l))
+                fmt.new FormatSpecifier(this).print(arg, l);
+        }
+
+        /**
+         * Prints the most common conversions, {@code %s} of an object that
+         * is not {@code Formattable} and {@code %d} or {@code %x} of an
+         * {@code Integer} or a {@code Long}, with at most a width and the
+         * {@code '-'} or {@code '0'} flag, directly to the destination of
+         * the given formatter.  The output is the same as the general code
+         * path, which is used for everything else.
+         *
+         * @return  {@code false} if the fast path does not apply, in which
+         *          case nothing was printed
+         */
+        private boolean printFast(Formatter fmt, Object arg, Locale l)
+            throws IOException
+        {
+            if (dt || precision != -1
+                || (f.valueOf() & ~(Flags.LEFT_JUSTIFY.valueOf()
+                                    | Flags.ZERO_PAD.valueOf())) != 0)
+                return false;
+            String s;
+            boolean zeroPad = f.contains(Flags.ZERO_PAD);
+            switch (c) {
+            case Conversion.STRING:
+                if (arg instanceof Formattable)
+                    return false;
+                s = (arg == null) ? "null" : arg.toString();
+                break;
+            case Conversion.DECIMAL_INTEGER:
+                // Only when digits are not localized
+                if ((l != null && !l.equals(fmt.l)) || fmt.zero != '0')
+                    return false;
+                if (arg instanceof Integer)
+                    s = Integer.toString((Integer) arg);
+                else if (arg instanceof Long)
+                    s = Long.toString((Long) arg);
+                else
+                    return false;
+                if (zeroPad && width > s.length()) {
+                    // The zeros go between the sign and the digits
+                    int begin = (s.charAt(0) == '-') ? 1 : 0;
+                    fmt.a.append(s, 0, begin);
+                    appendZeros(fmt.a, width - s.length());
+                    fmt.a.append(s, begin, s.length());
+                    return true;
+                }
+                break;
+            case Conversion.HEXADECIMAL_INTEGER:
+                if (arg instanceof Integer)
+                    s = Integer.toHexString((Integer) arg);
+                else if (arg instanceof Long)
+                    s = Long.toHexString((Long) arg);
+                else
+                    return false;
+                if (zeroPad && width > s.length()) {
+                    appendZeros(fmt.a, width - s.length());
+                    fmt.a.append(s);
+                    return true;
+                }
+                break;
+            default:
+                return false;
+            }
+            if (width == -1 || width <= s.length()) {
+                fmt.a.append(s);
+            } else if (f.contains(Flags.LEFT_JUSTIFY)) {
+                fmt.a.append(s);
+                appendSpaces(fmt.a, width - s.length());
+            } else {
+                appendSpaces(fmt.a, width - s.length());
+                fmt.a.append(s);
+            }
+            return true;
+        }
+
+        private void appendZeros(Appendable a, int n) throws IOException {
+            for (int i = 0; i < n; i++)
+                a.append('0');
+        }
+
+        private void appendSpaces(Appendable a, int n) throws IOException {
+            for (int i = 0; i < n; i++)
+                a.append(' ');
+        }
+
+        private void print(Object arg, Locale l) throws IOException {
             if (dt) {
                 printDateTime(arg, l);
                 return;
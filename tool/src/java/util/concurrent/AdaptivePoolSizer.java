@@ -0,0 +1,262 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.concurrent;
+
+/**
+ * A periodic task that adjusts the core pool size of a {@link
+ * ThreadPoolExecutor} according to the throughput and queueing delay
+ * observed between successive runs. A {@code ThreadPoolExecutor}
+ * only creates threads beyond its core size when its queue is full,
+ * so for pools fed by unbounded queues the core size is the only
+ * effective limit on concurrency. This class lets that limit follow
+ * the workload, which is mainly useful for I/O-bound tasks whose
+ * latency varies over time.
+ *
+ * <p>An {@code AdaptivePoolSizer} does not create any threads of its
+ * own. It is intended to be run periodically, typically by a {@link
+ * ScheduledExecutorService}:
+ *
+ * <pre> {@code
+ * ThreadPoolExecutor pool = new ThreadPoolExecutor(
+ *     4, 256, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+ * AdaptivePoolSizer sizer = new AdaptivePoolSizer(
+ *     pool, new AdaptivePoolSizer.HillClimbingController(), 2, 128, 4);
+ * ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+ * timer.scheduleWithFixedDelay(sizer, 1, 1, TimeUnit.SECONDS);}</pre>
+ *
+ * <p>Each run samples the number of completed tasks and the queue
+ * length, derives the throughput (tasks per second) and an estimate
+ * of the queueing delay over the elapsed interval, and passes them to
+ * a pluggable {@link Controller} that proposes a new core pool size.
+ * The proposal is then subjected to the following guard rails before
+ * it is applied with {@link ThreadPoolExecutor#setCorePoolSize}:
+ *
+ * <ul>
+ * <li>It is clamped to the {@code [minPoolSize, maxPoolSize]} range
+ * given at construction, and never exceeds the executor's current
+ * {@link ThreadPoolExecutor#getMaximumPoolSize maximum pool size}.
+ * <li>It never differs from the current core size by more than
+ * {@code maxStep} threads per run.
+ * <li>No adjustment is made, and the controller is not consulted,
+ * once the executor has been shut down, or while the executor is idle
+ * (no tasks completed and none queued), since such samples carry no
+ * information about the effect of the pool size.
+ * </ul>
+ *
+ * <p>The sampling period should be long enough for a meaningful
+ * number of tasks to complete at any plausible pool size; with very
+ * short periods throughput measurements are dominated by noise.
+ *
+ * @since 1.8
+ */
+public class AdaptivePoolSizer implements Runnable {
+
+    /**
+     * A policy proposing a new core pool size from the statistics of
+     * the last sampling interval. Controllers are invoked by a single
+     * {@link AdaptivePoolSizer} at a time, and so may keep mutable
+     * state without synchronization as long as they are not shared.
+     */
+    public interface Controller {
+        /**
+         * Returns the proposed core pool size.
+         *
+         * @param poolSize the current core pool size
+         * @param throughput the number of tasks completed per second
+         *        over the last interval
+         * @param queueDelayNanos the estimated time, in nanoseconds,
+         *        that a newly queued task would wait before starting
+         * @return the proposed core pool size; values outside the
+         *         bounds of the calling {@code AdaptivePoolSizer} are
+         *         clamped
+         */
+        int nextPoolSize(int poolSize, double throughput, long queueDelayNanos);
+    }
+
+    /**
+     * A {@link Controller} performing hill climbing on throughput. After
+     * each change of pool size, the change in throughput is compared
+     * with the previous interval: if it improved by more than the
+     * tolerance the controller keeps moving in the same direction, if
+     * it degraded by more than the tolerance it reverses. When
+     * throughput is flat, the controller grows the pool if tasks are
+     * queueing for longer than the target delay and shrinks it
+     * otherwise, so that a pool that is larger than necessary slowly
+     * releases threads until throughput starts to suffer.
+     *
+     * <p>Each move changes the pool size by about one eighth (and at
+     * least one thread), so that the resulting change in throughput
+     * stays distinguishable from noise at any pool size. Near the
+     * optimum the pool size therefore oscillates within that margin.
+     */
+    public static class HillClimbingController implements Controller {
+        private final long targetQueueDelayNanos;
+        private final double tolerance;
+        private int lastPoolSize = -1;
+        private double lastThroughput;
+
+        /**
+         * Creates a controller with a target queueing delay of 10
+         * milliseconds and a tolerance of 5%.
+         */
+        public HillClimbingController() {
+            this(TimeUnit.MILLISECONDS.toNanos(10L), 0.05);
+        }
+
+        /**
+         * Creates a controller with the given parameters.
+         *
+         * @param targetQueueDelayNanos the queueing delay, in
+         *        nanoseconds, above which a flat throughput is taken as
+         *        a reason to grow the pool
+         * @param tolerance the relative change in throughput that is
+         *        considered noise
+         * @throws IllegalArgumentException if {@code
+         *         targetQueueDelayNanos} is negative or {@code tolerance}
+         *         is negative or not less than one
+         */
+        public HillClimbingController(long targetQueueDelayNanos,
+                                      double tolerance) {
+            if (targetQueueDelayNanos < 0L ||
+                !(tolerance >= 0.0 && tolerance < 1.0))
+                throw new IllegalArgumentException();
+            this.targetQueueDelayNanos = targetQueueDelayNanos;
+            this.tolerance = tolerance;
+        }
+
+        public int nextPoolSize(int poolSize, double throughput,
+                                long queueDelayNanos) {
+            int moved = (lastPoolSize < 0) ? 0 :
+                Integer.signum(poolSize - lastPoolSize);
+            int direction;
+            if (moved != 0 && lastThroughput > 0.0) {
+                double gain = (throughput - lastThroughput) / lastThroughput;
+                if (gain > tolerance)
+                    direction = moved;
+                else if (gain < -tolerance)
+                    direction = -moved;
+                else
+                    direction = 0;
+            }
+            else
+                direction = 0;
+            if (direction == 0)
+                direction = (queueDelayNanos > targetQueueDelayNanos) ? 1 : -1;
+            lastPoolSize = poolSize;
+            lastThroughput = throughput;
+            return poolSize + direction * Math.max(1, poolSize >>> 3);
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final Controller controller;
+    private final int minPoolSize;
+    private final int maxPoolSize;
+    private final int maxStep;
+
+    // Sampling state, only accessed by the thread running this task
+    private long lastNanos;
+    private long lastCompleted = -1L;
+
+    /**
+     * Creates a sizer for the given executor.
+     *
+     * @param executor the executor whose core pool size is adjusted
+     * @param controller the policy proposing new core pool sizes
+     * @param minPoolSize the smallest core pool size to apply
+     * @param maxPoolSize the largest core pool size to apply
+     * @param maxStep the largest change of core pool size per run
+     * @throws NullPointerException if {@code executor} or {@code
+     *         controller} is null
+     * @throws IllegalArgumentException if {@code minPoolSize < 0},
+     *         {@code maxPoolSize < minPoolSize}, {@code maxPoolSize
+     *         <= 0} or {@code maxStep <= 0}
+     */
+    public AdaptivePoolSizer(ThreadPoolExecutor executor,
+                             Controller controller,
+                             int minPoolSize,
+                             int maxPoolSize,
+                             int maxStep) {
+        if (executor == null || controller == null)
+            throw new NullPointerException();
+        if (minPoolSize < 0 || maxPoolSize < minPoolSize ||
+            maxPoolSize <= 0 || maxStep <= 0)
+            throw new IllegalArgumentException();
+        this.executor = executor;
+        this.controller = controller;
+        this.minPoolSize = minPoolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.maxStep = maxStep;
+    }
+
+    /**
+     * Samples the executor and, unless one of the guard rails applies,
+     * updates its core pool size. The first run only establishes a
+     * baseline sample.
+     */
+    public void run() {
+        final ThreadPoolExecutor e = executor;
+        if (e.isShutdown())
+            return;
+        long now = System.nanoTime();
+        long completed = e.getCompletedTaskCount();
+        int queued = e.getQueue().size();
+        long prevCompleted = lastCompleted;
+        long elapsed = now - lastNanos;
+        lastNanos = now;
+        lastCompleted = completed;
+        long done = completed - prevCompleted;
+        if (prevCompleted < 0L || elapsed <= 0L || (done == 0L && queued == 0))
+            return;
+
+        double throughput = done * 1e9 / elapsed;
+        // Little's law: time to drain the current backlog at the
+        // current rate. A backlog that did not move at all is
+        // reported as the whole interval.
+        long delay;
+        if (queued == 0)
+            delay = 0L;
+        else if (done == 0L)
+            delay = elapsed;
+        else
+            delay = (long)Math.min(queued * (double)elapsed / done,
+                                   (double)Long.MAX_VALUE);
+
+        int size = e.getCorePoolSize();
+        int next = controller.nextPoolSize(size, throughput, delay);
+        next = Math.max(size - maxStep, Math.min(size + maxStep, next));
+        int hi = Math.min(maxPoolSize, e.getMaximumPoolSize());
+        int lo = Math.min(minPoolSize, hi);
+        next = Math.max(lo, Math.min(hi, next));
+        if (next != size && !e.isShutdown())
+            e.setCorePoolSize(next);
+    }
+
+    /**
+     * Returns the executor whose core pool size this sizer adjusts.
+     *
+     * @return the executor
+     */
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the controller proposing new core pool sizes.
+     *
+     * @return the controller
+     */
+    public Controller getController() {
+        return controller;
+    }
+}
@@ -176,6 +176,27 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
         notEmpty.signal();
     }
 
+    /**
+     * Inserts elements a[from, from + n) at the current put position,
+     * advances, and signals.
+     * Call only when holding lock and there is room for n elements.
+     */
+    private void enqueueAll(Object[] a, int from, int n) {
+        // assert lock.getHoldCount() == 1;
+        // assert items.length - count >= n;
+        final Object[] items = this.items;
+        int put = putIndex;
+        int k = Math.min(n, items.length - put);
+        System.arraycopy(a, from, items, put, k);
+        System.arraycopy(a, from + k, items, 0, n - k);
+        if ((put += n) >= items.length)
+            put -= items.length;
+        putIndex = put;
+        count += n;
+        for (; n > 0 && lock.hasWaiters(notEmpty); n--)
+            notEmpty.signal();
+    }
+
     /**
      * Extracts element at current take position, advances, and signals.
      * Call only when holding lock.
@@ -764,6 +785,75 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * Returns the elements of the given collection as an array, after
+     * checking that the collection is not this queue and contains no
+     * null elements.
+     */
+    private Object[] toCheckedArray(Collection<? extends E> c) {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object x : a)
+            checkNotNull(x);
+        return a;
+    }
+
+    /**
+     * Inserts as many elements of the given collection as fit in the
+     * remaining capacity of this queue, in iteration order, acquiring
+     * the lock only once.  No element is inserted if any of them is
+     * null.
+     *
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c) {
+        final Object[] a = toCheckedArray(c);
+        if (a.length == 0)
+            return 0;
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            int n = Math.min(a.length, items.length - count);
+            if (n > 0)
+                enqueueAll(a, 0, n);
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts all elements of the given collection into this queue,
+     * in iteration order, waiting if necessary for space to become
+     * available.  The lock is held while inserting as many elements
+     * as fit at a time, and is released only while waiting.  No
+     * element is inserted if any of them is null.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public void putAll(Collection<? extends E> c) throws InterruptedException {
+        final Object[] a = toCheckedArray(c);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            for (int i = 0; i < a.length; ) {
+                while (count == items.length)
+                    notFull.await();
+                int n = Math.min(a.length - i, items.length - count);
+                enqueueAll(a, i, n);
+                i += n;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Returns an iterator over the elements in this queue in proper sequence.
      * The elements will be returned in order from first (head) to last (tail).
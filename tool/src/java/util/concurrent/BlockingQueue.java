@@ -384,4 +384,84 @@ public interface BlockingQueue<E> extends Queue<E> {
      *         it from being added to the specified collection
      */
     int drainTo(Collection<? super E> c, int maxElements);
+
+    /**
+     * Inserts as many elements of the given collection as can be
+     * inserted immediately without violating capacity restrictions,
+     * in the order they are returned by the collection's iterator.
+     * Insertion stops at the first element that cannot be inserted,
+     * so the elements inserted always form a prefix of that order.
+     * This operation may be more efficient than repeatedly calling
+     * {@link #offer(Object) offer}, as implementations may acquire
+     * locks or reserve space once for the whole batch.  Attempts to
+     * add a queue to itself result in {@code IllegalArgumentException}.
+     * Further, the behavior of this operation is undefined if the
+     * specified collection is modified while the operation is in
+     * progress.
+     *
+     * @implSpec
+     * The default implementation calls {@link #offer(Object) offer} for
+     * each element in turn, stopping when it returns {@code false}.  A
+     * {@code null} element therefore causes {@code NullPointerException}
+     * after the preceding elements have been inserted.
+     *
+     * @param c the elements to insert
+     * @return the number of elements inserted
+     * @throws ClassCastException if the class of an element of the
+     *         collection prevents it from being added to this queue
+     * @throws NullPointerException if the specified collection or any
+     *         of its elements is null
+     * @throws IllegalArgumentException if the specified collection is
+     *         this queue, or some property of an element prevents it
+     *         from being added to this queue
+     * @since 1.8
+     */
+    default int offerAll(Collection<? extends E> c) {
+        if (c == this)
+            throw new IllegalArgumentException();
+        int n = 0;
+        for (E e : c) {
+            if (!offer(e))
+                break;
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Inserts all elements of the given collection into this queue,
+     * in the order they are returned by the collection's iterator,
+     * waiting if necessary for space to become available.  This
+     * operation may be more efficient than repeatedly calling {@link
+     * #put(Object) put}, as implementations may acquire locks once for
+     * as many elements as fit at a time.  If interrupted while
+     * waiting, the elements inserted so far remain in the queue.
+     * Attempts to add a queue to itself result in {@code
+     * IllegalArgumentException}.  Further, the behavior of this
+     * operation is undefined if the specified collection is modified
+     * while the operation is in progress.
+     *
+     * @implSpec
+     * The default implementation calls {@link #put(Object) put} for
+     * each element in turn.  A {@code null} element therefore causes
+     * {@code NullPointerException} after the preceding elements have
+     * been inserted.
+     *
+     * @param c the elements to insert
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ClassCastException if the class of an element of the
+     *         collection prevents it from being added to this queue
+     * @throws NullPointerException if the specified collection or any
+     *         of its elements is null
+     * @throws IllegalArgumentException if the specified collection is
+     *         this queue, or some property of an element prevents it
+     *         from being added to this queue
+     * @since 1.8
+     */
+    default void putAll(Collection<? extends E> c) throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        for (E e : c)
+            put(e);
+    }
 }
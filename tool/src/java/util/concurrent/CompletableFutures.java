@@ -0,0 +1,374 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Static methods combining large numbers of {@link CompletionStage}s
+ * with bounded parallelism.
+ *
+ * <p>The {@code mapAsync} methods start an asynchronous operation for
+ * each element of a source, never having more than a given number of
+ * operations in flight at a time.  The source is consumed lazily: an
+ * element is requested from the source's iterator only when an
+ * operation can be started for it, so only {@code maxInFlight}
+ * elements and stages are referenced at any time.  This makes it
+ * possible to drive, say, twenty thousand downloads through an
+ * executor without first creating twenty thousand futures, or
+ * guarding the executor with a hand-written semaphore:
+ *
+ * <pre> {@code
+ * CompletableFuture<Void> done = CompletableFutures.mapAsyncUnordered(
+ *     urls,
+ *     url -> CompletableFuture.supplyAsync(() -> download(url), executor),
+ *     16,
+ *     file -> index(file));}</pre>
+ *
+ * <p>The combined future completes exceptionally with the first
+ * failure of the mapping function or of any operation.  When that
+ * happens, or when the combined future is cancelled, no further
+ * elements are consumed from the source and the operations still in
+ * flight are cancelled, to the extent that their stages support
+ * {@link CompletionStage#toCompletableFuture toCompletableFuture}.
+ *
+ * <p>{@link #allOf(Iterable)} similarly combines existing stages with
+ * a single counter rather than the tree of dependent stages built by
+ * {@link CompletableFuture#allOf}, and fails as soon as any of them
+ * fails.
+ *
+ * <p>The source iterator and the mapping function are never invoked
+ * concurrently, but may be invoked by the caller or by any thread
+ * completing one of the stages.  They should therefore be quick and
+ * non-blocking.
+ *
+ * @since 1.8
+ */
+public final class CompletableFutures {
+
+    private CompletableFutures() {}
+
+    /**
+     * Returns a new CompletableFuture that is completed with the
+     * results of applying the given asynchronous function to each
+     * element of the given source, in the order of the source, with at
+     * most {@code maxInFlight} applications incomplete at any time.
+     * The results are accumulated, so the memory held grows with the
+     * number of elements; use {@link #mapAsyncUnordered} to process
+     * results as they arrive instead.
+     *
+     * @param source the elements to map
+     * @param fn the function starting an asynchronous operation for an
+     *        element
+     * @param maxInFlight the maximum number of incomplete operations
+     * @param <T> the type of the source elements
+     * @param <R> the type of the results
+     * @return the new CompletableFuture
+     * @throws NullPointerException if the source or function is null
+     * @throws IllegalArgumentException if {@code maxInFlight <= 0}
+     */
+    public static <T,R> CompletableFuture<List<R>> mapAsync(
+        Iterable<? extends T> source,
+        Function<? super T, ? extends CompletionStage<? extends R>> fn,
+        int maxInFlight) {
+        OrderedMapper<T,R> m = new OrderedMapper<T,R>(source, fn, maxInFlight);
+        m.drain();
+        return m.result;
+    }
+
+    /**
+     * Returns a new CompletableFuture that is completed when the given
+     * asynchronous function has been applied to every element of the
+     * given source and every resulting operation has completed, with
+     * at most {@code maxInFlight} operations incomplete at any time.
+     * Each result is passed to the given action as soon as its operation
+     * completes, so results are processed in completion order and are
+     * not retained.  Invocations of the action are never concurrent;
+     * if it throws an exception, the returned future completes
+     * exceptionally with that exception.
+     *
+     * @param source the elements to map
+     * @param fn the function starting an asynchronous operation for an
+     *        element
+     * @param maxInFlight the maximum number of incomplete operations
+     * @param action the action to perform on each result
+     * @param <T> the type of the source elements
+     * @param <R> the type of the results
+     * @return the new CompletableFuture
+     * @throws NullPointerException if any argument is null
+     * @throws IllegalArgumentException if {@code maxInFlight <= 0}
+     */
+    public static <T,R> CompletableFuture<Void> mapAsyncUnordered(
+        Iterable<? extends T> source,
+        Function<? super T, ? extends CompletionStage<? extends R>> fn,
+        int maxInFlight,
+        Consumer<? super R> action) {
+        UnorderedMapper<T,R> m =
+            new UnorderedMapper<T,R>(source, fn, maxInFlight, action);
+        m.drain();
+        return m.result;
+    }
+
+    /**
+     * Returns a new CompletableFuture that is completed when all of the
+     * given stages complete normally, or completes exceptionally as
+     * soon as any of them completes exceptionally, with a
+     * CompletionException holding that exception as its cause.  In the
+     * latter case, the stages that are still incomplete are cancelled,
+     * to the extent that they support {@link
+     * CompletionStage#toCompletableFuture toCompletableFuture}.
+     *
+     * <p>Unlike {@link CompletableFuture#allOf}, the stages are
+     * tracked by a single counter, so the cost per stage is constant
+     * and independent of their number.  The results of the given
+     * stages are not reflected in the returned future.
+     *
+     * @param stages the stages
+     * @return a new CompletableFuture that is completed when all of the
+     *         given stages complete
+     * @throws NullPointerException if the iterable or any of its
+     *         elements is null
+     */
+    public static CompletableFuture<Void> allOf(
+        Iterable<? extends CompletionStage<?>> stages) {
+        final CompletableFuture<Void> result = new CompletableFuture<Void>();
+        final Queue<CompletionStage<?>> all =
+            new ConcurrentLinkedQueue<CompletionStage<?>>();
+        // One extra count until all stages have been registered
+        final AtomicInteger pending = new AtomicInteger(1);
+        for (CompletionStage<?> s : stages) {
+            if (s == null)
+                throw new NullPointerException();
+            if (result.isDone()) {      // a stage failed: cancel the rest
+                cancel(s);
+                continue;
+            }
+            all.add(s);
+            pending.incrementAndGet();
+            s.whenComplete((r, ex) -> {
+                if (ex != null) {
+                    if (result.completeExceptionally(wrap(ex))) {
+                        for (CompletionStage<?> t : all)
+                            cancel(t);
+                    }
+                }
+                else if (pending.decrementAndGet() == 0)
+                    result.complete(null);
+            });
+            // A stage failing concurrently completes result before
+            // walking all, so if its walk missed s, this sees result done
+            if (result.isDone())
+                cancel(s);
+        }
+        if (pending.decrementAndGet() == 0)
+            result.complete(null);
+        return result;
+    }
+
+    /**
+     * Returns a list of new CompletableFutures that complete in the
+     * same order as the given stages: the first future in the list is
+     * completed with the result (or exception) of whichever stage
+     * completes first, and so on.  This allows results to be consumed
+     * in completion order with ordinary sequential code.
+     *
+     * @param stages the stages
+     * @param <T> the type of the results
+     * @return a list of futures, one per stage, completing in
+     *         completion order
+     * @throws NullPointerException if the collection or any of its
+     *         elements is null
+     */
+    public static <T> List<CompletableFuture<T>> inCompletionOrder(
+        Collection<? extends CompletionStage<? extends T>> stages) {
+        int n = stages.size();
+        final List<CompletableFuture<T>> futures =
+            new ArrayList<CompletableFuture<T>>(n);
+        for (int i = 0; i < n; i++)
+            futures.add(new CompletableFuture<T>());
+        final AtomicInteger next = new AtomicInteger();
+        for (CompletionStage<? extends T> s : stages) {
+            s.whenComplete((r, ex) -> {
+                CompletableFuture<T> f = futures.get(next.getAndIncrement());
+                if (ex != null)
+                    f.completeExceptionally(ex);
+                else
+                    f.complete(r);
+            });
+        }
+        return futures;
+    }
+
+    static CompletionException wrap(Throwable ex) {
+        return (ex instanceof CompletionException) ?
+            (CompletionException)ex : new CompletionException(ex);
+    }
+
+    static void cancel(CompletionStage<?> s) {
+        try {
+            s.toCompletableFuture().cancel(false);
+        } catch (UnsupportedOperationException ignore) {
+        }
+    }
+
+    /**
+     * Base class for the mapAsync drivers.  Elements are pulled from
+     * the source and operations started in a drain loop that at most
+     * one thread runs at a time, guarded by the wip counter.  A stage
+     * completing, possibly synchronously within the loop, only
+     * decrements the in-flight count and requests another pass, so
+     * already-completed stages do not cause unbounded recursion.
+     */
+    abstract static class BoundedMapper<T,R,U> {
+        final CompletableFuture<U> result = new CompletableFuture<U>();
+        final Iterator<? extends T> source;
+        final Function<? super T, ? extends CompletionStage<? extends R>> fn;
+        final int maxInFlight;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger wip = new AtomicInteger();
+        final Set<CompletionStage<?>> running =
+            ConcurrentHashMap.<CompletionStage<?>>newKeySet();
+        int index;           // index of next element; accessed in drain loop
+        volatile boolean exhausted;
+
+        BoundedMapper(Iterable<? extends T> source,
+                      Function<? super T, ? extends CompletionStage<? extends R>> fn,
+                      int maxInFlight) {
+            if (fn == null)
+                throw new NullPointerException();
+            if (maxInFlight <= 0)
+                throw new IllegalArgumentException();
+            this.source = source.iterator();
+            this.fn = fn;
+            this.maxInFlight = maxInFlight;
+            result.whenComplete((r, ex) -> {
+                if (ex != null) {
+                    for (CompletionStage<?> s : running)
+                        cancel(s);
+                }
+            });
+        }
+
+        /** Records the result of the operation for the given element. */
+        abstract void onResult(int index, R r);
+
+        /** Returns the value completing the combined future. */
+        abstract U value();
+
+        final void drain() {
+            if (wip.getAndIncrement() != 0)
+                return;
+            int missed = 1;
+            do {
+                try {
+                    while (!result.isDone() && !exhausted &&
+                           inFlight.get() < maxInFlight) {
+                        if (!source.hasNext()) {
+                            exhausted = true;
+                            break;
+                        }
+                        T t = source.next();
+                        final int i = index++;
+                        inFlight.incrementAndGet();
+                        CompletionStage<? extends R> s = fn.apply(t);
+                        running.add(s);
+                        s.whenComplete((r, ex) -> onComplete(s, i, r, ex));
+                    }
+                } catch (Throwable ex) {
+                    result.completeExceptionally(wrap(ex));
+                }
+                if (exhausted && inFlight.get() == 0 && !result.isDone()) {
+                    U v;
+                    try {
+                        v = value();
+                    } catch (Throwable ex) {
+                        result.completeExceptionally(wrap(ex));
+                        continue;
+                    }
+                    result.complete(v);
+                }
+            } while ((missed = wip.addAndGet(-missed)) != 0);
+        }
+
+        final void onComplete(CompletionStage<?> s, int i, R r, Throwable ex) {
+            running.remove(s);
+            if (ex != null)
+                result.completeExceptionally(wrap(ex));
+            else if (!result.isDone()) {
+                try {
+                    onResult(i, r);
+                } catch (Throwable e) {
+                    result.completeExceptionally(wrap(e));
+                }
+            }
+            inFlight.decrementAndGet();
+            drain();
+        }
+    }
+
+    static final class OrderedMapper<T,R> extends BoundedMapper<T,R,List<R>> {
+        private final ArrayList<R> results = new ArrayList<R>();
+
+        OrderedMapper(Iterable<? extends T> source,
+                      Function<? super T, ? extends CompletionStage<? extends R>> fn,
+                      int maxInFlight) {
+            super(source, fn, maxInFlight);
+        }
+
+        void onResult(int index, R r) {
+            synchronized (results) {
+                while (results.size() <= index)
+                    results.add(null);
+                results.set(index, r);
+            }
+        }
+
+        List<R> value() {
+            synchronized (results) {
+                return results;
+            }
+        }
+    }
+
+    static final class UnorderedMapper<T,R> extends BoundedMapper<T,R,Void> {
+        private final Consumer<? super R> action;
+
+        UnorderedMapper(Iterable<? extends T> source,
+                        Function<? super T, ? extends CompletionStage<? extends R>> fn,
+                        int maxInFlight,
+                        Consumer<? super R> action) {
+            super(source, fn, maxInFlight);
+            if (action == null)
+                throw new NullPointerException();
+            this.action = action;
+        }
+
+        void onResult(int index, R r) {
+            synchronized (this) {
+                action.accept(r);
+            }
+        }
+
+        Void value() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,793 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded {@linkplain BlockingQueue blocking queue} backed by an
+ * array, in which the non-blocking operations are lock-free.  This
+ * queue orders elements FIFO (first-in-first-out).  Like {@link
+ * ArrayBlockingQueue}, this is a classic "bounded buffer" whose
+ * capacity cannot be changed once created, but insertion and
+ * extraction by any number of producer and consumer threads proceed
+ * without locking, each claiming a slot of the array with a single
+ * compare-and-swap.  This class is preferable to {@code
+ * ArrayBlockingQueue} when many threads exchange large numbers of
+ * small elements and the cost of the queue itself matters.
+ *
+ * <p>The capacity given at construction is rounded up to the next
+ * power of two, and to at least two, which is the value reported by
+ * {@link #remainingCapacity} for an empty queue.
+ *
+ * <p>The blocking methods {@link #put put} and {@link #take take} and
+ * their timed variants first attempt the non-blocking operation, and
+ * only when it fails register the current thread as waiting and
+ * {@linkplain LockSupport#park park} it until a complementary
+ * operation makes progress possible.  Threads that never wait incur
+ * only a check for the presence of waiters per operation.
+ *
+ * <p>Because slots are claimed before they are filled or emptied,
+ * {@link #poll()} may return {@code null} while an insertion that
+ * precedes other, completed insertions is still in progress, and
+ * symmetrically {@link #offer(Object) offer} may fail while a
+ * preceding removal is in progress.  Such windows last only for the
+ * duration of a few memory writes by the thread that claimed the
+ * slot.  For the same reason, {@link #size} and the iterators reflect
+ * the state of the queue at some point during their execution.
+ *
+ * <p>Elements other than the head can be removed with {@link
+ * #remove(Object)} and {@link Iterator#remove}, as {@link
+ * ThreadPoolExecutor} does when a task is cancelled or the executor
+ * is shut down.  Such a removal marks the element's slot as removed
+ * rather than compacting the array, and the slot only becomes free
+ * once consumers reach it and skip it, so until then it still counts
+ * against the capacity of the queue.
+ *
+ * <p>This class and its iterator implement all of the <em>optional</em>
+ * methods of the {@link Collection} and {@link Iterator} interfaces.
+ *
+ * @since 1.8
+ * @param <E> the type of elements held in this collection
+ */
+public class ConcurrentArrayBlockingQueue<E> extends AbstractQueue<E>
+        implements BlockingQueue<E> {
+
+    /*
+     * This is the bounded multi-producer multi-consumer queue
+     * described by Dmitry Vyukov.  Each slot of the items array has an
+     * associated sequence number.  A slot at index (p & mask) is free
+     * for the producer claiming position p when its sequence equals
+     * p, and holds the element for the consumer claiming position p
+     * when its sequence equals p + 1.  Producers claim positions by
+     * CASing tail, store the item and then publish it by setting the
+     * sequence to p + 1; consumers claim positions by CASing head,
+     * take the item and then release the slot for the next lap by
+     * setting the sequence to p + capacity.  Positions are longs so
+     * they never wrap in practice.
+     *
+     * Bulk operations claim several consecutive positions with a
+     * single CAS after checking that all the corresponding slots are
+     * ready.  A slot that is ready for position p stays ready until
+     * position p is claimed, so the check remains valid as long as the
+     * CAS succeeds.
+     *
+     * An element is removed from the middle of the queue by CASing
+     * its item to the REMOVED marker.  Consumers take items with an
+     * atomic getAndSet, so that for each element either the remover's
+     * CAS or the consumer succeeds; a consumer that gets the marker
+     * releases the slot and moves on to the next position.  The
+     * number of markers not yet reached by consumers is kept in
+     * tombstones, so that size() does not count removed elements.
+     *
+     * Waiting threads are kept in two ConcurrentLinkedQueues, one for
+     * takers and one for putters.  A waiter adds itself, then retries
+     * its operation before parking.  A thread completing an operation
+     * publishes the sequence with a volatile write before checking for
+     * waiters, so either the waiter's retry sees the change or the
+     * completing thread sees the waiter and unparks it.  Only the
+     * first waiter is unparked; a woken thread that succeeds passes
+     * the signal on if more progress is possible, so that signals
+     * absorbed by threads that were woken but had already left the
+     * wait queue are not lost.
+     */
+
+    /** The queued items */
+    private final Object[] items;
+
+    /** The sequence number of each slot */
+    private final long[] sequences;
+
+    /** items.length - 1 */
+    private final int mask;
+
+    /** Next position to claim by a producer */
+    @sun.misc.Contended
+    private volatile long tail;
+
+    /** Next position to claim by a consumer */
+    @sun.misc.Contended
+    private volatile long head;
+
+    /** Number of removed elements not yet skipped by consumers */
+    private volatile long tombstones;
+
+    /** Marks the item of a slot whose element has been removed */
+    private static final Object REMOVED = new Object();
+
+    /** Threads waiting in take and timed poll */
+    private final ConcurrentLinkedQueue<Thread> takers =
+        new ConcurrentLinkedQueue<Thread>();
+
+    /** Threads waiting in put and timed offer */
+    private final ConcurrentLinkedQueue<Thread> putters =
+        new ConcurrentLinkedQueue<Thread>();
+
+    /**
+     * Creates a {@code ConcurrentArrayBlockingQueue} with at least the
+     * given capacity.
+     *
+     * @param capacity the minimum capacity of this queue
+     * @throws IllegalArgumentException if {@code capacity} is less than
+     *         one or greater than {@code 1 << 30}
+     */
+    public ConcurrentArrayBlockingQueue(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30))
+            throw new IllegalArgumentException();
+        // At least two slots are needed to tell full slots from free ones
+        int n = (capacity <= 2) ? 2 :
+            Integer.highestOneBit(capacity - 1) << 1;
+        this.items = new Object[n];
+        this.sequences = new long[n];
+        this.mask = n - 1;
+        for (int i = 0; i < n; i++)
+            sequences[i] = i;
+    }
+
+    /**
+     * Creates a {@code ConcurrentArrayBlockingQueue} with at least the
+     * given capacity, initially containing the elements of the given
+     * collection, added in traversal order of the collection's
+     * iterator.
+     *
+     * @param capacity the minimum capacity of this queue
+     * @param c the collection of elements to initially contain
+     * @throws IllegalArgumentException if {@code capacity} is less than
+     *         one or greater than {@code 1 << 30}, or less than
+     *         {@code c.size()}
+     * @throws NullPointerException if the specified collection or any
+     *         of its elements are null
+     */
+    public ConcurrentArrayBlockingQueue(int capacity,
+                                        Collection<? extends E> c) {
+        this(capacity);
+        if (offerAll(c) != c.size())
+            throw new IllegalArgumentException();
+    }
+
+    private static void checkNotNull(Object v) {
+        if (v == null)
+            throw new NullPointerException();
+    }
+
+    private static long seqOffset(int i) {
+        return ((long)i << SSHIFT) + SBASE;
+    }
+
+    private static long itemOffset(int i) {
+        return ((long)i << ISHIFT) + IBASE;
+    }
+
+    /**
+     * Unparks the first thread waiting in the given queue, if any.
+     */
+    private static void signal(ConcurrentLinkedQueue<Thread> waiters) {
+        Thread w = waiters.peek();
+        if (w != null)
+            LockSupport.unpark(w);
+    }
+
+    /**
+     * Claims up to n consecutive positions for insertion.
+     *
+     * @return the first position claimed, with the number of positions
+     *         claimed in k[0], or -1 if the queue is full
+     */
+    private long claimPut(int n, int[] k) {
+        final long[] seqs = sequences;
+        final int mask = this.mask;
+        long pos = tail;
+        for (;;) {
+            int m = 0;
+            long dif = 0L;
+            while (m < n &&
+                   (dif = U.getLongVolatile
+                    (seqs, seqOffset((int)(pos + m) & mask)) - (pos + m)) == 0L)
+                ++m;
+            if (m == 0 && dif < 0L)
+                return -1L;                 // full
+            if (m > 0 && U.compareAndSwapLong(this, TAIL, pos, pos + m)) {
+                k[0] = m;
+                return pos;
+            }
+            pos = tail;                     // lost race or stale tail
+        }
+    }
+
+    /**
+     * Claims up to n consecutive positions for removal.
+     *
+     * @return the first position claimed, with the number of positions
+     *         claimed in k[0], or -1 if the queue is empty
+     */
+    private long claimTake(int n, int[] k) {
+        final long[] seqs = sequences;
+        final int mask = this.mask;
+        long pos = head;
+        for (;;) {
+            int m = 0;
+            long dif = 0L;
+            while (m < n &&
+                   (dif = U.getLongVolatile
+                    (seqs, seqOffset((int)(pos + m) & mask)) -
+                    (pos + m + 1)) == 0L)
+                ++m;
+            if (m == 0 && dif < 0L)
+                return -1L;                 // empty
+            if (m > 0 && U.compareAndSwapLong(this, HEAD, pos, pos + m)) {
+                k[0] = m;
+                return pos;
+            }
+            pos = head;
+        }
+    }
+
+    /**
+     * Stores and publishes the given element at a claimed position.
+     */
+    private void fill(long pos, Object x) {
+        int i = (int)pos & mask;
+        U.putObject(items, itemOffset(i), x);
+        U.putLongVolatile(sequences, seqOffset(i), pos + 1);
+    }
+
+    /**
+     * Takes the element at a claimed position and releases the slot.
+     *
+     * @return the element, or REMOVED if it has been removed
+     */
+    private Object empty(long pos) {
+        int i = (int)pos & mask;
+        Object x = U.getAndSetObject(items, itemOffset(i), null);
+        U.putLongVolatile(sequences, seqOffset(i), pos + mask + 1);
+        if (x == REMOVED)
+            U.getAndAddLong(this, TOMBSTONES, -1L);
+        return x;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue if it is
+     * possible to do so immediately without exceeding the queue's
+     * capacity, returning {@code true} upon success and throwing an
+     * {@code IllegalStateException} if this queue is full.
+     *
+     * @param e the element to add
+     * @return {@code true} (as specified by {@link Collection#add})
+     * @throws IllegalStateException if this queue is full
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean add(E e) {
+        return super.add(e);
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue if it is
+     * possible to do so immediately without exceeding the queue's
+     * capacity, returning {@code true} upon success and {@code false}
+     * if this queue is full.  This method is generally preferable to
+     * method {@link #add}, which can fail to insert an element only by
+     * throwing an exception.
+     *
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e) {
+        checkNotNull(e);
+        final long[] seqs = sequences;
+        final int mask = this.mask;
+        long pos = tail;
+        for (;;) {
+            long dif = U.getLongVolatile(seqs, seqOffset((int)pos & mask)) - pos;
+            if (dif == 0L) {
+                if (U.compareAndSwapLong(this, TAIL, pos, pos + 1))
+                    break;
+                pos = tail;
+            }
+            else if (dif < 0L)
+                return false;
+            else
+                pos = tail;
+        }
+        fill(pos, e);
+        signal(takers);
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, waiting
+     * for space to become available if the queue is full.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    public void put(E e) throws InterruptedException {
+        if (!offer(e))
+            awaitPut(e, false, 0L);
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, waiting
+     * up to the specified wait time for space to become available if
+     * the queue is full.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        return offer(e) || awaitPut(e, true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Waits for space to insert the given element.
+     *
+     * @return true if inserted, false if timed out
+     */
+    private boolean awaitPut(E e, boolean timed, long nanos)
+        throws InterruptedException {
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        final Thread w = Thread.currentThread();
+        for (;;) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (timed && nanos <= 0L)
+                return false;
+            putters.add(w);
+            boolean done;
+            try {
+                if (!(done = offer(e))) {
+                    if (timed)
+                        LockSupport.parkNanos(this, nanos);
+                    else
+                        LockSupport.park(this);
+                }
+            } finally {
+                putters.remove(w);
+            }
+            if (done || offer(e)) {
+                if (remainingCapacity() > 0)
+                    signal(putters);
+                return true;
+            }
+            if (timed)
+                nanos = deadline - System.nanoTime();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        final long[] seqs = sequences;
+        final int mask = this.mask;
+        long pos = head;
+        for (;;) {
+            long dif = U.getLongVolatile(seqs, seqOffset((int)pos & mask)) -
+                (pos + 1);
+            if (dif == 0L) {
+                if (U.compareAndSwapLong(this, HEAD, pos, pos + 1)) {
+                    Object x = empty(pos);
+                    signal(putters);
+                    if (x != REMOVED)
+                        return (E)x;
+                }
+                pos = head;
+            }
+            else if (dif < 0L)
+                return null;
+            else
+                pos = head;
+        }
+    }
+
+    public E take() throws InterruptedException {
+        E x = poll();
+        return (x != null) ? x : awaitTake(false, 0L);
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E x = poll();
+        return (x != null) ? x : awaitTake(true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Waits for an element to become available.
+     *
+     * @return the element, or null if timed out
+     */
+    private E awaitTake(boolean timed, long nanos)
+        throws InterruptedException {
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        final Thread w = Thread.currentThread();
+        for (;;) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (timed && nanos <= 0L)
+                return null;
+            takers.add(w);
+            E x;
+            try {
+                if ((x = poll()) == null) {
+                    if (timed)
+                        LockSupport.parkNanos(this, nanos);
+                    else
+                        LockSupport.park(this);
+                }
+            } finally {
+                takers.remove(w);
+            }
+            if (x != null || (x = poll()) != null) {
+                if (!isEmpty())
+                    signal(takers);
+                return x;
+            }
+            if (timed)
+                nanos = deadline - System.nanoTime();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        final long[] seqs = sequences;
+        final Object[] items = this.items;
+        restart: for (;;) {
+            long h = head;
+            // Skip over removed elements to the first remaining one
+            for (long pos = h;; ++pos) {
+                int i = (int)pos & mask;
+                long seq = U.getLongVolatile(seqs, seqOffset(i));
+                if (seq - (pos + 1) < 0L)
+                    return null;
+                Object x = U.getObjectVolatile(items, itemOffset(i));
+                // The item is valid only if the slot was not emptied
+                // and refilled in the meantime
+                if (seq != pos + 1 || head != h)
+                    continue restart;
+                if (x != REMOVED)
+                    return (E)x;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of claimed slots, including those of removed
+     * elements that consumers have not reached yet.
+     */
+    private int occupied() {
+        for (;;) {
+            long h = head;
+            long t = tail;
+            if (h == head)
+                return (int)Math.max(0L, Math.min(t - h, (long)mask + 1));
+        }
+    }
+
+    /**
+     * Returns the number of elements in this queue.
+     *
+     * @return the number of elements in this queue
+     */
+    public int size() {
+        return (int)Math.max(0L, occupied() - tombstones);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of additional elements that this queue can
+     * ideally (in the absence of memory or resource constraints) accept
+     * without blocking. This is always equal to the capacity of this
+     * queue less the current {@code size} of this queue.
+     *
+     * <p>Note that you <em>cannot</em> always tell if an attempt to
+     * insert an element will succeed by inspecting {@code
+     * remainingCapacity} because it may be the case that another
+     * thread is about to insert or remove an element, or that the slots
+     * of elements removed from the middle of the queue have not been
+     * freed yet.
+     */
+    public int remainingCapacity() {
+        return mask + 1 - occupied();
+    }
+
+    /**
+     * Inserts as many elements of the given collection as fit in the
+     * remaining capacity of this queue, in iteration order.  Runs of
+     * consecutive free slots are claimed with a single compare-and-swap.
+     * No element is inserted if any of them is null.
+     *
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    public int offerAll(Collection<? extends E> c) {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object x : a)
+            checkNotNull(x);
+        int i = insertAll(a, 0);
+        if (i > 0)
+            signal(takers);
+        return i;
+    }
+
+    /**
+     * Inserts all elements of the given collection into this queue,
+     * in iteration order, waiting if necessary for space to become
+     * available.  No element is inserted if any of them is null.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public void putAll(Collection<? extends E> c) throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object x : a)
+            checkNotNull(x);
+        for (int i = 0;;) {
+            int j = insertAll(a, i);
+            if (j > i)
+                signal(takers);
+            if ((i = j) >= a.length)
+                break;
+            put((E)a[i++]);
+        }
+    }
+
+    /**
+     * Inserts elements of the given array starting at the given index,
+     * claiming as many slots at a time as are free, until the array is
+     * exhausted or the queue is full.
+     *
+     * @return the index of the first element not inserted
+     */
+    private int insertAll(Object[] a, int i) {
+        int[] k = new int[1];
+        long pos;
+        while (i < a.length && (pos = claimPut(a.length - i, k)) >= 0L) {
+            for (int m = k[0]; m > 0; --m)
+                fill(pos++, a[i++]);
+        }
+        return i;
+    }
+
+    /**
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most the given number of available elements from this
+     * queue and adds them to the given collection.  Runs of consecutive
+     * available elements are claimed with a single compare-and-swap.
+     *
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        checkNotNull(c);
+        if (c == this)
+            throw new IllegalArgumentException();
+        int[] k = new int[1];
+        int n = 0;
+        long pos;
+        while (n < maxElements &&
+               (pos = claimTake(Math.min(maxElements - n, mask + 1), k)) >= 0L) {
+            int m = k[0];
+            try {
+                while (m > 0) {
+                    --m;
+                    Object x = empty(pos++);
+                    if (x != REMOVED) {
+                        @SuppressWarnings("unchecked") E e = (E)x;
+                        c.add(e);
+                        ++n;
+                    }
+                }
+            } finally {
+                // Release the remaining claimed slots even if c.add()
+                // threw, so that producers are not stalled forever
+                while (m > 0) {
+                    --m;
+                    empty(pos++);
+                }
+                signal(putters);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Removes a single instance of the specified element from this queue,
+     * if it is present.  More formally, removes an element {@code e} such
+     * that {@code o.equals(e)}, if this queue contains one or more such
+     * elements.  Returns {@code true} if this queue contained the
+     * specified element (or equivalently, if this queue changed as a
+     * result of the call).
+     *
+     * <p>The slot of the removed element is only freed once consumers
+     * reach it, so this method does not make room for a waiting
+     * {@link #put put}.
+     *
+     * @param o element to be removed from this queue, if present
+     * @return {@code true} if this queue changed as a result of the call
+     */
+    public boolean remove(Object o) {
+        return o != null && removeElement(o, false);
+    }
+
+    /**
+     * Marks as removed the first element equal to (or, if identity is
+     * true, identical to) the given object.
+     */
+    private boolean removeElement(Object o, boolean identity) {
+        final long[] seqs = sequences;
+        final Object[] items = this.items;
+        final int mask = this.mask;
+        long t = tail;
+        for (long pos = Math.max(head, t - mask - 1); pos - t < 0L; ++pos) {
+            int i = (int)pos & mask;
+            if (U.getLongVolatile(seqs, seqOffset(i)) != pos + 1)
+                continue;           // not yet filled, or already taken
+            long off = itemOffset(i);
+            Object x = U.getObjectVolatile(items, off);
+            // The CAS fails if a consumer took the element meanwhile
+            if (x != null && x != REMOVED &&
+                (identity ? x == o : o.equals(x)) &&
+                U.compareAndSwapObject(items, off, x, REMOVED)) {
+                U.getAndAddLong(this, TOMBSTONES, 1L);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Atomically removes all of the elements from this queue, in the
+     * sense that each is removed by a successful {@link #poll}.
+     */
+    public void clear() {
+        while (poll() != null)
+            ;
+    }
+
+    /**
+     * Returns an array containing the elements in this queue at some
+     * point during the call, in proper sequence.
+     */
+    public Object[] toArray() {
+        final long[] seqs = sequences;
+        final Object[] items = this.items;
+        final int mask = this.mask;
+        Object[] a = new Object[mask + 1];
+        int n = 0;
+        long h = head, t = tail;
+        for (long pos = h; pos != t && n < a.length; ++pos) {
+            int i = (int)pos & mask;
+            long off = seqOffset(i);
+            if (U.getLongVolatile(seqs, off) != pos + 1)
+                continue;           // not yet filled, or already taken
+            Object x = U.getObjectVolatile(items, itemOffset(i));
+            if (x != null && x != REMOVED &&
+                U.getLongVolatile(seqs, off) == pos + 1)
+                a[n++] = x;
+        }
+        return Arrays.copyOf(a, n);
+    }
+
+    /**
+     * Returns a weakly consistent iterator over a snapshot of the
+     * elements in this queue, in proper sequence.  The iterator's
+     * {@link Iterator#remove remove} method removes the element last
+     * returned from the queue, if it is still present.
+     *
+     * @return an iterator over the elements in this queue in proper sequence
+     */
+    public Iterator<E> iterator() {
+        return new Itr(toArray());
+    }
+
+    /** Iterator over a snapshot array. */
+    final class Itr implements Iterator<E> {
+        private final Object[] array;
+        private int cursor;
+        private int lastRet = -1;
+
+        Itr(Object[] array) {
+            this.array = array;
+        }
+
+        public boolean hasNext() {
+            return cursor < array.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (cursor >= array.length)
+                throw new NoSuchElementException();
+            lastRet = cursor;
+            return (E) array[cursor++];
+        }
+
+        public void remove() {
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            removeElement(array[lastRet], true);
+            lastRet = -1;
+        }
+    }
+
+    // Unsafe mechanics
+    private static final sun.misc.Unsafe U;
+    private static final long HEAD;
+    private static final long TAIL;
+    private static final long TOMBSTONES;
+    private static final long IBASE;
+    private static final int ISHIFT;
+    private static final long SBASE;
+    private static final int SSHIFT;
+    static {
+        try {
+            U = sun.misc.Unsafe.getUnsafe();
+            Class<?> k = ConcurrentArrayBlockingQueue.class;
+            HEAD = U.objectFieldOffset(k.getDeclaredField("head"));
+            TAIL = U.objectFieldOffset(k.getDeclaredField("tail"));
+            TOMBSTONES = U.objectFieldOffset
+                (k.getDeclaredField("tombstones"));
+            IBASE = U.arrayBaseOffset(Object[].class);
+            int iscale = U.arrayIndexScale(Object[].class);
+            SBASE = U.arrayBaseOffset(long[].class);
+            int sscale = U.arrayIndexScale(long[].class);
+            if ((iscale & (iscale - 1)) != 0 || (sscale & (sscale - 1)) != 0)
+                throw new Error("data type scale not a power of two");
+            ISHIFT = 31 - Integer.numberOfLeadingZeros(iscale);
+            SSHIFT = 31 - Integer.numberOfLeadingZeros(sscale);
+        } catch (Exception e) {
+            throw new Error(e);
+        }
+    }
+}
@@ -165,6 +165,25 @@ import java.security.Permissions;
  * using a factory that may return {@code null}. However doing so may
  * cause unjoined tasks to never be executed.
  *
+ * <p>If the system property {@code
+ * java.util.concurrent.ForkJoinPool.instrumentation} is set to {@code
+ * true}, all pools run in <em>instrumentation mode</em>: each worker
+ * additionally records the number of tasks it steals, the time it
+ * spends parked for lack of work, a histogram of top-level task
+ * execution times, and the compensation events that occur when it
+ * blocks in a join or in {@link #managedBlock}.  These statistics,
+ * together with those maintained in any mode, are available through
+ * {@link #getMXBean}, and each pool is registered with the {@linkplain
+ * java.lang.management.ManagementFactory#getPlatformMBeanServer
+ * platform MBeanServer} under the name {@code
+ * java.util.concurrent:type=ForkJoinPool,name=}<i>pool name</i> while
+ * it has workers: from the start of its first worker until it
+ * terminates, or until its last worker exits after the pool has been
+ * idle, so that the MBeanServer does not keep an unused pool
+ * reachable.  The next worker to start registers it again.
+ * Instrumentation adds two calls to
+ * {@link System#nanoTime} per top-level task and per idle park.
+ *
  * <p><b>Implementation notes</b>: This implementation restricts the
  * maximum number of running threads to 32767. Attempts to create
  * pools with greater than the maximum number result in
@@ -834,10 +853,13 @@ public class ForkJoinPool extends AbstractExecutorService {
         volatile Thread parker;    // == owner during call to park; else null
         volatile ForkJoinTask<?> currentJoin;  // task being joined in awaitJoin
         volatile ForkJoinTask<?> currentSteal; // mainly used by helpStealer
+        final WorkerStats stats;   // non-null if instrumented worker
 
         WorkQueue(ForkJoinPool pool, ForkJoinWorkerThread owner) {
             this.pool = pool;
             this.owner = owner;
+            this.stats = (INSTRUMENTED && owner != null) ?
+                new WorkerStats() : null;
             // Place indices in the center of array (that is not yet allocated)
             base = top = INITIAL_QUEUE_CAPACITY >>> 1;
         }
@@ -1074,11 +1096,17 @@ public class ForkJoinPool extends AbstractExecutorService {
          */
         final void runTask(ForkJoinTask<?> task) {
             if (task != null) {
+                WorkerStats st = stats;
+                long start = (st == null) ? 0L : System.nanoTime();
                 scanState &= ~SCANNING; // mark as busy
                 (currentSteal = task).doExec();
                 U.putOrderedObject(this, QCURRENTSTEAL, null); // release for GC
                 execLocalTasks();
                 ForkJoinWorkerThread thread = owner;
+                if (st != null) {
+                    st.recordTask(System.nanoTime() - start);
+                    ++st.steals;
+                }
                 if (++nsteals < 0)      // collect on overflow
                     transferStealCount(pool);
                 scanState |= SCANNING;
@@ -1267,6 +1295,51 @@ public class ForkJoinPool extends AbstractExecutorService {
         }
     }
 
+    /**
+     * Statistics maintained by each worker in instrumentation mode.
+     * Fields are only written by the owning worker (or, for the
+     * pool's totals of terminated workers, under its monitor), and
+     * are read without synchronization, so reported values are
+     * approximate.
+     */
+    static final class WorkerStats {
+        /** Number of buckets of the task time histogram. */
+        static final int HISTOGRAM_SIZE = 40; // last bucket >= ~4.6 minutes
+
+        long steals;               // top-level and helping steals
+        long parks;                // idle parks in awaitWork
+        long idleNanos;            // time parked in awaitWork
+        long spares;               // spare threads created in tryCompensate
+        long releases;             // idle workers released in tryCompensate
+        long uncompensated;        // blocks without compensation
+        long managedBlocks;        // calls to managedBlock
+        final long[] histogram = new long[HISTOGRAM_SIZE];
+
+        /**
+         * Records a top-level task run, in bucket floor(log2(nanos)) + 1.
+         */
+        final void recordTask(long nanos) {
+            int i = (nanos <= 0L) ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+            ++histogram[(i < HISTOGRAM_SIZE) ? i : HISTOGRAM_SIZE - 1];
+        }
+
+        /**
+         * Adds the given statistics to these.
+         */
+        final void add(WorkerStats w) {
+            steals += w.steals;
+            parks += w.parks;
+            idleNanos += w.idleNanos;
+            spares += w.spares;
+            releases += w.releases;
+            uncompensated += w.uncompensated;
+            managedBlocks += w.managedBlocks;
+            long[] h = w.histogram;
+            for (int i = 0; i < HISTOGRAM_SIZE; ++i)
+                histogram[i] += h[i];
+        }
+    }
+
     // static fields (initialized in static initializer below)
 
     /**
@@ -1303,6 +1376,12 @@ public class ForkJoinPool extends AbstractExecutorService {
      */
     private static int commonMaxSpares;
 
+    /**
+     * True if pools run in instrumentation mode, as set by the
+     * java.util.concurrent.ForkJoinPool.instrumentation property.
+     */
+    static final boolean INSTRUMENTED;
+
     /**
      * Sequence number for creating workerNamePrefix.
      */
@@ -1418,6 +1497,8 @@ public class ForkJoinPool extends AbstractExecutorService {
     final UncaughtExceptionHandler ueh;  // per-worker UEH
     final String workerNamePrefix;       // to create worker name string
     volatile AtomicLong stealCounter;    // also used as sync monitor
+    final WorkerStats retiredStats;      // terminated workers if instrumented
+    final ForkJoinPoolMXBeanImpl mxbean; // management interface
 
     /**
      * Acquires the runState lock; returns current (locked) runState.
@@ -1615,6 +1696,12 @@ public class ForkJoinPool extends AbstractExecutorService {
         if (w != null) {
             w.qlock = -1;                             // ensure set
             w.transferStealCount(this);
+            WorkerStats st, rt;
+            if ((st = w.stats) != null && (rt = retiredStats) != null) {
+                synchronized (rt) {
+                    rt.add(st);
+                }
+            }
             w.cancelAll();                            // cancel remaining tasks
         }
         for (;;) {                                    // possibly replace
@@ -1634,6 +1721,8 @@ public class ForkJoinPool extends AbstractExecutorService {
             else                                      // don't need replacement
                 break;
         }
+        if (INSTRUMENTED && (short)(ctl >>> TC_SHIFT) + (config & SMASK) <= 0)
+            mxbean.unregisterIfIdle();                // last worker gone
         if (ex == null)                               // help clean on way out
             ForkJoinTask.helpExpungeStaleExceptions();
         else                                          // rethrow
@@ -1707,6 +1796,8 @@ public class ForkJoinPool extends AbstractExecutorService {
      */
     final void runWorker(WorkQueue w) {
         w.growArray();                   // allocate queue
+        if (INSTRUMENTED)
+            mxbean.register();
         int seed = w.hint;               // initially holds randomization hint
         int r = (seed == 0) ? 1 : seed;  // avoid 0 for xorShift
         for (ForkJoinTask<?> t;;) {
@@ -1842,8 +1933,17 @@ public class ForkJoinPool extends AbstractExecutorService {
                 Thread wt = Thread.currentThread();
                 U.putObject(wt, PARKBLOCKER, this);   // emulate LockSupport
                 w.parker = wt;
-                if (w.scanState < 0 && ctl == c)      // recheck before park
-                    U.park(false, parkTime);
+                if (w.scanState < 0 && ctl == c) {    // recheck before park
+                    WorkerStats st;
+                    if ((st = w.stats) == null)
+                        U.park(false, parkTime);
+                    else {
+                        long start = System.nanoTime();
+                        U.park(false, parkTime);
+                        st.idleNanos += System.nanoTime() - start;
+                        ++st.parks;
+                    }
+                }
                 U.putOrderedObject(w, QPARKER, null);
                 U.putObject(wt, PARKBLOCKER, null);
                 if (w.scanState >= 0)
@@ -1975,6 +2075,8 @@ public class ForkJoinPool extends AbstractExecutorService {
                                 v.base = b + 1;
                                 ForkJoinTask<?> ps = w.currentSteal;
                                 int top = w.top;
+                                if (w.stats != null)
+                                    ++w.stats.steals;
                                 do {
                                     U.putOrderedObject(w, QCURRENTSTEAL, t);
                                     t.doExec();        // clear local tasks too
@@ -2007,8 +2109,10 @@ public class ForkJoinPool extends AbstractExecutorService {
             (ws = workQueues) == null || (m = ws.length - 1) <= 0 ||
             (pc = config & SMASK) == 0)           // parallelism disabled
             canBlock = false;
-        else if ((sp = (int)(c = ctl)) != 0)      // release idle worker
-            canBlock = tryRelease(c, ws[sp & m], 0L);
+        else if ((sp = (int)(c = ctl)) != 0) {    // release idle worker
+            if ((canBlock = tryRelease(c, ws[sp & m], 0L)) && w.stats != null)
+                ++w.stats.releases;
+        }
         else {
             int ac = (int)(c >> AC_SHIFT) + pc;
             int tc = (short)(c >> TC_SHIFT) + pc;
@@ -2026,7 +2130,9 @@ public class ForkJoinPool extends AbstractExecutorService {
             else if (tc >= pc && ac > 1 && w.isEmpty()) {
                 long nc = ((AC_MASK & (c - AC_UNIT)) |
                            (~AC_MASK & c));       // uncompensated
-                canBlock = U.compareAndSwapLong(this, CTL, c, nc);
+                if ((canBlock = U.compareAndSwapLong(this, CTL, c, nc)) &&
+                    w.stats != null)
+                    ++w.stats.uncompensated;
             }
             else if (tc >= MAX_CAP ||
                      (this == common && tc >= pc + commonMaxSpares))
@@ -2040,6 +2146,8 @@ public class ForkJoinPool extends AbstractExecutorService {
                     add = U.compareAndSwapLong(this, CTL, c, nc);
                 unlockRunState(rs, rs & ~RSLOCK);
                 canBlock = add && createWorker(); // throws on exception
+                if (canBlock && w.stats != null)
+                    ++w.stats.spares;
             }
         }
         return canBlock;
@@ -2133,6 +2241,8 @@ public class ForkJoinPool extends AbstractExecutorService {
                 if ((b = q.base) - q.top < 0 && (t = q.pollAt(b)) != null) {
                     U.putOrderedObject(w, QCURRENTSTEAL, t);
                     t.doExec();
+                    if (w.stats != null)
+                        ++w.stats.steals;
                     if (++w.nsteals < 0)
                         w.transferStealCount(this);
                 }
@@ -2288,6 +2398,8 @@ public class ForkJoinPool extends AbstractExecutorService {
                     rs = lockRunState();          // done
                     unlockRunState(rs, (rs & ~RSLOCK) | TERMINATED);
                     synchronized (this) { notifyAll(); } // for awaitTermination
+                    if (INSTRUMENTED)
+                        mxbean.unregister();
                 }
                 break;
             }
@@ -2589,6 +2701,8 @@ public class ForkJoinPool extends AbstractExecutorService {
         this.workerNamePrefix = workerNamePrefix;
         this.factory = factory;
         this.ueh = handler;
+        this.retiredStats = INSTRUMENTED ? new WorkerStats() : null;
+        this.mxbean = new ForkJoinPoolMXBeanImpl(this);
         this.config = (parallelism & SMASK) | mode;
         long np = (long)(-parallelism); // offset ctl counts
         this.ctl = ((np << AC_SHIFT) & AC_MASK) | ((np << TC_SHIFT) & TC_MASK);
@@ -2995,6 +3109,19 @@ public class ForkJoinPool extends AbstractExecutorService {
         return count;
     }
 
+    /**
+     * Returns the management interface of this pool.  Statistics
+     * other than those also available from methods of this class are
+     * only maintained if the pool runs in instrumentation mode; see
+     * the class description.
+     *
+     * @return the management interface of this pool
+     * @since 1.8
+     */
+    public ForkJoinPoolMXBean getMXBean() {
+        return mxbean;
+    }
+
     /**
      * Returns a string identifying this pool, as well as its state,
      * including indications of run state, parallelism level, and
@@ -3328,6 +3455,8 @@ public class ForkJoinPool extends AbstractExecutorService {
         if ((t instanceof ForkJoinWorkerThread) &&
             (p = (wt = (ForkJoinWorkerThread)t).pool) != null) {
             WorkQueue w = wt.workQueue;
+            if (w != null && w.stats != null)
+                ++w.stats.managedBlocks;
             while (!blocker.isReleasable()) {
                 if (p.tryCompensate(w)) {
                     try {
@@ -3411,6 +3540,12 @@ public class ForkJoinPool extends AbstractExecutorService {
         }
 
         commonMaxSpares = DEFAULT_COMMON_MAX_SPARES;
+        INSTRUMENTED = java.security.AccessController.doPrivileged
+            (new java.security.PrivilegedAction<Boolean>() {
+                public Boolean run() {
+                    return Boolean.getBoolean
+                        ("java.util.concurrent.ForkJoinPool.instrumentation");
+                }}).booleanValue();
         defaultForkJoinWorkerThreadFactory =
             new DefaultForkJoinWorkerThreadFactory();
         modifyThreadPermission = new RuntimePermission("modifyThread");
@@ -0,0 +1,196 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.concurrent;
+
+import java.lang.management.PlatformManagedObject;
+
+/**
+ * The management interface of a {@link ForkJoinPool}, obtained with
+ * {@link ForkJoinPool#getMXBean}.
+ *
+ * <p>The attributes that correspond to methods of {@code ForkJoinPool}
+ * are always available.  The remaining statistics (park counts and
+ * idle time, task time histograms and compensation events) are only
+ * maintained when the pool runs in instrumentation mode, that is when
+ * the system property {@code
+ * java.util.concurrent.ForkJoinPool.instrumentation} is set to {@code
+ * true}; otherwise they are reported as zero.  In instrumentation mode
+ * the MXBean of each pool is also registered with the {@linkplain
+ * java.lang.management.ManagementFactory#getPlatformMBeanServer
+ * platform MBeanServer} while the pool has workers, under the {@link
+ * #getObjectName ObjectName} {@code
+ * java.util.concurrent:type=ForkJoinPool,name=}<i>pool name</i>, where
+ * the pool name is the prefix of its worker thread names, for example
+ * {@code ForkJoinPool-1} or {@code ForkJoinPool.commonPool}.  The MXBean
+ * is registered when a worker starts, and unregistered when the pool
+ * terminates or when its last worker exits after the pool has been idle,
+ * so that the MBeanServer does not keep an unused pool reachable; the
+ * next worker to start registers it again.  Monitoring tools should
+ * therefore expect the MXBean of an idle pool to come and go.
+ *
+ * <p>The statistics aggregated over the pool include workers that
+ * have terminated.  All values are estimates taken while the pool is
+ * running.  Comparing per-worker statistics helps to tell apart the
+ * usual causes of poor throughput: uneven steal counts and task
+ * times indicate load imbalance, high idle time indicates a lack of
+ * parallelism in the workload, and frequent spare thread creation
+ * indicates tasks that block without or despite {@link
+ * ForkJoinPool.ManagedBlocker}.
+ *
+ * @see ForkJoinWorkerInfo
+ * @since 1.8
+ */
+public interface ForkJoinPoolMXBean extends PlatformManagedObject {
+
+    /**
+     * Returns the name of the pool, which is used as the prefix of the
+     * names of its worker threads.
+     *
+     * @return the name of the pool
+     */
+    String getName();
+
+    /**
+     * Returns whether the pool runs in instrumentation mode.
+     *
+     * @return {@code true} if the pool is instrumented
+     */
+    boolean isInstrumented();
+
+    /**
+     * Returns the targeted parallelism level of the pool.
+     *
+     * @return the targeted parallelism level
+     * @see ForkJoinPool#getParallelism
+     */
+    int getParallelism();
+
+    /**
+     * Returns the number of worker threads that have started but not
+     * yet terminated.
+     *
+     * @return the number of workers
+     * @see ForkJoinPool#getPoolSize
+     */
+    int getPoolSize();
+
+    /**
+     * Returns an estimate of the number of threads that are currently
+     * stealing or executing tasks.
+     *
+     * @return the number of active threads
+     * @see ForkJoinPool#getActiveThreadCount
+     */
+    int getActiveThreadCount();
+
+    /**
+     * Returns an estimate of the number of worker threads that are not
+     * blocked waiting to join tasks or for other managed
+     * synchronization.
+     *
+     * @return the number of running worker threads
+     * @see ForkJoinPool#getRunningThreadCount
+     */
+    int getRunningThreadCount();
+
+    /**
+     * Returns an estimate of the total number of tasks stolen from one
+     * thread's work queue by another.
+     *
+     * @return the number of steals
+     * @see ForkJoinPool#getStealCount
+     */
+    long getStealCount();
+
+    /**
+     * Returns an estimate of the total number of tasks currently held
+     * in queues by worker threads.
+     *
+     * @return the number of queued tasks
+     * @see ForkJoinPool#getQueuedTaskCount
+     */
+    long getQueuedTaskCount();
+
+    /**
+     * Returns an estimate of the number of tasks submitted to the pool
+     * that have not yet begun executing.
+     *
+     * @return the number of queued submissions
+     * @see ForkJoinPool#getQueuedSubmissionCount
+     */
+    int getQueuedSubmissionCount();
+
+    /**
+     * Returns whether all worker threads are currently idle.
+     *
+     * @return {@code true} if all threads are currently idle
+     * @see ForkJoinPool#isQuiescent
+     */
+    boolean isQuiescent();
+
+    /**
+     * Returns the total time, in nanoseconds, workers spent parked for
+     * lack of work.
+     *
+     * @return the idle time in nanoseconds
+     */
+    long getIdleTime();
+
+    /**
+     * Returns the number of spare threads created to maintain
+     * parallelism while workers were blocked.
+     *
+     * @return the number of spare threads created
+     */
+    long getSpareThreadCount();
+
+    /**
+     * Returns the number of idle workers released to maintain
+     * parallelism while workers were blocked.
+     *
+     * @return the number of idle workers released
+     */
+    long getReleasedWorkerCount();
+
+    /**
+     * Returns the number of times workers blocked without
+     * compensation.
+     *
+     * @return the number of uncompensated blocks
+     */
+    long getUncompensatedBlockCount();
+
+    /**
+     * Returns the number of calls to {@link ForkJoinPool#managedBlock}
+     * by workers.
+     *
+     * @return the number of managed blocks
+     */
+    long getManagedBlockCount();
+
+    /**
+     * Returns the histogram of top-level task execution times over all
+     * workers, in the format described in {@link
+     * ForkJoinWorkerInfo#getTaskTimeHistogram}.
+     *
+     * @return the task execution time histogram
+     */
+    long[] getTaskTimeHistogram();
+
+    /**
+     * Returns the statistics of each current worker.
+     *
+     * @return the statistics of the workers
+     */
+    ForkJoinWorkerInfo[] getWorkerInfo();
+}
@@ -0,0 +1,220 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.concurrent;
+
+import java.lang.management.ManagementFactory;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Implementation of {@link ForkJoinPoolMXBean}.  Reads the pool's
+ * work queues directly; the management classes are only loaded when
+ * the bean is first registered, which never happens during the
+ * construction of the common pool.
+ */
+final class ForkJoinPoolMXBeanImpl implements ForkJoinPoolMXBean {
+    private static final String WORKER_SUFFIX = "-worker-";
+
+    private final ForkJoinPool pool;
+    private ObjectName objectName;  // lazily created, guarded by this
+    private boolean registered;     // guarded by this
+    private boolean terminated;     // guarded by this
+
+    ForkJoinPoolMXBeanImpl(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Registers this bean with the platform MBeanServer unless already
+     * done.  Failures are ignored, as management must not interfere
+     * with the pool.
+     */
+    synchronized void register() {
+        if (registered || terminated)
+            return;
+        registered = true;
+        final ObjectName name = getObjectName();
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            public Void run() {
+                try {
+                    MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+                    if (!mbs.isRegistered(name))
+                        mbs.registerMBean(ForkJoinPoolMXBeanImpl.this, name);
+                } catch (Throwable ignore) {
+                }
+                return null;
+            }});
+    }
+
+    /**
+     * Unregisters this bean once the pool has terminated.
+     */
+    synchronized void unregister() {
+        terminated = true;
+        release();
+    }
+
+    /**
+     * Unregisters this bean if the pool has no workers left, so that
+     * the platform MBeanServer does not keep an idle pool reachable.
+     * The next worker to start registers it again.  Workers are
+     * counted before they call register(), so one starting
+     * concurrently is either seen here or re-registers afterwards.
+     */
+    synchronized void unregisterIfIdle() {
+        if (pool.getPoolSize() == 0)
+            release();
+    }
+
+    private void release() {
+        if (!registered)
+            return;
+        registered = false;
+        final ObjectName name = getObjectName();
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            public Void run() {
+                try {
+                    ManagementFactory.getPlatformMBeanServer()
+                        .unregisterMBean(name);
+                } catch (Throwable ignore) {
+                }
+                return null;
+            }});
+    }
+
+    public synchronized ObjectName getObjectName() {
+        if (objectName == null) {
+            try {
+                objectName = new ObjectName(
+                    "java.util.concurrent:type=ForkJoinPool,name=" +
+                    getName());
+            } catch (Exception e) {
+                throw new InternalError(e);
+            }
+        }
+        return objectName;
+    }
+
+    public String getName() {
+        String p = pool.workerNamePrefix;
+        return p.endsWith(WORKER_SUFFIX) ?
+            p.substring(0, p.length() - WORKER_SUFFIX.length()) : p;
+    }
+
+    public boolean isInstrumented() {
+        return ForkJoinPool.INSTRUMENTED;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getPoolSize() {
+        return pool.getPoolSize();
+    }
+
+    public int getActiveThreadCount() {
+        return pool.getActiveThreadCount();
+    }
+
+    public int getRunningThreadCount() {
+        return pool.getRunningThreadCount();
+    }
+
+    public long getStealCount() {
+        return pool.getStealCount();
+    }
+
+    public long getQueuedTaskCount() {
+        return pool.getQueuedTaskCount();
+    }
+
+    public int getQueuedSubmissionCount() {
+        return pool.getQueuedSubmissionCount();
+    }
+
+    public boolean isQuiescent() {
+        return pool.isQuiescent();
+    }
+
+    public long getIdleTime() {
+        return totals().idleNanos;
+    }
+
+    public long getSpareThreadCount() {
+        return totals().spares;
+    }
+
+    public long getReleasedWorkerCount() {
+        return totals().releases;
+    }
+
+    public long getUncompensatedBlockCount() {
+        return totals().uncompensated;
+    }
+
+    public long getManagedBlockCount() {
+        return totals().managedBlocks;
+    }
+
+    public long[] getTaskTimeHistogram() {
+        return totals().histogram;
+    }
+
+    public ForkJoinWorkerInfo[] getWorkerInfo() {
+        ArrayList<ForkJoinWorkerInfo> list = new ArrayList<ForkJoinWorkerInfo>();
+        ForkJoinPool.WorkQueue[] ws = pool.workQueues;
+        if (ws != null) {
+            for (int i = 1; i < ws.length; i += 2) {
+                ForkJoinPool.WorkQueue w; ForkJoinWorkerThread wt;
+                if ((w = ws[i]) != null && (wt = w.owner) != null) {
+                    ForkJoinPool.WorkerStats st = w.stats;
+                    if (st == null)
+                        st = new ForkJoinPool.WorkerStats();
+                    list.add(new ForkJoinWorkerInfo(
+                        wt.getName(), w.getPoolIndex(), st.steals,
+                        w.queueSize(), st.parks, st.idleNanos, st.spares,
+                        st.releases, st.uncompensated, st.managedBlocks,
+                        st.histogram));
+                }
+            }
+        }
+        return list.toArray(new ForkJoinWorkerInfo[list.size()]);
+    }
+
+    /**
+     * Returns the sum of the statistics of terminated and current
+     * workers.
+     */
+    private ForkJoinPool.WorkerStats totals() {
+        ForkJoinPool.WorkerStats sum = new ForkJoinPool.WorkerStats();
+        ForkJoinPool.WorkerStats rt = pool.retiredStats;
+        if (rt != null) {
+            synchronized (rt) {
+                sum.add(rt);
+            }
+            ForkJoinPool.WorkQueue[] ws = pool.workQueues;
+            if (ws != null) {
+                for (int i = 1; i < ws.length; i += 2) {
+                    ForkJoinPool.WorkQueue w; ForkJoinPool.WorkerStats st;
+                    if ((w = ws[i]) != null && (st = w.stats) != null)
+                        sum.add(st);
+                }
+            }
+        }
+        return sum;
+    }
+}
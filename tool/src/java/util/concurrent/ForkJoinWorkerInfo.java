@@ -0,0 +1,203 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.concurrent;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A snapshot of the execution statistics of one worker thread of a
+ * {@link ForkJoinPool}, as reported by {@link
+ * ForkJoinPoolMXBean#getWorkerInfo}.  Apart from the queue length, the
+ * statistics are only maintained when the pool runs in
+ * instrumentation mode (see {@link ForkJoinPoolMXBean}); otherwise
+ * they are zero.  All values are approximate, as they are read while
+ * the worker is running.
+ *
+ * @since 1.8
+ */
+public class ForkJoinWorkerInfo {
+    private final String threadName;
+    private final int poolIndex;
+    private final long stealCount;
+    private final int queuedTaskCount;
+    private final long parkCount;
+    private final long idleTime;
+    private final long spareThreadCount;
+    private final long releasedWorkerCount;
+    private final long uncompensatedBlockCount;
+    private final long managedBlockCount;
+    private final long[] taskTimeHistogram;
+
+    /**
+     * Creates a {@code ForkJoinWorkerInfo}.
+     *
+     * @param threadName the name of the worker thread
+     * @param poolIndex the index of the worker in its pool
+     * @param stealCount the number of tasks the worker stole
+     * @param queuedTaskCount the number of tasks in the worker's queue
+     * @param parkCount the number of times the worker parked while idle
+     * @param idleTime the total time, in nanoseconds, the worker was
+     *        parked while idle
+     * @param spareThreadCount the number of spare threads created when
+     *        the worker blocked
+     * @param releasedWorkerCount the number of idle workers released
+     *        when the worker blocked
+     * @param uncompensatedBlockCount the number of times the worker
+     *        blocked without compensation
+     * @param managedBlockCount the number of times the worker called
+     *        {@link ForkJoinPool#managedBlock}
+     * @param taskTimeHistogram the task execution time histogram
+     */
+    @ConstructorProperties({"threadName", "poolIndex", "stealCount",
+                            "queuedTaskCount", "parkCount", "idleTime",
+                            "spareThreadCount", "releasedWorkerCount",
+                            "uncompensatedBlockCount", "managedBlockCount",
+                            "taskTimeHistogram"})
+    public ForkJoinWorkerInfo(String threadName, int poolIndex,
+                              long stealCount, int queuedTaskCount,
+                              long parkCount, long idleTime,
+                              long spareThreadCount,
+                              long releasedWorkerCount,
+                              long uncompensatedBlockCount,
+                              long managedBlockCount,
+                              long[] taskTimeHistogram) {
+        this.threadName = threadName;
+        this.poolIndex = poolIndex;
+        this.stealCount = stealCount;
+        this.queuedTaskCount = queuedTaskCount;
+        this.parkCount = parkCount;
+        this.idleTime = idleTime;
+        this.spareThreadCount = spareThreadCount;
+        this.releasedWorkerCount = releasedWorkerCount;
+        this.uncompensatedBlockCount = uncompensatedBlockCount;
+        this.managedBlockCount = managedBlockCount;
+        this.taskTimeHistogram = taskTimeHistogram.clone();
+    }
+
+    /**
+     * Returns the name of the worker thread.
+     *
+     * @return the name of the worker thread
+     */
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * Returns the index of the worker in its pool, as reported by
+     * {@link ForkJoinWorkerThread#getPoolIndex}.
+     *
+     * @return the index of the worker
+     */
+    public int getPoolIndex() {
+        return poolIndex;
+    }
+
+    /**
+     * Returns the number of tasks the worker took from other queues,
+     * either at top level or while helping to join a task.
+     *
+     * @return the number of steals
+     */
+    public long getStealCount() {
+        return stealCount;
+    }
+
+    /**
+     * Returns the number of tasks currently held in the worker's
+     * queue.  This value is available whether or not the pool is
+     * instrumented.
+     *
+     * @return the number of queued tasks
+     */
+    public int getQueuedTaskCount() {
+        return queuedTaskCount;
+    }
+
+    /**
+     * Returns the number of times the worker parked for lack of work.
+     *
+     * @return the number of idle parks
+     */
+    public long getParkCount() {
+        return parkCount;
+    }
+
+    /**
+     * Returns the total time, in nanoseconds, the worker spent parked
+     * for lack of work.
+     *
+     * @return the idle time in nanoseconds
+     */
+    public long getIdleTime() {
+        return idleTime;
+    }
+
+    /**
+     * Returns the number of spare threads created to maintain
+     * parallelism while the worker was blocked in a join or in {@link
+     * ForkJoinPool#managedBlock}.
+     *
+     * @return the number of spare threads created
+     */
+    public long getSpareThreadCount() {
+        return spareThreadCount;
+    }
+
+    /**
+     * Returns the number of idle workers released to maintain
+     * parallelism while the worker was blocked in a join or in {@link
+     * ForkJoinPool#managedBlock}.
+     *
+     * @return the number of idle workers released
+     */
+    public long getReleasedWorkerCount() {
+        return releasedWorkerCount;
+    }
+
+    /**
+     * Returns the number of times the worker blocked in a join or in
+     * {@link ForkJoinPool#managedBlock} while enough other workers
+     * were active that no compensation was needed.
+     *
+     * @return the number of uncompensated blocks
+     */
+    public long getUncompensatedBlockCount() {
+        return uncompensatedBlockCount;
+    }
+
+    /**
+     * Returns the number of times the worker called {@link
+     * ForkJoinPool#managedBlock}.
+     *
+     * @return the number of managed blocks
+     */
+    public long getManagedBlockCount() {
+        return managedBlockCount;
+    }
+
+    /**
+     * Returns the histogram of execution times of the top-level tasks
+     * run by the worker.  Element {@code 0} counts tasks that took less
+     * than one nanosecond, and element {@code i > 0} counts tasks that
+     * took at least 2<sup>i-1</sup> and less than 2<sup>i</sup>
+     * nanoseconds, except that the last element also counts all longer
+     * tasks.  The time of a top-level task includes the time spent
+     * running the local tasks it forked and helping to join them.
+     *
+     * @return the task execution time histogram
+     */
+    public long[] getTaskTimeHistogram() {
+        return taskTimeHistogram.clone();
+    }
+}
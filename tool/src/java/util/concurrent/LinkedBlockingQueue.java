@@ -212,6 +212,45 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         last = last.next = node;
     }
 
+    /**
+     * Links the first n nodes of the given chain at end of queue.
+     *
+     * @param first the first node of the chain
+     * @param n the number of nodes to link, at least one
+     * @return the remainder of the chain
+     */
+    private Node<E> enqueueAll(Node<E> first, int n) {
+        // assert putLock.isHeldByCurrentThread();
+        // assert last.next == null;
+        Node<E> tail = first;
+        while (--n > 0)
+            tail = tail.next;
+        Node<E> rest = tail.next;
+        tail.next = null;
+        last.next = first;
+        last = tail;
+        return rest;
+    }
+
+    /**
+     * Creates a chain of nodes holding the given elements, in order.
+     *
+     * @return the first node, or null if there are no elements
+     * @throws NullPointerException if any element is null
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E> newChain(Object[] a) {
+        Node<E> first = null;
+        for (int i = a.length - 1; i >= 0; i--) {
+            Object x = a[i];
+            if (x == null) throw new NullPointerException();
+            Node<E> node = new Node<E>((E) x);
+            node.next = first;
+            first = node;
+        }
+        return first;
+    }
+
     /**
      * Removes a node from head of queue.
      *
@@ -773,6 +812,93 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * Inserts as many elements of the given collection as fit in the
+     * remaining capacity of this queue, in iteration order, acquiring
+     * the put lock only once.  Nodes are created before the lock is
+     * acquired.  No element is inserted if any of them is null.
+     *
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c) {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        Node<E> first = newChain(a);
+        final AtomicInteger count = this.count;
+        if (first == null || count.get() == capacity)
+            return 0;
+        int n = 0;
+        int k = -1;
+        final ReentrantLock putLock = this.putLock;
+        putLock.lock();
+        try {
+            n = Math.min(a.length, capacity - count.get());
+            if (n > 0) {
+                enqueueAll(first, n);
+                k = count.getAndAdd(n);
+                if (k + n < capacity)
+                    notFull.signal();
+            }
+        } finally {
+            putLock.unlock();
+        }
+        if (k == 0)
+            signalNotEmpty();
+        return n;
+    }
+
+    /**
+     * Inserts all elements of the given collection into this queue,
+     * in iteration order, waiting if necessary for space to become
+     * available.  The put lock is held while inserting as many
+     * elements as fit at a time, and is released only while waiting.
+     * No element is inserted if any of them is null.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public void putAll(Collection<? extends E> c) throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        Node<E> rest = newChain(a);
+        if (rest == null)
+            return;
+        // Whether takes must be signalled because this call made the
+        // queue non-empty
+        boolean signal = false;
+        final ReentrantLock putLock = this.putLock;
+        final AtomicInteger count = this.count;
+        putLock.lockInterruptibly();
+        try {
+            for (int i = 0; i < a.length; ) {
+                while (count.get() == capacity) {
+                    if (signal) {
+                        signal = false;
+                        signalNotEmpty();
+                    }
+                    notFull.await();
+                }
+                int n = Math.min(a.length - i, capacity - count.get());
+                rest = enqueueAll(rest, n);
+                i += n;
+                if (count.getAndAdd(n) == 0)
+                    signal = true;
+            }
+            if (count.get() < capacity)
+                notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+        if (signal)
+            signalNotEmpty();
+    }
+
     /**
      * Returns an iterator over the elements in this queue in proper sequence.
      * The elements will be returned in order from first (head) to last (tail).
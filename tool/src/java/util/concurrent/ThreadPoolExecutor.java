@@ -102,7 +102,9 @@ import java.util.*;
  * number of concurrent tasks. Most typically, core and maximum pool
  * sizes are set only upon construction, but they may also be changed
  * dynamically using {@link #setCorePoolSize} and {@link
- * #setMaximumPoolSize}. </dd>
+ * #setMaximumPoolSize}. An {@link AdaptivePoolSizer} may be used to
+ * adjust the core size periodically according to observed
+ * throughput. </dd>
  *
  * <dt>On-demand construction</dt>
  *
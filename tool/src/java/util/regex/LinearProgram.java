@@ -0,0 +1,1378 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.regex;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A linear-time matching engine for the regular subset of {@link Pattern},
+ * used by patterns created with {@link Pattern#compileLinear}.
+ *
+ * <p>The node tree built by the pattern compiler is translated into a
+ * program for a Pike virtual machine, which runs all matching paths in
+ * lock step, one input character at a time.  Threads are kept in the
+ * priority order in which the backtracking nodes would try them and a
+ * thread that reaches an instruction already visited at the same input
+ * position is dropped, so the first thread to reach the end of the
+ * program is the match the backtracking engine would have found, and no
+ * input character is examined more than once per instruction.  Character
+ * classes, literal slices, boundaries and anchors reuse the nodes'
+ * own tests, so the two engines agree on what each construct matches.
+ *
+ * <p>Counted repetitions are unrolled.  Back references, lookaround,
+ * possessive quantifiers, independent groups, counted repetitions of
+ * groups that can match the empty string and capturing groups within a
+ * repeated group that has no alternatives (whose stale captures the
+ * backtracking engine leaves behind) cannot be expressed this way and
+ * are rejected at compile time.
+ *
+ * <p>Programs without zero-width assertions also get lazily built DFAs,
+ * shared by all matchers of the pattern.  One decides whether there is a
+ * match at all, so most inputs in a grep-style scan never reach the Pike
+ * machine; another then finds where the leftmost match starts, so the
+ * Pike machine only runs threads from there, and when nothing is captured
+ * a third one with ordered states finds where it ends instead.  When
+ * every match must begin with a literal string, the DFAs and the Pike
+ * machine skip directly to its occurrences.
+ *
+ * <p>The {@code hitEnd} and {@code requireEnd} flags are approximated: the
+ * Pike machine reports the end of input as hit when any thread that was
+ * still live tried to read past it, which may differ from the result of
+ * the backtracking engine when a match is found.
+ */
+final class LinearProgram {
+
+    /*
+     * Instructions.  Those consuming a code point that may be a
+     * surrogate pair, and the line ending that may be CR LF, are
+     * followed by a SKIP, which the thread visits after consuming the
+     * first char of a two-char sequence.
+     */
+    private static final int CHAR     = 0;   // a: char, b: case mode
+    private static final int CHAR_CP  = 1;   // a: code point, b: case mode
+    private static final int PROP     = 2;   // node: BmpCharProperty
+    private static final int PROP_CP  = 3;   // node: CharProperty
+    private static final int LINE_END = 4;
+    private static final int SKIP     = 5;
+    private static final int ASSERT   = 6;   // node: zero width assertion
+    private static final int SPLIT    = 7;   // a: preferred target, b: other
+    private static final int JMP      = 8;   // a: target
+    private static final int NOP      = 9;
+    private static final int HEAD     = 10;  // a: local slot
+    private static final int TAIL     = 11;  // a: local slot, b: group index
+    private static final int TAIL_NE  = 12;  // TAIL unless the group is empty
+    private static final int LOOP     = 13;  // a: local slot, b: body start
+    private static final int LAZY_LOOP = 14;
+    private static final int MATCH    = 15;
+    private static final int FREEZE   = 16;  // a: group index
+
+    // Case modes of CHAR and CHAR_CP
+    private static final int EXACT      = 0;
+    private static final int ASCII_CI   = 1;
+    private static final int UNICODE_CI = 2;
+
+    // How the search operation picks start positions
+    private static final int START    = 0;   // every position
+    private static final int START_S  = 1;   // every code point
+    private static final int ANCHORED = 2;   // the search position only
+
+    /** Upper bound on the number of instructions, after unrolling. */
+    private static final int MAX_PROGRAM = 50000;
+
+    /** Upper bound on the number of cached DFA states per DFA. */
+    private static final int MAX_DFA_STATES = 2048;
+
+    // Results of a DFA scan
+    private static final int NOT_FOUND = 0;
+    private static final int FOUND     = 1;
+    private static final int UNKNOWN   = 2;
+
+    /**
+     * The continuation of a cloned assertion node, so that matching the
+     * clone performs only the assertion's own test.
+     */
+    private static final Pattern.Node TRUE = new Pattern.Node() {
+        boolean match(Matcher matcher, int i, CharSequence seq) {
+            return true;
+        }
+    };
+
+    private final Pattern pattern;
+    private final int[] op;
+    private final int[] a;
+    private final int[] b;
+    private final Pattern.Node[] node;
+    private final int size;
+
+    /*
+     * Whether the thread at an instruction in the body of a Loop leaves
+     * the loop at its end depends on whether the current iteration has
+     * matched anything, so threads are told apart by the number of the
+     * innermost enclosing loops whose current iteration started at the
+     * current position.  Each instruction has one key per possible count.
+     */
+    private final int[] keyBase;
+    private final int[] loopOf;      // innermost enclosing loop, or -1
+    private final int[] loopParent;
+    private final int[] loopSlot;
+    private final int keys;
+
+    // Capture slots: groups[2..] then the group head positions, or
+    // only the start position when there are no capturing groups
+    private final int groupSlots;
+    private final int slots;
+
+    /*
+     * A greedy GroupCurly that ends after an optional iteration sets its
+     * group once more when the rest of the match has succeeded, so the
+     * first such repetition in a match overrides any later one.  Its
+     * FREEZE sets the flag of the group, after the head positions, that
+     * makes later tails of the group leave it alone.  -1 when there are
+     * no such repetitions.
+     */
+    private final int frozenBase;
+
+    private final int startKind;
+    private final int minLength;
+    private final String prefix;
+
+    // Null when the program has assertions or line endings
+    private final Dfa unanchored;
+    private final Dfa anchored;
+
+    // Finds the end of the match in place of the Pike machine; null
+    // when there is no DFA or the program captures groups
+    private final Dfa leftmostFirst;
+
+    private LinearProgram(Pattern pattern, Compiler c) {
+        this.pattern = pattern;
+        this.size = c.n;
+        this.op = Arrays.copyOf(c.op, size);
+        this.a = Arrays.copyOf(c.a, size);
+        this.b = Arrays.copyOf(c.b, size);
+        this.node = Arrays.copyOf(c.node, size);
+        this.loopOf = Arrays.copyOf(c.loopOf, size);
+
+        boolean captures = false;
+        boolean dfa = true;
+        for (int pc = 0; pc < size; pc++) {
+            switch (op[pc]) {
+            case HEAD:
+                if (!c.usedLocal[a[pc]])
+                    op[pc] = NOP;
+                break;
+            case TAIL:
+            case TAIL_NE:
+            case LOOP:
+            case LAZY_LOOP:
+                captures = true;
+                break;
+            case ASSERT:
+            case LINE_END:
+                dfa = false;
+                break;
+            default:
+                break;
+            }
+        }
+        int groups = pattern.capturingGroupCount * 2;
+        for (int pc = 0; pc < size; pc++) {
+            int o = op[pc];
+            if (o == HEAD || o == TAIL || o == TAIL_NE
+                || o == LOOP || o == LAZY_LOOP)
+                a[pc] += groups;
+        }
+        this.loopParent = Arrays.copyOf(c.loopParent, c.loops);
+        this.loopSlot = Arrays.copyOf(c.loopLocal, c.loops);
+        for (int l = 0; l < loopSlot.length; l++)
+            loopSlot[l] += groups;
+        this.keyBase = new int[size];
+        int k = 0;
+        for (int pc = 0; pc < size; pc++) {
+            keyBase[pc] = k++;
+            for (int l = loopOf[pc]; l >= 0; l = loopParent[l])
+                k++;
+        }
+        this.keys = k;
+        this.groupSlots = captures ? groups : 1;
+        this.frozenBase = c.freezes ? groups + pattern.localCount : -1;
+        this.slots = !captures ? 1
+            : groups + pattern.localCount + (c.freezes ? groups / 2 : 0);
+
+        Pattern.Node root = pattern.root;
+        if (root instanceof Pattern.StartS) {
+            startKind = START_S;
+            minLength = ((Pattern.Start) root).minLength;
+        } else if (root instanceof Pattern.Start) {
+            startKind = START;
+            minLength = ((Pattern.Start) root).minLength;
+        } else if (root instanceof Pattern.BnMS) {
+            startKind = START_S;
+            minLength = ((Pattern.BnMS) root).lengthInChars;
+        } else if (root instanceof Pattern.BnM) {
+            startKind = START;
+            minLength = ((Pattern.BnM) root).buffer.length;
+        } else {
+            startKind = ANCHORED;
+            minLength = 0;
+        }
+        this.prefix = (startKind == ANCHORED) ? null : literalPrefix();
+        this.unanchored = (dfa && startKind != ANCHORED)
+            ? new Dfa(true, false) : null;
+        this.anchored = dfa ? new Dfa(false, false) : null;
+        this.leftmostFirst = (dfa && !captures) ? new Dfa(false, true) : null;
+    }
+
+    /**
+     * Translates the node tree of the given compiled pattern.
+     *
+     * @throws PatternSyntaxException if the pattern uses a construct that
+     *         cannot be matched in linear time
+     */
+    static LinearProgram compile(Pattern pattern) {
+        Compiler c = new Compiler(pattern);
+        c.chain(pattern.matchRoot, null);
+        return new LinearProgram(pattern, c);
+    }
+
+    /**
+     * The literal string every match starts with, or null.
+     */
+    private String literalPrefix() {
+        StringBuilder sb = new StringBuilder();
+        int pc = 0;
+        boolean[] seen = new boolean[size];
+        while (!seen[pc]) {
+            seen[pc] = true;
+            int o = op[pc];
+            if (o == CHAR && b[pc] == EXACT
+                && !Character.isSurrogate((char) a[pc])) {
+                sb.append((char) a[pc]);
+                pc++;
+            } else if (o == JMP) {
+                pc = a[pc];
+            } else if (o == NOP || o == HEAD || o == TAIL || o == TAIL_NE
+                       || o == FREEZE || o == ASSERT) {
+                // Zero width, so the prefix still starts the match
+                pc++;
+            } else {
+                break;
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
+    /**
+     * Matches the text between the bounds of the given matcher, starting
+     * at or after the given position, as {@code Matcher.search} does.
+     */
+    boolean search(Matcher matcher, int from, CharSequence seq) {
+        if (straddlesEnd(matcher, seq))
+            return pattern.root.match(matcher, from, seq);
+        if (unanchored != null) {
+            Workspace ws = workspace(matcher);
+            int r = unanchored.scan(matcher, ws, from, matcher.to, seq,
+                                    false);
+            if (r == NOT_FOUND) {
+                matcher.hitEnd = true;
+                return false;
+            }
+            if (r == FOUND) {
+                // Threads started after the leftmost start are cut off
+                // once it matches, so the Pike machine need not run them
+                int start = leftmostStart(matcher, ws, from, ws.scanEnd, seq);
+                if (start >= 0) {
+                    int end = (leftmostFirst != null)
+                        ? leftmostFirst.matchEnd(matcher, start, seq) : -1;
+                    if (end >= 0)
+                        return setMatch(matcher, start, end);
+                    return run(matcher, start, seq, true);
+                }
+            }
+        }
+        return run(matcher, from, seq, startKind == ANCHORED);
+    }
+
+    /**
+     * Returns the first position from which the root node would try and
+     * find a match, given that a match ends at the given position, or -1
+     * if it takes too long to tell.  The work done is linear in the
+     * distance between the positions.
+     */
+    private int leftmostStart(Matcher matcher, Workspace ws, int from,
+                              int end, CharSequence seq) {
+        int to = matcher.to;
+        int budget = 2 * (end - from) + 64;
+        for (int p = from; p <= end; p++) {
+            if (!canStart(seq, from, p, to))
+                continue;
+            int r = anchored.scan(matcher, ws, p, Math.min(to, p + budget),
+                                  seq, false);
+            if (r == FOUND)
+                return p;
+            budget -= ws.scanEnd - p + 1;
+            if (r == UNKNOWN || budget < 0)
+                return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Matches the text between the given position and the end of the
+     * bounds of the given matcher, as {@code Matcher.match} does.
+     */
+    boolean match(Matcher matcher, int from, CharSequence seq) {
+        if (straddlesEnd(matcher, seq))
+            return pattern.matchRoot.match(matcher, from, seq);
+        if (anchored != null) {
+            boolean end = matcher.acceptMode == Matcher.ENDANCHOR;
+            int r = anchored.scan(matcher, workspace(matcher), from,
+                                  matcher.to, seq, end);
+            if (r == NOT_FOUND)
+                return false;
+            if (r == FOUND && leftmostFirst != null) {
+                if (end)
+                    return setMatch(matcher, from, matcher.to);
+                int last = leftmostFirst.matchEnd(matcher, from, seq);
+                if (last >= 0)
+                    return setMatch(matcher, from, last);
+            }
+        }
+        return run(matcher, from, seq, true);
+    }
+
+    /**
+     * The nodes may read the low surrogate following the end of the
+     * bounds and step past the end; leave that case to them.
+     */
+    private static boolean straddlesEnd(Matcher matcher, CharSequence seq) {
+        int to = matcher.to;
+        return to > 0 && to < matcher.getTextLength()
+            && Character.isHighSurrogate(seq.charAt(to - 1))
+            && Character.isLowSurrogate(seq.charAt(to));
+    }
+
+    private static boolean charMatches(int mode, int c, int ch) {
+        if (c == ch)
+            return true;
+        switch (mode) {
+        case ASCII_CI:
+            return c == ASCII.toLower(ch);
+        case UNICODE_CI:
+            return c == Character.toLowerCase(Character.toUpperCase(ch));
+        default:
+            return false;
+        }
+    }
+
+    private boolean startsWithPrefix(CharSequence seq, int i, int to) {
+        String p = prefix;
+        int len = p.length();
+        if (i + len > to)
+            return false;
+        for (int j = 0; j < len; j++) {
+            if (seq.charAt(i + j) != p.charAt(j))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first occurrence of the prefix at or after i that ends
+     * at or before to, or -1.
+     */
+    private int indexOfPrefix(CharSequence seq, int i, int to) {
+        String p = prefix;
+        int last = to - p.length();
+        if (seq instanceof String) {
+            int k = ((String) seq).indexOf(p, i);
+            return (k >= 0 && k <= last) ? k : -1;
+        }
+        char c0 = p.charAt(0);
+        for (; i <= last; i++) {
+            if (seq.charAt(i) == c0 && startsWithPrefix(seq, i, to))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Runs the Pike machine and sets the match state of the matcher.
+     */
+    private boolean run(Matcher matcher, int from, CharSequence seq,
+                        boolean anchor) {
+        int to = matcher.to;
+        int guard = anchor ? from : to - minLength;
+        if (from > guard) {
+            // As Start does when there is no room left for a match
+            matcher.hitEnd = true;
+            return false;
+        }
+        Workspace ws = workspace(matcher);
+        Threads clist = ws.clist;
+        Threads nlist = ws.nlist;
+        clist.clear();
+        nlist.clear();
+        int[] stackPc = ws.stackPc;
+        int[][] stackCaps = ws.stackCaps;
+        int[] matched = null;
+        int matchEnd = -1;
+        int pos = from;
+        for (;;) {
+            if (matched == null && pos <= guard
+                && (anchor || canStart(seq, from, pos, to))) {
+                int[] caps = new int[slots];
+                Arrays.fill(caps, -1);
+                caps[0] = pos;
+                addThread(clist, 0, caps, matcher, pos, seq,
+                          stackPc, stackCaps);
+            }
+            if (clist.count == 0) {
+                if (matched != null || pos >= guard)
+                    break;
+                clist.clear();
+                if (prefix != null) {
+                    int p = indexOfPrefix(seq, pos + 1, to);
+                    if (p < 0 || p > guard)
+                        break;
+                    pos = p;
+                } else {
+                    pos++;
+                }
+                continue;
+            }
+            nlist.clear();
+            for (int t = 0; t < clist.count; t++) {
+                int pc = clist.pcs[t];
+                int[] caps = clist.caps[t];
+                int o = op[pc];
+                if (o == MATCH) {
+                    // Lower priority threads are cut off
+                    matched = caps;
+                    matchEnd = pos;
+                    break;
+                }
+                if (o != SKIP && pos >= to) {
+                    matcher.hitEnd = true;
+                    continue;
+                }
+                int next = -1;
+                switch (o) {
+                case CHAR:
+                    if (charMatches(b[pc], a[pc], seq.charAt(pos)))
+                        next = pc + 1;
+                    break;
+                case CHAR_CP: {
+                    int ch = Character.codePointAt(seq, pos);
+                    if (charMatches(b[pc], a[pc], ch))
+                        next = (ch >= Character.MIN_SUPPLEMENTARY_CODE_POINT)
+                            ? pc + 1 : pc + 2;
+                    break;
+                }
+                case PROP:
+                    if (((Pattern.CharProperty) node[pc])
+                            .isSatisfiedBy(seq.charAt(pos)))
+                        next = pc + 1;
+                    break;
+                case PROP_CP: {
+                    int ch = Character.codePointAt(seq, pos);
+                    if (((Pattern.CharProperty) node[pc]).isSatisfiedBy(ch))
+                        next = (ch >= Character.MIN_SUPPLEMENTARY_CODE_POINT)
+                            ? pc + 1 : pc + 2;
+                    break;
+                }
+                case LINE_END: {
+                    int ch = seq.charAt(pos);
+                    if (ch == 0x0D) {
+                        next = (pos + 1 < to && seq.charAt(pos + 1) == 0x0A)
+                            ? pc + 1 : pc + 2;
+                    } else if (ch == 0x0A || ch == 0x0B || ch == 0x0C ||
+                               ch == 0x85 || ch == 0x2028 || ch == 0x2029) {
+                        next = pc + 2;
+                    }
+                    break;
+                }
+                case SKIP:
+                    next = pc + 1;
+                    break;
+                default:
+                    throw new InternalError();
+                }
+                if (next >= 0)
+                    addThread(nlist, next, caps, matcher, pos + 1, seq,
+                              stackPc, stackCaps);
+            }
+            Threads tmp = clist;
+            clist = nlist;
+            nlist = tmp;
+            if (pos >= to && clist.count == 0)
+                break;
+            pos++;
+        }
+
+        if (matched == null) {
+            if (!anchor)
+                matcher.hitEnd = true;
+            return false;
+        }
+        matcher.first = matched[0];
+        matcher.last = matchEnd;
+        matcher.groups[0] = matcher.first;
+        matcher.groups[1] = matchEnd;
+        for (int i = 2; i < groupSlots; i++)
+            matcher.groups[i] = matched[i];
+        return true;
+    }
+
+    private static boolean setMatch(Matcher matcher, int first, int last) {
+        matcher.first = first;
+        matcher.last = last;
+        matcher.groups[0] = first;
+        matcher.groups[1] = last;
+        return true;
+    }
+
+    private Workspace workspace(Matcher matcher) {
+        Workspace ws = matcher.linearWorkspace;
+        if (ws == null || ws.keys != keys)
+            matcher.linearWorkspace = ws = new Workspace(keys);
+        return ws;
+    }
+
+    /**
+     * Returns true if the search operation of the root node would try a
+     * match at the given position.
+     */
+    private boolean canStart(CharSequence seq, int from, int pos, int to) {
+        if (startKind == START_S && pos > from && pos < seq.length()
+            && Character.isLowSurrogate(seq.charAt(pos))
+            && Character.isHighSurrogate(seq.charAt(pos - 1)))
+            return false;
+        return prefix == null || startsWithPrefix(seq, pos, to);
+    }
+
+    /**
+     * Adds the thread at the given instruction to the list, following
+     * jumps, splits and zero width instructions in priority order.
+     */
+    private void addThread(Threads list, int pc0, int[] caps0,
+                           Matcher matcher, int pos, CharSequence seq,
+                           int[] stackPc, int[][] stackCaps) {
+        int sp = 0;
+        stackPc[sp] = pc0;
+        stackCaps[sp++] = caps0;
+        while (sp > 0) {
+            int pc = stackPc[--sp];
+            int[] caps = stackCaps[sp];
+            stackCaps[sp] = null;
+            for (;;) {
+                int key = keyBase[pc];
+                for (int l = loopOf[pc]; l >= 0 && caps[loopSlot[l]] == pos;
+                     l = loopParent[l])
+                    key++;
+                if (!list.visit(key))
+                    break;
+                int o = op[pc];
+                if (o == JMP) {
+                    pc = a[pc];
+                } else if (o == SPLIT) {
+                    stackPc[sp] = b[pc];
+                    stackCaps[sp++] = caps;
+                    pc = a[pc];
+                } else if (o == NOP) {
+                    pc++;
+                } else if (o == HEAD) {
+                    caps = caps.clone();
+                    caps[a[pc]] = pos;
+                    pc++;
+                } else if (o == TAIL || o == TAIL_NE) {
+                    int start = caps[a[pc]];
+                    if ((o == TAIL || start != pos) && (frozenBase < 0
+                        || caps[frozenBase + (b[pc] >> 1)] < 0)) {
+                        caps = caps.clone();
+                        caps[b[pc]] = start;
+                        caps[b[pc] + 1] = pos;
+                    }
+                    pc++;
+                } else if (o == FREEZE) {
+                    int flag = frozenBase + (a[pc] >> 1);
+                    if (caps[flag] < 0) {
+                        caps = caps.clone();
+                        caps[flag] = 0;
+                    }
+                    pc++;
+                } else if (o == LOOP || o == LAZY_LOOP) {
+                    // Like the Loop node, leave after an empty iteration
+                    if (caps[a[pc]] == pos) {
+                        pc++;
+                    } else if (o == LOOP) {
+                        stackPc[sp] = pc + 1;
+                        stackCaps[sp++] = caps;
+                        pc = b[pc];
+                    } else {
+                        stackPc[sp] = b[pc];
+                        stackCaps[sp++] = caps;
+                        pc++;
+                    }
+                } else if (o == ASSERT) {
+                    if (!node[pc].match(matcher, pos, seq))
+                        break;
+                    pc++;
+                } else {
+                    if (o != MATCH || matcher.acceptMode != Matcher.ENDANCHOR
+                        || pos == matcher.to)
+                        list.add(pc, caps);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * The thread lists and stacks of the Pike machine, kept by a matcher
+     * across matches of programs with the same number of keys.
+     */
+    static final class Workspace {
+        final int keys;
+        final Threads clist;
+        final Threads nlist;
+        final int[] stackPc;
+        final int[][] stackCaps;
+
+        // Where the last DFA scan stopped
+        int scanEnd;
+
+        Workspace(int keys) {
+            this.keys = keys;
+            clist = new Threads(keys);
+            nlist = new Threads(keys);
+            stackPc = new int[keys + 1];
+            stackCaps = new int[keys + 1][];
+        }
+    }
+
+    /**
+     * An ordered list of threads, plus the set of instruction keys
+     * visited while building it.
+     */
+    private static final class Threads {
+        final int[] sparse;
+        final int[] dense;
+        int visited;
+        final int[] pcs;
+        final int[][] caps;
+        int count;
+
+        Threads(int keys) {
+            sparse = new int[keys];
+            dense = new int[keys];
+            pcs = new int[keys];
+            caps = new int[keys][];
+        }
+
+        boolean visit(int key) {
+            int s = sparse[key];
+            if (s < visited && dense[s] == key)
+                return false;
+            sparse[key] = visited;
+            dense[visited++] = key;
+            return true;
+        }
+
+        void add(int pc, int[] c) {
+            pcs[count] = pc;
+            caps[count++] = c;
+        }
+
+        void clear() {
+            visited = 0;
+            Arrays.fill(caps, 0, count, null);
+            count = 0;
+        }
+    }
+
+    /**
+     * A lazily built DFA deciding whether the program matches.  States
+     * are sets of consuming instructions; the transitions on Latin-1
+     * chars are cached in the states, which are shared by all threads.
+     * Surrogates are left to the Pike machine, so every consuming
+     * instruction consumes exactly one char here.
+     *
+     * <p>The states of an ordered DFA keep the instructions in the
+     * priority order of the Pike machine's threads and drop those after
+     * a match, like the Pike machine does, so that when nothing is
+     * captured it finds the same end of the match.
+     */
+    private final class Dfa {
+        // Injects a new start thread at every position
+        private final boolean unanchored;
+        private final boolean ordered;
+        private final ConcurrentHashMap<State, State> states =
+            new ConcurrentHashMap<>();
+        private State start;
+
+        Dfa(boolean unanchored, boolean ordered) {
+            this.unanchored = unanchored;
+            this.ordered = ordered;
+        }
+
+        /**
+         * Returns the end of the match the Pike machine would find at
+         * from, or -1 if it cannot be told here.  There must be a match.
+         */
+        int matchEnd(Matcher matcher, int from, CharSequence seq) {
+            State s = start;
+            if (s == null) {
+                s = intern(new int[0], 0, true);
+                if (s == null)
+                    return -1;
+                start = s;
+            }
+            int to = matcher.to;
+            int end = -1;
+            for (int i = from; ; i++) {
+                if (s.matchAt >= 0) {
+                    end = i;
+                    // No thread of higher priority than the match is left
+                    if (s.matchAt == 0)
+                        break;
+                }
+                if (i >= to || s.pcs.length == 0)
+                    break;
+                char c = seq.charAt(i);
+                if (Character.isSurrogate(c))
+                    return -1;
+                State n = (c < State.CACHED) ? s.next[c] : null;
+                if (n == null) {
+                    n = step(s, c);
+                    if (n == null)
+                        return -1;
+                    if (c < State.CACHED)
+                        s.next[c] = n;
+                }
+                s = n;
+            }
+            return end;
+        }
+
+        /**
+         * Returns whether there is a match at or after from, or when
+         * unanchored is false, at from, ending at the end of the bounds
+         * if endAnchor is true.  Reading stops at limit, and the result
+         * is UNKNOWN if that is before the end of the bounds and still
+         * undecided.  The position where the scan stopped, which is the
+         * end of the first match found, is left in the workspace.
+         */
+        int scan(Matcher matcher, Workspace ws, int from, int limit,
+                 CharSequence seq, boolean endAnchor) {
+            State s = start;
+            if (s == null) {
+                s = intern(new int[0], 0, true);
+                if (s == null)
+                    return UNKNOWN;
+                start = s;
+            }
+            State first = s;
+            int to = matcher.to;
+            int i = from;
+            int result = NOT_FOUND;
+            if (unanchored && prefix != null) {
+                i = indexOfPrefix(seq, i, to);
+                if (i < 0) {
+                    ws.scanEnd = to;
+                    return NOT_FOUND;
+                }
+            }
+            for (;;) {
+                if (s.accepting && !endAnchor) {
+                    result = FOUND;
+                    break;
+                }
+                if (i >= limit) {
+                    if (limit < to) {
+                        result = UNKNOWN;
+                    } else if (s.accepting) {
+                        result = FOUND;
+                    } else if (s.pcs.length != 0) {
+                        matcher.hitEnd = true;
+                    }
+                    break;
+                }
+                if (s.pcs.length == 0)
+                    break;
+                char c = seq.charAt(i);
+                // Run through the chars that stay in the state, such as
+                // those of non-matching text in the start state
+                State[] next = s.next;
+                while (c < State.CACHED && next[c] == s && ++i < limit)
+                    c = seq.charAt(i);
+                if (i >= limit)
+                    continue;
+                if (Character.isSurrogate(c)) {
+                    result = UNKNOWN;
+                    break;
+                }
+                State n = (c < State.CACHED) ? s.next[c] : null;
+                if (n == null) {
+                    n = step(s, c);
+                    if (n == null) {
+                        result = UNKNOWN;
+                        break;
+                    }
+                    if (c < State.CACHED)
+                        s.next[c] = n;
+                }
+                s = n;
+                i++;
+                if (s == first && unanchored && prefix != null) {
+                    // Only fresh threads are left, none of which can
+                    // match before the next occurrence of the prefix
+                    i = indexOfPrefix(seq, i, to);
+                    if (i < 0) {
+                        i = to;
+                        break;
+                    }
+                }
+            }
+            ws.scanEnd = i;
+            return result;
+        }
+
+        private State step(State s, char c) {
+            int[] set = new int[size];
+            int n = 0;
+            boolean[] mark = new boolean[size];
+            int count = (ordered && s.matchAt >= 0) ? s.matchAt : s.pcs.length;
+            for (int k = 0; k < count; k++) {
+                int pc = s.pcs[k];
+                int next = -1;
+                switch (op[pc]) {
+                case CHAR:
+                    if (charMatches(b[pc], a[pc], c))
+                        next = pc + 1;
+                    break;
+                case CHAR_CP:
+                    if (charMatches(b[pc], a[pc], c))
+                        next = pc + 2;
+                    break;
+                case PROP:
+                    if (((Pattern.CharProperty) node[pc]).isSatisfiedBy(c))
+                        next = pc + 1;
+                    break;
+                case PROP_CP:
+                    if (((Pattern.CharProperty) node[pc]).isSatisfiedBy(c))
+                        next = pc + 2;
+                    break;
+                default:
+                    break;
+                }
+                if (next >= 0)
+                    n = closure(next, mark, set, n);
+            }
+            return intern(set, n, unanchored);
+        }
+
+        private State intern(int[] set, int n, boolean addStart) {
+            if (addStart) {
+                boolean[] mark = new boolean[size];
+                for (int i = 0; i < n; i++)
+                    mark[set[i]] = true;
+                if (set.length < size)
+                    set = Arrays.copyOf(set, size);
+                n = closure(0, mark, set, n);
+            }
+            int[] pcs = Arrays.copyOf(set, n);
+            if (!ordered)
+                Arrays.sort(pcs);
+            State s = new State(pcs, matchAt(pcs));
+            State old = states.get(s);
+            if (old != null)
+                return old;
+            if (states.size() >= MAX_DFA_STATES)
+                return null;
+            old = states.putIfAbsent(s, s);
+            return (old != null) ? old : s;
+        }
+
+        private int matchAt(int[] pcs) {
+            for (int k = 0; k < pcs.length; k++) {
+                if (op[pcs[k]] == MATCH)
+                    return k;
+            }
+            return -1;
+        }
+
+        /**
+         * Adds the consuming and match instructions reachable from pc
+         * without consuming input.
+         */
+        private int closure(int pc0, boolean[] mark, int[] set, int n) {
+            int[] stack = new int[size + 1];
+            int sp = 0;
+            stack[sp++] = pc0;
+            boolean[] seen = new boolean[size];
+            while (sp > 0) {
+                int pc = stack[--sp];
+                while (!seen[pc]) {
+                    seen[pc] = true;
+                    int o = op[pc];
+                    if (o == JMP) {
+                        pc = a[pc];
+                    } else if (o == SPLIT) {
+                        stack[sp++] = b[pc];
+                        pc = a[pc];
+                    } else if (o == LOOP || o == LAZY_LOOP) {
+                        stack[sp++] = b[pc];
+                        pc++;
+                    } else if (o == NOP || o == HEAD || o == TAIL
+                               || o == TAIL_NE || o == FREEZE) {
+                        pc++;
+                    } else {
+                        if (!mark[pc]) {
+                            mark[pc] = true;
+                            set[n++] = pc;
+                        }
+                        break;
+                    }
+                }
+            }
+            return n;
+        }
+    }
+
+    private static final class State {
+        static final int CACHED = 256;
+
+        final int[] pcs;
+        final boolean accepting;
+        final int matchAt;    // index of the match instruction, or -1
+        final State[] next = new State[CACHED];
+        private final int hash;
+
+        State(int[] pcs, int matchAt) {
+            this.pcs = pcs;
+            this.matchAt = matchAt;
+            this.accepting = (matchAt >= 0);
+            this.hash = Arrays.hashCode(pcs);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object o) {
+            return o instanceof State && Arrays.equals(pcs, ((State) o).pcs);
+        }
+    }
+
+    /**
+     * Translates the node tree into instructions.
+     */
+    private static final class Compiler {
+        final Pattern pattern;
+        int[] op = new int[64];
+        int[] a = new int[64];
+        int[] b = new int[64];
+        Pattern.Node[] node = new Pattern.Node[64];
+        int[] loopOf = new int[64];
+        int n;
+
+        // Unbounded Loops, by the order they were emitted in
+        int[] loopParent = new int[4];
+        int[] loopLocal = new int[4];
+        int loops;
+        int curLoop = -1;
+
+        // Locals of the group heads whose positions are needed
+        final boolean[] usedLocal;
+
+        // The local of the group repeated by a GroupCurly whose tail
+        // must leave the group unset after an empty iteration
+        int nonEmptyTail = -1;
+
+        // The local of the innermost GroupCurly being emitted and the
+        // number of enclosing ones
+        int curlyLocal = -1;
+        int curlyDepth;
+
+        // Whether FREEZE has been emitted
+        boolean freezes;
+
+        Compiler(Pattern pattern) {
+            this.pattern = pattern;
+            this.usedLocal = new boolean[pattern.localCount];
+        }
+
+        int emit(int o, int x, int y, Pattern.Node nd) {
+            if (n == MAX_PROGRAM) {
+                throw new PatternSyntaxException(
+                    "Pattern is too large for the linear-time engine",
+                    pattern.pattern(), -1);
+            }
+            if (n == op.length) {
+                int len = n * 2;
+                op = Arrays.copyOf(op, len);
+                a = Arrays.copyOf(a, len);
+                b = Arrays.copyOf(b, len);
+                node = Arrays.copyOf(node, len);
+                loopOf = Arrays.copyOf(loopOf, len);
+            }
+            op[n] = o;
+            a[n] = x;
+            b[n] = y;
+            node[n] = nd;
+            loopOf[n] = curLoop;
+            return n++;
+        }
+
+        PatternSyntaxException unsupported(String what) {
+            return new PatternSyntaxException(
+                what + " not supported by the linear-time engine",
+                pattern.pattern(), -1);
+        }
+
+        /**
+         * Emits the nodes from the given one up to, but excluding, stop,
+         * or up to the end of a quantified atom.
+         */
+        void chain(Pattern.Node nd, Pattern.Node stop) {
+            while (nd != stop && nd != Pattern.accept) {
+                Class<?> c = nd.getClass();
+                if (nd instanceof Pattern.LastNode) {
+                    emit(MATCH, 0, 0, null);
+                    return;
+                } else if (nd instanceof Pattern.BmpCharProperty) {
+                    emit(PROP, 0, 0, nd);
+                } else if (nd instanceof Pattern.CharProperty) {
+                    emit(PROP_CP, 0, 0, nd);
+                    emit(SKIP, 0, 0, null);
+                } else if (c == Pattern.Slice.class) {
+                    slice(((Pattern.SliceNode) nd).buffer, EXACT, false);
+                } else if (c == Pattern.SliceI.class) {
+                    slice(((Pattern.SliceNode) nd).buffer, ASCII_CI, false);
+                } else if (c == Pattern.SliceU.class) {
+                    slice(((Pattern.SliceNode) nd).buffer, UNICODE_CI, false);
+                } else if (c == Pattern.SliceS.class) {
+                    slice(((Pattern.SliceNode) nd).buffer, EXACT, true);
+                } else if (c == Pattern.SliceIS.class) {
+                    slice(((Pattern.SliceNode) nd).buffer, ASCII_CI, true);
+                } else if (c == Pattern.SliceUS.class) {
+                    slice(((Pattern.SliceNode) nd).buffer, UNICODE_CI, true);
+                } else if (c == Pattern.LineEnding.class) {
+                    emit(LINE_END, 0, 0, null);
+                    emit(SKIP, 0, 0, null);
+                } else if (c == Pattern.GroupHead.class) {
+                    emit(HEAD, ((Pattern.GroupHead) nd).localIndex, 0, null);
+                } else if (c == Pattern.GroupTail.class) {
+                    Pattern.GroupTail t = (Pattern.GroupTail) nd;
+                    if (t.groupIndex == 0) {
+                        emit(NOP, 0, 0, null);
+                    } else {
+                        // The GroupCurly does not restore the groups of
+                        // its atom when it backs off an iteration
+                        if (curlyDepth > 1 || curlyDepth == 1
+                            && t.localIndex != curlyLocal)
+                            throw unsupported("Capturing group within a"
+                                              + " repeated group without"
+                                              + " alternatives");
+                        usedLocal[t.localIndex] = true;
+                        emit(t.localIndex == nonEmptyTail ? TAIL_NE : TAIL,
+                             t.localIndex, t.groupIndex, null);
+                    }
+                } else if (c == Pattern.Branch.class) {
+                    Pattern.Branch br = (Pattern.Branch) nd;
+                    branch(br);
+                    nd = br.conn.next;
+                    continue;
+                } else if (c == Pattern.BranchConn.class) {
+                    // Only reached as the stop of its branch
+                } else if (c == Pattern.Ques.class) {
+                    Pattern.Ques q = (Pattern.Ques) nd;
+                    if (q.type != Pattern.GREEDY && q.type != Pattern.LAZY)
+                        throw unsupported(q.type == Pattern.POSSESSIVE
+                                          ? "Possessive quantifier"
+                                          : "Independent group");
+                    int split = emit(SPLIT, 0, 0, null);
+                    chain(q.atom, Pattern.accept);
+                    target(split, q.type == Pattern.GREEDY, split + 1, n);
+                } else if (c == Pattern.Curly.class) {
+                    Pattern.Curly cu = (Pattern.Curly) nd;
+                    repeat(nd, cu.cmin, cu.cmax, cu.type);
+                } else if (c == Pattern.GroupCurly.class) {
+                    Pattern.GroupCurly gc = (Pattern.GroupCurly) nd;
+                    repeat(nd, gc.cmin, gc.cmax, gc.type);
+                } else if (c == Pattern.Prolog.class) {
+                    Pattern.Loop loop = ((Pattern.Prolog) nd).loop;
+                    repeat(loop, loop.cmin, loop.cmax,
+                           (loop instanceof Pattern.LazyLoop)
+                           ? Pattern.LAZY : Pattern.GREEDY);
+                    nd = loop.next;
+                    continue;
+                } else {
+                    Pattern.Node assertion = assertion(nd);
+                    if (assertion == null)
+                        throw unsupported(describe(nd));
+                    emit(ASSERT, 0, 0, assertion);
+                }
+                nd = nd.next;
+            }
+        }
+
+        void slice(int[] buf, int mode, boolean codePoints) {
+            for (int c : buf) {
+                if (codePoints) {
+                    emit(CHAR_CP, c, mode, null);
+                    emit(SKIP, 0, 0, null);
+                } else {
+                    emit(CHAR, c, mode, null);
+                }
+            }
+        }
+
+        void branch(Pattern.Branch br) {
+            int[] jumps = new int[br.size];
+            for (int i = 0; i < br.size; i++) {
+                int split = -1;
+                if (i < br.size - 1)
+                    split = emit(SPLIT, 0, 0, null);
+                Pattern.Node atom = br.atoms[i];
+                if (atom != null)
+                    chain(atom, br.conn);
+                jumps[i] = emit(JMP, 0, 0, null);
+                if (split >= 0)
+                    target(split, true, split + 1, n);
+            }
+            for (int j : jumps)
+                a[j] = n;
+        }
+
+        void target(int split, boolean greedy, int body, int exit) {
+            a[split] = greedy ? body : exit;
+            b[split] = greedy ? exit : body;
+        }
+
+        /**
+         * Emits cmin to cmax iterations of the atom of a Curly or a
+         * GroupCurly, or of the body of a Loop.  Unbounded repetitions
+         * of a Loop end with a LOOP, which leaves after an iteration that
+         * matches the empty string, like the node does; other unbounded
+         * repetitions loop back to the start of the atom, where such an
+         * iteration finds its thread visited.
+         */
+        void repeat(Pattern.Node owner, int cmin, int cmax, int type) {
+            if (type != Pattern.GREEDY && type != Pattern.LAZY)
+                throw unsupported("Possessive quantifier");
+            boolean greedy = (type == Pattern.GREEDY);
+            if (cmax == 0)
+                return;
+            boolean unbounded = (cmax == Pattern.MAX_REPS);
+            int frozen = (cmax > cmin) ? frozenGroup(owner, greedy) : 0;
+            int copies = (unbounded && frozen == 0)
+                ? Math.max(cmin - 1, 0) : cmin;
+            boolean first = true;
+            for (int k = 0; k < copies; k++) {
+                body(owner, false, first);
+                first = false;
+            }
+            if (frozen != 0) {
+                // Only the exits after an optional iteration freeze
+                int entry = emit(SPLIT, 0, 0, null);
+                int start = n;
+                body(owner, true, first);
+                if (unbounded) {
+                    int split = emit(SPLIT, 0, 0, null);
+                    target(split, true, start, n);
+                } else {
+                    int[] splits = new int[cmax - cmin - 1];
+                    for (int k = 0; k < splits.length; k++) {
+                        splits[k] = emit(SPLIT, 0, 0, null);
+                        body(owner, true, false);
+                    }
+                    for (int split : splits)
+                        target(split, true, split + 1, n);
+                }
+                emit(FREEZE, frozen, 0, null);
+                target(entry, true, start, n);
+                freezes = true;
+            } else if (unbounded) {
+                int entry = -1;
+                if (cmin == 0)
+                    entry = emit(SPLIT, 0, 0, null);
+                int start = n;
+                if (owner instanceof Pattern.Loop) {
+                    // The iteration starts after the head of the body
+                    int local = ((Pattern.Loop) owner).beginIndex;
+                    int parent = curLoop;
+                    curLoop = newLoop(parent, local);
+                    body(owner, cmin == 0, first);
+                    loopOf[start] = parent;
+                    emit(greedy ? LOOP : LAZY_LOOP, local, start, null);
+                    curLoop = parent;
+                    usedLocal[local] = true;
+                } else {
+                    body(owner, cmin == 0, first);
+                    int split = emit(SPLIT, 0, 0, null);
+                    target(split, greedy, start, n);
+                }
+                if (entry >= 0)
+                    target(entry, greedy, start, n);
+            } else {
+                int[] splits = new int[cmax - cmin];
+                for (int k = 0; k < splits.length; k++) {
+                    splits[k] = emit(SPLIT, 0, 0, null);
+                    body(owner, true, first);
+                    first = false;
+                }
+                for (int split : splits)
+                    target(split, greedy, split + 1, n);
+            }
+        }
+
+        /**
+         * Returns the index of the group of a greedy, capturing
+         * GroupCurly whose atom cannot match the empty string, or 0.
+         */
+        private int frozenGroup(Pattern.Node owner, boolean greedy) {
+            if (!greedy || !(owner instanceof Pattern.GroupCurly)
+                || !((Pattern.GroupCurly) owner).capture)
+                return 0;
+            // Emit the atom to test it, then drop it
+            int start = n;
+            body(owner, true, false);
+            boolean empty = nullable(start, n);
+            n = start;
+            return empty ? 0 : ((Pattern.GroupCurly) owner).groupIndex;
+        }
+
+        private int newLoop(int parent, int local) {
+            if (loops == loopParent.length) {
+                loopParent = Arrays.copyOf(loopParent, loops * 2);
+                loopLocal = Arrays.copyOf(loopLocal, loops * 2);
+            }
+            loopParent[loops] = parent;
+            loopLocal[loops] = local;
+            return loops++;
+        }
+
+        private void body(Pattern.Node owner, boolean optional,
+                          boolean first) {
+            int start = n;
+            if (owner instanceof Pattern.Loop) {
+                Pattern.Loop loop = (Pattern.Loop) owner;
+                chain(loop.body, loop);
+                // The loop node leaves an empty iteration without
+                // counting it, which unrolling cannot express
+                if (first && nullable(start, n) && (loop.cmin > 1
+                    || loop.cmax > 1 && loop.cmax != Pattern.MAX_REPS))
+                    throw unsupported("Counted repetition of a group"
+                                      + " matching the empty string");
+            } else if (owner instanceof Pattern.Curly) {
+                chain(((Pattern.Curly) owner).atom, Pattern.accept);
+            } else {
+                // The GroupCurly restores its group after an optional
+                // iteration that matches the empty string
+                Pattern.GroupCurly gc = (Pattern.GroupCurly) owner;
+                int save = nonEmptyTail;
+                int saveLocal = curlyLocal;
+                nonEmptyTail = optional ? gc.localIndex : -1;
+                curlyLocal = gc.localIndex;
+                curlyDepth++;
+                emit(HEAD, gc.localIndex, 0, null);
+                chain(gc.atom, Pattern.accept);
+                curlyDepth--;
+                curlyLocal = saveLocal;
+                nonEmptyTail = save;
+            }
+        }
+
+        /**
+         * Returns true if the instructions from start to end can be
+         * passed without consuming input.
+         */
+        private boolean nullable(int start, int end) {
+            boolean[] seen = new boolean[end - start + 1];
+            int[] stack = new int[end - start + 1];
+            int sp = 0;
+            stack[sp++] = start;
+            while (sp > 0) {
+                int pc = stack[--sp];
+                while (pc != end && !seen[pc - start]) {
+                    seen[pc - start] = true;
+                    int o = op[pc];
+                    if (o == JMP) {
+                        pc = a[pc];
+                    } else if (o == SPLIT) {
+                        stack[sp++] = b[pc];
+                        pc = a[pc];
+                    } else if (o == LOOP || o == LAZY_LOOP) {
+                        stack[sp++] = b[pc];
+                        pc++;
+                    } else if (o == NOP || o == HEAD || o == TAIL
+                               || o == TAIL_NE || o == FREEZE
+                               || o == ASSERT) {
+                        pc++;
+                    } else {
+                        break;
+                    }
+                }
+                if (pc == end)
+                    return true;
+            }
+            return false;
+        }
+
+        /**
+         * Returns a copy of a zero width assertion node that tests only
+         * the assertion, or null if the node is not one.
+         */
+        private static Pattern.Node assertion(Pattern.Node nd) {
+            Class<?> c = nd.getClass();
+            Pattern.Node copy;
+            if (c == Pattern.Begin.class) {
+                copy = new Pattern.Begin();
+            } else if (c == Pattern.End.class) {
+                copy = new Pattern.End();
+            } else if (c == Pattern.Caret.class) {
+                copy = new Pattern.Caret();
+            } else if (c == Pattern.UnixCaret.class) {
+                copy = new Pattern.UnixCaret();
+            } else if (c == Pattern.LastMatch.class) {
+                copy = new Pattern.LastMatch();
+            } else if (c == Pattern.Dollar.class) {
+                copy = new Pattern.Dollar(((Pattern.Dollar) nd).multiline);
+            } else if (c == Pattern.UnixDollar.class) {
+                copy = new Pattern.UnixDollar(
+                    ((Pattern.UnixDollar) nd).multiline);
+            } else if (c == Pattern.Bound.class) {
+                Pattern.Bound bound = (Pattern.Bound) nd;
+                copy = new Pattern.Bound(bound.type, bound.useUWORD);
+            } else {
+                return null;
+            }
+            copy.next = TRUE;
+            return copy;
+        }
+
+        private static String describe(Pattern.Node nd) {
+            if (nd instanceof Pattern.BackRef || nd instanceof Pattern.CIBackRef
+                || nd instanceof Pattern.GroupRef)
+                return "Back reference";
+            if (nd instanceof Pattern.Pos || nd instanceof Pattern.Neg)
+                return "Lookahead";
+            if (nd instanceof Pattern.Behind || nd instanceof Pattern.NotBehind)
+                return "Lookbehind";
+            return nd.getClass().getSimpleName();
+        }
+    }
+}
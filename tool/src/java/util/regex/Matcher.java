@@ -178,6 +178,12 @@ public final class Matcher implements MatchResult {
      */
     int[] locals;
 
+    /**
+     * Storage used by the linear-time engine of a pattern created with
+     * {@link Pattern#compileLinear}, allocated by its first match.
+     */
+    LinearProgram.Workspace linearWorkspace;
+
     /**
      * Boolean indicating whether or not more input could change
      * the results of the last match.
@@ -1256,7 +1262,10 @@ public final class Matcher implements MatchResult {
         for (int i = 0; i < groups.length; i++)
             groups[i] = -1;
         acceptMode = NOANCHOR;
-        boolean result = parentPattern.root.match(this, from, text);
+        LinearProgram linear = parentPattern.linear;
+        boolean result = (linear != null)
+            ? linear.search(this, from, text)
+            : parentPattern.root.match(this, from, text);
         if (!result)
             this.first = -1;
         this.oldLast = this.last;
@@ -1278,7 +1287,10 @@ public final class Matcher implements MatchResult {
         for (int i = 0; i < groups.length; i++)
             groups[i] = -1;
         acceptMode = anchor;
-        boolean result = parentPattern.matchRoot.match(this, from, text);
+        LinearProgram linear = parentPattern.linear;
+        boolean result = (linear != null)
+            ? linear.match(this, from, text)
+            : parentPattern.matchRoot.match(this, from, text);
         if (!result)
             this.first = -1;
         this.oldLast = this.last;
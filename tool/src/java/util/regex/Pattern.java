@@ -1018,6 +1018,13 @@ public final class Pattern
      */
     private transient int patternLength;
 
+    /**
+     * The linear-time program matchers use instead of the node tree, or
+     * null if this pattern was not created by compileLinear.  Patterns
+     * are deserialized without it.
+     */
+    transient LinearProgram linear;
+
     /**
      * If the Start node might possibly match supplementary characters.
      * It is set to true during compiling if
@@ -1065,6 +1072,69 @@ public final class Pattern
         return new Pattern(regex, flags);
     }
 
+    /**
+     * Compiles the given regular expression into a pattern whose matchers
+     * run in time linear in the length of the input.
+     *
+     * <p> This is equivalent to {@link #compileLinear(String, int)
+     * compileLinear(regex, 0)}.
+     *
+     * @param  regex
+     *         The expression to be compiled
+     * @return the given regular expression compiled into a pattern
+     * @throws  PatternSyntaxException
+     *          If the expression's syntax is invalid, or if it uses a
+     *          construct that cannot be matched in linear time
+     * @since 1.8
+     */
+    public static Pattern compileLinear(String regex) {
+        return compileLinear(regex, 0);
+    }
+
+    /**
+     * Compiles the given regular expression into a pattern with the given
+     * flags, whose matchers run in time linear in the length of the input.
+     *
+     * <p> The matchers of the returned pattern find exactly the matches,
+     * and report exactly the groups, that the matchers of a pattern created
+     * by {@link #compile(String, int) compile(regex, flags)} would.  Instead
+     * of backtracking, they track all possible matches in parallel, so that
+     * patterns such as <tt>(a+)+b</tt> cannot take exponential time.  Inputs
+     * without a match are usually rejected by a deterministic automaton
+     * that is built lazily and shared by all matchers of the pattern.
+     *
+     * <p> Only the regular subset of the syntax is supported.  Back
+     * references, lookahead and lookbehind, possessive quantifiers,
+     * independent groups, counted repetitions (other than <tt>?</tt>,
+     * <tt>*</tt> and <tt>+</tt>) of groups that can match the empty string,
+     * and capturing groups nested in a repeated group without alternatives,
+     * such as <tt>(?:(a)b)*</tt>, are rejected with a
+     * {@code PatternSyntaxException}.  The results of
+     * {@link Matcher#hitEnd} and {@link Matcher#requireEnd} are approximated.
+     * A deserialized pattern uses the backtracking engine.
+     *
+     * @param  regex
+     *         The expression to be compiled
+     *
+     * @param  flags
+     *         Match flags, as for {@link #compile(String, int)}
+     *
+     * @return the given regular expression compiled into a pattern with the given flags
+     * @throws  IllegalArgumentException
+     *          If bit values other than those corresponding to the defined
+     *          match flags are set in <tt>flags</tt>
+     *
+     * @throws  PatternSyntaxException
+     *          If the expression's syntax is invalid, or if it uses a
+     *          construct that cannot be matched in linear time
+     * @since 1.8
+     */
+    public static Pattern compileLinear(String regex, int flags) {
+        Pattern p = new Pattern(regex, flags);
+        p.linear = LinearProgram.compile(p);
+        return p;
+    }
+
     /**
      * Returns the regular expression from which this pattern was compiled.
      *
@@ -3788,7 +3858,7 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
      * Abstract node class to match one character satisfying some
      * boolean property.
      */
-    private static abstract class CharProperty extends Node {
+    static abstract class CharProperty extends Node {
         abstract boolean isSatisfiedBy(int ch);
         CharProperty complement() {
             return new CharProperty() {
@@ -3816,7 +3886,7 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
      * Optimized version of CharProperty that works only for
      * properties never satisfied by Supplementary characters.
      */
-    private static abstract class BmpCharProperty extends CharProperty {
+    static abstract class BmpCharProperty extends CharProperty {
         boolean match(Matcher matcher, int i, CharSequence seq) {
             if (i < matcher.to) {
                 return isSatisfiedBy(seq.charAt(i))
@@ -0,0 +1,835 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.stream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Implementations of {@link Collector} that sort or deduplicate streams
+ * too large to be held in memory, by spilling elements to temporary
+ * files.  Each collector is given a budget of elements it may hold in
+ * memory; as long as the stream fits in the budget, the result is
+ * computed in memory as by {@link Stream#sorted(Comparator)} or {@link
+ * Stream#distinct()}, and no file is created.
+ *
+ * <p>The result of each collector is itself a {@code Stream}, which
+ * reads the spilled elements back lazily.  Any temporary files still
+ * present are deleted when that stream is {@linkplain Stream#close
+ * closed}, so it should be used in a try-with-resources statement:
+ *
+ * <pre>{@code
+ *     try (Stream<String> sorted = Files.lines(input)
+ *              .parallel()
+ *              .collect(ExternalCollectors.sorting(
+ *                  Comparator.naturalOrder(),
+ *                  ExternalCollectors.stringCodec(),
+ *                  10_000_000))) {
+ *         Files.write(output, (Iterable<String>)sorted::iterator);
+ *     }
+ * }</pre>
+ *
+ * <p>Elements are written to the temporary files with an {@link
+ * ElementCodec}.  Codecs are provided for strings, longs and {@link
+ * Serializable} objects; a codec written for a specific element type
+ * is usually several times more compact and faster.  Any {@code
+ * IOException} raised while writing or reading temporary files is
+ * thrown as an {@link UncheckedIOException}.
+ *
+ * <p>The memory budget applies to each result container: a parallel
+ * evaluation may hold up to that many elements in memory for each
+ * thread accumulating elements, in addition to the I/O buffers, of
+ * about 64 kilobytes per open file.
+ *
+ * @since 1.8
+ */
+public final class ExternalCollectors {
+
+    private ExternalCollectors() { }
+
+    /** Size of the buffers of temporary files. */
+    static final int BUFFER_SIZE = 1 << 15;
+
+    /**
+     * Number of elements written between resets of an object stream,
+     * so that written objects do not remain reachable from its handle
+     * table.
+     */
+    static final int RESET_INTERVAL = 1024;
+
+    /**
+     * Maximum number of runs merged at a time.  Beyond that, the
+     * oldest runs are first merged into a single run.
+     */
+    static final int MAX_MERGE_WIDTH = 128;
+
+    /** Number of bits of the hash code selecting a distinct partition. */
+    static final int PARTITION_BITS = 6;
+
+    /** Number of partitions of each spill of a distinct collector. */
+    static final int PARTITIONS = 1 << PARTITION_BITS;
+
+    /**
+     * Number of times a distinct partition is partitioned again by
+     * further bits of the hash code when it still does not fit in the
+     * budget.
+     */
+    static final int MAX_PARTITION_DEPTH = 32 / PARTITION_BITS - 1;
+
+    /**
+     * Writes elements to and reads them from temporary files.  The
+     * streams passed to a codec are also {@link ObjectOutput} and
+     * {@link ObjectInput} instances.
+     *
+     * @param <T> the type of the elements
+     */
+    public interface ElementCodec<T> {
+        /**
+         * Writes an element.
+         *
+         * @param out the output
+         * @param t the element
+         * @throws IOException if an I/O error occurs
+         */
+        void write(DataOutput out, T t) throws IOException;
+
+        /**
+         * Reads an element written by {@link #write}.
+         *
+         * @param in the input
+         * @return the element
+         * @throws IOException if an I/O error occurs
+         */
+        T read(DataInput in) throws IOException;
+    }
+
+    /**
+     * Returns a codec for strings, which writes each non-null string
+     * as its length in UTF-8 bytes followed by these bytes.  Null
+     * strings are supported.
+     *
+     * @return a codec for strings
+     */
+    public static ElementCodec<String> stringCodec() {
+        return StringCodec.INSTANCE;
+    }
+
+    /**
+     * Returns a codec for non-null {@code Long} values.
+     *
+     * @return a codec for longs
+     */
+    public static ElementCodec<Long> longCodec() {
+        return LongCodec.INSTANCE;
+    }
+
+    /**
+     * Returns a codec using Java serialization.
+     *
+     * @param <T> the type of the elements
+     * @return a codec for serializable objects
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Serializable> ElementCodec<T> serializableCodec() {
+        return (ElementCodec<T>) (ElementCodec<?>) SerializableCodec.INSTANCE;
+    }
+
+    /**
+     * Returns a {@code Collector} that sorts the input elements
+     * according to the given comparator and returns them as a new
+     * stream.  The sort is stable.  Temporary files are created in the
+     * default temporary-file directory.
+     *
+     * <p>The elements are accumulated into a buffer of at most {@code
+     * maxElementsInMemory} elements.  When the buffer is full, it is
+     * sorted with {@link Arrays#parallelSort(Object[], int, int,
+     * Comparator)} and written to a temporary file as a sorted run.
+     * The returned stream merges the runs lazily.
+     *
+     * @param <T> the type of the input elements
+     * @param comparator the comparator determining the order
+     * @param codec the codec for temporary files
+     * @param maxElementsInMemory the maximum number of elements held in
+     *        memory by each result container
+     * @return a {@code Collector} producing a sorted stream of the
+     *         input elements
+     * @throws NullPointerException if the comparator or the codec is
+     *         null
+     * @throws IllegalArgumentException if {@code maxElementsInMemory}
+     *         is not positive
+     */
+    public static <T> Collector<T, ?, Stream<T>>
+    sorting(Comparator<? super T> comparator, ElementCodec<T> codec,
+            int maxElementsInMemory) {
+        return sorting(comparator, codec, maxElementsInMemory, null);
+    }
+
+    /**
+     * Returns a {@code Collector} that sorts the input elements
+     * according to the given comparator and returns them as a new
+     * stream, creating temporary files in the given directory.  See
+     * {@link #sorting(Comparator, ElementCodec, int)}.
+     *
+     * @param <T> the type of the input elements
+     * @param comparator the comparator determining the order
+     * @param codec the codec for temporary files
+     * @param maxElementsInMemory the maximum number of elements held in
+     *        memory by each result container
+     * @param directory the directory of the temporary files, or {@code
+     *        null} for the default temporary-file directory
+     * @return a {@code Collector} producing a sorted stream of the
+     *         input elements
+     * @throws NullPointerException if the comparator or the codec is
+     *         null
+     * @throws IllegalArgumentException if {@code maxElementsInMemory}
+     *         is not positive
+     */
+    public static <T> Collector<T, ?, Stream<T>>
+    sorting(Comparator<? super T> comparator, ElementCodec<T> codec,
+            int maxElementsInMemory, Path directory) {
+        Objects.requireNonNull(comparator);
+        Objects.requireNonNull(codec);
+        if (maxElementsInMemory <= 0)
+            throw new IllegalArgumentException();
+        return Collector.of(
+            () -> new Sorter<T>(comparator, codec, maxElementsInMemory,
+                                directory),
+            Sorter::accept,
+            Sorter::combine,
+            Sorter::finish);
+    }
+
+    /**
+     * Returns a {@code Collector} that returns the distinct input
+     * elements (according to {@link Object#equals(Object)}) as a new
+     * stream, in no particular order.  Temporary files are created in
+     * the default temporary-file directory.
+     *
+     * <p>The distinct elements are accumulated into a hash set of at
+     * most {@code maxElementsInMemory} elements.  When the set is
+     * full, its elements are written to temporary files partitioned by
+     * their hash codes.  The returned stream then deduplicates one
+     * partition at a time; partitions that do not fit in the budget
+     * are partitioned again by further bits of the hash codes.
+     *
+     * @param <T> the type of the input elements
+     * @param codec the codec for temporary files
+     * @param maxElementsInMemory the maximum number of elements held in
+     *        memory by each result container
+     * @return a {@code Collector} producing a stream of the distinct
+     *         input elements
+     * @throws NullPointerException if the codec is null
+     * @throws IllegalArgumentException if {@code maxElementsInMemory}
+     *         is not positive
+     */
+    public static <T> Collector<T, ?, Stream<T>>
+    distinct(ElementCodec<T> codec, int maxElementsInMemory) {
+        return distinct(codec, maxElementsInMemory, null);
+    }
+
+    /**
+     * Returns a {@code Collector} that returns the distinct input
+     * elements as a new stream, creating temporary files in the given
+     * directory.  See {@link #distinct(ElementCodec, int)}.
+     *
+     * @param <T> the type of the input elements
+     * @param codec the codec for temporary files
+     * @param maxElementsInMemory the maximum number of elements held in
+     *        memory by each result container
+     * @param directory the directory of the temporary files, or {@code
+     *        null} for the default temporary-file directory
+     * @return a {@code Collector} producing a stream of the distinct
+     *         input elements
+     * @throws NullPointerException if the codec is null
+     * @throws IllegalArgumentException if {@code maxElementsInMemory}
+     *         is not positive
+     */
+    public static <T> Collector<T, ?, Stream<T>>
+    distinct(ElementCodec<T> codec, int maxElementsInMemory, Path directory) {
+        Objects.requireNonNull(codec);
+        if (maxElementsInMemory <= 0)
+            throw new IllegalArgumentException();
+        return Collector.of(
+            () -> new Deduplicator<T>(codec, maxElementsInMemory, directory, 0),
+            Deduplicator::accept,
+            Deduplicator::combine,
+            Deduplicator::finish,
+            Collector.Characteristics.UNORDERED);
+    }
+
+    // Codecs
+
+    static final class StringCodec implements ElementCodec<String> {
+        static final StringCodec INSTANCE = new StringCodec();
+
+        public void write(DataOutput out, String s) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(b.length);
+                out.write(b);
+            }
+        }
+
+        public String read(DataInput in) throws IOException {
+            int n = in.readInt();
+            if (n < 0)
+                return null;
+            byte[] b = new byte[n];
+            in.readFully(b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+    }
+
+    static final class LongCodec implements ElementCodec<Long> {
+        static final LongCodec INSTANCE = new LongCodec();
+
+        public void write(DataOutput out, Long v) throws IOException {
+            out.writeLong(v);
+        }
+
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    }
+
+    static final class SerializableCodec implements ElementCodec<Object> {
+        static final SerializableCodec INSTANCE = new SerializableCodec();
+
+        public void write(DataOutput out, Object t) throws IOException {
+            ((ObjectOutput) out).writeObject(t);
+        }
+
+        public Object read(DataInput in) throws IOException {
+            try {
+                return ((ObjectInput) in).readObject();
+            } catch (ClassNotFoundException e) {
+                InvalidObjectException ioe =
+                    new InvalidObjectException(e.getMessage());
+                ioe.initCause(e);
+                throw ioe;
+            }
+        }
+    }
+
+    // Temporary files
+
+    /**
+     * A temporary file holding a sequence of encoded elements.
+     */
+    static final class Run {
+        final Path path;
+        final long count;
+
+        Run(Path path, long count) {
+            this.path = path;
+            this.count = count;
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        static void deleteAll(Iterable<Run> runs) {
+            UncheckedIOException ex = null;
+            for (Run r : runs) {
+                try {
+                    r.delete();
+                } catch (UncheckedIOException e) {
+                    if (ex == null)
+                        ex = e;
+                    else
+                        ex.addSuppressed(e);
+                }
+            }
+            if (ex != null)
+                throw ex;
+        }
+    }
+
+    /**
+     * Writes elements to a new temporary file.
+     */
+    static final class RunWriter<T> implements Closeable {
+        final ElementCodec<T> codec;
+        final Path path;
+        final ObjectOutputStream out;
+        long count;
+
+        RunWriter(ElementCodec<T> codec, Path directory) throws IOException {
+            this.codec = codec;
+            Path p = (directory == null)
+                ? Files.createTempFile("stream", ".run")
+                : Files.createTempFile(directory, "stream", ".run");
+            try {
+                FileChannel fc = FileChannel.open(p, StandardOpenOption.WRITE);
+                out = new ObjectOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(fc), BUFFER_SIZE));
+            } catch (IOException | RuntimeException | Error e) {
+                Files.deleteIfExists(p);
+                throw e;
+            }
+            this.path = p;
+        }
+
+        void write(T t) throws IOException {
+            codec.write(out, t);
+            if (++count % RESET_INTERVAL == 0)
+                out.reset();
+        }
+
+        /**
+         * Closes the file and returns it as a run.
+         */
+        Run finish() throws IOException {
+            out.close();
+            return new Run(path, count);
+        }
+
+        /**
+         * Closes and deletes the file after a failure.
+         */
+        public void close() {
+            try {
+                out.close();
+            } catch (IOException ignore) {
+            }
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignore) {
+            }
+        }
+
+        /**
+         * Writes the given elements to a new run.
+         */
+        static <T> Run write(ElementCodec<T> codec, Path directory,
+                             Iterator<? extends T> it) {
+            RunWriter<T> w = null;
+            try {
+                w = new RunWriter<T>(codec, directory);
+                while (it.hasNext())
+                    w.write(it.next());
+                return w.finish();
+            } catch (IOException e) {
+                if (w != null)
+                    w.close();
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException | Error e) {
+                if (w != null)
+                    w.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reads the elements of a run, deleting it once read.
+     */
+    static final class RunReader<T> implements Iterator<T>, Closeable {
+        final ElementCodec<T> codec;
+        final Run run;
+        final int order;         // position of the run, for stability
+        ObjectInputStream in;    // null when closed
+        long remaining;
+        T head;                  // the next element, if advanced
+
+        RunReader(ElementCodec<T> codec, Run run, int order) {
+            this.codec = codec;
+            this.run = run;
+            this.order = order;
+            this.remaining = run.count;
+        }
+
+        /**
+         * Reads the next element into head; returns false at the end of
+         * the run, after deleting it.
+         */
+        boolean advance() {
+            try {
+                if (in == null && remaining > 0) {
+                    FileChannel fc = FileChannel.open(run.path,
+                                                      StandardOpenOption.READ);
+                    try {
+                        in = new ObjectInputStream(new BufferedInputStream(
+                            Channels.newInputStream(fc), BUFFER_SIZE));
+                    } catch (IOException | RuntimeException | Error e) {
+                        fc.close();
+                        throw e;
+                    }
+                }
+                if (remaining == 0) {
+                    head = null;
+                    close();
+                    return false;
+                }
+                head = codec.read(in);
+                --remaining;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        public T next() {
+            if (!advance())
+                throw new NoSuchElementException();
+            return head;
+        }
+
+        public void close() {
+            remaining = 0;
+            ObjectInputStream s = in;
+            in = null;
+            try {
+                if (s != null)
+                    s.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                run.delete();
+            }
+        }
+    }
+
+    /**
+     * Lazily merges sorted runs in a k-way merge driven by a priority
+     * queue.  Equal elements are returned in the order of their runs.
+     */
+    static final class Merger<T> implements Iterator<T>, Runnable {
+        final PriorityQueue<RunReader<T>> queue;
+        final List<Run> runs;
+
+        Merger(Comparator<? super T> cmp, ElementCodec<T> codec, List<Run> runs) {
+            this.runs = runs;
+            queue = new PriorityQueue<RunReader<T>>(
+                Math.max(1, runs.size()), (a, b) -> {
+                    int c = cmp.compare(a.head, b.head);
+                    return (c != 0) ? c : Integer.compare(a.order, b.order);
+                });
+            try {
+                for (int i = 0; i < runs.size(); i++) {
+                    RunReader<T> r = new RunReader<T>(codec, runs.get(i), i);
+                    if (r.advance())
+                        queue.add(r);
+                }
+            } catch (RuntimeException | Error e) {
+                run();
+                throw e;
+            }
+        }
+
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        public T next() {
+            RunReader<T> r = queue.poll();
+            if (r == null)
+                throw new NoSuchElementException();
+            T t = r.head;
+            if (r.advance())
+                queue.add(r);
+            return t;
+        }
+
+        /**
+         * Closes all readers and deletes all runs.
+         */
+        public void run() {
+            RunReader<T> r;
+            while ((r = queue.poll()) != null) {
+                try {
+                    r.close();
+                } catch (UncheckedIOException ignore) {
+                }
+            }
+            Run.deleteAll(runs);
+        }
+    }
+
+    // Containers
+
+    /**
+     * Result container of the sorting collectors.
+     */
+    static final class Sorter<T> {
+        final Comparator<? super T> comparator;
+        final ElementCodec<T> codec;
+        final int maxElementsInMemory;
+        final Path directory;
+        final ArrayList<Run> runs = new ArrayList<Run>();
+        Object[] buffer = new Object[16];
+        int size;
+
+        Sorter(Comparator<? super T> comparator, ElementCodec<T> codec,
+               int maxElementsInMemory, Path directory) {
+            this.comparator = comparator;
+            this.codec = codec;
+            this.maxElementsInMemory = maxElementsInMemory;
+            this.directory = directory;
+        }
+
+        void accept(T t) {
+            if (size == buffer.length) {
+                if (size >= maxElementsInMemory)
+                    spill();
+                else
+                    buffer = Arrays.copyOf(buffer, (int)Math.min(
+                        (long)size << 1, maxElementsInMemory));
+            }
+            buffer[size++] = t;
+        }
+
+        Sorter<T> combine(Sorter<T> other) {
+            if (other.runs.isEmpty()) {
+                Object[] b = other.buffer;
+                for (int i = 0, n = other.size; i < n; i++)
+                    accept(elementAt(b, i));
+            } else {
+                // Keep the runs in encounter order for a stable merge
+                if (size > 0)
+                    spill();
+                runs.addAll(other.runs);
+                buffer = other.buffer;
+                size = other.size;
+            }
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> T elementAt(Object[] a, int i) {
+            return (T) a[i];
+        }
+
+        @SuppressWarnings("unchecked")
+        void sortBuffer() {
+            Arrays.parallelSort((T[]) buffer, 0, size, comparator);
+        }
+
+        /**
+         * Sorts the buffer and writes it as a new run.
+         */
+        void spill() {
+            sortBuffer();
+            final Object[] b = buffer;
+            final int n = size;
+            runs.add(RunWriter.write(codec, directory, new Iterator<T>() {
+                int i;
+                public boolean hasNext() { return i < n; }
+                public T next() {
+                    T t = elementAt(b, i);
+                    b[i++] = null;
+                    return t;
+                }
+            }));
+            size = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        Stream<T> finish() {
+            if (runs.isEmpty()) {
+                sortBuffer();
+                return (Stream<T>) Arrays.stream(buffer, 0, size);
+            }
+            try {
+                if (size > 0)
+                    spill();
+                buffer = null;
+                // Bound the number of simultaneously open runs
+                while (runs.size() > MAX_MERGE_WIDTH) {
+                    List<Run> first = runs.subList(0, MAX_MERGE_WIDTH);
+                    List<Run> merging = new ArrayList<Run>(first);
+                    Run merged = RunWriter.write(
+                        codec, directory, new Merger<T>(comparator, codec,
+                                                        merging));
+                    first.clear();
+                    runs.add(0, merged);
+                }
+                long count = 0;
+                for (Run r : runs)
+                    count += r.count;
+                Merger<T> m = new Merger<T>(comparator, codec, runs);
+                return StreamSupport.stream(
+                    Spliterators.spliterator(m, count, Spliterator.ORDERED),
+                    false).onClose(m);
+            } catch (RuntimeException | Error e) {
+                try {
+                    Run.deleteAll(runs);
+                } catch (UncheckedIOException ex) {
+                    e.addSuppressed(ex);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Result container of the distinct collectors.
+     */
+    static final class Deduplicator<T> {
+        final ElementCodec<T> codec;
+        final int maxElementsInMemory;
+        final Path directory;
+        final int depth;
+        HashSet<T> set = new HashSet<T>();
+        List<Run>[] partitions;  // non-null after the first spill
+
+        Deduplicator(ElementCodec<T> codec, int maxElementsInMemory,
+                     Path directory, int depth) {
+            this.codec = codec;
+            this.maxElementsInMemory = maxElementsInMemory;
+            this.directory = directory;
+            this.depth = depth;
+        }
+
+        /**
+         * Returns the partition of the given element at this depth,
+         * taken from a different group of bits of the mixed hash code
+         * at each depth.
+         */
+        int partition(Object t) {
+            int h = Objects.hashCode(t) * 0x9E3779B9;
+            h ^= h >>> 16;
+            return (h >>> (depth * PARTITION_BITS)) & (PARTITIONS - 1);
+        }
+
+        void accept(T t) {
+            if (set.add(t) && set.size() > maxElementsInMemory)
+                spill();
+        }
+
+        Deduplicator<T> combine(Deduplicator<T> other) {
+            for (T t : other.set)
+                accept(t);
+            if (other.partitions != null) {
+                if (partitions == null)
+                    partitions = other.partitions;
+                else {
+                    for (int i = 0; i < PARTITIONS; i++)
+                        partitions[i].addAll(other.partitions[i]);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Writes the set to one new run per partition.
+         */
+        @SuppressWarnings("unchecked")
+        void spill() {
+            List<T>[] parts = (List<T>[]) new List<?>[PARTITIONS];
+            for (int i = 0; i < PARTITIONS; i++)
+                parts[i] = new ArrayList<T>();
+            for (T t : set)
+                parts[partition(t)].add(t);
+            set = new HashSet<T>();
+            if (partitions == null) {
+                partitions = (List<Run>[]) new List<?>[PARTITIONS];
+                for (int i = 0; i < PARTITIONS; i++)
+                    partitions[i] = new ArrayList<Run>();
+            }
+            for (int i = 0; i < PARTITIONS; i++) {
+                if (!parts[i].isEmpty()) {
+                    partitions[i].add(RunWriter.write(codec, directory,
+                                                      parts[i].iterator()));
+                    parts[i] = null;
+                }
+            }
+        }
+
+        Stream<T> finish() {
+            if (partitions == null)
+                return set.stream();
+            final List<Run> all = new ArrayList<Run>();
+            try {
+                if (!set.isEmpty())
+                    spill();
+                set = null;
+                for (List<Run> p : partitions)
+                    all.addAll(p);
+            } catch (RuntimeException | Error e) {
+                for (List<Run> p : partitions)
+                    all.addAll(p);
+                try {
+                    Run.deleteAll(all);
+                } catch (UncheckedIOException ex) {
+                    e.addSuppressed(ex);
+                }
+                throw e;
+            }
+            final List<Run>[] parts = partitions;
+            partitions = null;
+            return Arrays.stream(parts)
+                .filter(p -> !p.isEmpty())
+                .flatMap(this::partitionStream)
+                .onClose(() -> Run.deleteAll(all));
+        }
+
+        /**
+         * Returns the distinct elements of the given runs of a
+         * partition, partitioning them further if they do not fit.
+         */
+        Stream<T> partitionStream(List<Run> runs) {
+            Deduplicator<T> d = (depth < MAX_PARTITION_DEPTH)
+                ? new Deduplicator<T>(codec, maxElementsInMemory, directory,
+                                      depth + 1)
+                : new Deduplicator<T>(codec, Integer.MAX_VALUE, directory,
+                                      depth + 1);
+            for (Run r : runs) {
+                RunReader<T> reader = new RunReader<T>(codec, r, 0);
+                while (reader.hasNext())
+                    d.accept(reader.next());
+                reader.close();
+            }
+            return d.finish();
+        }
+    }
+}
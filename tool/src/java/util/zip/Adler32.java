@@ -36,7 +36,10 @@
 
 package java.util.zip;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
 import sun.nio.ch.DirectBuffer;
 
 /**
@@ -124,13 +127,77 @@ class Adler32 implements Checksum {
         } else if (buffer.hasArray()) {
             adler = updateBytes(adler, buffer.array(), pos + buffer.arrayOffset(), rem);
         } else {
-            byte[] b = new byte[rem];
-            buffer.get(b);
-            adler = updateBytes(adler, b, 0, b.length);
+            // Copy through a bounded array, not one as large as the buffer
+            byte[] b = new byte[Math.min(rem, 8192)];
+            while (rem > 0) {
+                int n = Math.min(rem, b.length);
+                buffer.get(b, 0, n);
+                adler = updateBytes(adler, b, 0, n);
+                rem -= n;
+            }
         }
         buffer.position(limit);
     }
 
+    /**
+     * Updates the checksum with {@code count} bytes of the given file,
+     * starting at the given position, or with the bytes up to the end of
+     * the file if fewer remain.  The bytes are read by mapping the file in
+     * chunks, which are checksummed in parallel in the
+     * {@linkplain ForkJoinPool#commonPool() common pool}.  The position of
+     * the channel is not changed.
+     *
+     * @param channel the channel to read, which must be open for reading
+     * @param position the position in the file of the first byte
+     * @param count the maximum number of bytes to read
+     * @return the number of bytes read, possibly zero
+     * @throws IllegalArgumentException if {@code position} or {@code count}
+     *         is negative
+     * @throws java.nio.channels.NonReadableChannelException if the channel
+     *         was not opened for reading
+     * @throws IOException if an I/O error occurs
+     * @since 1.8
+     */
+    public long update(FileChannel channel, long position, long count)
+        throws IOException
+    {
+        return update(channel, position, count, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Updates the checksum with {@code count} bytes of the given file,
+     * starting at the given position, or with the bytes up to the end of
+     * the file if fewer remain.  The bytes are read by mapping the file in
+     * chunks, which are checksummed in parallel in the given pool.  The
+     * position of the channel is not changed.
+     *
+     * @param channel the channel to read, which must be open for reading
+     * @param position the position in the file of the first byte
+     * @param count the maximum number of bytes to read
+     * @param pool the pool in which to checksum the chunks
+     * @return the number of bytes read, possibly zero
+     * @throws IllegalArgumentException if {@code position} or {@code count}
+     *         is negative
+     * @throws java.nio.channels.NonReadableChannelException if the channel
+     *         was not opened for reading
+     * @throws IOException if an I/O error occurs
+     * @since 1.8
+     */
+    public long update(FileChannel channel, long position, long count,
+                       ForkJoinPool pool)
+        throws IOException
+    {
+        if (pool == null) {
+            throw new NullPointerException();
+        }
+        long n = ChannelChecksumTask.remaining(channel, position, count);
+        if (n > 0) {
+            long value = new ChannelTask(channel, position, n).invoke(pool);
+            adler = (int)combine(getValue(), value, n);
+        }
+        return n;
+    }
+
     /**
      * Resets the checksum to initial value.
      */
@@ -145,9 +212,67 @@ class Adler32 implements Checksum {
         return (long)adler & 0xffffffffL;
     }
 
+    /**
+     * Returns the Adler-32 checksum of two consecutive sequences of bytes,
+     * given the checksum of each sequence and the length of the second one.
+     * This lets the checksums of the parts of some data be computed
+     * independently, for instance in parallel, and then combined.
+     *
+     * @param adler1 the checksum of the first sequence
+     * @param adler2 the checksum of the second sequence
+     * @param len2 the length of the second sequence
+     * @return the checksum of the first sequence followed by the second
+     * @throws IllegalArgumentException if {@code len2} is negative
+     * @since 1.8
+     */
+    public static long combine(long adler1, long adler2, long len2) {
+        if (len2 < 0) {
+            throw new IllegalArgumentException("Negative length");
+        }
+        long rem = len2 % BASE;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (rem * sum1) % BASE;
+        sum1 += (adler2 & 0xffff) + BASE - 1;
+        sum2 += ((adler1 >>> 16) & 0xffff) + ((adler2 >>> 16) & 0xffff)
+            + BASE - rem;
+        if (sum1 >= BASE) sum1 -= BASE;
+        if (sum1 >= BASE) sum1 -= BASE;
+        if (sum2 >= (BASE << 1)) sum2 -= (BASE << 1);
+        if (sum2 >= BASE) sum2 -= BASE;
+        return sum1 | (sum2 << 16);
+    }
+
+    // The largest prime smaller than 65536
+    private static final long BASE = 65521;
+
     private native static int update(int adler, int b);
     private native static int updateBytes(int adler, byte[] b, int off,
                                           int len);
     private native static int updateByteBuffer(int adler, long addr,
                                                int off, int len);
+
+    /**
+     * Computes the checksum of a region of a file.
+     */
+    private static final class ChannelTask extends ChannelChecksumTask {
+        private static final long serialVersionUID = -1964327466470891305L;
+
+        ChannelTask(FileChannel channel, long position, long count) {
+            super(channel, position, count);
+        }
+
+        long checksum(ByteBuffer buffer) {
+            return updateByteBuffer(1, ((DirectBuffer)buffer).address(),
+                                    buffer.position(), buffer.remaining())
+                & 0xffffffffL;
+        }
+
+        long combine(long adler1, long adler2, long len2) {
+            return Adler32.combine(adler1, adler2, len2);
+        }
+
+        ChannelChecksumTask subtask(long position, long count) {
+            return new ChannelTask(channel, position, count);
+        }
+    }
 }
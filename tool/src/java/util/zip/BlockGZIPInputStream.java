@@ -0,0 +1,482 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.zip;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.util.zip.BlockGZIPOutputStream.*;
+
+/**
+ * This class implements an input stream for reading a file written by a
+ * {@link BlockGZIPOutputStream}, which can be {@linkplain #seek positioned}
+ * at any uncompressed offset.  Only the block containing the offset is
+ * read and decompressed, using the index at the end of the file.
+ *
+ * <p>The file is read with positional reads, so the position of the
+ * channel is neither used nor changed.
+ *
+ * @see BlockGZIPOutputStream
+ * @since 1.8
+ */
+public
+class BlockGZIPInputStream extends InputStream {
+
+    // The largest ratio of uncompressed to compressed size that deflate
+    // can achieve
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    private final FileChannel channel;
+    private final int blockSize;
+    private final long length;
+
+    // Offsets of the blocks, followed by the offset of the index
+    private final long[] offsets;
+
+    private final Inflater inf = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+
+    // The compressed member of the current block
+    private byte[] member = new byte[0];
+
+    // The current block, and its index and length
+    private byte[] block;
+    private int current = -1;
+    private int blockLength;
+
+    private long pos;
+    private long markPos;
+    private boolean closed;
+
+    /**
+     * Creates a new input stream reading the given file.
+     *
+     * @param file the file to read
+     * @exception ZipException if the file was not written by a
+     *            BlockGZIPOutputStream, or its index is corrupt
+     * @exception IOException if an I/O error has occurred
+     */
+    public BlockGZIPInputStream(File file) throws IOException {
+        this(FileChannel.open(file.toPath()), true);
+    }
+
+    /**
+     * Creates a new input stream reading the given channel, which is closed
+     * when this stream is closed.
+     *
+     * @param channel the channel to read, which must be open for reading
+     * @exception ZipException if the file was not written by a
+     *            BlockGZIPOutputStream, or its index is corrupt
+     * @exception IOException if an I/O error has occurred
+     */
+    public BlockGZIPInputStream(FileChannel channel) throws IOException {
+        this(channel, false);
+    }
+
+    private BlockGZIPInputStream(FileChannel channel, boolean closeOnError)
+        throws IOException
+    {
+        if (channel == null) {
+            throw new NullPointerException();
+        }
+        this.channel = channel;
+        try {
+            long size = channel.size();
+            if (size < LOCATOR_MEMBER_SIZE) {
+                throw new ZipException("Not in block GZIP format");
+            }
+            byte[] b = readAt(size - LOCATOR_MEMBER_SIZE, LOCATOR_MEMBER_SIZE);
+            int off = checkExtraHeader(b, 0, LOCATOR_ID);
+            if (readShort(b, off - 2) != LOCATOR_SIZE) {
+                throw new ZipException("Corrupt block GZIP locator");
+            }
+            blockSize = readInt(b, off);
+            length = readLong(b, off + 4);
+            long indexOffset = readLong(b, off + 12);
+            long blocks = blockSize <= 0 ? -1
+                : (length + blockSize - 1) / blockSize;
+            if (length < 0 || blocks < 0 || blocks >= Integer.MAX_VALUE / 8
+                || indexOffset < 0
+                || indexOffset > size - LOCATOR_MEMBER_SIZE) {
+                throw new ZipException("Corrupt block GZIP locator");
+            }
+            long[] offsets = readIndex(indexOffset, size - LOCATOR_MEMBER_SIZE,
+                                       (int)blocks);
+            // Each block must fit in its member once compressed, which
+            // bounds the memory allocated for a block by the file size
+            for (int i = 0; i < blocks; i++) {
+                long n = Math.min(blockSize, length - (long)i * blockSize);
+                long data = offsets[i + 1] - offsets[i]
+                    - HEADER_SIZE - TRAILER_SIZE;
+                if (n > data * MAX_DEFLATE_RATIO) {
+                    throw new ZipException("Corrupt block GZIP locator");
+                }
+            }
+            this.offsets = offsets;
+        } catch (IOException | RuntimeException e) {
+            if (closeOnError) {
+                channel.close();
+            }
+            throw e;
+        }
+    }
+
+    /*
+     * Reads the index members between the given offsets, which must list
+     * the offsets of the given number of blocks in increasing order.
+     */
+    private long[] readIndex(long start, long end, int blocks)
+        throws IOException
+    {
+        // Each entry takes 8 bytes of the index, so check the number of
+        // blocks before allocating for them
+        if (end - start > Integer.MAX_VALUE || blocks > (end - start) / 8) {
+            throw new ZipException("Corrupt block GZIP index");
+        }
+        byte[] b = readAt(start, (int)(end - start));
+        long[] offsets = new long[blocks + 1];
+        int n = 0;
+        for (int off = 0; off < b.length; ) {
+            int data = checkExtraHeader(b, off, INDEX_ID);
+            int size = readShort(b, data - 2);
+            if (size % 8 != 0 || size / 8 > blocks - n) {
+                throw new ZipException("Corrupt block GZIP index");
+            }
+            for (int i = 0; i < size; i += 8) {
+                offsets[n++] = readLong(b, data + i);
+            }
+            off = data + size + EMPTY_DEFLATE.length + TRAILER_SIZE;
+        }
+        if (n != blocks) {
+            throw new ZipException("Corrupt block GZIP index");
+        }
+        offsets[blocks] = start;
+        long previous = -HEADER_SIZE - TRAILER_SIZE;
+        for (long offset : offsets) {
+            if (offset < previous + HEADER_SIZE + TRAILER_SIZE
+                || offset - previous > Integer.MAX_VALUE) {
+                throw new ZipException("Corrupt block GZIP index");
+            }
+            previous = offset;
+        }
+        return offsets;
+    }
+
+    /*
+     * Checks that the bytes at the given offset are the header of a member
+     * with an extra field holding one subfield with the given ID, followed
+     * by empty data, and returns the offset of the subfield's data.
+     */
+    private static int checkExtraHeader(byte[] b, int off, int id)
+        throws ZipException
+    {
+        if (b.length - off < HEADER_SIZE + 6) {
+            throw new ZipException("Corrupt block GZIP index");
+        }
+        checkHeader(b, off, FEXTRA);
+        int xlen = readShort(b, off + HEADER_SIZE);
+        int size = readShort(b, off + HEADER_SIZE + 4);
+        int data = off + HEADER_SIZE + 6;
+        if (readShort(b, off + HEADER_SIZE + 2) != id || xlen != size + 4
+            || b.length - data < size + EMPTY_DEFLATE.length + TRAILER_SIZE
+            || b[data + size] != EMPTY_DEFLATE[0]
+            || b[data + size + 1] != EMPTY_DEFLATE[1]) {
+            throw new ZipException("Corrupt block GZIP index");
+        }
+        return data;
+    }
+
+    /*
+     * Checks the magic number, compression method and flags of a header.
+     */
+    private static void checkHeader(byte[] b, int off, int flags)
+        throws ZipException
+    {
+        if (readShort(b, off) != GZIP_MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (b[off + 2] != Deflater.DEFLATED) {
+            throw new ZipException("Unsupported compression method");
+        }
+        if (b[off + 3] != flags) {
+            throw new ZipException("Not in block GZIP format");
+        }
+    }
+
+    /**
+     * Returns the uncompressed length of the file.
+     *
+     * @return the uncompressed length of the file
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the uncompressed size of the blocks of the file.
+     *
+     * @return the uncompressed size of the blocks
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns the uncompressed offset of the next byte to read.
+     *
+     * @return the uncompressed offset of the next byte to read
+     */
+    public long getPosition() {
+        return pos;
+    }
+
+    /**
+     * Sets the uncompressed offset of the next byte to read.  The offset
+     * may be set beyond the end of the file, in which case there is no
+     * more data to read.
+     *
+     * @param pos the uncompressed offset
+     * @exception IllegalArgumentException if {@code pos} is negative
+     * @exception IOException if the stream has been closed
+     */
+    public void seek(long pos) throws IOException {
+        if (pos < 0) {
+            throw new IllegalArgumentException("Negative position");
+        }
+        ensureOpen();
+        this.pos = pos;
+    }
+
+    /**
+     * Reads a byte of uncompressed data.
+     *
+     * @return the byte read, or -1 if the end of the file is reached
+     * @exception ZipException if the block being read is corrupt
+     * @exception IOException if an I/O error has occurred
+     */
+    public int read() throws IOException {
+        ensureOpen();
+        if (pos >= length) {
+            return -1;
+        }
+        int off = loadBlock();
+        pos++;
+        return block[off] & 0xff;
+    }
+
+    /**
+     * Reads uncompressed data into an array of bytes, from the block
+     * containing the current offset.
+     *
+     * @param b the buffer into which the data is read
+     * @param off the start offset in the destination array {@code b}
+     * @param len the maximum number of bytes read
+     * @return the actual number of bytes read, or -1 if the end of the
+     *         file is reached
+     * @exception IndexOutOfBoundsException if {@code off} is negative,
+     *            {@code len} is negative, or {@code len} is greater than
+     *            {@code b.length - off}
+     * @exception ZipException if the block being read is corrupt
+     * @exception IOException if an I/O error has occurred
+     */
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return 0;
+        }
+        if (pos >= length) {
+            return -1;
+        }
+        int start = loadBlock();
+        int n = Math.min(len, blockLength - start);
+        System.arraycopy(block, start, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    /**
+     * Skips over uncompressed data, without decompressing it.
+     *
+     * @param n the number of bytes to skip
+     * @return the actual number of bytes skipped
+     * @exception IOException if the stream has been closed
+     */
+    public long skip(long n) throws IOException {
+        ensureOpen();
+        if (n <= 0 || pos >= length) {
+            return 0;
+        }
+        n = Math.min(n, length - pos);
+        pos += n;
+        return n;
+    }
+
+    /**
+     * Returns the number of bytes that can be read without decompressing
+     * another block.
+     *
+     * @return the number of bytes left in the current block
+     * @exception IOException if the stream has been closed
+     */
+    public int available() throws IOException {
+        ensureOpen();
+        long start = (long)current * blockSize;
+        if (current < 0 || pos < start || pos >= start + blockLength) {
+            return 0;
+        }
+        return (int)(start + blockLength - pos);
+    }
+
+    /**
+     * Marks the current offset in this input stream.
+     *
+     * @param readlimit ignored, since any offset can be returned to
+     */
+    public synchronized void mark(int readlimit) {
+        markPos = pos;
+    }
+
+    /**
+     * Repositions this stream to the offset marked last.
+     *
+     * @exception IOException if the stream has been closed
+     */
+    public synchronized void reset() throws IOException {
+        ensureOpen();
+        pos = markPos;
+    }
+
+    /**
+     * Returns {@code true}, since this stream supports mark and reset.
+     *
+     * @return {@code true}
+     */
+    public boolean markSupported() {
+        return true;
+    }
+
+    /**
+     * Closes this input stream and the channel it reads.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            inf.end();
+            block = null;
+            channel.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /*
+     * Decompresses the block containing the current offset, unless it is
+     * the current block, and returns the offset of pos within it.
+     */
+    private int loadBlock() throws IOException {
+        int i = (int)(pos / blockSize);
+        if (i != current) {
+            current = -1;
+            int size = (int)(offsets[i + 1] - offsets[i]);
+            if (member.length < size) {
+                member = new byte[size];
+            }
+            readAt(offsets[i], member, size);
+            checkHeader(member, 0, 0);
+            int n = (int)Math.min(blockSize, length - (long)i * blockSize);
+            if (block == null) {
+                block = new byte[(int)Math.min(blockSize, length)];
+            }
+            inf.reset();
+            // The trailer follows the data, as the extra byte that the
+            // Inflater needs in nowrap mode
+            inf.setInput(member, HEADER_SIZE, size - HEADER_SIZE);
+            try {
+                int off = 0;
+                while (off < n) {
+                    int k = inf.inflate(block, off, n - off);
+                    if (k == 0 && (inf.finished() || inf.needsInput()
+                                   || inf.needsDictionary())) {
+                        throw new ZipException("Corrupt block GZIP data");
+                    }
+                    off += k;
+                }
+                // The block must end here: nothing more can be inflated
+                if (!inf.finished()
+                    && inf.inflate(new byte[1], 0, 1) != 0
+                    || !inf.finished()
+                    || inf.getRemaining() != TRAILER_SIZE) {
+                    throw new ZipException("Corrupt block GZIP data");
+                }
+            } catch (DataFormatException e) {
+                String s = e.getMessage();
+                throw new ZipException(s != null ? s
+                                       : "Invalid ZLIB data format");
+            }
+            crc.reset();
+            crc.update(block, 0, n);
+            int trailer = size - TRAILER_SIZE;
+            if (readInt(member, trailer) != (int)crc.getValue()
+                || readInt(member, trailer + 4) != n) {
+                throw new ZipException("Corrupt block GZIP trailer");
+            }
+            current = i;
+            blockLength = n;
+        }
+        return (int)(pos - (long)i * blockSize);
+    }
+
+    private byte[] readAt(long position, int size) throws IOException {
+        byte[] b = new byte[size];
+        readAt(position, b, size);
+        return b;
+    }
+
+    private void readAt(long position, byte[] b, int size) throws IOException {
+        ByteBuffer bb = ByteBuffer.wrap(b, 0, size);
+        while (bb.hasRemaining()) {
+            if (channel.read(bb, position + bb.position()) < 0) {
+                throw new EOFException("Unexpected end of block GZIP file");
+            }
+        }
+    }
+
+    /*
+     * Reads integers in Intel byte order from a byte array, starting at a
+     * given offset.
+     */
+    private static long readLong(byte[] b, int off) {
+        return (readInt(b, off) & 0xffffffffL)
+            | ((long)readInt(b, off + 4) << 32);
+    }
+
+    private static int readInt(byte[] b, int off) {
+        return readShort(b, off) | (readShort(b, off + 2) << 16);
+    }
+
+    private static int readShort(byte[] b, int off) {
+        return (b[off] & 0xff) | ((b[off + 1] & 0xff) << 8);
+    }
+}
@@ -0,0 +1,478 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.zip;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class implements an output stream filter for writing data in the
+ * GZIP file format as a sequence of independent GZIP members, each holding
+ * a block of a fixed uncompressed size, followed by an index of the blocks.
+ * The blocks are compressed in parallel by an executor.
+ *
+ * <p>The index is held in the extra fields of GZIP members with no data,
+ * so that the output remains a valid GZIP file, that {@link
+ * GZIPInputStream} and other GZIP readers decompress as a whole when
+ * they read it from a file.  A {@link BlockGZIPInputStream} uses the index
+ * to seek to any uncompressed offset, decompressing only the block that
+ * contains it.
+ *
+ * <p>Readers must support files of several members, as RFC 1952 requires,
+ * and some do so only in part.  In particular, {@code GZIPInputStream}
+ * only looks for another member after a trailer when its input reports
+ * {@linkplain java.io.InputStream#available available} bytes or when
+ * enough bytes are left in its buffer.  When it reads the output through
+ * a stream that reports no available bytes, such as a pipe or a socket,
+ * it may therefore report the end of the data at the end of any block,
+ * without an error.  Such output should be read from a file, or with a
+ * reader that always looks for another member.
+ *
+ * <p>Since all blocks but the last must be full, {@link #flush() flush}
+ * does not end the current block: it only writes the blocks that are full.
+ *
+ * @see BlockGZIPInputStream
+ * @since 1.8
+ */
+public
+class BlockGZIPOutputStream extends FilterOutputStream {
+
+    /**
+     * The default uncompressed size of the blocks.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /*
+     * GZIP header magic number.
+     */
+    static final int GZIP_MAGIC = 0x8b1f;
+
+    /*
+     * Header flag for an extra field.
+     */
+    static final int FEXTRA = 4;
+
+    /*
+     * Size of a header without extra field, and of a trailer, in bytes.
+     */
+    static final int HEADER_SIZE = 10;
+    static final int TRAILER_SIZE = 8;
+
+    /*
+     * A deflate stream holding no data: a final fixed Huffman block
+     * with only an end-of-block code.
+     */
+    static final byte[] EMPTY_DEFLATE = { 3, 0 };
+
+    /*
+     * Extra subfield IDs of the index entries and of the locator of the
+     * index, which is held by the last member.
+     */
+    static final int INDEX_ID = ('B' & 0xff) | ('I' << 8);
+    static final int LOCATOR_ID = ('B' & 0xff) | ('L' << 8);
+
+    /*
+     * Offsets of the blocks in an index member, at most as many as fit
+     * in an extra field.
+     */
+    static final int MAX_INDEX_ENTRIES = (0xffff - 4) / 8;
+
+    /*
+     * Size of the locator: the block size, the uncompressed length and
+     * the offset of the first index member.
+     */
+    static final int LOCATOR_SIZE = 4 + 8 + 8;
+
+    /*
+     * Size of the last member, holding the locator.
+     */
+    static final int LOCATOR_MEMBER_SIZE = HEADER_SIZE + 2 + 4 + LOCATOR_SIZE
+        + EMPTY_DEFLATE.length + TRAILER_SIZE;
+
+    private final int blockSize;
+    private final int level;
+    private final ExecutorService executor;
+
+    // Blocks being compressed, in order, at most maxPending
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final int maxPending;
+
+    // Deflaters available to the compressing tasks
+    private final ConcurrentLinkedQueue<Deflater> deflaters =
+        new ConcurrentLinkedQueue<>();
+
+    // The block being filled
+    private byte[] buf;
+    private int count;
+
+    // Offsets of the blocks written so far
+    private long[] offsets = new long[16];
+    private int blocks;
+
+    private long written;       // compressed bytes written
+    private long length;        // uncompressed bytes written
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Creates a new output stream with the default block size and
+     * compression level, compressing the blocks in the
+     * {@linkplain ForkJoinPool#commonPool() common pool}.
+     *
+     * @param out the output stream
+     */
+    public BlockGZIPOutputStream(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION,
+             ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new output stream with the specified block size and
+     * compression level, compressing the blocks with the given executor.
+     *
+     * @param out the output stream
+     * @param blockSize the uncompressed size of the blocks
+     * @param level the compression level (0-9), or
+     *        {@link Deflater#DEFAULT_COMPRESSION}
+     * @param executor the executor compressing the blocks
+     * @exception IllegalArgumentException if {@code blockSize <= 0} or
+     *            the compression level is invalid
+     */
+    public BlockGZIPOutputStream(OutputStream out, int blockSize, int level,
+                                 ExecutorService executor)
+    {
+        super(out);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize <= 0");
+        }
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        if (out == null || executor == null) {
+            throw new NullPointerException();
+        }
+        this.blockSize = blockSize;
+        this.level = level;
+        this.executor = executor;
+        this.maxPending = 2 * Runtime.getRuntime().availableProcessors();
+        this.buf = new byte[blockSize];
+    }
+
+    /**
+     * Returns the uncompressed size of the blocks.
+     *
+     * @return the uncompressed size of the blocks
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Writes a byte to the compressed output stream.
+     *
+     * @param b the byte to be written
+     * @exception IOException if an I/O error has occurred
+     */
+    public synchronized void write(int b) throws IOException {
+        ensureNotFinished();
+        buf[count++] = (byte)b;
+        if (count == blockSize) {
+            submitBlock();
+        }
+    }
+
+    /**
+     * Writes an array of bytes to the compressed output stream.
+     *
+     * @param b the data to be written
+     * @param off the start offset of the data
+     * @param len the length of the data
+     * @exception IOException if an I/O error has occurred
+     */
+    public synchronized void write(byte[] b, int off, int len)
+        throws IOException
+    {
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureNotFinished();
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, buf, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks that are full to the output stream, and flushes
+     * it.  The current block is not ended, so its data is only written
+     * once it is full or the stream is finished.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        while (!pending.isEmpty()) {
+            writeBlock();
+        }
+        out.flush();
+    }
+
+    /**
+     * Finishes writing compressed data to the output stream without closing
+     * the underlying stream: writes the last block and the index.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public synchronized void finish() throws IOException {
+        ensureOpen();
+        if (finished) {
+            return;
+        }
+        if (count > 0) {
+            submitBlock();
+        }
+        while (!pending.isEmpty()) {
+            writeBlock();
+        }
+        finished = true;
+        writeIndex();
+    }
+
+    /**
+     * Writes the remaining compressed data and the index to the output
+     * stream and closes the underlying stream.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            finish();
+        } finally {
+            closed = true;
+            // Wait for the remaining tasks before ending their deflaters
+            for (Future<byte[]> f : pending) {
+                try {
+                    f.get();
+                } catch (InterruptedException | ExecutionException e) {
+                }
+            }
+            pending.clear();
+            Deflater def;
+            while ((def = deflaters.poll()) != null) {
+                def.end();
+            }
+            buf = null;
+            out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void ensureNotFinished() throws IOException {
+        ensureOpen();
+        if (finished) {
+            throw new IOException("write beyond end of stream");
+        }
+    }
+
+    /*
+     * Hands the current block to the executor, writing the oldest pending
+     * blocks first if there are too many.
+     */
+    private void submitBlock() throws IOException {
+        while (pending.size() >= maxPending) {
+            writeBlock();
+        }
+        final byte[] data = buf;
+        final int len = count;
+        pending.add(executor.submit(new Callable<byte[]>() {
+            public byte[] call() {
+                return compress(data, len);
+            }
+        }));
+        length += len;
+        count = 0;
+        buf = new byte[blockSize];
+    }
+
+    /*
+     * Writes the oldest pending block, waiting for it to be compressed.
+     */
+    private void writeBlock() throws IOException {
+        Future<byte[]> f = pending.poll();
+        byte[] member;
+        try {
+            member = f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            if (cause instanceof Error)
+                throw (Error)cause;
+            throw new IOException(cause);
+        }
+        if (blocks == offsets.length) {
+            offsets = Arrays.copyOf(offsets, blocks * 2);
+        }
+        offsets[blocks++] = written;
+        out.write(member);
+        written += member.length;
+    }
+
+    /*
+     * Returns the GZIP member holding the first len bytes of data.
+     */
+    private byte[] compress(byte[] data, int len) {
+        Deflater def = deflaters.poll();
+        if (def == null) {
+            def = new Deflater(level, true);
+        }
+        try {
+            byte[] member = new byte[HEADER_SIZE + len + (len >>> 12)
+                                     + (len >>> 14) + 64 + TRAILER_SIZE];
+            writeHeader(member, 0);
+            int off = HEADER_SIZE;
+            def.setInput(data, 0, len);
+            def.finish();
+            while (!def.finished()) {
+                if (off == member.length - TRAILER_SIZE) {
+                    member = Arrays.copyOf(member, member.length * 2);
+                }
+                off += def.deflate(member, off,
+                                   member.length - TRAILER_SIZE - off);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, len);
+            writeInt((int)crc.getValue(), member, off);
+            writeInt(len, member, off + 4);
+            off += TRAILER_SIZE;
+            def.reset();
+            deflaters.add(def);
+            def = null;
+            return off == member.length ? member : Arrays.copyOf(member, off);
+        } finally {
+            if (def != null) {
+                def.end();
+            }
+        }
+    }
+
+    /*
+     * Writes the index members, each listing the offsets of up to
+     * MAX_INDEX_ENTRIES blocks, and the member locating them.
+     */
+    private void writeIndex() throws IOException {
+        long indexOffset = written;
+        int i = 0;
+        do {
+            int n = Math.min(blocks - i, MAX_INDEX_ENTRIES);
+            byte[] member = new byte[HEADER_SIZE + 2 + 4 + 8 * n
+                                     + EMPTY_DEFLATE.length + TRAILER_SIZE];
+            int off = writeExtraHeader(member, INDEX_ID, 8 * n);
+            for (int j = 0; j < n; j++, off += 8) {
+                writeLong(offsets[i + j], member, off);
+            }
+            writeEmptyData(member, off);
+            out.write(member);
+            written += member.length;
+            i += n;
+        } while (i < blocks);
+
+        byte[] locator = new byte[LOCATOR_MEMBER_SIZE];
+        int off = writeExtraHeader(locator, LOCATOR_ID, LOCATOR_SIZE);
+        writeInt(blockSize, locator, off);
+        writeLong(length, locator, off + 4);
+        writeLong(indexOffset, locator, off + 12);
+        writeEmptyData(locator, off + LOCATOR_SIZE);
+        out.write(locator);
+        written += locator.length;
+    }
+
+    /*
+     * Writes the header of a member with an extra field holding one
+     * subfield of the given size, returning the offset of its data.
+     */
+    private static int writeExtraHeader(byte[] b, int id, int size) {
+        writeHeader(b, 0);
+        b[3] = FEXTRA;
+        writeShort(4 + size, b, HEADER_SIZE);
+        writeShort(id, b, HEADER_SIZE + 2);
+        writeShort(size, b, HEADER_SIZE + 4);
+        return HEADER_SIZE + 6;
+    }
+
+    /*
+     * Writes the empty deflate data and the trailer of a member.
+     */
+    private static void writeEmptyData(byte[] b, int off) {
+        System.arraycopy(EMPTY_DEFLATE, 0, b, off, EMPTY_DEFLATE.length);
+        writeInt(0, b, off + EMPTY_DEFLATE.length);     // CRC-32 of no data
+        writeInt(0, b, off + EMPTY_DEFLATE.length + 4); // No uncompr. bytes
+    }
+
+    /*
+     * Writes a GZIP member header without optional fields.
+     */
+    private static void writeHeader(byte[] b, int off) {
+        b[off] = (byte) GZIP_MAGIC;             // Magic number (short)
+        b[off + 1] = (byte)(GZIP_MAGIC >> 8);   // Magic number (short)
+        b[off + 2] = Deflater.DEFLATED;         // Compression method (CM)
+        // Flags (FLG), modification time (MTIME), extra flags (XFLG)
+        // and operating system (OS) are all zero
+    }
+
+    /*
+     * Writes integers in Intel byte order to a byte array, starting at a
+     * given offset.
+     */
+    private static void writeLong(long l, byte[] b, int off) {
+        writeInt((int)l, b, off);
+        writeInt((int)(l >>> 32), b, off + 4);
+    }
+
+    private static void writeInt(int i, byte[] b, int off) {
+        writeShort(i & 0xffff, b, off);
+        writeShort((i >> 16) & 0xffff, b, off + 2);
+    }
+
+    private static void writeShort(int s, byte[] b, int off) {
+        b[off] = (byte)(s & 0xff);
+        b[off + 1] = (byte)((s >> 8) & 0xff);
+    }
+}
@@ -36,7 +36,10 @@
 
 package java.util.zip;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
 import sun.nio.ch.DirectBuffer;
 
 /**
@@ -121,13 +124,77 @@ class CRC32 implements Checksum {
         } else if (buffer.hasArray()) {
             crc = updateBytes(crc, buffer.array(), pos + buffer.arrayOffset(), rem);
         } else {
-            byte[] b = new byte[rem];
-            buffer.get(b);
-            crc = updateBytes(crc, b, 0, b.length);
+            // Copy through a bounded array, not one as large as the buffer
+            byte[] b = new byte[Math.min(rem, 8192)];
+            while (rem > 0) {
+                int n = Math.min(rem, b.length);
+                buffer.get(b, 0, n);
+                crc = updateBytes(crc, b, 0, n);
+                rem -= n;
+            }
         }
         buffer.position(limit);
     }
 
+    /**
+     * Updates the CRC-32 checksum with {@code count} bytes of the given file,
+     * starting at the given position, or with the bytes up to the end of
+     * the file if fewer remain.  The bytes are read by mapping the file in
+     * chunks, which are checksummed in parallel in the
+     * {@linkplain ForkJoinPool#commonPool() common pool}.  The position of
+     * the channel is not changed.
+     *
+     * @param channel the channel to read, which must be open for reading
+     * @param position the position in the file of the first byte
+     * @param count the maximum number of bytes to read
+     * @return the number of bytes read, possibly zero
+     * @throws IllegalArgumentException if {@code position} or {@code count}
+     *         is negative
+     * @throws java.nio.channels.NonReadableChannelException if the channel
+     *         was not opened for reading
+     * @throws IOException if an I/O error occurs
+     * @since 1.8
+     */
+    public long update(FileChannel channel, long position, long count)
+        throws IOException
+    {
+        return update(channel, position, count, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Updates the CRC-32 checksum with {@code count} bytes of the given file,
+     * starting at the given position, or with the bytes up to the end of
+     * the file if fewer remain.  The bytes are read by mapping the file in
+     * chunks, which are checksummed in parallel in the given pool.  The
+     * position of the channel is not changed.
+     *
+     * @param channel the channel to read, which must be open for reading
+     * @param position the position in the file of the first byte
+     * @param count the maximum number of bytes to read
+     * @param pool the pool in which to checksum the chunks
+     * @return the number of bytes read, possibly zero
+     * @throws IllegalArgumentException if {@code position} or {@code count}
+     *         is negative
+     * @throws java.nio.channels.NonReadableChannelException if the channel
+     *         was not opened for reading
+     * @throws IOException if an I/O error occurs
+     * @since 1.8
+     */
+    public long update(FileChannel channel, long position, long count,
+                       ForkJoinPool pool)
+        throws IOException
+    {
+        if (pool == null) {
+            throw new NullPointerException();
+        }
+        long n = ChannelChecksumTask.remaining(channel, position, count);
+        if (n > 0) {
+            long value = new ChannelTask(channel, position, n).invoke(pool);
+            crc = (int)combine(getValue(), value, n);
+        }
+        return n;
+    }
+
     /**
      * Resets CRC-32 to initial value.
      */
@@ -142,9 +209,94 @@ class CRC32 implements Checksum {
         return (long)crc & 0xffffffffL;
     }
 
+    /**
+     * Returns the CRC-32 of two consecutive sequences of bytes, given the
+     * CRC-32 of each sequence and the length of the second one.  This lets
+     * the checksums of the parts of some data be computed independently,
+     * for instance in parallel, and then combined.
+     *
+     * @param crc1 the CRC-32 of the first sequence
+     * @param crc2 the CRC-32 of the second sequence
+     * @param len2 the length of the second sequence
+     * @return the CRC-32 of the first sequence followed by the second
+     * @throws IllegalArgumentException if {@code len2} is negative
+     * @since 1.8
+     */
+    public static long combine(long crc1, long crc2, long len2) {
+        if (len2 < 0) {
+            throw new IllegalArgumentException("Negative length");
+        }
+        // Multiply crc1 by x^(8 * len2) modulo the CRC polynomial, which
+        // appends len2 zero bytes to the first sequence, then add crc2
+        int p = 1 << 31;                        // x^0
+        for (int k = 3; len2 != 0; len2 >>>= 1, k++) {
+            if ((len2 & 1) != 0) {
+                p = multModP(X2N_TABLE[k & 31], p);
+            }
+        }
+        return (multModP(p, (int)crc1) ^ (int)crc2) & 0xffffffffL;
+    }
+
+    // The reflected CRC-32 polynomial
+    private static final int POLY = 0xedb88320;
+
+    // X2N_TABLE[n] is x^(2^n) modulo the CRC polynomial
+    private static final int[] X2N_TABLE = new int[32];
+    static {
+        int p = 1 << 30;                        // x^1
+        X2N_TABLE[0] = p;
+        for (int n = 1; n < 32; n++) {
+            X2N_TABLE[n] = p = multModP(p, p);
+        }
+    }
+
+    /*
+     * Returns a * b modulo the CRC polynomial, in the reflected bit order.
+     */
+    private static int multModP(int a, int b) {
+        int m = 1 << 31;
+        int p = 0;
+        for (;;) {
+            if ((a & m) != 0) {
+                p ^= b;
+                if ((a & (m - 1)) == 0) {
+                    break;
+                }
+            }
+            m >>>= 1;
+            b = (b & 1) != 0 ? (b >>> 1) ^ POLY : b >>> 1;
+        }
+        return p;
+    }
+
     private native static int update(int crc, int b);
     private native static int updateBytes(int crc, byte[] b, int off, int len);
 
     private native static int updateByteBuffer(int adler, long addr,
                                                int off, int len);
+
+    /**
+     * Computes the CRC-32 checksum of a region of a file.
+     */
+    private static final class ChannelTask extends ChannelChecksumTask {
+        private static final long serialVersionUID = -4302453406470318461L;
+
+        ChannelTask(FileChannel channel, long position, long count) {
+            super(channel, position, count);
+        }
+
+        long checksum(ByteBuffer buffer) {
+            return updateByteBuffer(0, ((DirectBuffer)buffer).address(),
+                                    buffer.position(), buffer.remaining())
+                & 0xffffffffL;
+        }
+
+        long combine(long crc1, long crc2, long len2) {
+            return CRC32.combine(crc1, crc2, len2);
+        }
+
+        ChannelChecksumTask subtask(long position, long count) {
+            return new ChannelTask(channel, position, count);
+        }
+    }
 }
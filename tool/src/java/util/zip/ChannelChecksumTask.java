@@ -0,0 +1,124 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package java.util.zip;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * A task computing the checksum of a region of a file on a ForkJoinPool.
+ * The region is split into chunks that are mapped and checksummed
+ * separately, and the checksums of the chunks are combined.
+ */
+abstract class ChannelChecksumTask extends RecursiveTask<Long> {
+
+    private static final long serialVersionUID = 5381206573469520871L;
+
+    // Size of the mapped chunks, each checksummed by one task
+    static final long CHUNK_SIZE = 8L << 20;
+
+    final FileChannel channel;
+    final long position;
+    final long count;
+
+    ChannelChecksumTask(FileChannel channel, long position, long count) {
+        this.channel = channel;
+        this.position = position;
+        this.count = count;
+    }
+
+    /**
+     * Returns the checksum of the remaining bytes of the given direct
+     * buffer, starting from the initial value of the checksum.
+     */
+    abstract long checksum(ByteBuffer buffer);
+
+    /**
+     * Returns the checksum of two consecutive sequences of bytes, given
+     * their checksums and the length of the second sequence.
+     */
+    abstract long combine(long checksum1, long checksum2, long len2);
+
+    /**
+     * Returns a task of the same kind for the given region.
+     */
+    abstract ChannelChecksumTask subtask(long position, long count);
+
+    protected Long compute() {
+        if (count <= CHUNK_SIZE) {
+            return checksumChunk();
+        }
+        // Split on a chunk boundary, so that all chunks but the last are full
+        long half = ((count >>> 1) + CHUNK_SIZE - 1) / CHUNK_SIZE * CHUNK_SIZE;
+        ChannelChecksumTask left = subtask(position, half);
+        ChannelChecksumTask right = subtask(position + half, count - half);
+        right.fork();
+        long checksum1 = left.compute();
+        long checksum2 = right.join();
+        return combine(checksum1, checksum2, count - half);
+    }
+
+    private long checksumChunk() {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            return checksum(buffer);
+        } finally {
+            // Unmap now rather than leaving the mappings to the GC
+            sun.misc.Cleaner cl = ((DirectBuffer)buffer).cleaner();
+            if (cl != null)
+                cl.clean();
+        }
+    }
+
+    /**
+     * Computes the checksum of {@code count} bytes of the channel starting
+     * at {@code position}, in the calling thread if they fit in one chunk,
+     * or else on the given pool.
+     */
+    final long invoke(ForkJoinPool pool) throws IOException {
+        try {
+            return count <= CHUNK_SIZE ? compute() : pool.invoke(this);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the number of bytes of the channel to checksum, starting at
+     * the given position: at most {@code count}, and no more than remain
+     * before the end of the channel.
+     */
+    static long remaining(FileChannel channel, long position, long count)
+        throws IOException
+    {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (count < 0)
+            throw new IllegalArgumentException("Negative count");
+        long size = channel.size();
+        if (position >= size)
+            return 0;
+        return Math.min(count, size - position);
+    }
+}
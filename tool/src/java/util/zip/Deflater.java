@@ -179,7 +179,7 @@ class Deflater {
     public Deflater(int level, boolean nowrap) {
         this.level = level;
         this.strategy = DEFAULT_STRATEGY;
-        this.zsRef = new ZStreamRef(init(level, DEFAULT_STRATEGY, nowrap));
+        this.zsRef = new DeflaterZStreamRef(this, init(level, DEFAULT_STRATEGY, nowrap));
     }
 
     /**
@@ -542,28 +542,19 @@ class Deflater {
     /**
      * Closes the compressor and discards any unprocessed input.
      * This method should be called when the compressor is no longer
-     * being used, but will also be called automatically by the
-     * finalize() method. Once this method is called, the behavior
-     * of the Deflater object is undefined.
+     * being used, but will also be done automatically once the
+     * Deflater is no longer reachable. Once this method is called, the
+     * behavior of the Deflater object is undefined.
      */
     public void end() {
         synchronized (zsRef) {
-            long addr = zsRef.address();
-            zsRef.clear();
-            if (addr != 0) {
-                end(addr);
+            if (zsRef.address() != 0) {
+                zsRef.clean();
                 buf = null;
             }
         }
     }
 
-    /**
-     * Closes the compressor when garbage is collected.
-     */
-    protected void finalize() {
-        end();
-    }
-
     private void ensureOpen() {
         assert Thread.holdsLock(zsRef);
         if (zsRef.address() == 0)
@@ -578,4 +569,18 @@ class Deflater {
     private native static int getAdler(long addr);
     private native static void reset(long addr);
     private native static void end(long addr);
+
+    /**
+     * The native stream of a Deflater, ended by the cleaner once the
+     * Deflater is no longer reachable.  It must not refer to the Deflater.
+     */
+    private static final class DeflaterZStreamRef extends ZStreamRef {
+        DeflaterZStreamRef(Deflater owner, long address) {
+            super(owner, address);
+        }
+
+        void end(long addr) {
+            Deflater.end(addr);
+        }
+    }
 }
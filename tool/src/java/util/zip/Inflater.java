@@ -111,7 +111,7 @@ class Inflater {
      * @param nowrap if true then support GZIP compatible compression
      */
     public Inflater(boolean nowrap) {
-        zsRef = new ZStreamRef(init(nowrap));
+        zsRef = new InflaterZStreamRef(this, init(nowrap));
     }
 
     /**
@@ -372,28 +372,19 @@ class Inflater {
     /**
      * Closes the decompressor and discards any unprocessed input.
      * This method should be called when the decompressor is no longer
-     * being used, but will also be called automatically by the finalize()
-     * method. Once this method is called, the behavior of the Inflater
-     * object is undefined.
+     * being used, but will also be done automatically once the Inflater
+     * is no longer reachable. Once this method is called, the behavior of
+     * the Inflater object is undefined.
      */
     public void end() {
         synchronized (zsRef) {
-            long addr = zsRef.address();
-            zsRef.clear();
-            if (addr != 0) {
-                end(addr);
+            if (zsRef.address() != 0) {
+                zsRef.clean();
                 buf = null;
             }
         }
     }
 
-    /**
-     * Closes the decompressor when garbage is collected.
-     */
-    protected void finalize() {
-        end();
-    }
-
     private void ensureOpen () {
         assert Thread.holdsLock(zsRef);
         if (zsRef.address() == 0)
@@ -415,4 +406,18 @@ class Inflater {
     private native static int getAdler(long addr);
     private native static void reset(long addr);
     private native static void end(long addr);
+
+    /**
+     * The native stream of an Inflater, ended by the cleaner once the
+     * Inflater is no longer reachable.  It must not refer to the Inflater.
+     */
+    private static final class InflaterZStreamRef extends ZStreamRef {
+        InflaterZStreamRef(Inflater owner, long address) {
+            super(owner, address);
+        }
+
+        void end(long addr) {
+            Inflater.end(addr);
+        }
+    }
 }
@@ -36,22 +36,57 @@
 
 package java.util.zip;
 
+import java.lang.ref.Cleaner;
+
 /**
  * A reference to the native zlib's z_stream structure.
+ *
+ * The stream is ended by {@link #clean}, or by the cleaner once the
+ * owning Inflater or Deflater is no longer reachable.
  */
 
-class ZStreamRef {
+abstract class ZStreamRef implements Runnable {
+
+    /**
+     * The cleaner shared by the zip classes, releasing the native resources
+     * of the streams and files that were not closed.
+     */
+    static final Cleaner CLEANER = Cleaner.create();
 
     private volatile long address;
-    ZStreamRef (long address) {
+    private final Cleaner.Cleanable cleanable;
+
+    ZStreamRef (Object owner, long address) {
         this.address = address;
+        this.cleanable = CLEANER.register(owner, this);
     }
 
     long address() {
         return address;
     }
 
-    void clear() {
-        address = 0;
+    /**
+     * Ends the native stream, if it has not been ended before.
+     */
+    void clean() {
+        cleanable.clean();
     }
+
+    /**
+     * Ends the native stream; called at most once, by clean() or the cleaner.
+     */
+    public void run() {
+        synchronized (this) {
+            long addr = address;
+            address = 0;
+            if (addr != 0) {
+                end(addr);
+            }
+        }
+    }
+
+    /**
+     * Ends the native stream at the given address.
+     */
+    abstract void end(long addr);
 }
@@ -41,6 +41,7 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.EOFException;
 import java.io.File;
+import java.lang.ref.Cleaner;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
@@ -80,6 +81,11 @@ class ZipFile implements ZipConstants, Closeable {
     private final boolean locsig;  // if zip file starts with LOCSIG (usually true)
     private volatile boolean closeRequested = false;
 
+    // the native resources, released by close() or by the cleaner
+    // once this zip file is no longer reachable
+    private final CleanableResource res = new CleanableResource();
+    private final Cleaner.Cleanable cleanable;
+
     private static final int STORED = ZipEntry.STORED;
     private static final int DEFLATED = ZipEntry.DEFLATED;
 
@@ -240,6 +246,8 @@ class ZipFile implements ZipConstants, Closeable {
         this.zc = ZipCoder.get(charset);
         long t0 = System.nanoTime();
         jzfile = open(name, mode, file.lastModified(), usemmap);
+        res.jzfile = jzfile;
+        cleanable = ZStreamRef.CLEANER.register(this, res);
         sun.misc.PerfCounter.getZipFileOpenTime().addElapsedTimeFrom(t0);
         sun.misc.PerfCounter.getZipFileCount().increment();
         this.name = name;
@@ -453,11 +461,14 @@ class ZipFile implements ZipConstants, Closeable {
         private volatile boolean closeRequested = false;
         private boolean eof = false;
         private final ZipFileInputStream zfin;
+        private final Cleaner.Cleanable cleanable;
 
         ZipFileInflaterInputStream(ZipFileInputStream zfin, Inflater inf,
                 int size) {
             super(zfin, inf, size);
             this.zfin = zfin;
+            this.cleanable = ZStreamRef.CLEANER.register(this,
+                    new InflaterCleanup(res, inf));
         }
 
         public void close() throws IOException {
@@ -466,13 +477,12 @@ class ZipFile implements ZipConstants, Closeable {
             closeRequested = true;
 
             super.close();
-            Inflater inf;
             synchronized (streams) {
-                inf = streams.remove(this);
-            }
-            if (inf != null) {
-                releaseInflater(inf);
+                streams.remove(this);
             }
+            // returns the inflater to the cache, unless it has been
+            // ended by ZipFile.close()
+            cleanable.clean();
         }
 
         // Override fill() method to provide an extra "dummy" byte
@@ -498,10 +508,6 @@ class ZipFile implements ZipConstants, Closeable {
             return (avail > (long) Integer.MAX_VALUE ?
                     Integer.MAX_VALUE : (int) avail);
         }
-
-        protected void finalize() throws Throwable {
-            close();
-        }
     }
 
     /*
@@ -520,24 +526,123 @@ class ZipFile implements ZipConstants, Closeable {
         return new Inflater(true);
     }
 
+    // List of available Inflater objects for decompression
+    private final Deque<Inflater> inflaterCache = res.inflaterCache;
+
     /*
-     * Releases the specified inflater to the list of available inflaters.
+     * The native zip file and the inflaters cached for it, released by
+     * close() or by the cleaner once the ZipFile is no longer reachable.
+     * It must not refer to the ZipFile.
      */
-    private void releaseInflater(Inflater inf) {
+    private static final class CleanableResource implements Runnable {
+        long jzfile;               // guarded by this
+        private int entries;       // entries of open streams, guarded by this
+        private boolean released;  // guarded by this
+        final Deque<Inflater> inflaterCache = new ArrayDeque<>();
+
+        synchronized void entryOpened() {
+            entries++;
+        }
+
+        /*
+         * Frees an entry of a stream. If the zip file is waiting to be
+         * released, it is closed with its last entry.
+         */
+        synchronized void freeEntry(long jzentry) {
+            entries--;
+            if (jzfile != 0) {
+                ZipFile.freeEntry(jzfile, jzentry);
+                if (released && entries == 0) {
+                    closeFile();
+                }
+            }
+        }
+
+        /*
+         * Releases the specified inflater to the list of available inflaters.
+         */
+        void releaseInflater(Inflater inf) {
 		if (MemorySafetyService.isSafeMode()) {                         //IBM-T6_wrt_bringup
            inf.end();                                                           //IBM-T6_wrt_bringup
            return;                                                              //IBM-T6_wrt_bringup
 		}                                                               //IBM-T6_wrt_bringup
-        if (false == inf.ended()) {
-            inf.reset();
+            if (false == inf.ended()) {
+                synchronized (this) {
+                    if (released) {
+                        inf.end();
+                        return;
+                    }
+                }
+                inf.reset();
+                synchronized (inflaterCache) {
+                    inflaterCache.add(inf);
+                }
+            }
+        }
+
+        synchronized void closeFile() {
+            if (jzfile != 0) {
+                long zf = jzfile;
+                jzfile = 0;
+                close(zf);
+            }
+        }
+
+        /*
+         * Ends the cached inflaters, and closes the zip file once the
+         * streams that are being cleaned have freed their entries.
+         */
+        public void run() {
+            Inflater inf;
             synchronized (inflaterCache) {
-                inflaterCache.add(inf);
+                while (null != (inf = inflaterCache.poll())) {
+                    inf.end();
+                }
+            }
+            synchronized (this) {
+                released = true;
+                if (entries == 0) {
+                    closeFile();
+                }
             }
         }
     }
 
-    // List of available Inflater objects for decompression
-    private Deque<Inflater> inflaterCache = new ArrayDeque<>();
+    /*
+     * Returns the inflater of a ZipFileInflaterInputStream to the cache.
+     * It must not refer to the stream or the ZipFile.
+     */
+    private static final class InflaterCleanup implements Runnable {
+        private final CleanableResource res;
+        private final Inflater inf;
+
+        InflaterCleanup(CleanableResource res, Inflater inf) {
+            this.res = res;
+            this.inf = inf;
+        }
+
+        public void run() {
+            res.releaseInflater(inf);
+        }
+    }
+
+    /*
+     * Frees the entry of a ZipFileInputStream.
+     * It must not refer to the stream or the ZipFile.
+     */
+    private static final class EntryCleanup implements Runnable {
+        private final CleanableResource res;
+        private final long jzentry;
+
+        EntryCleanup(CleanableResource res, long jzentry) {
+            this.res = res;
+            this.jzentry = jzentry;
+        }
+
+        public void run() {
+            res.freeEntry(jzentry);
+        }
+    }
 
     /**
      * Returns the path name of the ZIP file.
@@ -683,6 +788,10 @@ class ZipFile implements ZipConstants, Closeable {
         closeRequested = true;
 
         synchronized (this) {
+            // Release cached inflaters, and end those of the streams
+            // from now on instead of caching them
+            cleanable.clean();
+
             // Close streams, release their inflaters
             synchronized (streams) {
                 if (false == streams.isEmpty()) {
@@ -698,42 +807,13 @@ class ZipFile implements ZipConstants, Closeable {
                 }
             }
 
-            // Release cached inflaters
-            Inflater inf;
-            synchronized (inflaterCache) {
-                while (null != (inf = inflaterCache.poll())) {
-                    inf.end();
-                }
-            }
-
-            if (jzfile != 0) {
-                // Close the zip file
-                long zf = this.jzfile;
-                jzfile = 0;
-
-                close(zf);
-            }
+            // Close the zip file, without waiting for the streams that
+            // are no longer reachable but have not been cleaned yet
+            res.closeFile();
+            jzfile = 0;
         }
     }
 
-    /**
-     * Ensures that the system resources held by this ZipFile object are
-     * released when there are no more references to it.
-     *
-     * <p>
-     * Since the time when GC would invoke this method is undetermined,
-     * it is strongly recommended that applications invoke the <code>close</code>
-     * method as soon they have finished accessing this <code>ZipFile</code>.
-     * This will prevent holding up system resources for an undetermined
-     * length of time.
-     *
-     * @throws IOException if an I/O error has occurred
-     * @see    java.util.zip.ZipFile#close()
-     */
-    protected void finalize() throws IOException {
-        close();
-    }
-
     private static native void close(long jzfile);
 
     private void ensureOpen() {
@@ -763,11 +843,16 @@ class ZipFile implements ZipConstants, Closeable {
         protected long rem;     // number of remaining bytes within entry
         protected long size;    // uncompressed size of this entry
 
+        private final Cleaner.Cleanable cleanable;
+
         ZipFileInputStream(long jzentry) {
             pos = 0;
             rem = getEntryCSize(jzentry);
             size = getEntrySize(jzentry);
             this.jzentry = jzentry;
+            res.entryOpened();
+            this.cleanable = ZStreamRef.CLEANER.register(this,
+                    new EntryCleanup(res, jzentry));
         }
 
         public int read(byte b[], int off, int len) throws IOException {
@@ -834,8 +919,8 @@ class ZipFile implements ZipConstants, Closeable {
 
             rem = 0;
             synchronized (ZipFile.this) {
-                if (jzentry != 0 && ZipFile.this.jzfile != 0) {
-                    freeEntry(ZipFile.this.jzfile, jzentry);
+                if (jzentry != 0) {
+                    cleanable.clean();
                     jzentry = 0;
                 }
             }
@@ -843,10 +928,6 @@ class ZipFile implements ZipConstants, Closeable {
                 streams.remove(this);
             }
         }
-
-        protected void finalize() {
-            close();
-        }
     }
 
     static {
@@ -0,0 +1,336 @@
+/*===========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ *
+ * IBM SDK, Java(tm) Technology Edition, v8
+ * (C) Copyright IBM Corp. 2021, 2021. All Rights Reserved
+ *
+ * US Government Users Restricted Rights - Use, duplication or disclosure
+ * restricted by GSA ADP Schedule Contract with IBM Corp.
+ *===========================================================================
+ */
+
+package jdk.internal.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * Decoding and encoding loops for common charsets, shared by
+ * {@code java.lang.StringCoding} and {@code java.io.InputStreamReader}.
+ *
+ * <p>The loops only handle well-formed input that every decoder of the
+ * charset decodes the same way, and stop at the first byte or char they do
+ * not handle: malformed or unmappable input, or a sequence that is cut off
+ * by the end of the input. They always stop at a character boundary, so
+ * the caller can hand the rest of the input to a {@code CharsetDecoder} or
+ * {@code CharsetEncoder} of the charset and obtain the same result as if
+ * it had coded the whole input with it. This relies on the charsets being
+ * stateless, which all supported charsets are.
+ *
+ * <p>The loops over ASCII bytes are simple counted loops that the JIT
+ * compiler can unroll and vectorize.
+ */
+public final class CharCoding {
+
+    private CharCoding() { }
+
+    /** Charset without a fast path. */
+    public static final int NONE = 0;
+    /** Charset that maps the bytes 0 to 127 to the same chars, and back. */
+    public static final int ASCII = 1;
+    /** ISO-8859-1, which maps every byte to the same char. */
+    public static final int LATIN1 = 2;
+    /** UTF-8. */
+    public static final int UTF_8 = 3;
+    /** GBK. */
+    public static final int GBK = 4;
+
+    /**
+     * Returns the kind of fast path of the given charset.
+     *
+     * @param cs the charset
+     * @return one of {@link #NONE}, {@link #ASCII}, {@link #LATIN1},
+     *         {@link #UTF_8} and {@link #GBK}
+     */
+    public static int kindOf(Charset cs) {
+        if (cs.getClass().getClassLoader() != null) {
+            // Only trust the charsets of the platform
+            return NONE;
+        }
+        switch (cs.name()) {
+        case "UTF-8":
+            return UTF_8;
+        case "GBK":
+            return GBK;
+        case "ISO-8859-1":
+            return LATIN1;
+        case "US-ASCII":
+        case "GB2312":
+        case "GB18030":
+        case "Big5":
+        case "EUC-KR":
+        case "EUC-JP":
+        case "windows-1252":
+            return ASCII;
+        default:
+            return NONE;
+        }
+    }
+
+    /**
+     * Returns the position in the source array from a result of
+     * {@link #decode}.
+     *
+     * @param r the result of {@code decode}
+     * @return the position of the first byte not decoded
+     */
+    public static int srcPos(long r) {
+        return (int) (r >>> 32);
+    }
+
+    /**
+     * Returns the position in the destination array from a result of
+     * {@link #decode}.
+     *
+     * @param r the result of {@code decode}
+     * @return the position following the last char decoded
+     */
+    public static int dstPos(long r) {
+        return (int) r;
+    }
+
+    private static long result(int sp, int dp) {
+        return ((long) sp << 32) | (dp & 0xffffffffL);
+    }
+
+    /**
+     * Decodes the bytes of {@code src} from {@code sp} to {@code sl} into
+     * {@code dst} from {@code dp} to {@code dl}, as long as they are
+     * well-formed and decoded by the fast path of the given kind.
+     *
+     * @param kind the kind of fast path, as returned by {@link #kindOf}
+     * @param src the bytes to decode
+     * @param sp the position of the first byte to decode
+     * @param sl the position following the last byte to decode
+     * @param dst the destination
+     * @param dp the position of the first char to write
+     * @param dl the position following the last char to write
+     * @return the positions in the source and the destination where
+     *         decoding stopped, see {@link #srcPos} and {@link #dstPos}
+     */
+    public static long decode(int kind, byte[] src, int sp, int sl,
+                              char[] dst, int dp, int dl) {
+        int n = decodeASCII(src, sp, dst, dp, Math.min(sl - sp, dl - dp));
+        sp += n;
+        dp += n;
+        if (sp == sl || dp == dl) {
+            return result(sp, dp);
+        }
+        switch (kind) {
+        case LATIN1:
+            return decodeLatin1(src, sp, sl, dst, dp, dl);
+        case UTF_8:
+            return decodeUTF8(src, sp, sl, dst, dp, dl);
+        case GBK:
+            return decodeGBK(src, sp, sl, dst, dp, dl);
+        default:
+            return result(sp, dp);
+        }
+    }
+
+    /**
+     * Copies the leading bytes of {@code src} that are ASCII to
+     * {@code dst}.
+     *
+     * @return the number of bytes copied, at most {@code len}
+     */
+    public static int decodeASCII(byte[] src, int sp, char[] dst, int dp,
+                                  int len) {
+        int i = 0;
+        for (; i < len; i++) {
+            byte b = src[sp + i];
+            if (b < 0) {
+                break;
+            }
+            dst[dp + i] = (char) b;
+        }
+        return i;
+    }
+
+    private static long decodeLatin1(byte[] src, int sp, int sl,
+                                     char[] dst, int dp, int dl) {
+        int n = Math.min(sl - sp, dl - dp);
+        for (int i = 0; i < n; i++) {
+            dst[dp + i] = (char) (src[sp + i] & 0xff);
+        }
+        return result(sp + n, dp + n);
+    }
+
+    private static boolean isNotContinuation(int b) {
+        return (b & 0xc0) != 0x80;
+    }
+
+    private static long decodeUTF8(byte[] src, int sp, int sl,
+                                   char[] dst, int dp, int dl) {
+        while (sp < sl && dp < dl) {
+            int b1 = src[sp];
+            if (b1 >= 0) {
+                // 1 byte, 7 bits: 0xxxxxxx
+                int n = decodeASCII(src, sp, dst, dp,
+                                    Math.min(sl - sp, dl - dp));
+                sp += n;
+                dp += n;
+            } else if ((b1 >> 5) == -2 && (b1 & 0x1e) != 0) {
+                // 2 bytes, 11 bits: 110xxxxx 10xxxxxx, not overlong
+                if (sl - sp < 2) {
+                    break;
+                }
+                int b2 = src[sp + 1];
+                if (isNotContinuation(b2)) {
+                    break;
+                }
+                dst[dp++] = (char) (((b1 & 0x1f) << 6) | (b2 & 0x3f));
+                sp += 2;
+            } else if ((b1 >> 4) == -2) {
+                // 3 bytes, 16 bits: 1110xxxx 10xxxxxx 10xxxxxx
+                if (sl - sp < 3) {
+                    break;
+                }
+                int b2 = src[sp + 1];
+                int b3 = src[sp + 2];
+                if (isNotContinuation(b2) || isNotContinuation(b3)) {
+                    break;
+                }
+                char c = (char) (((b1 & 0x0f) << 12) | ((b2 & 0x3f) << 6)
+                                 | (b3 & 0x3f));
+                if (c < 0x800 || Character.isSurrogate(c)) {
+                    // overlong or surrogate
+                    break;
+                }
+                dst[dp++] = c;
+                sp += 3;
+            } else if ((b1 >> 3) == -2) {
+                // 4 bytes, 21 bits: 11110xxx 10xxxxxx 10xxxxxx 10xxxxxx
+                if (sl - sp < 4 || dl - dp < 2) {
+                    break;
+                }
+                int b2 = src[sp + 1];
+                int b3 = src[sp + 2];
+                int b4 = src[sp + 3];
+                if (isNotContinuation(b2) || isNotContinuation(b3)
+                        || isNotContinuation(b4)) {
+                    break;
+                }
+                int cp = ((b1 & 0x07) << 18) | ((b2 & 0x3f) << 12)
+                         | ((b3 & 0x3f) << 6) | (b4 & 0x3f);
+                if (cp < Character.MIN_SUPPLEMENTARY_CODE_POINT
+                        || cp > Character.MAX_CODE_POINT) {
+                    // overlong or out of range
+                    break;
+                }
+                dst[dp++] = Character.highSurrogate(cp);
+                dst[dp++] = Character.lowSurrogate(cp);
+                sp += 4;
+            } else {
+                break;
+            }
+        }
+        return result(sp, dp);
+    }
+
+    /**
+     * The GBK double-byte table, built on first use from the decoder of
+     * the platform.
+     */
+    private static final class GBKTable {
+        static final int LEAD_MIN = 0x81;
+        static final int LEAD_MAX = 0xfe;
+        static final int TRAIL_MIN = 0x40;
+        static final int TRAIL_MAX = 0xfe;
+        static final int TRAIL_COUNT = TRAIL_MAX - TRAIL_MIN + 1;
+
+        /** Marks a pair the fast path does not decode. */
+        static final char UNMAPPED = '\uFFFD';
+
+        static final char[] B2C = build();
+
+        private static char[] build() {
+            char[] b2c = new char[(LEAD_MAX - LEAD_MIN + 1) * TRAIL_COUNT];
+            CharsetDecoder dec = Charset.forName("GBK").newDecoder();
+            byte[] pair = new byte[2];
+            char[] out = new char[2];
+            for (int b1 = LEAD_MIN; b1 <= LEAD_MAX; b1++) {
+                for (int b2 = TRAIL_MIN; b2 <= TRAIL_MAX; b2++) {
+                    pair[0] = (byte) b1;
+                    pair[1] = (byte) b2;
+                    ByteBuffer bb = ByteBuffer.wrap(pair);
+                    CharBuffer cb = CharBuffer.wrap(out);
+                    dec.reset();
+                    CoderResult cr = dec.decode(bb, cb, true);
+                    char c = UNMAPPED;
+                    // Only pairs that decode to a single char on their own
+                    if (cr.isUnderflow() && dec.flush(cb).isUnderflow()
+                            && !bb.hasRemaining() && cb.position() == 1) {
+                        c = out[0];
+                    }
+                    b2c[(b1 - LEAD_MIN) * TRAIL_COUNT + b2 - TRAIL_MIN] = c;
+                }
+            }
+            return b2c;
+        }
+    }
+
+    private static long decodeGBK(byte[] src, int sp, int sl,
+                                  char[] dst, int dp, int dl) {
+        char[] b2c = GBKTable.B2C;
+        while (sp < sl && dp < dl) {
+            int b1 = src[sp];
+            if (b1 >= 0) {
+                dst[dp++] = (char) b1;
+                sp++;
+                continue;
+            }
+            b1 &= 0xff;
+            if (b1 < GBKTable.LEAD_MIN || b1 > GBKTable.LEAD_MAX
+                    || sl - sp < 2) {
+                break;
+            }
+            int b2 = src[sp + 1] & 0xff;
+            if (b2 < GBKTable.TRAIL_MIN || b2 > GBKTable.TRAIL_MAX) {
+                break;
+            }
+            char c = b2c[(b1 - GBKTable.LEAD_MIN) * GBKTable.TRAIL_COUNT
+                         + b2 - GBKTable.TRAIL_MIN];
+            if (c == GBKTable.UNMAPPED) {
+                break;
+            }
+            dst[dp++] = c;
+            sp += 2;
+        }
+        return result(sp, dp);
+    }
+
+    /**
+     * Copies the leading chars of {@code src} that are ASCII to
+     * {@code dst}, which encodes them with any charset of a kind other
+     * than {@link #NONE}.
+     *
+     * @return the number of chars copied, at most {@code len}
+     */
+    public static int encodeASCII(char[] src, int sp, byte[] dst, int dp,
+                                  int len) {
+        int i = 0;
+        for (; i < len; i++) {
+            char c = src[sp + i];
+            if (c >= 0x80) {
+                break;
+            }
+            dst[dp + i] = (byte) c;
+        }
+        return i;
+    }
+}